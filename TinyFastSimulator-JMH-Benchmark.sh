@@ -0,0 +1,29 @@
+#!/bin/bash
+
+if [ ! -f "./benchmarks/target/benchmarks.jar" ]
+then
+	echo "Benchmark program file (benchmarks/target/benchmarks.jar) not found"
+	echo "Build it via: mvn package"
+	exit 1
+fi
+
+if [ "$1" == "" ]
+then
+	echo "The script has to be called with at least one parameter:"
+	echo "1. Output file for the results (JSON)"
+	echo "2. (optional) Regular expression selecting the benchmarks to be run"
+	echo "Further parameters are passed to JMH (e.g. -p threads=1,2,4,8,16,32,64)"
+	echo "Example: ./TinyFastSimulator-JMH-Benchmark.sh results.json QueueModelBenchmark -p c=1"
+	echo ""
+	echo "The results of two builds can be compared via"
+	echo "jq -r '.[] | [.benchmark, (.params|tostring), .primaryMetric.score, .primaryMetric.scoreUnit] | @tsv' results.json"
+	exit 1
+fi
+
+output=$1
+shift
+
+echo "Running JMH benchmarks"
+echo "Output will be written to $output"
+
+java -jar benchmarks/target/benchmarks.jar -rf json -rff "$output" "$@"
@@ -0,0 +1,32 @@
+#!/bin/bash
+
+if [ ! -f "./TinyFastSimulator-Java.jar" ]
+then
+	echo "Simulator program file (TinyFastSimulator-Java.jar) not found"
+	exit 1
+fi
+
+if [ "$1" == ""  -o "$2" == "" ]
+then
+	echo "The script has to be called with two parameters:"
+	echo "1. Number of arrivals to be simulated per work load level"
+	echo "2. Output file for the results"
+	echo "Example: ./TinyFastSimulator-QueueLength-Benchmark.sh 100000000 results.txt"
+	exit 1
+fi
+
+echo "Benchmarking the performance at different average queue lengths (single thread)"
+echo "Output will be written to $2"
+
+echo -e "rho\tE[NQ]\tMax[NQ]\tEvents/second [M]" >> $2
+for es in 50 70 80 90 95 98 99 99.5
+do
+	rho=$(awk "BEGIN {print $es/100}")
+	echo "Running simulation with rho=$rho"
+	java -jar TinyFastSimulator-Java.jar threads=1 arrivals=$1 ei=100 es=$es > bench_tmp.txt
+	enq=$(grep -o "E\[NQ\]=[0-9.e+-]*" bench_tmp.txt | cut -d= -f2)
+	maxnq=$(grep -o "Max\[NQ\]=[0-9]*" bench_tmp.txt | cut -d= -f2)
+	eps=$(grep -o "Events/second: [0-9.e+-]*" bench_tmp.txt | cut -d" " -f2)
+	echo -e "$rho\t$enq\t$maxnq\t$eps" >> $2
+done
+rm -f bench_tmp.txt
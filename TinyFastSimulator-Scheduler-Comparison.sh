@@ -0,0 +1,32 @@
+#!/bin/bash
+
+if [ ! -f "./TinyFastSimulator-Java.jar" ]
+then
+	echo "Simulator program file (TinyFastSimulator-Java.jar) not found"
+	exit 1
+fi
+
+if [ "$1" == ""  -o "$2" == ""  -o "$3" == "" ]
+then
+	echo "The script has to be called with three parameters:"
+	echo "1. Maximum number of threads"
+	echo "2. Number of arrivals (in single thread mode) to be simulated"
+	echo "3. Output file for the results"
+	echo "Example: ./TinyFastSimulator-Scheduler-Comparison.sh 64 100000000 results.txt"
+	exit 1
+fi
+
+echo "Comparing the synchronized and the adaptive load balancer at different numbers of threads"
+echo "Output will be written to $3"
+
+echo -e "Threads\tSynchronized: Runtime [sec.]\tMemory [KB]\tAdaptive: Runtime [sec.]\tMemory [KB]" >> $3
+for ((x=1;x<=$1;x++))
+do
+	echo "Running simulations $x of $1"
+	\time -f "%e\t%M" -o bench_tmp.txt java -jar TinyFastSimulator-Java.jar load_balancer threads=$x arrivals=$2 increase_arrivals > /dev/null
+	synchronized=$(tail -n 1 bench_tmp.txt)
+	\time -f "%e\t%M" -o bench_tmp.txt java -jar TinyFastSimulator-Java.jar adaptive_balancer threads=$x arrivals=$2 increase_arrivals > /dev/null
+	adaptive=$(tail -n 1 bench_tmp.txt)
+	echo -e "$x\t$synchronized\t$adaptive" >> $3
+done
+rm -f bench_tmp.txt
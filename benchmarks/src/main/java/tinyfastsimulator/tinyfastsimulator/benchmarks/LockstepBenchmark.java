@@ -0,0 +1,139 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.LockstepBatch;
+import tinyfastsimulator.tinyfastsimulator.QueueModel;
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+
+/**
+ * Microbenchmark comparing {@link LockstepBatch#LANES} replications simulated one by one
+ * ({@link QueueModel.Engine#LINDLEY}) with a lockstep batch (scalar and Vector API).
+ * The results are given per simulated client.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(value=1,jvmArgsAppend="--add-modules=jdk.incubator.vector")
+public class LockstepBenchmark {
+  /**
+   * Mean inter-arrival time
+   */
+  private static final double EI=100;
+
+  /**
+   * Number of arrivals per replication
+   */
+  private static final int ARRIVALS=100_000;
+
+  /**
+   * Number of operators
+   */
+  @Param({"1","8"})
+  public int c;
+
+  /**
+   * Random number streams
+   */
+  private RandomStreams streams;
+
+  /**
+   * Generator for the inter-arrival times
+   */
+  private BlockGenerator interArrivalTime;
+
+  /**
+   * Generator for the service times
+   */
+  private BlockGenerator serviceTime;
+
+  /**
+   * Creates the generators (work load rho=0.8).
+   */
+  @Setup
+  public void setup() {
+    streams=new RandomStreams(42);
+    interArrivalTime=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.EXP,EI,EI);
+    serviceTime=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.EXP,0.8*c*EI,0.8*c*EI);
+  }
+
+  /**
+   * Returns one random number generator per lane.
+   * @return  Random number generators
+   */
+  private RandomGenerator[] getRandoms() {
+    final RandomGenerator[] randoms=new RandomGenerator[LockstepBatch.LANES];
+    for (int i=0;i<randoms.length;i++) randoms[i]=streams.getStream(i);
+    return randoms;
+  }
+
+  /**
+   * Replications one by one.
+   * @return  Simulated models
+   */
+  @Benchmark
+  @OperationsPerInvocation(ARRIVALS)
+  public QueueModel[] separate() {
+    final RandomGenerator[] randoms=getRandoms();
+    final QueueModel[] models=new QueueModel[randoms.length];
+    for (int i=0;i<randoms.length;i++) {
+      models[i]=new QueueModel(interArrivalTime,serviceTime,c,ARRIVALS/randoms.length,false,null,EventQueue.Type.SORTED,0,tinyfastsimulator.tinyfastsimulator.Warmup.NONE,randoms[i],false,QueueModel.Engine.LINDLEY);
+      models[i].run();
+    }
+    return models;
+  }
+
+  /**
+   * Lockstep batch with scalar loops over the lanes.
+   * @return  Simulated models
+   */
+  @Benchmark
+  @OperationsPerInvocation(ARRIVALS)
+  public QueueModel[] lockstepScalar() {
+    return new LockstepBatch(interArrivalTime,serviceTime,c,ARRIVALS/LockstepBatch.LANES,tinyfastsimulator.tinyfastsimulator.Warmup.NONE,false).run(getRandoms(),null);
+  }
+
+  /**
+   * Lockstep batch using the Vector API (scalar, if the module is not available).
+   * @return  Simulated models
+   */
+  @Benchmark
+  @OperationsPerInvocation(ARRIVALS)
+  public QueueModel[] lockstepVector() {
+    return new LockstepBatch(interArrivalTime,serviceTime,c,ARRIVALS/LockstepBatch.LANES,tinyfastsimulator.tinyfastsimulator.Warmup.NONE,RandomNumbers.VECTOR_API).run(getRandoms(),null);
+  }
+}
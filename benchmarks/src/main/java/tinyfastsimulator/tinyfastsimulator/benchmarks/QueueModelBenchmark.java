@@ -0,0 +1,112 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.ErlangC;
+import tinyfastsimulator.tinyfastsimulator.QueueModel;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+
+/**
+ * Macrobenchmark for complete {@link QueueModel} runs (M/M/c model, one model per thread)
+ */
+@State(Scope.Benchmark)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.MILLISECONDS)
+@Warmup(iterations=2)
+@Measurement(iterations=5)
+@Fork(1)
+public class QueueModelBenchmark {
+  /**
+   * Mean inter-arrival time
+   */
+  private static final double EI=100;
+
+  /**
+   * Number of arrivals to be simulated per thread
+   */
+  private static final long ARRIVALS_PER_THREAD=1_000_000;
+
+  /**
+   * Work load
+   */
+  @Param({"0.5","0.95"})
+  public double rho;
+
+  /**
+   * Number of operators
+   */
+  @Param({"1","16"})
+  public int c;
+
+  /**
+   * Number of parallel simulation threads
+   */
+  @Param({"1","4"})
+  public int threads;
+
+  /**
+   * Type of the event list
+   */
+  @Param({"SORTED","HEAP"})
+  public EventQueue.Type eventListType;
+
+  /**
+   * Simulation engine (the event list type has no effect on {@link QueueModel.Engine#LINDLEY})
+   */
+  @Param({"EVENTS","LINDLEY"})
+  public QueueModel.Engine engine;
+
+  /**
+   * Simulates {@link #ARRIVALS_PER_THREAD} arrivals in each thread.
+   * @return  Joined simulation model
+   * @throws InterruptedException Waiting for the simulation threads was interrupted
+   */
+  @Benchmark
+  public QueueModel run() throws InterruptedException {
+    final double ES=rho*c*EI;
+    final var transformEI=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.EXP,EI,EI);
+    final var transformES=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.EXP,ES,ES);
+    final int queueCapacityHint=ErlangC.getQueueCapacityHint(EI,1,ES,1,c,ARRIVALS_PER_THREAD);
+
+    final QueueModel[] models=new QueueModel[threads];
+    final Thread[] workers=new Thread[threads];
+    for (int i=0;i<threads;i++) {
+      final QueueModel model=new QueueModel(transformEI,transformES,c,ARRIVALS_PER_THREAD,false,null,eventListType,queueCapacityHint,tinyfastsimulator.tinyfastsimulator.Warmup.NONE,null,false,engine);
+      models[i]=model;
+      workers[i]=new Thread(()->model.run());
+      workers[i].start();
+    }
+    for (int i=0;i<threads;i++) workers[i].join();
+
+    QueueModel joinedModel=models[0];
+    for (int i=1;i<models.length;i++) joinedModel=QueueModel.join(joinedModel,models[i]);
+    return joinedModel;
+  }
+}
@@ -0,0 +1,124 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+
+/**
+ * Microbenchmark comparing generating pseudo random numbers one by one (one lambda call per number)
+ * with filling blocks by {@link BlockGenerator#fill(RandomGenerator, double[])} (scalar and Vector API).
+ * The results are given per generated number.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(value=1,jvmArgsAppend="--add-modules=jdk.incubator.vector")
+public class RandomBlockBenchmark {
+  /**
+   * Block size (same as in the queue model)
+   */
+  private static final int BLOCK_SIZE=4096;
+
+  /**
+   * Distribution to be tested
+   */
+  @Param({"EXP","LOG_NORMAL"})
+  public RandomNumbers.RandomDistribution distribution;
+
+  /**
+   * Pseudo random numbers generator
+   */
+  private RandomGenerator random;
+
+  /**
+   * Generator using scalar block transformations
+   */
+  private BlockGenerator scalarGenerator;
+
+  /**
+   * Generator using the Vector API for block transformations (scalar, if the module is not available)
+   */
+  private BlockGenerator vectorGenerator;
+
+  /**
+   * Block to be filled
+   */
+  private double[] block;
+
+  /**
+   * Creates the generators.
+   */
+  @Setup
+  public void setup() {
+    random=new RandomStreams(42).getStream(0);
+    scalarGenerator=RandomNumbers.getRandomNumbersLambda(distribution,100,150,false);
+    vectorGenerator=RandomNumbers.getRandomNumbersLambda(distribution,100,150,RandomNumbers.VECTOR_API);
+    block=new double[BLOCK_SIZE];
+  }
+
+  /**
+   * One lambda call per number (former path in the queue model).
+   * @return  Filled block
+   */
+  @Benchmark
+  @OperationsPerInvocation(BLOCK_SIZE)
+  public double[] perCall() {
+    for (int i=0;i<BLOCK_SIZE;i++) block[i]=scalarGenerator.applyAsDouble(random);
+    return block;
+  }
+
+  /**
+   * Block generation with separate draw and scalar transformation loops.
+   * @return  Filled block
+   */
+  @Benchmark
+  @OperationsPerInvocation(BLOCK_SIZE)
+  public double[] blockScalar() {
+    scalarGenerator.fill(random,block);
+    return block;
+  }
+
+  /**
+   * Block generation with Vector API transformations.
+   * @return  Filled block
+   */
+  @Benchmark
+  @OperationsPerInvocation(BLOCK_SIZE)
+  public double[] blockVector() {
+    vectorGenerator.fill(random,block);
+    return block;
+  }
+}
@@ -0,0 +1,87 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+
+/**
+ * Microbenchmark for the pseudo random number generators in {@link RandomNumbers}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class RandomNumbersBenchmark {
+  /**
+   * Distribution to be used
+   */
+  @Param({"EXP","NORMAL","LOG_NORMAL"})
+  public RandomNumbers.RandomDistribution distribution;
+
+  /**
+   * Source of the uniform pseudo random numbers ("thread_local" or "seeded" for a {@link RandomStreams} stream)
+   */
+  @Param({"thread_local","seeded"})
+  public String source;
+
+  /**
+   * Generator lambda (as used by the models)
+   */
+  private ToDoubleFunction<RandomGenerator> generator;
+
+  /**
+   * Seeded generator (<code>null</code> means: use the thread local generator)
+   */
+  private RandomGenerator random;
+
+  /**
+   * Creates the generator lambda.
+   */
+  @Setup
+  public void setup() {
+    generator=RandomNumbers.getRandomNumbersLambda(distribution,100,150);
+    random=source.equals("seeded")?new RandomStreams(1).getStream(0):null;
+  }
+
+  /**
+   * Draws a single pseudo random number.
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double draw() {
+    return generator.applyAsDouble((random==null)?ThreadLocalRandom.current():random);
+  }
+}
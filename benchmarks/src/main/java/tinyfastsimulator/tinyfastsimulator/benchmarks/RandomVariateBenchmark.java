@@ -0,0 +1,265 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.EmpiricalDistribution;
+import tinyfastsimulator.tinyfastsimulator.simulator.PolarNormal;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+import tinyfastsimulator.tinyfastsimulator.simulator.Ziggurat;
+
+/**
+ * Microbenchmark comparing the per-draw costs of the different methods for
+ * generating exponential, normal, log-normal, gamma, Weibull, hyperexponential and empirical distributed pseudo random numbers
+ * (all using the same seeded uniform generator).
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class RandomVariateBenchmark {
+  /**
+   * Mean of the generated numbers
+   */
+  private static final double MEAN=100;
+
+  /**
+   * Standard deviation of the generated numbers
+   */
+  private static final double SD=150;
+
+  /**
+   * Uniform pseudo random numbers generator
+   */
+  private RandomGenerator random;
+
+  /**
+   * Polar method generator with cached second variate
+   */
+  private PolarNormal polar;
+
+  /**
+   * Precomputed log-normal generator lambda
+   */
+  private ToDoubleFunction<RandomGenerator> logNormalLambda;
+
+  /**
+   * Gamma distribution generator lambda
+   */
+  private ToDoubleFunction<RandomGenerator> gammaLambda;
+
+  /**
+   * Weibull distribution generator lambda
+   */
+  private ToDoubleFunction<RandomGenerator> weibullLambda;
+
+  /**
+   * Hyperexponential distribution generator lambda
+   */
+  private ToDoubleFunction<RandomGenerator> hyperExpLambda;
+
+  /**
+   * Empirical distribution with 100 bins (sampled via alias table)
+   */
+  private EmpiricalDistribution empirical;
+
+  /**
+   * Creates the generators.
+   */
+  @Setup
+  public void setup() {
+    random=new RandomStreams(42).getStream(0);
+    polar=new PolarNormal();
+    logNormalLambda=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.LOG_NORMAL,MEAN,SD);
+    gammaLambda=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.GAMMA,MEAN,SD);
+    weibullLambda=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.WEIBULL,MEAN,SD);
+    hyperExpLambda=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.HYPER_EXP,MEAN,SD);
+    final double[] from=new double[100];
+    final double[] to=new double[100];
+    final double[] weights=new double[100];
+    for (int i=0;i<100;i++) {
+      from[i]=i*10;
+      to[i]=(i+1)*10;
+      weights[i]=Math.exp(-i/10.0);
+    }
+    empirical=new EmpiricalDistribution(from,to,weights);
+  }
+
+  /**
+   * Former implementation: exponential distribution by inversion (recalculating the rate on each call).
+   * @param random  Pseudo random numbers generator
+   * @param mean  Mean
+   * @return  Pseudo random number
+   */
+  private static double legacyExp(final RandomGenerator random, final double mean) {
+    final double lambda=1/mean;
+    return -Math.log(1-random.nextDouble())/lambda;
+  }
+
+  /**
+   * Former implementation: polar method discarding the second variate.
+   * @param random  Pseudo random numbers generator
+   * @return  Standard normal distributed pseudo random number
+   */
+  private static double legacyNormal(final RandomGenerator random) {
+    double q=10, u=0, v=0;
+    while (q==0 || q>=1) {
+      u=2*random.nextDouble()-1;
+      v=2*random.nextDouble()-1;
+      q=Math.pow(u,2)+Math.pow(v,2);
+    }
+    return u*Math.sqrt(-2*Math.log(q)/q);
+  }
+
+  /**
+   * Former implementation: log-normal distribution recalculating mu and sigma on each call.
+   * @param random  Pseudo random numbers generator
+   * @param mean  Mean
+   * @param sd  Standard deviation
+   * @return  Pseudo random number
+   */
+  private static double legacyLogNormal(final RandomGenerator random, final double mean, final double sd) {
+    final double sigma2=Math.log(Math.pow(sd/mean,2)+1);
+    final double mu=Math.log(mean)-sigma2/2;
+    final double sigma=Math.sqrt(sigma2);
+    return Math.exp(mu+sigma*legacyNormal(random));
+  }
+
+  /**
+   * Uniform number only (lower bound for all methods).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double uniform() {
+    return random.nextDouble();
+  }
+
+  /**
+   * Exponential distribution by inversion (former implementation).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double expInversion() {
+    return legacyExp(random,MEAN);
+  }
+
+  /**
+   * Exponential distribution by the ziggurat method.
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double expZiggurat() {
+    return MEAN*Ziggurat.exponential(random);
+  }
+
+  /**
+   * Normal distribution by the polar method discarding the second variate (former implementation).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double normalPolar() {
+    return legacyNormal(random);
+  }
+
+  /**
+   * Normal distribution by the polar method with cached second variate.
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double normalPolarCached() {
+    return polar.next(random);
+  }
+
+  /**
+   * Normal distribution by the ziggurat method.
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double normalZiggurat() {
+    return Ziggurat.normal(random);
+  }
+
+  /**
+   * Log-normal distribution recalculating the parameters on each draw (former implementation).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double logNormalLegacy() {
+    return legacyLogNormal(random,MEAN,SD);
+  }
+
+  /**
+   * Log-normal distribution with precalculated parameters and ziggurat normal numbers.
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double logNormalPrecomputed() {
+    return logNormalLambda.applyAsDouble(random);
+  }
+
+  /**
+   * Gamma distribution (Marsaglia-Tsang method).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double gamma() {
+    return gammaLambda.applyAsDouble(random);
+  }
+
+  /**
+   * Weibull distribution (power of a ziggurat exponential variate).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double weibull() {
+    return weibullLambda.applyAsDouble(random);
+  }
+
+  /**
+   * Hyperexponential distribution with two phases.
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double hyperExp() {
+    return hyperExpLambda.applyAsDouble(random);
+  }
+
+  /**
+   * Empirical distribution (alias method).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double empirical() {
+    return empirical.sample(random);
+  }
+}
@@ -0,0 +1,176 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+import java.util.function.LongConsumer;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.EventHandler;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.Simulator;
+import tinyfastsimulator.tinyfastsimulator.simulator.TypedSimulator;
+
+/**
+ * Microbenchmark for {@link Simulator#add(long, java.util.function.LongConsumer)} and
+ * {@link Simulator#run(boolean)} ("hold model": each executed event schedules a new
+ * event, so the event list size stays constant), compared with the typed event
+ * dispatch of {@link TypedSimulator}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.SECONDS)
+@Warmup(iterations=3,time=2)
+@Measurement(iterations=5,time=2)
+@Fork(1)
+public class SimulatorBenchmark {
+  /**
+   * Number of hold operations (execute one event, add one event) per benchmark invocation
+   */
+  private static final int HOLD_OPERATIONS=100_000;
+
+  /**
+   * Number of precalculated time increments (power of two)
+   */
+  private static final int INCREMENT_COUNT=1<<16;
+
+  /**
+   * Number of events in the event list
+   */
+  @Param({"1","10","100","1000","10000"})
+  public int eventListSize;
+
+  /**
+   * Type of the event list
+   */
+  @Param({"SORTED","HEAP","PAIRING","CALENDAR","INDEXED"})
+  public EventQueue.Type eventListType;
+
+  /**
+   * Precalculated exponentially distributed time increments
+   */
+  private long[] increments;
+
+  /**
+   * Index of the next time increment to be used
+   */
+  private int incrementIndex;
+
+  /**
+   * Number of hold operations still to be executed in the current invocation
+   */
+  private int remaining;
+
+  /**
+   * Simulator used in the current invocation
+   */
+  private Simulator simulator;
+
+  /**
+   * Typed simulator used in the current invocation
+   */
+  private TypedSimulator typedSimulator;
+
+  /**
+   * Event callback (schedules the next event)
+   */
+  private final LongConsumer hold=t->runHold(t);
+
+  /**
+   * Event handler for the typed simulator (schedules the next event)
+   */
+  private final EventHandler typedHold=(type,t)->runTypedHold(t);
+
+  /**
+   * Prepares the time increments.
+   */
+  @Setup
+  public void setup() {
+    final SplittableRandom random=new SplittableRandom(42);
+    increments=new long[INCREMENT_COUNT];
+    for (int i=0;i<INCREMENT_COUNT;i++) increments[i]=Math.round(-Math.log(1-random.nextDouble())*100_000);
+  }
+
+  /**
+   * Returns the next time increment.
+   * @return  Time increment
+   */
+  private long nextIncrement() {
+    final long increment=increments[incrementIndex];
+    incrementIndex=(incrementIndex+1)&(INCREMENT_COUNT-1);
+    return increment;
+  }
+
+  /**
+   * Event callback
+   * @param time  Current time
+   */
+  private void runHold(final long time) {
+    if (remaining==0) return;
+    remaining--;
+    simulator.add(time+nextIncrement(),hold);
+  }
+
+  /**
+   * Event handler for the typed simulator
+   * @param time  Current time
+   */
+  private void runTypedHold(final long time) {
+    if (remaining==0) return;
+    remaining--;
+    typedSimulator.add(time+nextIncrement(),0);
+  }
+
+  /**
+   * Runs {@link #HOLD_OPERATIONS} hold operations on an event list of the given size.
+   * @return  Runtime reported by the simulator
+   */
+  @Benchmark
+  @OperationsPerInvocation(HOLD_OPERATIONS)
+  public long hold() {
+    simulator=new Simulator(eventListType,eventListSize);
+    remaining=HOLD_OPERATIONS;
+    for (int i=0;i<eventListSize;i++) simulator.add(nextIncrement(),hold);
+    return simulator.run(false);
+  }
+
+  /**
+   * Runs {@link #HOLD_OPERATIONS} hold operations on an event list of the given size
+   * using typed event dispatch.
+   * @return  Runtime reported by the simulator
+   */
+  @Benchmark
+  @OperationsPerInvocation(HOLD_OPERATIONS)
+  public long holdTyped() {
+    typedSimulator=new TypedSimulator(eventListType,eventListSize,typedHold);
+    remaining=HOLD_OPERATIONS;
+    for (int i=0;i<eventListSize;i++) typedSimulator.add(nextIncrement(),0);
+    return typedSimulator.run(false);
+  }
+}
@@ -0,0 +1,394 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.util.SplittableRandom;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OperationsPerInvocation;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsData;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsState;
+
+/**
+ * Microbenchmark for recording values in {@link StatisticsData} and {@link StatisticsState}
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class StatisticsBenchmark {
+  /**
+   * Number of values recorded per benchmark invocation
+   */
+  private static final int BATCH=1024;
+
+  /**
+   * Reference implementation: the former plain sum and sum of squares accumulator
+   * (numerically unstable, only used as speed baseline for {@link StatisticsData#add(double)})
+   */
+  public static final class PlainSums {
+    /** Number of recorded values */
+    private long count;
+    /** Sum of the recorded values */
+    private double sum;
+    /** Sum of the squared recorded values */
+    private double sum2;
+    /** Minimum of the recorded values */
+    private double min;
+    /** Maximum of the recorded values */
+    private double max;
+
+    /**
+     * Records a single value.
+     * @param value Value to be recorded
+     */
+    public void add(final double value) {
+      count++;
+      sum+=value;
+      sum2+=value*value;
+      if (count==1) {
+        min=value;
+        max=value;
+      } else {
+        min=Math.min(min,value);
+        max=Math.max(max,value);
+      }
+    }
+
+    /**
+     * Returns the variance of the recorded values.
+     * @return Variance of the recorded values
+     */
+    public double getVariance() {
+      if (count<2) return 0.0;
+      return sum2/(count-1)-(sum*sum)/count/(count-1);
+    }
+  }
+
+  /**
+   * Reference implementation: per-value Welford update of the mean and the sum of the squared deviations
+   * (numerically stable, but needs a division per value; speed baseline for {@link StatisticsData#add(double)},
+   * which only merges its shifted sums every {@link StatisticsData#MERGE_INTERVAL} values)
+   */
+  public static final class WelfordSums {
+    /** Number of recorded values */
+    private long count;
+    /** Mean of the recorded values */
+    private double mean;
+    /** Sum of the squared deviations from the mean */
+    private double m2;
+    /** Minimum of the recorded values */
+    private double min;
+    /** Maximum of the recorded values */
+    private double max;
+
+    /**
+     * Records a single value.
+     * @param value Value to be recorded
+     */
+    public void add(final double value) {
+      count++;
+      final double delta=value-mean;
+      mean+=delta/count;
+      m2+=delta*(value-mean);
+      if (count==1) {
+        min=value;
+        max=value;
+      } else {
+        min=Math.min(min,value);
+        max=Math.max(max,value);
+      }
+    }
+
+    /**
+     * Returns the variance of the recorded values.
+     * @return Variance of the recorded values
+     */
+    public double getVariance() {
+      if (count<2) return 0.0;
+      return m2/(count-1);
+    }
+  }
+
+  /**
+   * Values to be recorded
+   */
+  private double[] values;
+
+  /**
+   * States to be recorded
+   */
+  private int[] states;
+
+  /**
+   * Data statistics object
+   */
+  private StatisticsData data;
+
+  /**
+   * Partial results to be joined (separate state, so that filling them
+   * does not influence the branch profiles of the recording benchmarks)
+   */
+  @State(Scope.Thread)
+  public static class JoinState {
+    /**
+     * Partial results to be joined
+     */
+    private StatisticsData[] parts;
+
+    /**
+     * Creates the partial results.
+     */
+    @Setup
+    public void setup() {
+      final SplittableRandom random=new SplittableRandom(42);
+      parts=new StatisticsData[64];
+      for (int i=0;i<parts.length;i++) {
+        parts[i]=new StatisticsData();
+        for (int j=0;j<BATCH;j++) parts[i].add(-Math.log(1-random.nextDouble())*100+i);
+      }
+    }
+  }
+
+  /**
+   * Reference accumulator using plain sums
+   */
+  private PlainSums plainSums;
+
+  /**
+   * Reference accumulator using per-value Welford updates
+   */
+  private WelfordSums welfordSums;
+
+  /**
+   * Data statistics objects for waiting, service and residence times (recorded together like in the model)
+   */
+  private StatisticsData[] customerData;
+
+  /**
+   * Plain sums reference accumulators for waiting, service and residence times
+   */
+  private PlainSums[] customerPlainSums;
+
+  /**
+   * Welford reference accumulators for waiting, service and residence times
+   */
+  private WelfordSums[] customerWelfordSums;
+
+  /**
+   * Data statistics object with third and fourth moments
+   */
+  private StatisticsData dataHigherMoments;
+
+  /**
+   * Data statistics object with histogram
+   */
+  private StatisticsData dataHistogram;
+
+  /**
+   * State statistics object
+   */
+  private StatisticsState state;
+
+  /**
+   * Current time for the state statistics
+   */
+  private double time;
+
+  /**
+   * Prepares the values to be recorded.
+   */
+  @Setup
+  public void setup() {
+    final SplittableRandom random=new SplittableRandom(42);
+    values=new double[BATCH];
+    states=new int[BATCH];
+    for (int i=0;i<BATCH;i++) {
+      values[i]=-Math.log(1-random.nextDouble())*100;
+      states[i]=random.nextInt(20);
+    }
+    data=new StatisticsData();
+    dataHistogram=new StatisticsData(true);
+    dataHigherMoments=new StatisticsData(false,true);
+    plainSums=new PlainSums();
+    welfordSums=new WelfordSums();
+    customerData=new StatisticsData[] {new StatisticsData(),new StatisticsData(),new StatisticsData()};
+    customerPlainSums=new PlainSums[] {new PlainSums(),new PlainSums(),new PlainSums()};
+    customerWelfordSums=new WelfordSums[] {new WelfordSums(),new WelfordSums(),new WelfordSums()};
+    state=new StatisticsState();
+  }
+
+  /**
+   * Records values in a {@link StatisticsData} object.
+   * @return  Statistics object
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public StatisticsData dataAdd() {
+    final StatisticsData data=this.data;
+    for (int i=0;i<BATCH;i++) data.add(values[i]);
+    return data;
+  }
+
+  /**
+   * Records values in the plain sums reference accumulator (baseline for {@link #dataAdd()}).
+   * @return  Reference accumulator
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public PlainSums plainSumsAdd() {
+    final PlainSums data=this.plainSums;
+    for (int i=0;i<BATCH;i++) data.add(values[i]);
+    return data;
+  }
+
+  /**
+   * Joins partial results (as done when merging the results of the threads).
+   * @param join  Partial results
+   * @return  Variance of the joined values
+   */
+  @Benchmark
+  public double dataJoin(final JoinState join) {
+    final StatisticsData[] parts=join.parts;
+    StatisticsData result=parts[0];
+    for (int i=1;i<parts.length;i++) result=StatisticsData.join(result,parts[i]);
+    return result.getVariance();
+  }
+
+  /**
+   * Records values in the per-value Welford reference accumulator (baseline for {@link #dataAdd()}).
+   * @return  Reference accumulator
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public WelfordSums welfordSumsAdd() {
+    final WelfordSums data=this.welfordSums;
+    for (int i=0;i<BATCH;i++) data.add(values[i]);
+    return data;
+  }
+
+  /**
+   * Records the waiting, service and residence time of each client in three {@link StatisticsData} objects
+   * (like the model does; in this pattern the sums cannot be kept in registers over the loop, so it shows
+   * the cost of recording a value in a simulation better than {@link #dataAdd()}).
+   * @return  Statistics objects
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public StatisticsData[] customerDataAdd() {
+    final StatisticsData[] data=this.customerData;
+    for (int i=0;i<BATCH;i++) {
+      final double waitingTime=values[i];
+      final double serviceTime=values[BATCH-1-i];
+      data[0].add(waitingTime);
+      data[1].add(serviceTime);
+      data[2].add(waitingTime+serviceTime);
+    }
+    return data;
+  }
+
+  /**
+   * Records the waiting, service and residence time of each client in three plain sums reference accumulators
+   * (baseline for {@link #customerDataAdd()}).
+   * @return  Reference accumulators
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public PlainSums[] customerPlainSumsAdd() {
+    final PlainSums[] data=this.customerPlainSums;
+    for (int i=0;i<BATCH;i++) {
+      final double waitingTime=values[i];
+      final double serviceTime=values[BATCH-1-i];
+      data[0].add(waitingTime);
+      data[1].add(serviceTime);
+      data[2].add(waitingTime+serviceTime);
+    }
+    return data;
+  }
+
+  /**
+   * Records the waiting, service and residence time of each client in three Welford reference accumulators
+   * (baseline for {@link #customerDataAdd()}).
+   * @return  Reference accumulators
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public WelfordSums[] customerWelfordSumsAdd() {
+    final WelfordSums[] data=this.customerWelfordSums;
+    for (int i=0;i<BATCH;i++) {
+      final double waitingTime=values[i];
+      final double serviceTime=values[BATCH-1-i];
+      data[0].add(waitingTime);
+      data[1].add(serviceTime);
+      data[2].add(waitingTime+serviceTime);
+    }
+    return data;
+  }
+
+  /**
+   * Records values in a {@link StatisticsData} object which also records the third and fourth moments.
+   * @return  Statistics object
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public StatisticsData dataAddHigherMoments() {
+    final StatisticsData data=this.dataHigherMoments;
+    for (int i=0;i<BATCH;i++) data.add(values[i]);
+    return data;
+  }
+
+  /**
+   * Records values in a {@link StatisticsData} object which also records a histogram.
+   * @return  Statistics object
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public StatisticsData dataAddHistogram() {
+    final StatisticsData data=this.dataHistogram;
+    for (int i=0;i<BATCH;i++) data.add(values[i]);
+    return data;
+  }
+
+  /**
+   * Records state changes in a {@link StatisticsState} object.
+   * @return  Statistics object
+   */
+  @Benchmark
+  @OperationsPerInvocation(BATCH)
+  public StatisticsState stateSet() {
+    final StatisticsState state=this.state;
+    double time=this.time;
+    for (int i=0;i<BATCH;i++) {
+      time+=values[i];
+      state.set(time,states[i]);
+    }
+    this.time=time;
+    return state;
+  }
+}
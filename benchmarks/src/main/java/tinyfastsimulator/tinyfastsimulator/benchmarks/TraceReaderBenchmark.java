@@ -0,0 +1,160 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.benchmarks;
+
+import java.io.BufferedWriter;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.concurrent.TimeUnit;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.TearDown;
+import org.openjdk.jmh.annotations.Warmup;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+import tinyfastsimulator.tinyfastsimulator.simulator.TraceFile;
+import tinyfastsimulator.tinyfastsimulator.simulator.TraceReader;
+
+/**
+ * Microbenchmark comparing the replay of memory mapped trace files ({@link TraceReader})
+ * with generating the values by a pseudo random number generator.
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.AverageTime)
+@OutputTimeUnit(TimeUnit.NANOSECONDS)
+@Warmup(iterations=3,time=1)
+@Measurement(iterations=5,time=1)
+@Fork(1)
+public class TraceReaderBenchmark {
+  /**
+   * Number of values in the trace files
+   */
+  private static final int COUNT=1<<20;
+
+  /**
+   * Temporary directory for the trace files
+   */
+  private Path directory;
+
+  /**
+   * Trace file with doubles
+   */
+  private TraceFile doubleTrace;
+
+  /**
+   * Trace file with delta encoded timestamps
+   */
+  private TraceFile deltaTrace;
+
+  /**
+   * Reader for the trace file with doubles
+   */
+  private TraceReader doubleReader;
+
+  /**
+   * Reader for the trace file with delta encoded timestamps
+   */
+  private TraceReader deltaReader;
+
+  /**
+   * Pseudo random numbers generator
+   */
+  private RandomGenerator random;
+
+  /**
+   * Exponential distribution generator lambda (reference)
+   */
+  private ToDoubleFunction<RandomGenerator> expLambda;
+
+  /**
+   * Writes and opens the trace files.
+   * @throws IOException  Thrown if the temporary files cannot be written
+   */
+  @Setup
+  public void setup() throws IOException {
+    random=new RandomStreams(42).getStream(0);
+    expLambda=RandomNumbers.getRandomNumbersLambda(RandomNumbers.RandomDistribution.EXP,100,100);
+    directory=Files.createTempDirectory("trace");
+    final Path csv=directory.resolve("trace.csv");
+    try (BufferedWriter writer=Files.newBufferedWriter(csv)) {
+      long timestamp=0;
+      for (int i=0;i<COUNT;i++) {
+        final double value=expLambda.applyAsDouble(random);
+        timestamp+=Math.round(value);
+        writer.write(timestamp+";"+value+"\n");
+      }
+    }
+    TraceFile.convert(csv,1,directory.resolve("delta.trace"),TraceFile.Format.DELTA_LONG,1);
+    TraceFile.convert(csv,2,directory.resolve("double.trace"),TraceFile.Format.DOUBLE,1);
+    deltaTrace=new TraceFile(directory.resolve("delta.trace"));
+    doubleTrace=new TraceFile(directory.resolve("double.trace"));
+    deltaReader=deltaTrace.getReader(0,deltaTrace.count);
+    doubleReader=doubleTrace.getReader(0,doubleTrace.count);
+  }
+
+  /**
+   * Closes and deletes the trace files.
+   * @throws IOException  Thrown if the temporary files cannot be deleted
+   */
+  @TearDown
+  public void tearDown() throws IOException {
+    deltaTrace.close();
+    doubleTrace.close();
+    try (var files=Files.list(directory)) {
+      for (Path file: files.toList()) Files.deleteIfExists(file);
+    }
+    Files.deleteIfExists(directory);
+  }
+
+  /**
+   * Generating an exponentially distributed value (reference).
+   * @return  Pseudo random number
+   */
+  @Benchmark
+  public double generateExp() {
+    return expLambda.applyAsDouble(random);
+  }
+
+  /**
+   * Replaying a value stored as double.
+   * @return  Value from the trace
+   */
+  @Benchmark
+  public double replayDouble() {
+    return doubleReader.applyAsDouble(random);
+  }
+
+  /**
+   * Replaying a value stored as delta encoded timestamp.
+   * @return  Value from the trace
+   */
+  @Benchmark
+  public double replayDeltaLong() {
+    return deltaReader.applyAsDouble(random);
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Settings for impatient customers and a finite waiting room of a {@link QueueModel}.<br>
+ * Each waiting customer leaves the queue (abandons) when its patience time has elapsed
+ * before its service starts; customers arriving when the waiting room is full are blocked
+ * (they leave the system immediately).
+ */
+public class Abandonment {
+  /**
+   * Waiting room size for an unlimited waiting room
+   */
+  public static final int UNLIMITED=-1;
+
+  /**
+   * Customers with infinite patience and an unlimited waiting room
+   */
+  public static final Abandonment NONE=new Abandonment(null,UNLIMITED);
+
+  /**
+   * Callback for generating patience times (<code>null</code> means: infinite patience)
+   */
+  public final ToDoubleFunction<RandomGenerator> patience;
+
+  /**
+   * Maximum number of waiting customers ({@link #UNLIMITED} for an unlimited waiting room)
+   */
+  public final int waitingRoom;
+
+  /**
+   * Constructor
+   * @param patience  Callback for generating patience times (<code>null</code> means: infinite patience)
+   * @param waitingRoom Maximum number of waiting customers ({@link #UNLIMITED} or any negative value for an unlimited waiting room)
+   */
+  public Abandonment(final ToDoubleFunction<RandomGenerator> patience, final int waitingRoom) {
+    this.patience=patience;
+    this.waitingRoom=(waitingRoom<0)?UNLIMITED:waitingRoom;
+  }
+
+  /**
+   * Do the settings differ from {@link #NONE}?
+   * @return  Returns <code>true</code>, if customers can abandon or can be blocked
+   */
+  public boolean isActive() {
+    return patience!=null || waitingRoom!=UNLIMITED;
+  }
+}
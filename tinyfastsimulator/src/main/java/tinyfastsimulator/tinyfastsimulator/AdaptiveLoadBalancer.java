@@ -0,0 +1,84 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.concurrent.atomic.AtomicLong;
+
+/**
+ * Lock-free load balancer with adaptive package sizes ("guided self-scheduling").<br>
+ * Each request gets a fixed fraction of the arrivals still waiting to be assigned,
+ * so the packages are large at the beginning (few requests) and get smaller
+ * towards the end (all threads finish at about the same time).
+ * The remaining number of arrivals is kept in an atomic counter, so threads
+ * never block each other.
+ */
+public class AdaptiveLoadBalancer {
+  /**
+   * Each request gets 1/(CHUNK_DIVISOR*threadCount) of the remaining arrivals
+   */
+  private static final int CHUNK_DIVISOR=2;
+
+  /**
+   * Minimum package size relative to the arrivals per thread
+   */
+  private static final double MIN_CHUNK_FRACTION=0.001;
+
+  /**
+   * Total number of arrivals to be simulated
+   */
+  public final long totalArrivals;
+
+  /**
+   * Number of threads
+   */
+  public final int threadCount;
+
+  /**
+   * Minimum number of arrivals per request
+   */
+  private final long minArrivalsPerRequest;
+
+  /**
+   * Number of arrivals waiting to be assigned to the threads
+   */
+  private final AtomicLong arrivalsToBeSimulated;
+
+  /**
+   * Constructor
+   * @param totalArrivals Total number of arrivals to be simulated
+   * @param threadCount   Number of threads
+   */
+  public AdaptiveLoadBalancer(final long totalArrivals, final int threadCount) {
+    this.totalArrivals=totalArrivals;
+    this.threadCount=threadCount;
+    arrivalsToBeSimulated=new AtomicLong(totalArrivals);
+    minArrivalsPerRequest=Math.max(1,(long)Math.ceil(totalArrivals*MIN_CHUNK_FRACTION/threadCount));
+  }
+
+  /**
+   * Request a next package of arrivals to be simulated by a thread.
+   * @return  Number of arrivals or 0, if no more arrivals are waiting
+   */
+  public long getNextTask() {
+    final long divisor=(long)CHUNK_DIVISOR*threadCount;
+    while (true) {
+      final long remaining=arrivalsToBeSimulated.get();
+      if (remaining<=0) return 0;
+      final long result=Math.min(remaining,Math.max(minArrivalsPerRequest,(remaining+divisor-1)/divisor));
+      if (arrivalsToBeSimulated.compareAndSet(remaining,remaining-result)) return result;
+    }
+  }
+}
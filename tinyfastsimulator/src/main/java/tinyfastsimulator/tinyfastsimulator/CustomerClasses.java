@@ -0,0 +1,87 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+
+/**
+ * Settings for a {@link QueueModel} with several customer classes.<br>
+ * Each class has its own arrival stream, service time distribution and FIFO queue.
+ * The class index is the priority (class 0 has the highest priority).
+ */
+public class CustomerClasses {
+  /**
+   * Maximum number of classes (the waiting classes are stored in the bits of a <code>long</code>)
+   */
+  public static final int MAX_CLASSES=64;
+
+  /**
+   * Rule for selecting the class of the next customer to be served
+   */
+  public static enum Discipline {
+    /** Highest priority class first; services in progress are not interrupted */
+    NON_PREEMPTIVE,
+    /** Highest priority class first; an arriving customer interrupts the service of a lower priority customer (preemptive-resume) */
+    PREEMPTIVE,
+    /** Random selection among the waiting classes with probabilities proportional to the class weights; services in progress are not interrupted */
+    WEIGHTED
+  }
+
+  /**
+   * Generators for the inter-arrival times of the classes
+   */
+  public final BlockGenerator[] interArrivalTimes;
+
+  /**
+   * Generators for the service times of the classes
+   */
+  public final BlockGenerator[] serviceTimes;
+
+  /**
+   * Weights of the classes (only used for {@link Discipline#WEIGHTED})
+   */
+  public final double[] weights;
+
+  /**
+   * Rule for selecting the class of the next customer to be served
+   */
+  public final Discipline discipline;
+
+  /**
+   * Constructor
+   * @param interArrivalTimes Generators for the inter-arrival times of the classes
+   * @param serviceTimes  Generators for the service times of the classes
+   * @param weights Weights of the classes (only used for {@link Discipline#WEIGHTED})
+   * @param discipline  Rule for selecting the class of the next customer to be served
+   */
+  public CustomerClasses(final BlockGenerator[] interArrivalTimes, final BlockGenerator[] serviceTimes, final double[] weights, final Discipline discipline) {
+    if (interArrivalTimes.length==0 || interArrivalTimes.length>MAX_CLASSES) throw new IllegalArgumentException("Number of classes has to be in the range 1.."+MAX_CLASSES);
+    if (serviceTimes.length!=interArrivalTimes.length || weights.length!=interArrivalTimes.length) throw new IllegalArgumentException("Arrays have to have the same length");
+    for (double weight: weights) if (!(weight>0) || Double.isInfinite(weight)) throw new IllegalArgumentException("Weights have to be positive, finite numbers");
+    this.interArrivalTimes=interArrivalTimes;
+    this.serviceTimes=serviceTimes;
+    this.weights=weights;
+    this.discipline=discipline;
+  }
+
+  /**
+   * Returns the number of classes.
+   * @return  Number of classes
+   */
+  public int getCount() {
+    return interArrivalTimes.length;
+  }
+}
@@ -0,0 +1,134 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.random.RandomGenerator;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+import tinyfastsimulator.tinyfastsimulator.simulator.EmpiricalDistribution;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+
+/**
+ * Selection of the distribution for one random stream (inter-arrival times or service times).
+ * @see RandomNumbers.RandomDistribution
+ * @see EmpiricalDistribution
+ */
+public class DistributionSetup {
+  /**
+   * Type of the distribution (<code>null</code> means: exponential distribution for CV=1, log-normal distribution otherwise)
+   */
+  public final RandomNumbers.RandomDistribution type;
+
+  /**
+   * Empirical distribution (only used if the type is {@link RandomNumbers.RandomDistribution#EMPIRICAL})
+   */
+  public final EmpiricalDistribution empirical;
+
+  /**
+   * Constructor
+   * @param type  Type of the distribution (<code>null</code> means: exponential distribution for CV=1, log-normal distribution otherwise)
+   * @param empirical Empirical distribution (if not <code>null</code>, the type is set to {@link RandomNumbers.RandomDistribution#EMPIRICAL})
+   */
+  public DistributionSetup(final RandomNumbers.RandomDistribution type, final EmpiricalDistribution empirical) {
+    this.type=(empirical!=null)?RandomNumbers.RandomDistribution.EMPIRICAL:type;
+    this.empirical=empirical;
+  }
+
+  /**
+   * Constructor for the default selection rule (exponential distribution for CV=1, log-normal distribution otherwise)
+   */
+  public DistributionSetup() {
+    this(null,null);
+  }
+
+  /**
+   * Returns the distribution type used for a given coefficient of variation.
+   * For CV=0 all distributions which are parameterized by the CV degenerate to deterministic values
+   * (the gamma and Erlang distributions could not even be parameterized).
+   * @param cv  Coefficient of variation
+   * @return  Distribution type
+   */
+  public RandomNumbers.RandomDistribution getType(final double cv) {
+    final var usedType=(type!=null)?type:RandomNumbers.getDefaultDistribution(cv);
+    if (cv==0 && usedType!=RandomNumbers.RandomDistribution.EXP && usedType!=RandomNumbers.RandomDistribution.HYPER_EXP && usedType!=RandomNumbers.RandomDistribution.EMPIRICAL) {
+      return RandomNumbers.RandomDistribution.DETERMINISTIC;
+    }
+    return usedType;
+  }
+
+  /**
+   * Are negative values of the distribution set to 0? This is the case for the normal distribution and
+   * for the uniform and triangular distributions with large CVs (durations cannot be negative; the mean
+   * of the generated values is slightly larger than the given mean then).
+   * @param mean  Mean
+   * @param cv  Coefficient of variation
+   * @return  Returns <code>true</code>, if the distribution is truncated at 0
+   */
+  public boolean isTruncated(final double mean, final double cv) {
+    if (empirical!=null) return false;
+    return RandomNumbers.getLowerBound(getType(cv),mean,cv*mean)<0;
+  }
+
+  /**
+   * Generates a lambda expression for generating pseudo random numbers.
+   * Empirical distributions are scaled to the given mean (so parameter sweeps over the mean are possible); their shape and therefore their CV stay fixed.
+   * Distributions which could produce negative values are truncated at 0 (see {@link #isTruncated(double, double)}).
+   * @param mean  Mean
+   * @param cv  Coefficient of variation (ignored for empirical distributions)
+   * @return  Lambda expression for generating pseudo random numbers
+   */
+  public BlockGenerator getLambda(final double mean, final double cv) {
+    if (empirical!=null) {
+      if (mean==empirical.getMean()) return RandomNumbers.getRandomNumbersLambda(empirical);
+      final double factor=mean/empirical.getMean();
+      return random->factor*empirical.sample(random);
+    }
+    final BlockGenerator generator=RandomNumbers.getRandomNumbersLambda(getType(cv),mean,cv*mean);
+    if (!isTruncated(mean,cv)) return generator;
+    return new BlockGenerator() {
+      @Override
+      public double applyAsDouble(final RandomGenerator random) {
+        return Math.max(0,generator.applyAsDouble(random));
+      }
+
+      @Override
+      public void fill(final RandomGenerator random, final double[] block) {
+        generator.fill(random,block);
+        for (int i=0;i<block.length;i++) block[i]=Math.max(0,block[i]);
+      }
+    };
+  }
+
+  /**
+   * Returns a short description of the distribution for the output.
+   * @param label Label of the random variable (e.g. "I" or "S")
+   * @param mean  Mean
+   * @param cv  Coefficient of variation
+   * @return  Description
+   */
+  public String getDescription(final String label, final double mean, final double cv) {
+    final var usedType=getType(cv);
+    final String name=usedType.toString().toLowerCase().replace('_','-');
+    if (usedType==RandomNumbers.RandomDistribution.EXP || usedType==RandomNumbers.RandomDistribution.DETERMINISTIC) {
+      return String.format("E[%s]=%g (%s)",label,mean,name);
+    }
+    if (usedType==RandomNumbers.RandomDistribution.EMPIRICAL) {
+      return String.format("E[%s]=%g, CV[%s]=%g (%s, %d bins)",label,mean,label,cv,name,empirical.getBinCount());
+    }
+    if (isTruncated(mean,cv)) return String.format("E[%s]=%g, CV[%s]=%g (%s, truncated at 0)",label,mean,label,cv,name);
+    return String.format("E[%s]=%g, CV[%s]=%g (%s)",label,mean,label,cv,name);
+  }
+}
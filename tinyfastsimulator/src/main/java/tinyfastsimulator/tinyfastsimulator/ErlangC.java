@@ -0,0 +1,90 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+/**
+ * Erlang-C formulas (with the Allen-Cunneen approximation for G/G/c models)
+ * used to estimate the memory requirements of a simulation in advance
+ */
+public class ErlangC {
+  /**
+   * Maximum queue capacity hint
+   * @see #getQueueCapacityHint(double, double, double, double, int, long)
+   */
+  private static final int MAX_QUEUE_CAPACITY_HINT=1<<20;
+
+  /**
+   * Private constructor - This class cannot be instanced.
+   */
+  private ErlangC() {
+  }
+
+  /**
+   * Calculates the probability that an arriving client has to wait in a M/M/c model.
+   * @param a Offered load a=E[S]/E[I]
+   * @param c Number of operators
+   * @return  Probability of waiting (1, if the system is not stable)
+   */
+  public static double getWaitingProbability(final double a, final int c) {
+    final double rho=a/c;
+    if (rho>=1) return 1;
+    /* Erlang-B recursion (numerically stable also for large c) */
+    double erlangB=1;
+    for (int k=1;k<=c;k++) erlangB=a*erlangB/(k+a*erlangB);
+    return erlangB/(1-rho*(1-erlangB));
+  }
+
+  /**
+   * Calculates the mean queue length E[NQ] of a G/G/c model (Allen-Cunneen approximation).
+   * @param EI  Mean inter-arrival time
+   * @param cvI Coefficient of variation of the inter-arrival times
+   * @param ES  Mean service time
+   * @param cvS Coefficient of variation of the service times
+   * @param c Number of operators
+   * @return  Mean queue length (infinite, if the system is not stable)
+   */
+  public static double getMeanQueueLength(final double EI, final double cvI, final double ES, final double cvS, final int c) {
+    final double a=ES/EI;
+    final double rho=a/c;
+    if (rho>=1) return Double.POSITIVE_INFINITY;
+    final double mmcENQ=getWaitingProbability(a,c)*rho/(1-rho);
+    return mmcENQ*(cvI*cvI+cvS*cvS)/2;
+  }
+
+  /**
+   * Estimates the maximum queue length that will be reached during a simulation run.<br>
+   * In a M/M/c model the probability that an arriving client finds at least k waiting
+   * clients is P(W)*rho^k; the estimate is the queue length which is expected to be
+   * reached by less than one of the simulated arrivals (scaled by the
+   * Allen-Cunneen variability factor).
+   * @param EI  Mean inter-arrival time
+   * @param cvI Coefficient of variation of the inter-arrival times
+   * @param ES  Mean service time
+   * @param cvS Coefficient of variation of the service times
+   * @param c Number of operators
+   * @param arrivalCount  Number of arrivals to be simulated
+   * @return  Capacity hint for the queue array
+   */
+  public static int getQueueCapacityHint(final double EI, final double cvI, final double ES, final double cvS, final int c, final long arrivalCount) {
+    final double a=ES/EI;
+    final double rho=a/c;
+    if (rho>=1) return (int)Math.min(MAX_QUEUE_CAPACITY_HINT,arrivalCount);
+    final double expectedExceedances=arrivalCount*getWaitingProbability(a,c);
+    if (expectedExceedances<=1) return 0;
+    final double maxQueueLength=Math.log(expectedExceedances)/(-Math.log(rho))*Math.max(1,(cvI*cvI+cvS*cvS)/2);
+    return (int)Math.min(MAX_QUEUE_CAPACITY_HINT,Math.ceil(maxQueueLength));
+  }
+}
@@ -0,0 +1,332 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
+import tinyfastsimulator.tinyfastsimulator.simulator.VectorMath;
+
+/**
+ * Simulates several independent replications of a FIFO G/G/c model in lockstep.<br>
+ * Each replication is a lane of a vector: the inter-arrival and service times of all lanes are
+ * generated block by block, the waiting times are calculated by the Kiefer-Wolfowitz recursion
+ * (Lindley recursion for c=1) for all lanes at once and the statistics are reduced per lane.
+ * If the Vector API is available, the recursion and the reductions use {@link VectorMath};
+ * otherwise (or for batches with less lanes than the vector shape) a scalar loop over the lanes is used.<br>
+ * The lanes use the same times in internal time units and draw the same blocks of random numbers
+ * as a {@link QueueModel} with {@link QueueModel.Engine#LINDLEY}, so replication i gives the same
+ * waiting times in both cases. The time-weighted means are calculated from the integrals
+ * (sum of the waiting times = integral of the queue length etc.), so the state distributions
+ * are not available ({@link tinyfastsimulator.tinyfastsimulator.simulator.StatisticsState#hasDistribution()}).
+ * Within-replication batch means are recorded as usual.
+ */
+public class LockstepBatch {
+  /**
+   * Internal time base is 1/1000 second (same as in {@link QueueModel})
+   */
+  private static final double SIM_TIME_FACTOR=1000;
+
+  /**
+   * Number of lanes used if the Vector API is not available
+   */
+  private static final int SCALAR_LANES=4;
+
+  /**
+   * Number of replications per batch
+   */
+  public static final int LANES=RandomNumbers.VECTOR_API?VectorMath.getLaneCount():SCALAR_LANES;
+
+  /**
+   * Callback for generating inter-arrival times
+   */
+  private final BlockGenerator interArrivalTime;
+
+  /**
+   * Callback for generating service times
+   */
+  private final BlockGenerator serviceTime;
+
+  /**
+   * Number of operators
+   */
+  private final int c;
+
+  /**
+   * Number of arrivals per replication (not including the warm-up period)
+   */
+  private final long arrivalsPerReplication;
+
+  /**
+   * Warm-up period settings (only {@link Warmup.Mode#NONE} and {@link Warmup.Mode#ARRIVALS} are supported)
+   */
+  private final Warmup warmup;
+
+  /**
+   * Use the Vector API (only allowed if {@link RandomNumbers#VECTOR_API} is <code>true</code>)
+   */
+  private final boolean useVectorAPI;
+
+  /**
+   * Constructor
+   * @param interArrivalTime  Callback for generating inter-arrival times
+   * @param serviceTime Callback for generating service times
+   * @param c Number of operators
+   * @param arrivalsPerReplication  Number of arrivals per replication
+   * @param warmup  Warm-up period settings (see {@link #isSupported(Warmup, boolean)})
+   * @param useVectorAPI  Use the Vector API (only allowed if {@link RandomNumbers#VECTOR_API} is <code>true</code>)
+   */
+  public LockstepBatch(final ToDoubleFunction<RandomGenerator> interArrivalTime, final ToDoubleFunction<RandomGenerator> serviceTime, final int c, final long arrivalsPerReplication, final Warmup warmup, final boolean useVectorAPI) {
+    this.interArrivalTime=BlockGenerator.of(interArrivalTime);
+    this.serviceTime=BlockGenerator.of(serviceTime);
+    this.c=c;
+    this.arrivalsPerReplication=arrivalsPerReplication;
+    this.warmup=warmup;
+    this.useVectorAPI=useVectorAPI;
+  }
+
+  /**
+   * Constructor (uses the Vector API if available)
+   * @param interArrivalTime  Callback for generating inter-arrival times
+   * @param serviceTime Callback for generating service times
+   * @param c Number of operators
+   * @param arrivalsPerReplication  Number of arrivals per replication
+   * @param warmup  Warm-up period settings (see {@link #isSupported(Warmup, boolean)})
+   */
+  public LockstepBatch(final ToDoubleFunction<RandomGenerator> interArrivalTime, final ToDoubleFunction<RandomGenerator> serviceTime, final int c, final long arrivalsPerReplication, final Warmup warmup) {
+    this(interArrivalTime,serviceTime,c,arrivalsPerReplication,warmup,RandomNumbers.VECTOR_API);
+  }
+
+  /**
+   * Can replications with the given settings be simulated in lockstep?
+   * @param warmup  Warm-up period settings (the end of the warm-up period has to be the same for all lanes)
+   * @param recordQuantiles Record histograms and higher moments? (not available for values reduced per lane)
+   * @return  Returns <code>true</code>, if the replications can be simulated by this class
+   */
+  public static boolean isSupported(final Warmup warmup, final boolean recordQuantiles) {
+    return !recordQuantiles && (warmup.mode==Warmup.Mode.NONE || warmup.mode==Warmup.Mode.ARRIVALS);
+  }
+
+  /**
+   * Converts a time into internal time units.
+   * @param times Times (interleaved)
+   * @param index Index of the first lane of the client
+   * @param i Lane
+   * @return  Time in internal time units
+   */
+  private static long toInternal(final double[] times, final int index, final int i) {
+    return Math.round(times[index+i]*SIM_TIME_FACTOR);
+  }
+
+  /**
+   * Scalar version of {@link VectorMath#kieferWolfowitz(int, double, double[], double[], int, int, double[], double[], double[])}
+   * for any number of lanes.
+   * @param lanes Number of lanes
+   * @param c Number of operators
+   * @param interArrivalTimes Inter-arrival times (value k of lane i at index k*lanes+i)
+   * @param serviceTimes  Service times (same layout)
+   * @param from  Index of the first client to be simulated
+   * @param to  Index after the last client to be simulated
+   * @param clock Arrival times of the last clients (in internal time units; updated)
+   * @param free  Times at which the operators become available (in internal time units; operator j of lane i at index j*lanes+i; ascending for each lane; updated)
+   * @param waitingTimes  Output array for the waiting times (same layout)
+   */
+  private static void kieferWolfowitz(final int lanes, final int c, final double[] interArrivalTimes, final double[] serviceTimes, final int from, final int to, final double[] clock, final double[] free, final double[] waitingTimes) {
+    for (int i=0;i<lanes;i++) {
+      long time=(long)clock[i];
+      for (int k=from;k<to;k++) {
+        final int index=k*lanes;
+        time+=toInternal(interArrivalTimes,index,i);
+        final long start=Math.max(time,(long)free[i]);
+        /* Replace the smallest availability time by the end of the service and restore the order */
+        final double end=start+toInternal(serviceTimes,index,i);
+        free[i]=end;
+        for (int j=1;j<c;j++) {
+          final double next=free[j*lanes+i];
+          if (next>=end) break;
+          free[(j-1)*lanes+i]=next;
+          free[j*lanes+i]=end;
+        }
+        waitingTimes[index+i]=(start-time)/SIM_TIME_FACTOR;
+      }
+      clock[i]=time;
+    }
+  }
+
+  /**
+   * Scalar version of {@link VectorMath#laneSums(double[], double[], int, int, double[])} for any number of lanes
+   * (sums of the deviations from the first value of the block per lane).
+   * @param lanes Number of lanes
+   * @param values  Values (value k of lane i at index k*lanes+i)
+   * @param addend  Values to be added to the values before the calculation (same layout; can be <code>null</code>)
+   * @param from  Index of the first value
+   * @param to  Index after the last value (has to be larger than <code>from</code>)
+   * @param result  Output array: sums, sums of the squares, minima, maxima and reference values (each <code>lanes</code> values)
+   */
+  private static void laneSums(final int lanes, final double[] values, final double[] addend, final int from, final int to, final double[] result) {
+    for (int i=0;i<lanes;i++) {
+      final double reference=(addend==null)?values[from*lanes+i]:(values[from*lanes+i]+addend[from*lanes+i]);
+      double sum=0;
+      double sumSquares=0;
+      double min=Double.POSITIVE_INFINITY;
+      double max=Double.NEGATIVE_INFINITY;
+      for (int k=from;k<to;k++) {
+        final double value=(addend==null)?values[k*lanes+i]:(values[k*lanes+i]+addend[k*lanes+i]);
+        final double deviation=value-reference;
+        sum+=deviation;
+        sumSquares+=deviation*deviation;
+        min=Math.min(min,value);
+        max=Math.max(max,value);
+      }
+      result[i]=sum;
+      result[lanes+i]=sumSquares;
+      result[2*lanes+i]=min;
+      result[3*lanes+i]=max;
+      result[4*lanes+i]=reference;
+    }
+  }
+
+  /**
+   * Simulates clients of all lanes and records their statistics.
+   * @param models  Result models (one per lane)
+   * @param vector  Use the Vector API?
+   * @param interArrivalTimes Inter-arrival times
+   * @param serviceTimes  Service times
+   * @param from  Index of the first client to be simulated
+   * @param to  Index after the last client to be simulated
+   * @param clock Arrival times of the last clients (updated)
+   * @param free  Times at which the operators become available (updated)
+   * @param waitingTimes  Buffer for the waiting times
+   * @param sums  Buffer for the sums per lane
+   * @param record  Record the statistics (<code>false</code> in the warm-up period)
+   */
+  private void simulate(final QueueModel[] models, final boolean vector, final double[] interArrivalTimes, final double[] serviceTimes, final int from, final int to, final double[] clock, final double[] free, final double[] waitingTimes, final double[] sums, final boolean record) {
+    if (from>=to) return;
+    final int lanes=models.length;
+    if (vector) {
+      VectorMath.kieferWolfowitz(c,SIM_TIME_FACTOR,interArrivalTimes,serviceTimes,from,to,clock,free,waitingTimes);
+    } else {
+      kieferWolfowitz(lanes,c,interArrivalTimes,serviceTimes,from,to,clock,free,waitingTimes);
+    }
+    if (!record) return;
+
+    final long count=to-from;
+    if (vector) VectorMath.laneSums(waitingTimes,null,from,to,sums); else laneSums(lanes,waitingTimes,null,from,to,sums);
+    for (int i=0;i<lanes;i++) models[i].waitingTimeStat.addBlock(count,sums[4*lanes+i],sums[i],sums[lanes+i],sums[2*lanes+i],sums[3*lanes+i]);
+    if (vector) VectorMath.laneSums(serviceTimes,null,from,to,sums); else laneSums(lanes,serviceTimes,null,from,to,sums);
+    for (int i=0;i<lanes;i++) models[i].serviceTimeStat.addBlock(count,sums[4*lanes+i],sums[i],sums[lanes+i],sums[2*lanes+i],sums[3*lanes+i]);
+    if (vector) VectorMath.laneSums(waitingTimes,serviceTimes,from,to,sums); else laneSums(lanes,waitingTimes,serviceTimes,from,to,sums);
+    for (int i=0;i<lanes;i++) models[i].residenceTimeStat.addBlock(count,sums[4*lanes+i],sums[i],sums[lanes+i],sums[2*lanes+i],sums[3*lanes+i]);
+
+    for (int i=0;i<lanes;i++) {
+      final QueueModel model=models[i];
+      for (int k=from;k<to;k++) {
+        final double waitingTime=waitingTimes[k*lanes+i];
+        model.waitingTimeBatches.add(waitingTime);
+        model.residenceTimeBatches.add(waitingTime+serviceTimes[k*lanes+i]);
+      }
+    }
+  }
+
+  /**
+   * Simulates one replication per random number generator (called on a worker thread).<br>
+   * If the thread is interrupted, the simulation stops after the current block.
+   * @param randoms Random number generators of the replications (<code>null</code> entries mean: use the thread local generator)
+   * @param progress  Live progress counters (can be null)
+   * @return  Simulated models (one per replication)
+   */
+  public QueueModel[] run(final RandomGenerator[] randoms, final SimulationProgress progress) {
+    final long startMS=System.currentTimeMillis();
+    final int lanes=randoms.length;
+    final boolean vector=useVectorAPI && lanes==VectorMath.getLaneCount();
+
+    final QueueModel[] models=new QueueModel[lanes];
+    final RandomGenerator[] generators=new RandomGenerator[lanes];
+    for (int i=0;i<lanes;i++) {
+      models[i]=new QueueModel(interArrivalTime,serviceTime,c,arrivalsPerReplication,false,null,EventQueue.Type.SORTED,0,warmup,randoms[i],false,QueueModel.Engine.LINDLEY);
+      generators[i]=(randoms[i]!=null)?randoms[i]:ThreadLocalRandom.current();
+    }
+
+    /* Same block size and warm-up handling as in QueueModel: the first recorded client is client number warmupArrivals */
+    final int blockSize=(int)Math.max(1,Math.min(QueueModel.RANDOM_BLOCK_SIZE,arrivalsPerReplication));
+    final long warmupArrivals=(warmup.mode==Warmup.Mode.ARRIVALS)?Math.max(1,warmup.arrivals):0;
+    final long firstRecorded=Math.max(0,warmupArrivals-1);
+    final long totalArrivals=arrivalsPerReplication+warmupArrivals;
+
+    final double[] interArrivalTimes=new double[blockSize*lanes];
+    final double[] serviceTimes=new double[blockSize*lanes];
+    final double[] waitingTimes=new double[blockSize*lanes];
+    final double[] block=new double[blockSize];
+    final double[] sums=new double[5*lanes];
+    final double[] clock=new double[lanes];
+    final double[] free=new double[c*lanes];
+    final double[] recordStart=new double[lanes];
+
+    long arrivals=0;
+    while (arrivals<totalArrivals) {
+      /* Generate the next block for each lane (inter-arrival times first, as in QueueModel) */
+      for (int i=0;i<lanes;i++) {
+        interArrivalTime.fill(generators[i],block);
+        for (int k=0;k<blockSize;k++) interArrivalTimes[k*lanes+i]=block[k];
+        serviceTime.fill(generators[i],block);
+        for (int k=0;k<blockSize;k++) serviceTimes[k*lanes+i]=block[k];
+      }
+
+      /* Simulate the block; the statistics start with the first recorded client */
+      final int count=(int)Math.min(blockSize,totalArrivals-arrivals);
+      final int split=(int)Math.max(0,Math.min(count,firstRecorded-arrivals));
+      simulate(models,vector,interArrivalTimes,serviceTimes,0,split,clock,free,waitingTimes,sums,false);
+      if (arrivals+split==firstRecorded && split<count) {
+        simulate(models,vector,interArrivalTimes,serviceTimes,split,split+1,clock,free,waitingTimes,sums,true);
+        System.arraycopy(clock,0,recordStart,0,lanes);
+        simulate(models,vector,interArrivalTimes,serviceTimes,split+1,count,clock,free,waitingTimes,sums,true);
+      } else {
+        simulate(models,vector,interArrivalTimes,serviceTimes,split,count,clock,free,waitingTimes,sums,true);
+      }
+      arrivals+=count;
+
+      if (progress!=null) progress.publish(2*arrivals*lanes,arrivals*lanes,clock[0]/SIM_TIME_FACTOR,0,0);
+      if (Thread.currentThread().isInterrupted()) break; /* Task has been cancelled */
+    }
+
+    /* Results: time-weighted means from the integrals up to the last departure */
+    final long runtimeMS=System.currentTimeMillis()-startMS;
+    for (int i=0;i<lanes;i++) {
+      final QueueModel model=models[i];
+      final double time=(free[(c-1)*lanes+i]-recordStart[i])/SIM_TIME_FACTOR;
+      final double waitingSum=model.waitingTimeStat.getMean()*model.waitingTimeStat.getCount();
+      final double serviceSum=model.serviceTimeStat.getMean()*model.serviceTimeStat.getCount();
+      model.queueLength.addIntegral(time,waitingSum);
+      model.systemSize.addIntegral(time,waitingSum+serviceSum);
+      model.operatorsUsage.addIntegral(time,serviceSum);
+      model.setArrivalCount(arrivals);
+      model.arrivalGoal=totalArrivals;
+      model.eventCount=2*arrivals;
+      if (warmupArrivals>0) {
+        model.warmupArrivalCount=warmupArrivals;
+        model.warmupEndTime=recordStart[i]/SIM_TIME_FACTOR;
+      }
+      model.runtimeMS=runtimeMS;
+      if (progress!=null) progress.finishModel(model.eventCount,arrivals);
+    }
+    return models;
+  }
+}
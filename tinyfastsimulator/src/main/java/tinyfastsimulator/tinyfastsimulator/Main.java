@@ -15,21 +15,113 @@
  */
 package tinyfastsimulator.tinyfastsimulator;
 
+import java.io.IOException;
+import java.nio.file.Path;
 import java.util.Arrays;
+import java.util.List;
+import java.util.Locale;
+import java.util.concurrent.ExecutionException;
 
+import tinyfastsimulator.tinyfastsimulator.simulator.EmpiricalDistribution;
 import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsData;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsState;
+import tinyfastsimulator.tinyfastsimulator.simulator.TraceFile;
+import tinyfastsimulator.tinyfastsimulator.simulator.TraceReader;
 
 /**
  * Main class
  */
 public class Main {
+  /**
+   * Quantiles which are reported if histograms are recorded
+   */
+  public static final double[] QUANTILES=new double[]{0.5,0.9,0.95,0.99,0.999};
+
+  /**
+   * Formats a probability as a percent value without unnecessary digits (e.g. 0.999 becomes "99.9").
+   * @param p Probability
+   * @return  Percent value as string
+   */
+  public static String formatPercent(final double p) {
+    final String s=String.format(Locale.US,"%.3f",p*100);
+    return s.replaceAll("\\.?0+$","");
+  }
+
+  /**
+   * Number of states for which the time-weighted state probabilities are printed
+   */
+  private static final int PRINT_STATE_PROBABILITIES=10;
+
+  /**
+   * Maximum number of stations of a queueing network for which the results are printed individually
+   */
+  private static final int PRINT_STATIONS=20;
+
+  /**
+   * Prints the time-weighted quantiles of a state statistic.
+   * @param label Name of the recorded states
+   * @param symbol  Symbol of the recorded states
+   * @param state  Statistic object
+   */
+  private static void printStateQuantiles(final String label, final String symbol, final StatisticsState state) {
+    final StringBuilder line=new StringBuilder();
+    line.append("Quantiles of the ").append(label).append(" (time-weighted):");
+    for (double p: QUANTILES) line.append(String.format(" P%s[%s]=%d",formatPercent(p),symbol,state.getQuantile(p)));
+    System.out.println(line);
+  }
+
+  /**
+   * Prints the time-weighted state probabilities P(X=k) for the first states and the probability of the remaining states.
+   * @param label Name of the recorded states
+   * @param symbol  Symbol of the recorded states
+   * @param state  Statistic object
+   */
+  private static void printStateProbabilities(final String label, final String symbol, final StatisticsState state) {
+    final StringBuilder line=new StringBuilder();
+    line.append("Distribution of the ").append(label).append(" (time-weighted):");
+    final int last=Math.min(state.getMax(),PRINT_STATE_PROBABILITIES-1);
+    for (int k=0;k<=last;k++) line.append(String.format(" P(%s=%d)=%g",symbol,k,state.getProbability(k)));
+    if (state.getMax()>last) line.append(String.format(" P(%s>%d)=%g",symbol,last,state.getProbabilityGreaterThan(last)));
+    System.out.println(line);
+  }
+
+  /**
+   * Prints the skewness and the kurtosis of a statistic (if the higher moments are recorded).
+   * @param label Name of the recorded values
+   * @param symbol  Symbol of the recorded values
+   * @param data  Statistic object
+   */
+  private static void printHigherMoments(final String label, final String symbol, final StatisticsData data) {
+    if (!data.hasHigherMoments()) return;
+    System.out.println(String.format("Skewness of the %s: Sk[%s]=%g",label,symbol,data.getSkewness()));
+    System.out.println(String.format("Excess kurtosis of the %s: Ku[%s]=%g",label,symbol,data.getKurtosis()));
+  }
+
+  /**
+   * Prints the quantiles of a statistic (if histograms are recorded).
+   * @param label Name of the recorded values
+   * @param symbol  Symbol of the recorded values
+   * @param data  Statistic object
+   */
+  private static void printQuantiles(final String label, final String symbol, final StatisticsData data) {
+    if (!data.hasHistogram()) return;
+    final StringBuilder line=new StringBuilder();
+    line.append("Quantiles of the ").append(label).append(":");
+    for (double p: QUANTILES) line.append(String.format(" P%s[%s]=%g",formatPercent(p),symbol,data.getQuantile(p)));
+    System.out.println(line);
+  }
+
   /**
    * Prints the simulation results.
    * @param *model  Simulation model
    * @param c Number of operators
    * @param threadCount  Number of used threads
+   * @param confidence  Confidence level for the batch means confidence intervals
+   * @param warmup  Warm-up period settings
    */
-  private static void printResults(final QueueModel model, final int c, final int threadCount) {
+  private static void printResults(final QueueModel model, final int c, final int threadCount, final double confidence, final Warmup warmup) {
     System.out.println(String.format("Processed events: %gM",model.eventCount/1000000.0));
     System.out.println(String.format("Simulated service processes: %gM",model.serviceTimeStat.getCount()/1000000.0));
     System.out.println("");
@@ -38,7 +130,28 @@ public class Main {
     System.out.println(String.format("Coefficient of variation of the waiting times CV[W]=%g",model.waitingTimeStat.getCV()));
     System.out.println(String.format("Minimum waiting time: Min[W]=%g",model.waitingTimeStat.getMin()));
     System.out.println(String.format("Maximum waiting time: Max[W]=%g",model.waitingTimeStat.getMax()));
+    System.out.println(String.format("%.1f%% confidence interval (batch means): E[W]=%g +/- %g",confidence*100,model.waitingTimeStat.getMean(),model.waitingTimeBatches.getConfidenceHalfWidth(confidence)));
+    printHigherMoments("waiting times","W",model.waitingTimeStat);
+    printQuantiles("waiting times","W",model.waitingTimeStat);
     System.out.println("");
+    if (model.getAbandonment().isActive()) {
+      final long served=model.waitingTimeStat.getCount();
+      final long abandoned=model.abandonedWaitingTimeStat.getCount();
+      final double total=Math.max(1,served+abandoned+model.blockedCount);
+      System.out.println(String.format("Served customers: %d (%g%%)",served,served/total*100));
+      System.out.println(String.format("Abandoned customers: %d (%g%%)",abandoned,abandoned/total*100));
+      if (abandoned>0) System.out.println(String.format("Average waiting time of the abandoned customers: %g",model.abandonedWaitingTimeStat.getMean()));
+      System.out.println(String.format("Blocked customers (waiting room full): %d (%g%%)",model.blockedCount,model.blockedCount/total*100));
+      System.out.println("");
+    }
+    if (model.classWaitingTimeStat!=null) {
+      for (int i=0;i<model.classWaitingTimeStat.length;i++) {
+        final StatisticsData waiting=model.classWaitingTimeStat[i];
+        System.out.println(String.format("Class %d: served customers=%d, E[W]=%g, Std[W]=%g, Max[W]=%g, E[V]=%g",i+1,waiting.getCount(),waiting.getMean(),waiting.getSD(),waiting.getMax(),model.classResidenceTimeStat[i].getMean()));
+      }
+      if (model.preemptionCount>0) System.out.println(String.format("Interrupted service processes: %d",model.preemptionCount));
+      System.out.println("");
+    }
     System.out.println(String.format("Average service time: E[S]=%g",model.serviceTimeStat.getMean()));
     System.out.println(String.format("Standard deviation of the service times: Std[S]=%g",model.serviceTimeStat.getSD()));
     System.out.println(String.format("Coefficient of variation of the service times CV[S]=%g",model.serviceTimeStat.getCV()));
@@ -50,59 +163,641 @@ public class Main {
     System.out.println(String.format("Coefficient of residence of the service times CV[v]=%g",model.residenceTimeStat.getCV()));
     System.out.println(String.format("Minimum residence time: Min[V]=%g",model.residenceTimeStat.getMin()));
     System.out.println(String.format("Maximum residence time: Max[V]=%g",model.residenceTimeStat.getMax()));
+    System.out.println(String.format("%.1f%% confidence interval (batch means): E[V]=%g +/- %g",confidence*100,model.residenceTimeStat.getMean(),model.residenceTimeBatches.getConfidenceHalfWidth(confidence)));
+    printHigherMoments("residence times","V",model.residenceTimeStat);
+    printQuantiles("residence times","V",model.residenceTimeStat);
     System.out.println("");
     System.out.println(String.format("Average queue length: E[NQ]=%g",model.queueLength.getMean()));
-    System.out.println(String.format("Minimum queue length: Min[NQ]=%d",model.queueLength.getMin()));
-    System.out.println(String.format("Maximum queue length: Max[NQ]=%d",model.queueLength.getMax()));
+    if (model.queueLength.hasDistribution()) {
+      System.out.println(String.format("Minimum queue length: Min[NQ]=%d",model.queueLength.getMin()));
+      System.out.println(String.format("Maximum queue length: Max[NQ]=%d",model.queueLength.getMax()));
+      System.out.println(String.format("Probability of waiting (time-weighted): P(NQ>0)=%g",model.queueLength.getProbabilityGreaterThan(0)));
+      printStateQuantiles("queue length","NQ",model.queueLength);
+    }
     System.out.println("");
     System.out.println(String.format("Average number of customers in system: E[N]=%g",model.systemSize.getMean()));
-    System.out.println(String.format("Minimum number of customers in system: Min[N]=%d",model.systemSize.getMin()));
-    System.out.println(String.format("Maximum number of customers in system: Max[N]=%d",model.systemSize.getMax()));
+    if (model.systemSize.hasDistribution()) {
+      System.out.println(String.format("Minimum number of customers in system: Min[N]=%d",model.systemSize.getMin()));
+      System.out.println(String.format("Maximum number of customers in system: Max[N]=%d",model.systemSize.getMax()));
+      printStateProbabilities("number of customers in system","N",model.systemSize);
+      printStateQuantiles("number of customers in system","N",model.systemSize);
+    }
     System.out.println("");
     System.out.println(String.format("Average number of busy operators: %g",model.operatorsUsage.getMean()));
-    System.out.println(String.format("Minimum number of busy operators: %d",model.operatorsUsage.getMin()));
-    System.out.println(String.format("Maximum number of busy operators: %d",model.operatorsUsage.getMax()));
+    if (model.operatorsUsage.hasDistribution()) {
+      System.out.println(String.format("Minimum number of busy operators: %d",model.operatorsUsage.getMin()));
+      System.out.println(String.format("Maximum number of busy operators: %d",model.operatorsUsage.getMax()));
+    }
     System.out.println(String.format("Work load rho=%g%%",model.operatorsUsage.getMean()/c*100));
     System.out.println("");
+    if (model.warmupEndTime>=0) {
+      System.out.println(String.format("Warm-up period: %d arrivals not included in the statistics (last end of warm-up at t=%g)",model.warmupArrivalCount,model.warmupEndTime));
+    } else if (warmup.mode!=Warmup.Mode.NONE) {
+      System.out.println("Warm-up period: end of warm-up period was not reached");
+    }
+    System.out.println(String.format("Event list high watermark: %d",model.maxEventListSize));
+    System.out.println(String.format("Queue high watermark: %d (enlarged %d times)",model.maxQueueSize,model.queueResizeCount));
+    System.out.println("");
+    System.out.println(String.format("Wall clock time: %dms",model.runtimeMS));
+    if (threadCount>1) System.out.println(String.format("Number of parallel threads: %d",threadCount));
+    if (model.runtimeMS>0) System.out.println(String.format("Events/second: %gM",model.eventCount*1000/model.runtimeMS/1000000.0));
+    if (threadCount>1 && model.runtimeMS>0) System.out.println(String.format("Events/second/thread: %gM",model.eventCount*1000/model.runtimeMS/1000000.0/threadCount));
+  }
+
+  /**
+   * Prints the confidence intervals calculated from independent replications.
+   * @param runner  Replication runner
+   */
+  private static void printReplicationResults(final ReplicationRunner runner) {
+    System.out.println(String.format("Completed replications: %d",runner.getReplicationCount()));
+    if (runner.precision>0) {
+      System.out.println(String.format("Target precision (relative half width) %g%% %s",runner.precision*100,runner.isPrecisionReached()?"reached":"not reached"));
+    }
+    for (ReplicationRunner.Metric metric: ReplicationRunner.Metric.values()) {
+      System.out.println(String.format("%.1f%% confidence interval (replications): %s=%g +/- %g (relative half width %g%%)",runner.confidenceLevel*100,metric.label,runner.getMean(metric),runner.getHalfWidth(metric),runner.getRelativeHalfWidth(metric)*100));
+    }
+    System.out.println("");
+  }
+
+  /**
+   * Prints a note if the time limit was exceeded.
+   * @param executor  Executor which has run the models
+   * @param parameters  Parameters
+   */
+  private static void printTimeout(final ModelExecutor executor, final Parameters parameters) {
+    if (!executor.timedOut) return;
+    System.out.println(String.format("Time limit of %gs exceeded: unfinished tasks were cancelled and are not included in the results\n",parameters.timeout));
+  }
+
+  /**
+   * Writes the machine-readable results (if requested).
+   * @param output  Result output (can be <code>null</code>)
+   * @param executor  Executor which has run the models
+   */
+  private static void writeOutput(final ResultOutput output, final ModelExecutor executor) {
+    if (output==null) return;
+    output.document.put("timedOut",executor.timedOut);
+    try {
+      output.write();
+    } catch (IOException e) {
+      System.out.println(String.format("Error writing results to %s: %s",output.file,e.getMessage()));
+    }
+  }
+
+  /**
+   * Sets up the distribution for one random stream.
+   * @param type  Type of the distribution (can be <code>null</code>)
+   * @param file  Histogram file defining an empirical distribution (can be <code>null</code>)
+   * @return  Distribution setup or <code>null</code>, if the histogram file could not be loaded
+   */
+  private static DistributionSetup loadDistribution(final RandomNumbers.RandomDistribution type, final String file) {
+    if (file==null) {
+      if (type==RandomNumbers.RandomDistribution.EMPIRICAL) {
+        System.out.println("Empirical distribution selected, but no histogram file specified");
+        return null;
+      }
+      return new DistributionSetup(type,null);
+    }
+    try {
+      return new DistributionSetup(type,EmpiricalDistribution.load(Path.of(file)));
+    } catch (IOException e) {
+      System.out.println(String.format("Error loading distribution from %s: %s",file,e.getMessage()));
+      return null;
+    }
+  }
+
+  /**
+   * Runs a parameter sweep.
+   * @param parameters  Parameters
+   * @param arrivalDistribution Distribution of the inter-arrival times
+   * @param serviceDistribution Distribution of the service times
+   * @param executor  Executor running the replications
+   * @param output  Machine-readable result output (can be <code>null</code>)
+   * @throws ExecutionException A replication has thrown an exception
+   */
+  private static void runSweep(final Parameters parameters, final DistributionSetup arrivalDistribution, final DistributionSetup serviceDistribution, final ModelExecutor executor, final ResultOutput output) throws ExecutionException {
+    /* Build scenarios */
+    List<Scenario> scenarios;
+    if (parameters.sweepFile!=null) {
+      try {
+        scenarios=Scenario.loadCSV(Path.of(parameters.sweepFile),new Scenario(parameters.EI,parameters.cvI,parameters.ES,parameters.cvS,parameters.c));
+      } catch (IOException e) {
+        System.out.println(String.format("Error loading scenarios from %s: %s",parameters.sweepFile,e.getMessage()));
+        return;
+      }
+    } else {
+      scenarios=Scenario.grid(
+          (parameters.sweepEI!=null)?parameters.sweepEI:new double[]{parameters.EI},
+          (parameters.sweepCvI!=null)?parameters.sweepCvI:new double[]{parameters.cvI},
+          (parameters.sweepES!=null)?parameters.sweepES:new double[]{parameters.ES},
+          (parameters.sweepCvS!=null)?parameters.sweepCvS:new double[]{parameters.cvS},
+          (parameters.sweepC!=null)?parameters.sweepC:new double[]{parameters.c});
+    }
+
+    System.out.println(String.format("Parameter sweep: %d scenarios, up to %d replications with arrivals=%gM each, threads=%d\n",scenarios.size(),Math.max(1,parameters.replications),parameters.arrivalCount/1000000.0,executor.parallelism));
+    if (parameters.seed!=null) System.out.println(String.format("Seed: %d\n",parameters.seed));
+    if (parameters.classCount>1) System.out.println("Several customer classes are not supported for parameter sweeps; all customers form a single class\n");
+
+    /* Run sweep */
+    final var runner=new SweepRunner(scenarios,parameters.arrivalCount,parameters.replications,parameters.precision,parameters.confidence,parameters.ciMetrics,parameters.eventListType,parameters.engine,parameters.lockstep,parameters.warmup,parameters.getAbandonment(),executor,System.out,(parameters.seed==null)?null:new RandomStreams(parameters.seed),parameters.quantiles,arrivalDistribution,serviceDistribution);
+    final ProgressMonitor monitor=startProgressMonitor(parameters,executor.parallelism,((long)scenarios.size())*Math.max(1,parameters.replications)*parameters.arrivalCount);
+    runner.setProgressMonitor(monitor);
+    runner.setResultOutput(output);
+    final long runtimeMS=runner.run();
+    if (monitor!=null) monitor.stop();
+    if (executor.timedOut) System.out.println("");
+    printTimeout(executor,parameters);
+
+    System.out.println("");
+    System.out.println(String.format("Simulated replications: %d",runner.simulatedReplications));
+    System.out.println(String.format("Processed events: %gM",runner.eventCount/1000000.0));
+    System.out.println(String.format("Wall clock time: %dms",runtimeMS));
+    if (runtimeMS>0) System.out.println(String.format("Events/second: %gM",runner.eventCount*1000/runtimeMS/1000000.0));
+    System.out.println("");
+
+    if (output!=null) {
+      output.document.put("simulatedReplications",runner.simulatedReplications);
+      output.document.put("performance",ResultOutput.getPerformanceRecord(runner.eventCount,runtimeMS,runner.threadCount));
+      writeOutput(output,executor);
+    }
+  }
+
+  /**
+   * Converts a text file into a binary trace file.
+   * @param parameters  Parameters
+   */
+  private static void convertTrace(final Parameters parameters) {
+    final Path input=Path.of(parameters.traceConvertFile);
+    Path output;
+    if (parameters.traceOutputFile!=null) {
+      output=Path.of(parameters.traceOutputFile);
+    } else {
+      final String name=input.getFileName().toString();
+      final int index=name.lastIndexOf('.');
+      output=input.resolveSibling(((index>0)?name.substring(0,index):name)+".trace");
+    }
+    try {
+      final long count=TraceFile.convert(input,parameters.traceColumn,output,parameters.traceFormat,parameters.traceScale);
+      System.out.println(String.format("Converted column %d of %s to %s (%d values, format %s)",parameters.traceColumn,input,output,count,parameters.traceFormat.toString().toLowerCase()));
+    } catch (IOException e) {
+      System.out.println(String.format("Error converting %s: %s",input,e.getMessage()));
+    }
+  }
+
+  /**
+   * Creates and starts the live progress monitor (if enabled by the parameters).
+   * @param parameters  Parameters
+   * @param workerCount Number of worker threads (parallelism of the executor)
+   * @param arrivalGoal Planned total number of arrivals
+   * @return  Progress monitor or <code>null</code>, if no live progress metrics are requested
+   */
+  private static ProgressMonitor startProgressMonitor(final Parameters parameters, final int workerCount, final long arrivalGoal) {
+    if (parameters.progressInterval<=0 && !parameters.jmx && !parameters.jfr) return null;
+    final boolean print=(parameters.progressInterval>0);
+    final var monitor=new ProgressMonitor(workerCount,arrivalGoal,print?parameters.progressInterval:1,print?System.err:null,parameters.jfr);
+    monitor.start(parameters.jmx);
+    return monitor;
+  }
+
+  /**
+   * Runs the models on the executor (as many in parallel as the executor allows).
+   * @param queueModels Models to be run (the simulations run on copies created within the worker threads)
+   * @param executor  Executor running the models
+   * @param monitor Live progress monitor (can be null)
+   * @return  Simulated models in the order of the given models (without the models cancelled due to the time limit)
+   * @throws ExecutionException A model has thrown an exception
+   */
+  private static QueueModel[] runModels(final QueueModel[] queueModels, final ModelExecutor executor, final ProgressMonitor monitor) throws ExecutionException {
+    final QueueModel[] results=new QueueModel[queueModels.length];
+    executor.run(queueModels.length,i->true,(i,progress)->{
+      final QueueModel model=new QueueModel(queueModels[i]); /* Make memory allocations from within the thread. - Very important on NUMA systems.  */
+      model.setProgress(progress);
+      model.run();
+      return model;
+    },(model,i)->{results[i]=model;},monitor);
+    return Arrays.stream(results).filter(model->model!=null).toArray(QueueModel[]::new);
+  }
+
+  /**
+   * Loads or builds the queueing network.
+   * @param parameters  Parameters
+   * @param serviceDistribution Distribution of the service times
+   * @return  Network or <code>null</code>, if the network file could not be loaded
+   */
+  private static Network loadNetwork(final Parameters parameters, final DistributionSetup serviceDistribution) {
+    if (parameters.networkFile==null) {
+      return Network.of(parameters.networkTopology,parameters.stationCount,parameters.c,parameters.ES,parameters.cvS,serviceDistribution,parameters.feedback);
+    }
+    try {
+      return Network.load(Path.of(parameters.networkFile),parameters.c,parameters.ES,parameters.cvS,serviceDistribution);
+    } catch (IOException e) {
+      System.out.println(String.format("Error loading network from %s: %s",parameters.networkFile,e.getMessage()));
+      return null;
+    }
+  }
+
+  /**
+   * Prints the results of a single station of a queueing network.
+   * @param model Network simulation model
+   * @param station Station
+   * @param EI  Mean inter-arrival time of the external arrivals (for the expected work load)
+   */
+  private static void printStationResults(final NetworkModel model, final int station, final double EI) {
+    final StatisticsData waiting=model.stationWaitingTimeStat[station];
+    System.out.println(String.format("Station %d: c=%d, served customers=%d, E[W]=%g, E[S]=%g, E[NQ]=%g, Max[NQ]=%d, rho=%g%% (expected %g%%)",station+1,model.network.c[station],waiting.getCount(),waiting.getMean(),model.stationServiceTimeStat[station].getMean(),model.getMeanQueueLength(station),model.stationMaxQueueSize[station],model.getUtilization(station)*100,model.network.getRho(station,EI)*100));
+  }
+
+  /**
+   * Prints the simulation results of a queueing network.
+   * @param model Network simulation model
+   * @param EI  Mean inter-arrival time of the external arrivals (for the expected work loads)
+   * @param threadCount  Number of used threads
+   * @param confidence  Confidence level for the batch means confidence interval
+   * @param warmup  Warm-up period settings
+   */
+  private static void printNetworkResults(final NetworkModel model, final double EI, final int threadCount, final double confidence, final Warmup warmup) {
+    final int stations=model.network.stationCount;
+    System.out.println(String.format("Processed events: %gM",model.eventCount/1000000.0));
+    System.out.println(String.format("Customers who left the network: %gM",model.residenceTimeStat.getCount()/1000000.0));
+    System.out.println("");
+    for (int i=0;i<Math.min(stations,PRINT_STATIONS);i++) printStationResults(model,i,EI);
+    if (stations>PRINT_STATIONS) {
+      int bottleneck=0;
+      for (int i=1;i<stations;i++) if (model.getUtilization(i)>model.getUtilization(bottleneck)) bottleneck=i;
+      System.out.println(String.format("(%d further stations; use output=json for the results of all stations)",stations-PRINT_STATIONS));
+      System.out.println("Station with the highest utilization:");
+      printStationResults(model,bottleneck,EI);
+    }
+    System.out.println("");
+    System.out.println(String.format("Average number of station visits per customer: %g (expected %g)",model.getMeanVisits(),model.network.getTotalVisits()));
+    System.out.println(String.format("Average residence time in the network: E[V]=%g",model.residenceTimeStat.getMean()));
+    System.out.println(String.format("Standard deviation of the residence times: Std[V]=%g",model.residenceTimeStat.getSD()));
+    System.out.println(String.format("Coefficient of variation of the residence times CV[V]=%g",model.residenceTimeStat.getCV()));
+    System.out.println(String.format("Minimum residence time: Min[V]=%g",model.residenceTimeStat.getMin()));
+    System.out.println(String.format("Maximum residence time: Max[V]=%g",model.residenceTimeStat.getMax()));
+    System.out.println(String.format("%.1f%% confidence interval (batch means): E[V]=%g +/- %g",confidence*100,model.residenceTimeStat.getMean(),model.residenceTimeBatches.getConfidenceHalfWidth(confidence)));
+    printHigherMoments("residence times","V",model.residenceTimeStat);
+    printQuantiles("residence times","V",model.residenceTimeStat);
+    System.out.println("");
+    System.out.println(String.format("Average number of customers in the network: E[N]=%g",model.networkSize.getMean()));
+    if (model.networkSize.hasDistribution()) {
+      System.out.println(String.format("Maximum number of customers in the network: Max[N]=%d",model.networkSize.getMax()));
+      printStateQuantiles("number of customers in the network","N",model.networkSize);
+    }
+    System.out.println("");
+    if (model.warmupEndTime>=0) {
+      System.out.println(String.format("Warm-up period: %d arrivals not included in the statistics (last end of warm-up at t=%g)",model.warmupArrivalCount,model.warmupEndTime));
+    } else if (warmup.mode!=Warmup.Mode.NONE) {
+      System.out.println("Warm-up period: end of warm-up period was not reached");
+    }
+    System.out.println(String.format("Event list high watermark: %d",model.maxEventListSize));
+    System.out.println("");
     System.out.println(String.format("Wall clock time: %dms",model.runtimeMS));
     if (threadCount>1) System.out.println(String.format("Number of parallel threads: %d",threadCount));
     if (model.runtimeMS>0) System.out.println(String.format("Events/second: %gM",model.eventCount*1000/model.runtimeMS/1000000.0));
     if (threadCount>1 && model.runtimeMS>0) System.out.println(String.format("Events/second/thread: %gM",model.eventCount*1000/model.runtimeMS/1000000.0/threadCount));
   }
 
+  /**
+   * Simulates a queueing network.<br>
+   * The arrivals are split into one part per thread (or into a fixed number of chunks, if a seed is given; by default one chunk).
+   * @param parameters  Parameters
+   * @param arrivalDistribution Distribution of the inter-arrival times of the external arrivals
+   * @param serviceDistribution Distribution of the service times
+   * @param executor  Executor running the models
+   * @param output  Machine-readable result output (can be <code>null</code>)
+   * @throws ExecutionException A model has thrown an exception
+   */
+  private static void runNetwork(final Parameters parameters, final DistributionSetup arrivalDistribution, final DistributionSetup serviceDistribution, final ModelExecutor executor, final ResultOutput output) throws ExecutionException {
+    final Network network=loadNetwork(parameters,serviceDistribution);
+    if (network==null) return;
+
+    /* Start */
+    final String arrivalMode=arrivalDistribution.getDescription("I",parameters.EI,parameters.cvI);
+    final String structure=(parameters.networkFile!=null)?String.format("network from %s",parameters.networkFile):String.format("%s network",parameters.networkTopology.toString().toLowerCase());
+    System.out.println("Simple discrete event-oriented simulator for an open queueing network");
+    System.out.println(String.format("with %s, %d stations, %s, arrivals=%gM, threads=%d, event list=%s\n",structure,network.stationCount,arrivalMode,parameters.arrivalCount/1000000.0,parameters.threadCount,parameters.eventListType.toString().toLowerCase()));
+    if (parameters.networkFile==null) {
+      System.out.println(String.format("Stations: c=%d, %s, feedback=%g\n",parameters.c,serviceDistribution.getDescription("S",parameters.ES,parameters.cvS),parameters.feedback));
+    }
+    final int bottleneck=network.getBottleneck(parameters.EI);
+    final double maxRho=network.getRho(bottleneck,parameters.EI);
+    System.out.println(String.format("Expected station visits per customer: %g, highest work load: rho=%g%% at station %d\n",network.getTotalVisits(),maxRho*100,bottleneck+1));
+    if (maxRho>=1) System.out.println("Warning: the work load of at least one station is not below 100%; the queues will grow without limit\n");
+    if (parameters.replications>0 || parameters.isSweep() || parameters.traceIFile!=null || parameters.traceSFile!=null || parameters.classCount>1 || parameters.patience>0 || parameters.waitingRoom>=0 || parameters.loadBalancer || parameters.engine!=QueueModel.Engine.EVENTS) {
+      System.out.println("Replications, parameter sweeps, traces, customer classes, abandonment, load balancers and the Lindley engine are not supported for networks; these settings are ignored\n");
+    }
+    if (parameters.warmup.mode!=Warmup.Mode.NONE) System.out.println(String.format("Warm-up period: %s\n",parameters.warmup));
+    final RandomStreams streams=(parameters.seed==null)?null:new RandomStreams(parameters.seed);
+    final int parts=(streams!=null)?parameters.chunks:parameters.threadCount;
+    if (streams!=null) {
+      System.out.println(String.format("Seed: %d (%s streams)\n",parameters.seed,RandomStreams.ALGORITHM));
+      System.out.println(String.format("Reproducible mode: %d chunks\n",(int)Math.max(1,Math.min(parts,parameters.arrivalCount))));
+    }
+    if (parts>1 && parameters.warmup.mode==Warmup.Mode.NONE) {
+      System.out.println(String.format("Note: each of the %d parts starts with an empty network; a warm-up period per part (warmup=...) avoids the start-up bias\n",parts));
+    }
+    if (parameters.timeout>0) System.out.println(String.format("Time limit: %gs\n",parameters.timeout));
+    if (output!=null) {
+      output.document.put("mode","network");
+      output.document.put("parameters",ResultOutput.getParametersRecord(parameters,arrivalMode,serviceDistribution.getDescription("S",parameters.ES,parameters.cvS)));
+    }
+
+    /* Run simulation */
+    final var runner=new NetworkRunner(arrivalDistribution.getLambda(parameters.EI,parameters.cvI),network,parameters.arrivalCount,parts,parameters.eventListType,parameters.warmup,executor,streams,parameters.quantiles);
+    final ProgressMonitor monitor=startProgressMonitor(parameters,executor.parallelism,parameters.arrivalCount);
+    runner.setProgressMonitor(monitor);
+    final NetworkModel joinedModel=runner.run();
+    if (monitor!=null) monitor.stop();
+
+    /* Print results */
+    printTimeout(executor,parameters);
+    if (joinedModel==null) {
+      writeOutput(output,executor);
+      return;
+    }
+    printNetworkResults(joinedModel,parameters.EI,runner.threadCount,parameters.confidence,parameters.warmup);
+    System.out.println("");
+    if (output!=null) {
+      output.document.put("results",ResultOutput.getNetworkRecord(joinedModel,parameters.EI,parameters.confidence));
+      output.document.put("performance",ResultOutput.getPerformanceRecord(joinedModel.eventCount,joinedModel.runtimeMS,runner.threadCount));
+      writeOutput(output,executor);
+    }
+  }
+
+  /**
+   * Replays recorded inter-arrival and/or service times from binary trace files.<br>
+   * The arrivals are split into one contiguous shard per thread; each thread reads its own
+   * part of the trace files.
+   * @param parameters  Parameters
+   * @param arrivalDistribution Distribution of the inter-arrival times (used if there is no inter-arrival times trace)
+   * @param serviceDistribution Distribution of the service times (used if there is no service times trace)
+   * @param executor  Executor running the models
+   * @param output  Machine-readable result output (can be <code>null</code>)
+   * @throws ExecutionException A model has thrown an exception
+   */
+  private static void runTrace(final Parameters parameters, final DistributionSetup arrivalDistribution, final DistributionSetup serviceDistribution, final ModelExecutor executor, final ResultOutput output) throws ExecutionException {
+    TraceFile arrivalTrace=null;
+    TraceFile serviceTrace=null;
+    String file=null;
+    try {
+      file=parameters.traceIFile;
+      if (file!=null) arrivalTrace=new TraceFile(Path.of(file));
+      file=parameters.traceSFile;
+      if (file!=null) serviceTrace=new TraceFile(Path.of(file));
+    } catch (IOException e) {
+      System.out.println(String.format("Error loading trace from %s: %s",file,e.getMessage()));
+      try {
+        if (arrivalTrace!=null) arrivalTrace.close();
+      } catch (IOException e2) {}
+      return;
+    }
+
+    final long arrivalCount=(arrivalTrace!=null)?arrivalTrace.count:parameters.arrivalCount;
+    final int threadCount=(int)Math.max(1,Math.min(parameters.threadCount,arrivalCount));
+    final String arrivalMode=(arrivalTrace!=null)?String.format("I from trace %s",arrivalTrace.file):arrivalDistribution.getDescription("I",parameters.EI,parameters.cvI);
+    final String serviceMode=(serviceTrace!=null)?String.format("S from trace %s",serviceTrace.file):serviceDistribution.getDescription("S",parameters.ES,parameters.cvS);
+    System.out.println("Simple discrete event-oriented simulator for a G/G/c model");
+    System.out.println(String.format("with %s, %s, c=%d, arrivals=%gM, threads=%d, event list=%s\n",arrivalMode,serviceMode,parameters.c,arrivalCount/1000000.0,threadCount,parameters.eventListType.toString().toLowerCase()));
+    if (serviceTrace!=null && serviceTrace.count<arrivalCount) System.out.println(String.format("Service times trace contains only %d values; the values of each shard are reused\n",serviceTrace.count));
+    final Abandonment abandonment=parameters.getAbandonment();
+    if (abandonment.isActive()) System.out.println(String.format("Abandonment: %s\n",parameters.getAbandonmentDescription()));
+    if (parameters.classCount>1) System.out.println("Several customer classes are not supported for traces; all customers form a single class\n");
+    if (output!=null) {
+      output.document.put("mode","trace");
+      output.document.put("parameters",ResultOutput.getParametersRecord(parameters,arrivalMode,serviceMode));
+    }
+
+    try {
+      /* Initialize models (one shard per thread) */
+      final TraceReader[] arrivalReaders=(arrivalTrace!=null)?arrivalTrace.getShards(threadCount):null;
+      final TraceReader[] serviceReaders=(serviceTrace!=null)?serviceTrace.getShards(threadCount):null;
+      final QueueModel[] queueModels=new QueueModel[threadCount];
+      for (int i=0;i<threadCount;i++) {
+        final long arrivals=arrivalCount*(i+1)/threadCount-arrivalCount*i/threadCount;
+        final var transformEI=(arrivalReaders!=null)?arrivalReaders[i]:arrivalDistribution.getLambda(parameters.EI,parameters.cvI);
+        final var transformES=(serviceReaders!=null)?serviceReaders[i]:serviceDistribution.getLambda(parameters.ES,parameters.cvS);
+        queueModels[i]=new QueueModel(transformEI,transformES,parameters.c,arrivals,false,null,parameters.eventListType,0,parameters.warmup,null,parameters.quantiles,parameters.engine,abandonment);
+      }
+
+      /* Run simulation threads */
+      final long startTime=System.currentTimeMillis();
+      final ProgressMonitor monitor=startProgressMonitor(parameters,executor.parallelism,arrivalCount);
+      final QueueModel[] simulatedModels=runModels(queueModels,executor,monitor);
+      if (monitor!=null) monitor.stop();
+      final long runtimeMS=System.currentTimeMillis()-startTime;
+
+      /* Print results */
+      printTimeout(executor,parameters);
+      if (simulatedModels.length==0) {
+        writeOutput(output,executor);
+        return;
+      }
+      QueueModel joinedModel=simulatedModels[0];
+      for (int i=1;i<simulatedModels.length;i++) joinedModel=QueueModel.join(joinedModel,simulatedModels[i]);
+      printResults(joinedModel,parameters.c,Math.min(executor.parallelism,threadCount),parameters.confidence,parameters.warmup);
+      System.out.println(String.format("Wall clock time: %dms",runtimeMS));
+      if (runtimeMS>0) System.out.println(String.format("Arrivals/second: %gM",arrivalCount*1000.0/runtimeMS/1000000.0));
+      System.out.println("");
+
+      if (output!=null) {
+        output.document.put("results",ResultOutput.getModelRecord(joinedModel,parameters.c,parameters.confidence));
+        output.document.put("threads",ResultOutput.getThreadRecords(simulatedModels));
+        output.document.put("performance",ResultOutput.getPerformanceRecord(joinedModel.eventCount,runtimeMS,Math.min(executor.parallelism,threadCount)));
+        writeOutput(output,executor);
+      }
+    } finally {
+      try {
+        if (arrivalTrace!=null) arrivalTrace.close();
+        if (serviceTrace!=null) serviceTrace.close();
+      } catch (IOException e) {}
+    }
+  }
+
   /**
    * Main functions
    * @param args    Command-line parameters
    */
   public static void main(final String[] args) {
+    try {
+      run(args);
+    } catch (ExecutionException e) {
+      System.out.println(String.format("Error in simulation task: %s",e.getCause()));
+      e.getCause().printStackTrace();
+      System.exit(1);
+    }
+  }
+
+  /**
+   * Runs the simulation as specified by the command-line parameters.
+   * @param args    Command-line parameters
+   * @throws ExecutionException A simulation task has thrown an exception
+   */
+  private static void run(final String[] args) throws ExecutionException {
     /* Load parameters */
     final var parameters=new Parameters(args);
+    final var executor=new ModelExecutor(parameters.getParallelism(),parameters.virtualThreads,parameters.timeout);
 
-    /* Start */
-    String arrivalMode;
-    if (parameters.cvI==1.0) {
-      arrivalMode=String.format("EI[I]=%g (exp)",parameters.EI);
-    } else {
-        arrivalMode=String.format("EI[I]=%g, CV[I]=%g (log-normal)",parameters.EI,parameters.cvI);
+    /* Convert text file to binary trace file */
+    if (parameters.traceConvertFile!=null) {
+      convertTrace(parameters);
+      return;
     }
-    String serviceMode;
-    if (parameters.cvI==1.0) {
-      serviceMode=String.format("EI[S]=%g (exp)",parameters.ES);
-    } else {
-      serviceMode=String.format("EI[S]=%g, CV[S]=%g (log-normal)",parameters.ES,parameters.cvS);
+
+    /* Machine-readable output */
+    ResultOutput output=null;
+    if (parameters.outputFormat!=ResultOutput.Format.TEXT) {
+      output=new ResultOutput(parameters.outputFormat,parameters.outputFile,System.out);
+      if (parameters.outputFile==null) System.setOut(System.err); /* Keep stdout free for the machine-readable output */
+    }
+
+    /* Load distributions */
+    final DistributionSetup arrivalDistribution=loadDistribution(parameters.distI,parameters.distIFile);
+    final DistributionSetup serviceDistribution=loadDistribution(parameters.distS,parameters.distSFile);
+    if (arrivalDistribution==null || serviceDistribution==null) return;
+    if (arrivalDistribution.empirical!=null) {
+      parameters.EI=arrivalDistribution.empirical.getMean();
+      parameters.cvI=arrivalDistribution.empirical.getSD()/parameters.EI;
+    }
+    if (serviceDistribution.empirical!=null) {
+      parameters.ES=serviceDistribution.empirical.getMean();
+      parameters.cvS=serviceDistribution.empirical.getSD()/parameters.ES;
     }
+
+    /* Queueing network */
+    if (parameters.isNetwork()) {
+      runNetwork(parameters,arrivalDistribution,serviceDistribution,executor,output);
+      return;
+    }
+
+    /* Trace-driven simulation */
+    if (parameters.traceIFile!=null || parameters.traceSFile!=null) {
+      runTrace(parameters,arrivalDistribution,serviceDistribution,executor,output);
+      return;
+    }
+
+    /* Parameter sweep */
+    if (parameters.isSweep()) {
+      System.out.println("Simple discrete event-oriented simulator for a G/G/c model");
+      if (output!=null) {
+        output.document.put("mode","sweep");
+        output.document.put("parameters",ResultOutput.getParametersRecord(parameters,arrivalDistribution.getDescription("I",parameters.EI,parameters.cvI),serviceDistribution.getDescription("S",parameters.ES,parameters.cvS)));
+      }
+      runSweep(parameters,arrivalDistribution,serviceDistribution,executor,output);
+      return;
+    }
+
+    /* Start */
+    final String arrivalMode=arrivalDistribution.getDescription("I",parameters.EI,parameters.cvI);
+    final String serviceMode=serviceDistribution.getDescription("S",parameters.ES,parameters.cvS);
     System.out.println("Simple discrete event-oriented simulator for a G/G/c model");
-    System.out.println(String.format("with %s, %s, c=%d, arrivals=%gM, threads=%d\n",arrivalMode,serviceMode,parameters.c,parameters.arrivalCount/1000000.0,parameters.threadCount));
+    System.out.println(String.format("with %s, %s, c=%d, arrivals=%gM, threads=%d, event list=%s\n",arrivalMode,serviceMode,parameters.c,parameters.arrivalCount/1000000.0,parameters.threadCount,parameters.eventListType.toString().toLowerCase()));
+    if (parameters.engine!=QueueModel.Engine.EVENTS) System.out.println(String.format("Engine: %s (waiting times from the Kiefer-Wolfowitz recursion; FIFO only)\n",parameters.engine.toString().toLowerCase()));
+    if (parameters.patience>0 || parameters.waitingRoom>=0) System.out.println(String.format("Abandonment: %s\n",parameters.getAbandonmentDescription()));
+    if (parameters.abandonmentIgnored) System.out.println("Patience times and finite waiting rooms are not supported for several customer classes; these settings are ignored\n");
+    if (parameters.classCount>1) {
+      final String order=(parameters.discipline==CustomerClasses.Discipline.WEIGHTED)?"waiting classes are selected randomly by their weights":"class 1 has the highest priority";
+      System.out.println(String.format("Customer classes: %d (%s; %s)",parameters.classCount,parameters.discipline.toString().toLowerCase().replace('_','-'),order));
+      for (int i=0;i<parameters.classCount;i++) {
+        final String weight=(parameters.discipline==CustomerClasses.Discipline.WEIGHTED)?String.format(", weight=%g",parameters.getClassWeight(i)):"";
+        System.out.println(String.format("  Class %d: %s, %s%s",i+1,arrivalDistribution.getDescription("I",parameters.getClassEI(i),parameters.getClassCvI(i)),serviceDistribution.getDescription("S",parameters.getClassES(i),parameters.getClassCvS(i)),weight));
+      }
+      System.out.println("");
+    }
+    if (parameters.lockstep) {
+      if (parameters.replications<=0 && parameters.seed==null) {
+        System.out.println("Lockstep: only used for replications or seeded runs; ignored in this mode (the models use the lindley engine)\n");
+      } else if (LockstepBatch.isSupported(parameters.warmup,parameters.quantiles)) {
+        System.out.println(String.format("Lockstep: %d replications per batch (%s)\n",LockstepBatch.LANES,RandomNumbers.VECTOR_API?"Vector API":"scalar"));
+      } else {
+        System.out.println("Lockstep: not available for quantiles or time-based/MSER warm-up; replications are simulated one by one\n");
+      }
+    }
+    if (parameters.warmup.mode!=Warmup.Mode.NONE) System.out.println(String.format("Warm-up period: %s\n",parameters.warmup));
+    if (parameters.seed!=null) {
+      System.out.println(String.format("Seed: %d (%s streams)\n",parameters.seed,RandomStreams.ALGORITHM));
+    }
+    if (parameters.poolSize>0 || parameters.virtualThreads) {
+      System.out.println(String.format("Executor: %s, %d models in parallel\n",parameters.virtualThreads?"virtual threads":"thread pool",executor.parallelism));
+    }
+    if (parameters.timeout>0) System.out.println(String.format("Time limit: %gs\n",parameters.timeout));
+    if (output!=null) {
+      output.document.put("mode",(parameters.replications>0)?"replications":((parameters.seed!=null)?"chunks":"threads"));
+      output.document.put("parameters",ResultOutput.getParametersRecord(parameters,arrivalMode,serviceMode));
+    }
+    if (parameters.replications>0) {
+      System.out.println(String.format("Replication mode: up to %d replications with arrivals=%gM each, target precision=%g%%\n",parameters.replications,parameters.arrivalCount/1000000.0,parameters.precision*100));
+    }
 
     /* Initialize models */
     final QueueModel[] queueModels=new QueueModel[parameters.threadCount];
-    final var transformEI=RandomNumbers.getRandomNumbersLambda((parameters.cvI==1.0)?RandomNumbers.RandomDistribution.EXP:RandomNumbers.RandomDistribution.LOG_NORMAL,parameters.EI,parameters.cvI*parameters.EI);
-    final var transformES=RandomNumbers.getRandomNumbersLambda((parameters.cvS==1.0)?RandomNumbers.RandomDistribution.EXP:RandomNumbers.RandomDistribution.LOG_NORMAL,parameters.ES,parameters.cvS*parameters.ES);
-    if (parameters.loadBalancer) {
+    final var transformEI=arrivalDistribution.getLambda(parameters.EI,parameters.cvI);
+    final var transformES=serviceDistribution.getLambda(parameters.ES,parameters.cvS);
+    final Abandonment abandonment=parameters.getAbandonment();
+    final CustomerClasses classes=parameters.getClasses(arrivalDistribution,serviceDistribution);
+    final int queueCapacityHint=ErlangC.getQueueCapacityHint(parameters.EI,parameters.cvI,parameters.ES,parameters.cvS,parameters.c,parameters.arrivalCount);
+    final RandomStreams streams=(parameters.seed==null)?null:new RandomStreams(parameters.seed);
+    if (parameters.replications>0) {
+      /* Independent replications */
+      final var runner=new ReplicationRunner(transformEI,transformES,parameters.c,parameters.arrivalCount,parameters.eventListType,parameters.engine,parameters.lockstep,queueCapacityHint,parameters.warmup,abandonment,classes,parameters.replications,parameters.precision,parameters.confidence,parameters.ciMetrics,executor,streams,parameters.quantiles);
+      final ProgressMonitor monitor=startProgressMonitor(parameters,executor.parallelism,parameters.replications*parameters.arrivalCount);
+      runner.setProgressMonitor(monitor);
+      final QueueModel joinedModel=runner.run();
+      if (monitor!=null) monitor.stop();
+      printTimeout(executor,parameters);
+      if (joinedModel==null) {
+        writeOutput(output,executor);
+        return;
+      }
+      printReplicationResults(runner);
+      printResults(joinedModel,parameters.c,runner.threadCount,parameters.confidence,parameters.warmup);
+      System.out.println("");
+      if (output!=null) {
+        output.document.put("replications",ResultOutput.getReplicationRecord(runner));
+        output.document.put("results",ResultOutput.getModelRecord(joinedModel,parameters.c,parameters.confidence));
+        output.document.put("performance",ResultOutput.getPerformanceRecord(joinedModel.eventCount,joinedModel.runtimeMS,runner.threadCount));
+        writeOutput(output,executor);
+      }
+      return;
+    }
+
+    if (streams!=null) {
+      /* Reproducible mode: fixed number of chunks, each with its own random number stream, evaluated in chunk order */
+      final int chunks=(int)Math.max(1,Math.min(parameters.chunks,parameters.arrivalCount));
+      final long arrivalsPerChunk=(parameters.arrivalCount+chunks-1)/chunks;
+      System.out.println(String.format("Reproducible mode: %d chunks with arrivals=%gM each\n",chunks,arrivalsPerChunk/1000000.0));
+      final var runner=new ReplicationRunner(transformEI,transformES,parameters.c,arrivalsPerChunk,parameters.eventListType,parameters.engine,parameters.lockstep,ErlangC.getQueueCapacityHint(parameters.EI,parameters.cvI,parameters.ES,parameters.cvS,parameters.c,arrivalsPerChunk),parameters.warmup,abandonment,classes,chunks,0,parameters.confidence,parameters.ciMetrics,executor,streams,parameters.quantiles);
+      final ProgressMonitor monitor=startProgressMonitor(parameters,executor.parallelism,chunks*arrivalsPerChunk);
+      runner.setProgressMonitor(monitor);
+      final QueueModel joinedModel=runner.run();
+      if (monitor!=null) monitor.stop();
+      printTimeout(executor,parameters);
+      if (joinedModel==null) {
+        writeOutput(output,executor);
+        return;
+      }
+      printResults(joinedModel,parameters.c,runner.threadCount,parameters.confidence,parameters.warmup);
+      System.out.println("");
+      if (output!=null) {
+        output.document.put("chunks",chunks);
+        output.document.put("results",ResultOutput.getModelRecord(joinedModel,parameters.c,parameters.confidence));
+        output.document.put("performance",ResultOutput.getPerformanceRecord(joinedModel.eventCount,joinedModel.runtimeMS,runner.threadCount));
+        writeOutput(output,executor);
+      }
+      return;
+    }
+
+    if (parameters.adaptiveLoadBalancer) {
+      /* Use lock-free load balancer with adaptive package sizes */
+      final var loadBalancer=new AdaptiveLoadBalancer(parameters.arrivalCount,parameters.threadCount);
+      for (int i=0;i<parameters.threadCount;i++) {
+        queueModels[i]=new QueueModel(transformEI,transformES,parameters.c,0,false,()->loadBalancer.getNextTask(),parameters.eventListType,queueCapacityHint,parameters.warmup,null,parameters.quantiles,parameters.engine,abandonment,classes);
+      }
+    } else if (parameters.loadBalancer) {
       /* Use load balancer */
       final var loadBalancer=new LoadBalancer(parameters.arrivalCount,parameters.threadCount);
       for (int i=0;i<parameters.threadCount;i++) {
-        queueModels[i]=new QueueModel(transformEI,transformES,parameters.c,0,false,()->loadBalancer.getNextTask());
+        queueModels[i]=new QueueModel(transformEI,transformES,parameters.c,0,false,()->loadBalancer.getNextTask(),parameters.eventListType,queueCapacityHint,parameters.warmup,null,parameters.quantiles,parameters.engine,abandonment,classes);
       }
     } else {
       /* Just split arrivals into equal sized parts */
@@ -110,38 +805,61 @@ public class Main {
       for (int i=0;i<parameters.threadCount-1;i++) {
         final long value=parameters.arrivalCount/parameters.threadCount;
         sum+=value;
-        queueModels[i]=new QueueModel(transformEI,transformES,parameters.c,value,false,null);
+        queueModels[i]=new QueueModel(transformEI,transformES,parameters.c,value,false,null,parameters.eventListType,queueCapacityHint,parameters.warmup,null,parameters.quantiles,parameters.engine,abandonment,classes);
       }
-      queueModels[queueModels.length-1]=new QueueModel(transformEI,transformES,parameters.c,parameters.arrivalCount-sum,false,null);
+      queueModels[queueModels.length-1]=new QueueModel(transformEI,transformES,parameters.c,parameters.arrivalCount-sum,false,null,parameters.eventListType,queueCapacityHint,parameters.warmup,null,parameters.quantiles,parameters.engine,abandonment,classes);
     }
 
     /* Run simulation threads */
-    final Thread[] threads=new Thread[parameters.threadCount];
-    for (int i=0;i<threads.length;i++) {
-        queueModels[i]=new QueueModel(queueModels[i]); /* Make memory allocations from within the thread. - Very important on NUMA systems.  */
-        final QueueModel model=queueModels[i];
-        threads[i]=new Thread(()->model.run());
-        threads[i].start();
-    }
-    try {
-      for (int i=0;i<threads.length;i++) threads[i].join();
-    } catch (InterruptedException e) {}
+    final long startTime=System.currentTimeMillis();
+    final ProgressMonitor monitor=startProgressMonitor(parameters,executor.parallelism,parameters.arrivalCount);
+    final QueueModel[] simulatedModels=runModels(queueModels,executor,monitor);
+    if (monitor!=null) monitor.stop();
+    final long runtimeMS=System.currentTimeMillis()-startTime;
 
     /* Print results */
-    QueueModel joinedModel=queueModels[0];
-    for (int i=1;i<queueModels.length;i++) joinedModel=QueueModel.join(joinedModel,queueModels[i]);
-    printResults(joinedModel,parameters.c,parameters.threadCount);
+    printTimeout(executor,parameters);
+    if (simulatedModels.length==0) {
+      writeOutput(output,executor);
+      return;
+    }
+    QueueModel joinedModel=simulatedModels[0];
+    for (int i=1;i<simulatedModels.length;i++) joinedModel=QueueModel.join(joinedModel,simulatedModels[i]);
+    joinedModel.runtimeMS=runtimeMS;
+    final int parallelThreads=Math.min(executor.parallelism,parameters.threadCount);
+    printResults(joinedModel,parameters.c,parallelThreads,parameters.confidence,parameters.warmup);
 
     if (parameters.showTimes) {
       System.out.println("");
       System.out.println("Runtimes per Thread:");
-      Arrays.stream(queueModels).map(model->model.runtimeMS).forEach(System.out::println);
+      System.out.println("Thread\tRuntime [ms]\tEvents\tEvents/second");
+      for (int i=0;i<simulatedModels.length;i++) {
+        final QueueModel model=simulatedModels[i];
+        System.out.println(String.format("%d\t%d\t%d\t%g",i+1,model.runtimeMS,model.eventCount,(model.runtimeMS>0)?model.eventCount*1000.0/model.runtimeMS:0));
+      }
     }
 
     if (parameters.loadBalancer) {
       System.out.println("");
       System.out.println("Arrivals per Thread:");
-      Arrays.stream(queueModels).map(model->model.arrivalGoal).forEach(System.out::println);
+      System.out.println("Thread\tArrivals");
+      for (int i=0;i<simulatedModels.length;i++) System.out.println(String.format("%d\t%d",i+1,simulatedModels[i].arrivalGoal));
+
+      System.out.println("");
+      System.out.println("Load balancer statistics per Thread:");
+      System.out.println("Thread\tPackages\tWait [ms]\tIdle [ms]");
+      final long maxRuntimeMS=Arrays.stream(simulatedModels).mapToLong(model->model.runtimeMS).max().orElse(0);
+      for (int i=0;i<simulatedModels.length;i++) {
+        final QueueModel model=simulatedModels[i];
+        System.out.println(String.format("%d\t%d\t%.3f\t%d",i+1,model.loadBalancerRequests,model.loadBalancerWaitNS/1000000.0,maxRuntimeMS-model.runtimeMS));
+      }
+    }
+
+    if (output!=null) {
+      output.document.put("results",ResultOutput.getModelRecord(joinedModel,parameters.c,parameters.confidence));
+      output.document.put("threads",ResultOutput.getThreadRecords(simulatedModels));
+      output.document.put("performance",ResultOutput.getPerformanceRecord(joinedModel.eventCount,joinedModel.runtimeMS,parallelThreads));
+      writeOutput(output,executor);
     }
 
     /* Quit */
@@ -0,0 +1,207 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.HashSet;
+import java.util.Set;
+import java.util.concurrent.ArrayBlockingQueue;
+import java.util.concurrent.BlockingQueue;
+import java.util.concurrent.CompletionService;
+import java.util.concurrent.ExecutionException;
+import java.util.concurrent.ExecutorCompletionService;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.Future;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.function.IntPredicate;
+import java.util.function.ObjIntConsumer;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
+
+/**
+ * Runs simulation tasks (one {@link QueueModel} or one batch of models each) on a thread pool or on virtual threads.<br>
+ * The tasks are submitted lazily, so there are never more than {@link #maxInFlight} tasks
+ * in flight, even if there are 10^5 tasks. The completed models are handed to a merger
+ * on the calling thread in completion order while the other tasks are still running.<br>
+ * When a task starts, it takes one of the {@link #parallelism} worker slots (and so the progress
+ * counters of this worker) and returns it when it ends. So no more than {@link #parallelism} tasks
+ * run at the same time (also on virtual threads) and each progress record belongs to one running worker.<br>
+ * Each call of {@link #run(int, IntPredicate, Task, ObjIntConsumer, ProgressMonitor)} uses its
+ * own executor, which is closed before the method returns: If a task fails, the time limit
+ * is exceeded or the calling thread is interrupted, all remaining tasks are cancelled
+ * (the models check the interrupt flag periodically) and the method only returns after
+ * all threads have stopped.
+ */
+public class ModelExecutor {
+  /**
+   * Simulation task
+   * @param <T> Type of the result (simulated model or batch of models)
+   */
+  @FunctionalInterface
+  public interface Task<T> {
+    /**
+     * Creates and runs a model (called on the worker thread).
+     * @param index Index of the task
+     * @param progress  Live progress counters to be passed to the model (can be <code>null</code>)
+     * @return  Simulated model (or batch of models)
+     */
+    T run(int index, SimulationProgress progress);
+  }
+
+  /**
+   * Completed task
+   * @param <T> Type of the result
+   */
+  private static final class Completed<T> {
+    /**
+     * Index of the task
+     */
+    final int index;
+
+    /**
+     * Simulated model
+     */
+    final T model;
+
+    /**
+     * Constructor
+     * @param index Index of the task
+     * @param model Simulated model
+     */
+    Completed(final int index, final T model) {
+      this.index=index;
+      this.model=model;
+    }
+  }
+
+  /**
+   * Number of tasks which are executed in parallel (pool size or number of concurrently running virtual threads); also the number of progress records
+   */
+  public final int parallelism;
+
+  /**
+   * Use virtual threads (instead of a pool of platform threads)?
+   */
+  public final boolean virtualThreads;
+
+  /**
+   * Maximum number of tasks in flight (running or waiting for a worker slot)
+   */
+  private final int maxInFlight;
+
+  /**
+   * Time limit for one call of {@link #run(int, IntPredicate, Task, ObjIntConsumer, ProgressMonitor)} in ns (0 means: no limit)
+   */
+  private final long timeoutNS;
+
+  /**
+   * Has the last run been stopped because the time limit was exceeded (or because the calling thread was interrupted)?
+   */
+  public boolean timedOut;
+
+  /**
+   * Constructor
+   * @param parallelism Number of tasks which are executed in parallel
+   * @param virtualThreads  Use virtual threads (instead of a pool of platform threads)?
+   * @param timeoutSeconds  Time limit for one run in seconds (0 means: no limit)
+   */
+  public ModelExecutor(final int parallelism, final boolean virtualThreads, final double timeoutSeconds) {
+    this.parallelism=Math.max(1,parallelism);
+    this.virtualThreads=virtualThreads;
+    maxInFlight=2*this.parallelism; /* One task waiting per worker, so no worker is idle while the merger submits the next task */
+    timeoutNS=(timeoutSeconds>0)?Math.round(timeoutSeconds*1E9):0;
+  }
+
+  /**
+   * Creates the executor for one run.
+   * @return  New executor
+   */
+  private ExecutorService createExecutor() {
+    if (virtualThreads) return Executors.newVirtualThreadPerTaskExecutor();
+    final AtomicInteger threadNumber=new AtomicInteger();
+    final ThreadFactory factory=runnable->new Thread(runnable,"Simulation-"+threadNumber.incrementAndGet());
+    return Executors.newFixedThreadPool(parallelism,factory);
+  }
+
+  /**
+   * Runs the tasks.
+   * @param taskCount Number of tasks
+   * @param filter  Called on the calling thread in index order before a task is submitted; if it returns <code>false</code>, the task is skipped
+   * @param task  Simulation task
+   * @param merger  Receives the completed models and the task indices on the calling thread (in completion order)
+   * @param monitor Live progress monitor with at least {@link #parallelism} workers (can be <code>null</code>)
+   * @param <T> Type of the task results
+   * @return  Number of completed (merged) tasks
+   * @throws ExecutionException A task has thrown an exception (all other tasks have been cancelled)
+   */
+  public <T> int run(final int taskCount, final IntPredicate filter, final Task<T> task, final ObjIntConsumer<T> merger, final ProgressMonitor monitor) throws ExecutionException {
+    timedOut=false;
+    final long deadline=System.nanoTime()+timeoutNS;
+    final BlockingQueue<Integer> freeWorkers=new ArrayBlockingQueue<>(parallelism);
+    for (int i=0;i<parallelism;i++) freeWorkers.add(i);
+    final Set<Future<Completed<T>>> inFlight=new HashSet<>();
+    int next=0;
+    int completed=0;
+
+    try (ExecutorService executor=createExecutor()) {
+      final CompletionService<Completed<T>> completion=new ExecutorCompletionService<>(executor);
+      try {
+        while (true) {
+          /* Submit tasks up to the in-flight limit; each task takes a worker slot when it starts */
+          while (inFlight.size()<maxInFlight && next<taskCount) {
+            final int index=next++;
+            if (!filter.test(index)) continue;
+            inFlight.add(completion.submit(()->{
+              final int worker=freeWorkers.take();
+              try {
+                return new Completed<>(index,task.run(index,(monitor==null)?null:monitor.getProgress(worker)));
+              } finally {
+                freeWorkers.add(worker);
+              }
+            }));
+          }
+          if (inFlight.isEmpty()) break;
+
+          /* Wait for the next completed task */
+          Future<Completed<T>> future;
+          if (timeoutNS==0) {
+            future=completion.take();
+          } else {
+            final long remainingNS=deadline-System.nanoTime();
+            future=(remainingNS>0)?completion.poll(remainingNS,TimeUnit.NANOSECONDS):null;
+            if (future==null) {
+              timedOut=true;
+              break;
+            }
+          }
+          inFlight.remove(future);
+          final Completed<T> result=future.get();
+          merger.accept(result.model,result.index);
+          completed++;
+        }
+      } catch (InterruptedException e) {
+        timedOut=true;
+        Thread.currentThread().interrupt();
+      } finally {
+        /* Cancel the remaining tasks; closing the executor waits until they have stopped */
+        for (Future<Completed<T>> future: inFlight) future.cancel(true);
+      }
+    }
+    return completed;
+  }
+}
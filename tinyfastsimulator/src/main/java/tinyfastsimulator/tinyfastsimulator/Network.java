@@ -0,0 +1,465 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.AliasTable;
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+
+/**
+ * Settings for a {@link NetworkModel} (open queueing network).<br>
+ * Each station has its own number of operators, service time distribution and FIFO queue.
+ * The customers arrive from outside in one arrival stream, enter the network at a randomly
+ * chosen station and are routed after each service to the next station or out of the network.
+ * All random choices are drawn from {@link AliasTable}s in O(1).
+ */
+public class Network {
+  /**
+   * Predefined network structures
+   */
+  public static enum Topology {
+    /** Stations in a row; after the last station the customers leave (or return to the first station with the feedback probability) */
+    TANDEM,
+    /** After each service the customers go to a uniformly chosen station with the feedback probability and leave otherwise (Jackson network) */
+    RANDOM
+  }
+
+  /**
+   * Routing target for leaving the network
+   */
+  public static final int EXIT=-1;
+
+  /**
+   * Marker in {@link #nextStation} for stations whose next station has to be drawn from {@link #routes}
+   */
+  public static final int RANDOM_TARGET=-2;
+
+  /**
+   * Maximum number of sweeps for solving the traffic equations
+   */
+  private static final int MAX_TRAFFIC_SWEEPS=100_000;
+
+  /**
+   * Number of stations
+   */
+  public final int stationCount;
+
+  /**
+   * Number of operators per station
+   */
+  public final int[] c;
+
+  /**
+   * Mean service time per station
+   */
+  public final double[] ES;
+
+  /**
+   * Coefficient of variation of the service times per station
+   */
+  public final double[] cvS;
+
+  /**
+   * Generators for the service times (stations with the same service time distribution share one generator)
+   */
+  public final BlockGenerator[] serviceTimes;
+
+  /**
+   * Index of the service time generator in {@link #serviceTimes} per station
+   */
+  public final int[] serviceIndex;
+
+  /**
+   * Stations at which the customers enter the network
+   */
+  public final int[] entryTargets;
+
+  /**
+   * Selection of the entry station (index into {@link #entryTargets}; <code>null</code> if there is only one entry station)
+   */
+  public final AliasTable entry;
+
+  /**
+   * Possible next stations per station ({@link #EXIT} for leaving the network; stations with the same routing share one array)
+   */
+  public final int[][] routeTargets;
+
+  /**
+   * Selection of the next station per station (index into {@link #routeTargets}; <code>null</code> if there is only one target; stations with the same routing share one table)
+   */
+  public final AliasTable[] routes;
+
+  /**
+   * Next station per station if it is always the same ({@link #EXIT} for leaving the network, {@link #RANDOM_TARGET} otherwise; saves loading the routing arrays in tandem networks)
+   */
+  public final int[] nextStation;
+
+  /**
+   * Expected number of visits per station of a customer (solution of the traffic equations)
+   */
+  public final double[] visits;
+
+  /**
+   * Constructor
+   * @param c Number of operators per station
+   * @param ES  Mean service time per station
+   * @param cvS Coefficient of variation of the service times per station
+   * @param serviceDistribution Distribution of the service times (scaled to the mean of each station)
+   * @param entryWeights  Weights of the stations for entering the network (at least one weight has to be positive)
+   * @param targets Next stations per station (without {@link #EXIT}; consecutive stations may share one array)
+   * @param probabilities Probabilities for the next stations per station (the remaining probability is the probability of leaving the network; has to be the same array for stations sharing the targets array)
+   */
+  public Network(final int[] c, final double[] ES, final double[] cvS, final DistributionSetup serviceDistribution, final double[] entryWeights, final int[][] targets, final double[][] probabilities) {
+    stationCount=c.length;
+    if (stationCount==0) throw new IllegalArgumentException("At least one station is needed");
+    if (ES.length!=stationCount || cvS.length!=stationCount || entryWeights.length!=stationCount || targets.length!=stationCount || probabilities.length!=stationCount) throw new IllegalArgumentException("All station arrays must have the same length");
+    for (int i=0;i<stationCount;i++) {
+      if (c[i]<=0) throw new IllegalArgumentException("Each station needs at least one operator");
+      if (!(ES[i]>0) || !(cvS[i]>=0)) throw new IllegalArgumentException("Service times need a positive mean and a non-negative CV");
+    }
+    this.c=c;
+    this.ES=ES;
+    this.cvS=cvS;
+
+    /* Service time generators (one per distinct distribution) */
+    serviceIndex=new int[stationCount];
+    final Map<List<Double>,Integer> distributions=new HashMap<>();
+    final List<BlockGenerator> generators=new ArrayList<>();
+    for (int i=0;i<stationCount;i++) {
+      final int index=i;
+      serviceIndex[i]=distributions.computeIfAbsent(List.of(ES[i],cvS[i]),key->{
+        generators.add(serviceDistribution.getLambda(ES[index],cvS[index]));
+        return generators.size()-1;
+      });
+    }
+    serviceTimes=generators.toArray(BlockGenerator[]::new);
+
+    /* Entry stations */
+    int entryCount=0;
+    for (int i=0;i<stationCount;i++) if (entryWeights[i]>0) entryCount++;
+    entryTargets=new int[entryCount];
+    final double[] usedEntryWeights=new double[entryCount];
+    entryCount=0;
+    for (int i=0;i<stationCount;i++) if (entryWeights[i]>0) {
+      entryTargets[entryCount]=i;
+      usedEntryWeights[entryCount++]=entryWeights[i];
+    }
+    entry=(entryCount>1)?new AliasTable(usedEntryWeights):null;
+    if (entryCount==0) throw new IllegalArgumentException("At least one station needs a positive entry weight");
+
+    /* Routing */
+    routeTargets=new int[stationCount][];
+    routes=new AliasTable[stationCount];
+    nextStation=new int[stationCount];
+    for (int i=0;i<stationCount;i++) {
+      if (i>0 && targets[i]==targets[i-1] && probabilities[i]==probabilities[i-1]) {
+        routeTargets[i]=routeTargets[i-1];
+        routes[i]=routes[i-1];
+        nextStation[i]=nextStation[i-1];
+        continue;
+      }
+      if (targets[i].length!=probabilities[i].length) throw new IllegalArgumentException("Each routing target needs a probability");
+      double sum=0;
+      for (int j=0;j<targets[i].length;j++) {
+        if (targets[i][j]<0 || targets[i][j]>=stationCount) throw new IllegalArgumentException(String.format("Invalid routing target %d at station %d",targets[i][j]+1,i+1));
+        if (!(probabilities[i][j]>=0)) throw new IllegalArgumentException("Routing probabilities must not be negative");
+        sum+=probabilities[i][j];
+      }
+      if (sum>1+1E-9) throw new IllegalArgumentException(String.format("Routing probabilities of station %d sum up to more than 1",i+1));
+      final double exit=Math.max(0,1-sum);
+      final int count=targets[i].length+((exit>1E-12)?1:0);
+      final int[] row=Arrays.copyOf(targets[i],count);
+      final double[] weights=Arrays.copyOf(probabilities[i],count);
+      if (count>targets[i].length) {
+        row[count-1]=EXIT;
+        weights[count-1]=exit;
+      }
+      routeTargets[i]=row;
+      routes[i]=(count>1)?new AliasTable(weights):null;
+      nextStation[i]=(count>1)?RANDOM_TARGET:row[0];
+    }
+
+    visits=getVisits(entryWeights,targets,probabilities);
+  }
+
+  /**
+   * Solves the traffic equations v=e+v*P (e: entry probabilities, P: routing probabilities).<br>
+   * The not yet distributed visits are pushed along the routes in station order (so a tandem network
+   * is solved in one sweep per feedback cycle). Consecutive stations with the same routing arrays are
+   * handled as one row of P, so networks with a dense but shared routing need only O(stations) time per sweep.
+   * @param entryWeights  Weights of the stations for entering the network
+   * @param targets Next stations per station
+   * @param probabilities Probabilities for the next stations per station
+   * @return  Expected number of visits per station of a customer
+   */
+  private double[] getVisits(final double[] entryWeights, final int[][] targets, final double[][] probabilities) {
+    final double entrySum=Arrays.stream(entryWeights).filter(w->w>0).sum();
+    final double[] result=new double[stationCount];
+    final double[] pending=new double[stationCount];
+    for (int i=0;i<stationCount;i++) if (entryWeights[i]>0) pending[i]=entryWeights[i]/entrySum;
+
+    double total=0;
+    for (int sweep=0;sweep<MAX_TRAFFIC_SWEEPS;sweep++) {
+      double rowVisits=0;
+      for (int i=0;i<stationCount;i++) {
+        rowVisits+=pending[i];
+        result[i]+=pending[i];
+        total+=pending[i];
+        pending[i]=0;
+        if (i<stationCount-1 && targets[i+1]==targets[i] && probabilities[i+1]==probabilities[i]) continue;
+        if (rowVisits>0) {
+          final int[] row=targets[i];
+          final double[] p=probabilities[i];
+          for (int j=0;j<row.length;j++) pending[row[j]]+=rowVisits*p[j];
+        }
+        rowVisits=0;
+      }
+      double left=0;
+      for (double value: pending) left+=value;
+      if (left<=1E-12*total) return result;
+    }
+    throw new IllegalArgumentException("The customers cannot leave the network (the traffic equations have no solution)");
+  }
+
+  /**
+   * Returns the expected total number of station visits of a customer.
+   * @return  Expected number of visits
+   */
+  public double getTotalVisits() {
+    return Arrays.stream(visits).sum();
+  }
+
+  /**
+   * Returns the total number of operators of all stations.
+   * @return  Number of operators
+   */
+  public long getTotalOperators() {
+    return Arrays.stream(c).asLongStream().sum();
+  }
+
+  /**
+   * Returns the expected work load of a station.
+   * @param station Station
+   * @param EI  Mean inter-arrival time of the external arrivals
+   * @return  Work load rho=visits*E[S]/E[I]/c
+   */
+  public double getRho(final int station, final double EI) {
+    return visits[station]*ES[station]/EI/c[station];
+  }
+
+  /**
+   * Returns the station with the highest expected work load.
+   * @param EI  Mean inter-arrival time of the external arrivals
+   * @return  Bottleneck station
+   */
+  public int getBottleneck(final double EI) {
+    int result=0;
+    for (int i=1;i<stationCount;i++) if (getRho(i,EI)>getRho(result,EI)) result=i;
+    return result;
+  }
+
+  /**
+   * Creates a tandem network (stations in a row).
+   * @param stations  Number of stations
+   * @param c Number of operators per station
+   * @param ES  Mean service time per station
+   * @param cvS Coefficient of variation of the service times
+   * @param serviceDistribution Distribution of the service times
+   * @param feedback  Probability of returning to the first station after the last station
+   * @return  Network
+   */
+  public static Network tandem(final int stations, final int c, final double ES, final double cvS, final DistributionSetup serviceDistribution, final double feedback) {
+    final int[][] targets=new int[stations][];
+    final double[][] probabilities=new double[stations][];
+    for (int i=0;i<stations-1;i++) {
+      targets[i]=new int[]{i+1};
+      probabilities[i]=new double[]{1};
+    }
+    targets[stations-1]=(feedback>0)?new int[]{0}:new int[0];
+    probabilities[stations-1]=(feedback>0)?new double[]{feedback}:new double[0];
+    final double[] entryWeights=new double[stations];
+    entryWeights[0]=1;
+    return new Network(filled(stations,c),filled(stations,ES),filled(stations,cvS),serviceDistribution,entryWeights,targets,probabilities);
+  }
+
+  /**
+   * Creates a network with uniform random routing (all stations are entry stations).
+   * @param stations  Number of stations
+   * @param c Number of operators per station
+   * @param ES  Mean service time per station
+   * @param cvS Coefficient of variation of the service times
+   * @param serviceDistribution Distribution of the service times
+   * @param feedback  Probability of going to a further station after a service (instead of leaving)
+   * @return  Network
+   */
+  public static Network random(final int stations, final int c, final double ES, final double cvS, final DistributionSetup serviceDistribution, final double feedback) {
+    final int[] row=new int[(feedback>0)?stations:0];
+    final double[] p=new double[row.length];
+    for (int i=0;i<row.length;i++) {
+      row[i]=i;
+      p[i]=feedback/stations;
+    }
+    final int[][] targets=new int[stations][];
+    final double[][] probabilities=new double[stations][];
+    Arrays.fill(targets,row);
+    Arrays.fill(probabilities,p);
+    return new Network(filled(stations,c),filled(stations,ES),filled(stations,cvS),serviceDistribution,filled(stations,1.0),targets,probabilities);
+  }
+
+  /**
+   * Creates a network with the given topology.
+   * @param topology  Network structure
+   * @param stations  Number of stations
+   * @param c Number of operators per station
+   * @param ES  Mean service time per station
+   * @param cvS Coefficient of variation of the service times
+   * @param serviceDistribution Distribution of the service times
+   * @param feedback  Feedback probability (see {@link Topology})
+   * @return  Network
+   */
+  public static Network of(final Topology topology, final int stations, final int c, final double ES, final double cvS, final DistributionSetup serviceDistribution, final double feedback) {
+    switch (topology) {
+      case RANDOM: return random(stations,c,ES,cvS,serviceDistribution,feedback);
+      default: return tandem(stations,c,ES,cvS,serviceDistribution,feedback);
+    }
+  }
+
+  /**
+   * Returns an array filled with one value.
+   * @param length  Length of the array
+   * @param value Value
+   * @return  Array
+   */
+  private static int[] filled(final int length, final int value) {
+    final int[] result=new int[length];
+    Arrays.fill(result,value);
+    return result;
+  }
+
+  /**
+   * Returns an array filled with one value.
+   * @param length  Length of the array
+   * @param value Value
+   * @return  Array
+   */
+  private static double[] filled(final int length, final double value) {
+    final double[] result=new double[length];
+    Arrays.fill(result,value);
+    return result;
+  }
+
+  /**
+   * Loads a network from a CSV file.<br>
+   * The first line contains the column names, each further line defines one station (stations are numbered from 1 in file order).
+   * Supported columns are "c", "ES", "cvS", "entry" (weight for entering the network at the station; if no station has an entry weight,
+   * all customers enter at station 1) and "next" (routing as space-separated "station:probability" pairs, e.g. "2:0.7 3:0.2";
+   * the remaining probability is the probability of leaving the network). Missing values are taken from the defaults.
+   * @param file  CSV file
+   * @param c Default number of operators
+   * @param ES  Default mean service time
+   * @param cvS Default coefficient of variation of the service times
+   * @param serviceDistribution Distribution of the service times
+   * @return  Network
+   * @throws IOException  Error reading or parsing the file
+   */
+  public static Network load(final Path file, final int c, final double ES, final double cvS, final DistributionSetup serviceDistribution) throws IOException {
+    final List<double[]> stations=new ArrayList<>();
+    final List<int[]> targets=new ArrayList<>();
+    final List<double[]> probabilities=new ArrayList<>();
+    try (BufferedReader reader=Files.newBufferedReader(file)) {
+      int[] columns=null;
+      String line;
+      int lineNumber=0;
+      while ((line=reader.readLine())!=null) {
+        lineNumber++;
+        line=line.trim();
+        if (line.isEmpty() || line.startsWith("#")) continue;
+        final String[] cells=line.split("[,;]");
+        if (columns==null) {
+          /* Header: map column names to station parameters */
+          columns=new int[cells.length];
+          for (int i=0;i<cells.length;i++) {
+            switch (cells[i].trim().toLowerCase()) {
+              case "c": columns[i]=0; break;
+              case "es": columns[i]=1; break;
+              case "cvs": columns[i]=2; break;
+              case "entry": columns[i]=3; break;
+              case "next": columns[i]=4; break;
+              default: columns[i]=-1; break;
+            }
+          }
+          continue;
+        }
+        final double[] values={c,ES,cvS,0};
+        int[] row=new int[0];
+        double[] p=new double[0];
+        for (int i=0;i<Math.min(cells.length,columns.length);i++) {
+          final String cell=cells[i].trim();
+          if (columns[i]<0 || cell.isEmpty()) continue;
+          try {
+            if (columns[i]<4) {
+              values[columns[i]]=Double.parseDouble(cell);
+            } else {
+              final String[] pairs=cell.split("[\\s|]+");
+              row=new int[pairs.length];
+              p=new double[pairs.length];
+              for (int j=0;j<pairs.length;j++) {
+                final String[] pair=pairs[j].split(":");
+                if (pair.length!=2) throw new IOException(String.format("Invalid routing \"%s\" in line %d",pairs[j],lineNumber));
+                row[j]=Integer.parseInt(pair[0].trim())-1;
+                p[j]=Double.parseDouble(pair[1].trim());
+              }
+            }
+          } catch (NumberFormatException e) {
+            throw new IOException(String.format("Invalid number \"%s\" in line %d",cell,lineNumber));
+          }
+        }
+        stations.add(values);
+        targets.add(row);
+        probabilities.add(p);
+      }
+    }
+    if (stations.isEmpty()) throw new IOException("The file does not define any stations");
+
+    final int count=stations.size();
+    final int[] stationC=new int[count];
+    final double[] stationES=new double[count];
+    final double[] stationCvS=new double[count];
+    final double[] entryWeights=new double[count];
+    for (int i=0;i<count;i++) {
+      final double[] values=stations.get(i);
+      stationC[i]=(int)Math.round(values[0]);
+      stationES[i]=values[1];
+      stationCvS[i]=values[2];
+      entryWeights[i]=values[3];
+    }
+    if (Arrays.stream(entryWeights).noneMatch(w->w>0)) entryWeights[0]=1;
+    try {
+      return new Network(stationC,stationES,stationCvS,serviceDistribution,entryWeights,targets.toArray(int[][]::new),probabilities.toArray(double[][]::new));
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage());
+    }
+  }
+}
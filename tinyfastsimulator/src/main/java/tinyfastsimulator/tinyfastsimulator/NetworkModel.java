@@ -0,0 +1,794 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.Arrays;
+import java.util.concurrent.ThreadLocalRandom;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.BatchMeans;
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventHandler;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.LongRingBuffer;
+import tinyfastsimulator.tinyfastsimulator.simulator.MSERDetector;
+import tinyfastsimulator.tinyfastsimulator.simulator.Model;
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsData;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsState;
+import tinyfastsimulator.tinyfastsimulator.simulator.TypedSimulator;
+
+/**
+ * Model for the simulation of an open queueing network (see {@link Network}).<br>
+ * All stations share one simulator. The operators of all stations are numbered consecutively;
+ * a service end event carries the number of the operator in its type, so the event list only
+ * contains primitive values and the cost per event does not depend on the number of stations.
+ * Routing to the next station happens at the service end without a further event.
+ */
+public final class NetworkModel extends Model implements Cloneable, EventHandler {
+  /**
+   * Internal time base is 1/1000 second
+   */
+  private static final double SIM_TIME_FACTOR=1000;
+
+  /**
+   * Minimum number of service times generated at once per service time distribution
+   * (the block size is divided by the number of distributions, so the blocks of large networks stay in the cache)
+   */
+  private static final int MIN_SERVICE_BLOCK_SIZE=64;
+
+  /**
+   * Number of values per station in {@link #stationSums}
+   */
+  private static final int STATION_SUMS=14;
+
+  /**
+   * Number of values at the start of a station record of {@link #stationSums} which describe the current block of service processes
+   * (they are cleared when the block is merged into the statistics objects)
+   */
+  private static final int STATION_BLOCK_SUMS=11;
+
+  /**
+   * Index in a station record of {@link #stationSums}: number of started service processes
+   */
+  private static final int SUM_COUNT=0;
+
+  /**
+   * Index in a station record of {@link #stationSums}: sum of the deviations of the waiting times from the reference value
+   */
+  private static final int SUM_WAITING=1;
+
+  /**
+   * Index in a station record of {@link #stationSums}: sum of the squared deviations of the waiting times from the reference value
+   */
+  private static final int SUM_WAITING_SQUARES=2;
+
+  /**
+   * Index in a station record of {@link #stationSums}: minimum waiting time
+   */
+  private static final int MIN_WAITING=3;
+
+  /**
+   * Index in a station record of {@link #stationSums}: maximum waiting time
+   */
+  private static final int MAX_WAITING=4;
+
+  /**
+   * Index in a station record of {@link #stationSums}: sum of the deviations of the service times from the reference value
+   */
+  private static final int SUM_SERVICE=5;
+
+  /**
+   * Index in a station record of {@link #stationSums}: sum of the squared deviations of the service times from the reference value
+   */
+  private static final int SUM_SERVICE_SQUARES=6;
+
+  /**
+   * Index in a station record of {@link #stationSums}: minimum service time
+   */
+  private static final int MIN_SERVICE=7;
+
+  /**
+   * Index in a station record of {@link #stationSums}: maximum service time
+   */
+  private static final int MAX_SERVICE=8;
+
+  /**
+   * Index in a station record of {@link #stationSums}: reference value for the waiting times (first waiting time in the block)
+   */
+  private static final int REFERENCE_WAITING=9;
+
+  /**
+   * Index in a station record of {@link #stationSums}: reference value for the service times (first service time in the block)
+   */
+  private static final int REFERENCE_SERVICE=10;
+
+  /**
+   * Index in a station record of {@link #stationSums}: time of the last change of the number of busy operators or waiting customers (internal time)
+   */
+  private static final int LAST_STATE_CHANGE=11;
+
+  /**
+   * Index in a station record of {@link #stationSums}: integral of the number of busy operators over the time (internal time)
+   */
+  private static final int BUSY_INTEGRAL=12;
+
+  /**
+   * Index in a station record of {@link #stationSums}: integral of the number of waiting customers over the time (internal time)
+   */
+  private static final int QUEUE_INTEGRAL=13;
+
+  /**
+   * Number of service processes per station which are summed up before the sums are merged into the statistics objects
+   * (see {@link StatisticsData#addBlock(long, double, double, double, double, double)})
+   */
+  private static final int STATION_BLOCK_SIZE=StatisticsData.MERGE_INTERVAL;
+
+  /**
+   * Number of low bits of the event type which hold the kind of the event
+   * (the higher bits hold the operator of a service end event)
+   */
+  private static final int EVENT_KIND_BITS=1;
+
+  /**
+   * Bit mask for the kind of the event in the event type
+   */
+  private static final int EVENT_KIND_MASK=(1<<EVENT_KIND_BITS)-1;
+
+  /**
+   * Event kind: arrival of a customer from outside
+   */
+  private static final int EVENT_ARRIVAL=0;
+
+  /**
+   * Event kind: end of a service process (payload: operator)
+   */
+  private static final int EVENT_SERVICE=1;
+
+  /**
+   * Maximum total number of operators of all stations (the operator has to fit into the event type)
+   */
+  public static final int MAX_OPERATORS=Integer.MAX_VALUE>>>EVENT_KIND_BITS;
+
+  /* Static model data */
+
+  /**
+   * Callback for generating inter-arrival times
+   */
+  private final BlockGenerator interArrivalTime;
+
+  /**
+   * Network structure
+   */
+  public final Network network;
+
+  /**
+   * Number of external arrivals to be simulated
+   */
+  public long arrivalGoal;
+
+  /**
+   * Type of the event list used by the simulator
+   */
+  private final EventQueue.Type eventListType;
+
+  /**
+   * Warm-up period settings
+   */
+  private final Warmup warmup;
+
+  /**
+   * Pseudo random number generator to be used (<code>null</code> means: use the thread local generator)
+   */
+  private final RandomGenerator randomSource;
+
+  /**
+   * Record histograms and higher moments of the end-to-end residence times (for quantiles, skewness and kurtosis)?
+   */
+  private final boolean recordQuantiles;
+
+  /**
+   * Live progress counters (optional, can be null)
+   */
+  private SimulationProgress progress;
+
+  /* Run time data */
+
+  /**
+   * Simulator system
+   */
+  private final TypedSimulator simulator;
+
+  /**
+   * Objects to generate pseudo random numbers on [0,1)
+   */
+  private RandomGenerator random;
+
+  /**
+   * Block of pre-generated inter-arrival times
+   */
+  private final double[] interArrivalTimes;
+
+  /**
+   * Index of the next value to be used in {@link #interArrivalTimes}
+   */
+  private int interArrivalTimesIndex;
+
+  /**
+   * Blocks of pre-generated service times (indexed by service time distribution, see {@link Network#serviceIndex})
+   */
+  private final double[][] serviceTimes;
+
+  /**
+   * Indices of the next values to be used in {@link #serviceTimes}
+   */
+  private final int[] serviceTimesIndex;
+
+  /**
+   * Waiting customers per station (two values per customer: arrival time at the station and time of entering the network)
+   */
+  private final LongRingBuffer[] queues;
+
+  /**
+   * Number of the first operator of each station
+   */
+  private final int[] operatorBase;
+
+  /**
+   * Station of each operator
+   */
+  private final int[] operatorStation;
+
+  /**
+   * Time at which the customer served by each operator has entered the network
+   */
+  private final long[] operatorEntry;
+
+  /**
+   * Free operators (the free operators of station s are stored from {@link #operatorBase}[s] on)
+   */
+  private final int[] freeOperators;
+
+  /**
+   * Number of free operators per station
+   */
+  private final int[] freeCount;
+
+  /**
+   * Sums of the waiting and service times of the current block and time integrals per station ({@link #STATION_SUMS} consecutive values per station,
+   * so recording a service process touches one small record instead of two statistics objects per station)
+   */
+  private final double[] stationSums;
+
+  /**
+   * Time of the last external arrival (internal time; <code>Long.MAX_VALUE</code> as long as further arrivals are generated).
+   * The time-weighted statistics are only recorded up to this time, so the network running empty at the end of the
+   * simulation does not lower the utilizations and the queue lengths (which matters if a run is split into many parts).
+   */
+  private long measurementEnd=Long.MAX_VALUE;
+
+  /**
+   * Number of customers in the network
+   */
+  private int inNetwork;
+
+  /**
+   * Number of simulated external arrivals
+   */
+  private long arrivalCount;
+
+  /**
+   * Time of the last processed event
+   */
+  private long lastEventTime;
+
+  /**
+   * Is the simulation still in the warm-up period?
+   */
+  private boolean warmupActive;
+
+  /**
+   * Detector for the end of the warm-up period (only used in MSER mode)
+   */
+  private MSERDetector warmupDetector;
+
+  /**
+   * Has the end of the warm-up period been detected by the MSER rule?
+   */
+  private boolean warmupDetected;
+
+  /**
+   * Number of arrivals in the warm-up period (not included in the statistics)
+   */
+  public long warmupArrivalCount;
+
+  /**
+   * Simulation time at which the warm-up period ended (-1, if there was no warm-up period)
+   */
+  public double warmupEndTime=-1;
+
+  /**
+   * Waiting time statistics per station
+   */
+  public StatisticsData[] stationWaitingTimeStat;
+
+  /**
+   * Service time statistics per station
+   */
+  public StatisticsData[] stationServiceTimeStat;
+
+  /**
+   * Maximum number of waiting customers per station
+   */
+  public int[] stationMaxQueueSize;
+
+  /**
+   * Integral of the number of busy operators over the time covered by the statistics per station
+   */
+  public double[] stationBusyTime;
+
+  /**
+   * Integral of the number of waiting customers over the time covered by the statistics per station
+   */
+  public double[] stationQueueTime;
+
+  /**
+   * Statistics of the times from entering to leaving the network
+   */
+  public StatisticsData residenceTimeStat=new StatisticsData();
+
+  /**
+   * Batch means of the times from entering to leaving the network (for confidence intervals)
+   */
+  public BatchMeans residenceTimeBatches=new BatchMeans();
+
+  /**
+   * Number of customers in the network statistics
+   */
+  public StatisticsState networkSize=new StatisticsState();
+
+  /**
+   * Simulated time covered by the time-weighted statistics, from the end of the warm-up period to the last external arrival (sum over all joined models)
+   */
+  public double statisticsTime;
+
+  /**
+   * Maximum number of events in the event list at the same time
+   */
+  public int maxEventListSize;
+
+  /**
+   * Number of simulated events
+   */
+  public long eventCount;
+
+  /**
+   * Simulation runtime in MS
+   */
+  public long runtimeMS;
+
+  /**
+   * Constructor
+   * @param interArrivalTime  Callback for generating the inter-arrival times of the external arrivals
+   * @param network Network structure
+   * @param arrivalGoal Number of external arrivals to be simulated
+   * @param eventListType Type of the event list used by the simulator
+   * @param warmup  Warm-up period settings (arrivals in the warm-up period are simulated in addition to the arrival goal)
+   * @param random  Pseudo random number generator to be used (for reproducible results; <code>null</code> means: use the thread local generator)
+   * @param recordQuantiles Record histograms and higher moments of the end-to-end residence times (for quantiles, skewness and kurtosis)?
+   */
+  public NetworkModel(final ToDoubleFunction<RandomGenerator> interArrivalTime, final Network network, final long arrivalGoal, final EventQueue.Type eventListType, final Warmup warmup, final RandomGenerator random, final boolean recordQuantiles) {
+    final long operators=network.getTotalOperators();
+    if (operators>MAX_OPERATORS) throw new IllegalArgumentException(String.format("The network has more than %d operators",MAX_OPERATORS));
+    this.interArrivalTime=BlockGenerator.of(interArrivalTime);
+    this.network=network;
+    this.arrivalGoal=arrivalGoal;
+    this.eventListType=eventListType;
+    this.warmup=warmup;
+    randomSource=random;
+    this.recordQuantiles=recordQuantiles;
+    if (recordQuantiles) residenceTimeStat=new StatisticsData(true,true);
+
+    final int stations=network.stationCount;
+    simulator=new TypedSimulator(eventListType,(int)operators+1,this);
+    final int blockSize=(int)Math.max(1,Math.min(QueueModel.RANDOM_BLOCK_SIZE,arrivalGoal));
+    interArrivalTimes=new double[blockSize];
+    interArrivalTimesIndex=blockSize;
+    final int serviceBlockSize=Math.max(MIN_SERVICE_BLOCK_SIZE,QueueModel.RANDOM_BLOCK_SIZE/network.serviceTimes.length);
+    serviceTimes=new double[network.serviceTimes.length][serviceBlockSize];
+    serviceTimesIndex=new int[network.serviceTimes.length];
+    Arrays.fill(serviceTimesIndex,serviceBlockSize);
+
+    queues=new LongRingBuffer[stations];
+    operatorBase=new int[stations];
+    operatorStation=new int[(int)operators];
+    operatorEntry=new long[(int)operators];
+    freeOperators=new int[(int)operators];
+    freeCount=new int[stations];
+    stationWaitingTimeStat=new StatisticsData[stations];
+    stationServiceTimeStat=new StatisticsData[stations];
+    stationMaxQueueSize=new int[stations];
+    stationBusyTime=new double[stations];
+    stationQueueTime=new double[stations];
+    stationSums=new double[stations*STATION_SUMS];
+    int operator=0;
+    for (int i=0;i<stations;i++) {
+      queues[i]=new LongRingBuffer();
+      operatorBase[i]=operator;
+      for (int j=0;j<network.c[i];j++) {
+        operatorStation[operator]=i;
+        freeOperators[operator]=operator;
+        operator++;
+      }
+      freeCount[i]=network.c[i];
+      stationWaitingTimeStat[i]=new StatisticsData();
+      stationServiceTimeStat[i]=new StatisticsData();
+    }
+  }
+
+  /**
+   * Copy constructor
+   * @param source  Source mode to be cloned
+   */
+  public NetworkModel(final NetworkModel source) {
+    this(source.interArrivalTime,source.network,source.arrivalGoal,source.eventListType,source.warmup,source.randomSource,source.recordQuantiles);
+  }
+
+  /**
+   * Clones the model.
+   * @return Cloned model
+   */
+  public NetworkModel clone() {
+    return new NetworkModel(this);
+  }
+
+  /**
+   * Sets the live progress counters to be updated while the simulation is running.<br>
+   * Has to be called before {@link #run()}; the counters are not copied by the copy constructor.
+   * @param progress  Live progress counters (can be null)
+   */
+  public void setProgress(final SimulationProgress progress) {
+    this.progress=progress;
+  }
+
+  /**
+   * Returns the number of simulated external arrivals.
+   * @return  Number of arrivals (including the arrivals in the warm-up period)
+   */
+  public long getArrivalCount() {
+    return arrivalCount;
+  }
+
+  /**
+   * Checks if the warm-up period is over and resets the statistics if so.
+   * @param currentTime Current time
+   */
+  private void checkWarmup(final long currentTime) {
+    switch (warmup.mode) {
+      case NONE: break;
+      case ARRIVALS: if (arrivalCount<warmup.arrivals) return; break;
+      case TIME: if (currentTime<warmup.time*SIM_TIME_FACTOR) return; break;
+      case MSER: if (!warmupDetected) return; break;
+    }
+    warmupActive=false;
+
+    final double time=currentTime/SIM_TIME_FACTOR;
+    warmupEndTime=time;
+    warmupArrivalCount=arrivalCount;
+    arrivalGoal+=arrivalCount;
+
+    for (int i=0;i<network.stationCount;i++) {
+      stationWaitingTimeStat[i].reset();
+      stationServiceTimeStat[i].reset();
+    }
+    Arrays.fill(stationSums,0);
+    for (int i=0;i<network.stationCount;i++) stationSums[i*STATION_SUMS+LAST_STATE_CHANGE]=currentTime;
+    residenceTimeStat.reset();
+    residenceTimeBatches=new BatchMeans();
+    networkSize.reset(time);
+  }
+
+  /**
+   * Returns the next inter-arrival time (generating a new block if needed).
+   * @return  Inter-arrival time
+   */
+  private double nextInterArrivalTime() {
+    if (interArrivalTimesIndex==interArrivalTimes.length) {
+      interArrivalTime.fill(random,interArrivalTimes);
+      interArrivalTimesIndex=0;
+    }
+    return interArrivalTimes[interArrivalTimesIndex++];
+  }
+
+  /**
+   * Returns the next service time of a station (generating a new block if needed).
+   * @param station Station
+   * @return  Service time
+   */
+  private double nextServiceTime(final int station) {
+    final int index=network.serviceIndex[station];
+    final double[] block=serviceTimes[index];
+    if (serviceTimesIndex[index]==block.length) {
+      network.serviceTimes[index].fill(random,block);
+      serviceTimesIndex[index]=0;
+    }
+    return block[serviceTimesIndex[index]++];
+  }
+
+  /**
+   * Checks if a further arrival is to be generated.
+   * @return  Returns <code>true</code>, if a further arrival is to be generated
+   */
+  private boolean isArrivalNeeded() {
+    if (arrivalCount>=arrivalGoal && warmupActive && warmup.mode==Warmup.Mode.MSER) {
+      /* The MSER rule could not detect the end of the warm-up period; keep all statistics */
+      warmupActive=false;
+    }
+    /* (Arrivals in a fixed length warm-up period are simulated in addition to the arrival goal) */
+    return arrivalCount<arrivalGoal || warmupActive;
+  }
+
+  /**
+   * Generates and adds an external arrival event
+   * @param currentTime Current time (starting point for the inter-arrival time)
+   */
+  private void addArrivalEvent(final long currentTime) {
+    if (!isArrivalNeeded()) {
+      measurementEnd=Math.min(measurementEnd,currentTime);
+      return;
+    }
+    simulator.add(currentTime+Math.round(nextInterArrivalTime()*SIM_TIME_FACTOR),EVENT_ARRIVAL);
+    arrivalCount++;
+  }
+
+  /**
+   * Starts a service process at a station (a free operator has to be available).
+   * @param time  Time at which the service process starts
+   * @param station Station
+   * @param arrival Arrival time of the customer at the station
+   * @param entry Time at which the customer has entered the network
+   */
+  private void startServiceProcess(final long time, final int station, final long arrival, final long entry) {
+    final int operator=freeOperators[operatorBase[station]+(--freeCount[station])];
+    operatorEntry[operator]=entry;
+    final double serviceTime=nextServiceTime(station);
+    recordStationStatistics(station,(time-arrival)/SIM_TIME_FACTOR,serviceTime);
+    simulator.add(time+Math.round(serviceTime*SIM_TIME_FACTOR),(operator<<EVENT_KIND_BITS)|EVENT_SERVICE);
+  }
+
+  /**
+   * Records the waiting and the service time of a customer at a station.
+   * @param station Station
+   * @param waitingTime Waiting time at the station
+   * @param serviceTime Service time at the station
+   */
+  private void recordStationStatistics(final int station, final double waitingTime, final double serviceTime) {
+    final double[] sums=stationSums;
+    final int record=station*STATION_SUMS;
+    final double count=sums[record+SUM_COUNT];
+    if (count==0) {
+      sums[record+REFERENCE_WAITING]=waitingTime;
+      sums[record+REFERENCE_SERVICE]=serviceTime;
+      sums[record+MIN_WAITING]=waitingTime;
+      sums[record+MAX_WAITING]=waitingTime;
+      sums[record+MIN_SERVICE]=serviceTime;
+      sums[record+MAX_SERVICE]=serviceTime;
+    } else {
+      sums[record+MIN_WAITING]=Math.min(sums[record+MIN_WAITING],waitingTime);
+      sums[record+MAX_WAITING]=Math.max(sums[record+MAX_WAITING],waitingTime);
+      sums[record+MIN_SERVICE]=Math.min(sums[record+MIN_SERVICE],serviceTime);
+      sums[record+MAX_SERVICE]=Math.max(sums[record+MAX_SERVICE],serviceTime);
+    }
+    final double waitingDeviation=waitingTime-sums[record+REFERENCE_WAITING];
+    final double serviceDeviation=serviceTime-sums[record+REFERENCE_SERVICE];
+    sums[record+SUM_COUNT]=count+1;
+    sums[record+SUM_WAITING]+=waitingDeviation;
+    sums[record+SUM_WAITING_SQUARES]+=waitingDeviation*waitingDeviation;
+    sums[record+SUM_SERVICE]+=serviceDeviation;
+    sums[record+SUM_SERVICE_SQUARES]+=serviceDeviation*serviceDeviation;
+    if (count+1>=STATION_BLOCK_SIZE) flushStationStatistics(station);
+  }
+
+  /**
+   * Merges the sums of the current block of a station into the statistics objects of the station.
+   * @param station Station
+   */
+  private void flushStationStatistics(final int station) {
+    final double[] sums=stationSums;
+    final int record=station*STATION_SUMS;
+    final long count=(long)sums[record+SUM_COUNT];
+    if (count==0) return;
+    stationWaitingTimeStat[station].addBlock(count,sums[record+REFERENCE_WAITING],sums[record+SUM_WAITING],sums[record+SUM_WAITING_SQUARES],sums[record+MIN_WAITING],sums[record+MAX_WAITING]);
+    stationServiceTimeStat[station].addBlock(count,sums[record+REFERENCE_SERVICE],sums[record+SUM_SERVICE],sums[record+SUM_SERVICE_SQUARES],sums[record+MIN_SERVICE],sums[record+MAX_SERVICE]);
+    Arrays.fill(sums,record,record+STATION_BLOCK_SUMS,0);
+  }
+
+  /**
+   * Adds the time since the last change of the state of a station to the time integrals of the station
+   * (has to be called before the number of busy operators or waiting customers changes).
+   * @param station Station
+   * @param time  Current time
+   */
+  private void recordStationState(final int station, final long time) {
+    final double[] sums=stationSums;
+    final int record=station*STATION_SUMS;
+    final long end=Math.min(time,measurementEnd);
+    final double delta=end-sums[record+LAST_STATE_CHANGE];
+    if (delta<=0) return;
+    sums[record+BUSY_INTEGRAL]+=delta*(network.c[station]-freeCount[station]);
+    sums[record+QUEUE_INTEGRAL]+=delta*(queues[station].size()/2);
+    sums[record+LAST_STATE_CHANGE]=end;
+  }
+
+  /**
+   * Lets a customer arrive at a station.
+   * @param time  Current time
+   * @param station Station
+   * @param entry Time at which the customer has entered the network
+   */
+  private void arriveAtStation(final long time, final int station, final long entry) {
+    recordStationState(station,time);
+    if (freeCount[station]>0) {
+      startServiceProcess(time,station,time,entry);
+    } else {
+      final LongRingBuffer queue=queues[station];
+      queue.add(time);
+      queue.add(entry);
+    }
+  }
+
+  @Override
+  public void handleEvent(final int type, final long time) {
+    eventCount++;
+    lastEventTime=time;
+    if (warmupActive) checkWarmup(time);
+    if ((type&EVENT_KIND_MASK)==EVENT_SERVICE) runServiceEvent(time,type>>>EVENT_KIND_BITS); else runArrivalEvent(time);
+    if ((eventCount&SimulationProgress.PUBLISH_MASK)==0) {
+      if (progress!=null) progress.publish(eventCount,arrivalCount,time/SIM_TIME_FACTOR,simulator.getEventListSize(),inNetwork);
+      if (Thread.currentThread().isInterrupted()) simulator.clear(); /* Task has been cancelled: stop without processing further events */
+    }
+  }
+
+  /**
+   * Executes an external arrival.
+   * @param time  Current time
+   */
+  private void runArrivalEvent(final long time) {
+    inNetwork++;
+    networkSize.set(time/SIM_TIME_FACTOR,inNetwork);
+    final var entry=network.entry;
+    final int station=network.entryTargets[(entry==null)?0:entry.sample(random)];
+    arriveAtStation(time,station,time);
+    addArrivalEvent(time);
+  }
+
+  /**
+   * Executes the end of a service process and routes the customer to the next station.
+   * @param time  Current time
+   * @param operator  Operator who has finished the service
+   */
+  private void runServiceEvent(final long time, final int operator) {
+    final int station=operatorStation[operator];
+    final long entry=operatorEntry[operator];
+
+    /* Free operator and serve next customer */
+    recordStationState(station,time);
+    freeOperators[operatorBase[station]+(freeCount[station]++)]=operator;
+    final LongRingBuffer queue=queues[station];
+    if (queue.size()>0) startServiceProcess(time,station,queue.poll(),queue.poll());
+
+    /* Route customer */
+    int next=network.nextStation[station];
+    if (next==Network.RANDOM_TARGET) next=network.routeTargets[station][network.routes[station].sample(random)];
+    if (next!=Network.EXIT) {
+      arriveAtStation(time,next,entry);
+      return;
+    }
+
+    /* Customer leaves the network */
+    final double residenceTime=(time-entry)/SIM_TIME_FACTOR;
+    residenceTimeStat.add(residenceTime);
+    residenceTimeBatches.add(residenceTime);
+    inNetwork--;
+    if (time<=measurementEnd) networkSize.set(time/SIM_TIME_FACTOR,inNetwork);
+    if (warmupDetector!=null && warmupDetector.add(residenceTime)) {
+      warmupDetected=true;
+      warmupDetector=null;
+    }
+  }
+
+  /**
+   * Runs the simulation.
+   */
+  public void run() {
+    random=(randomSource!=null)?randomSource:ThreadLocalRandom.current();
+    warmupActive=(warmup.mode!=Warmup.Mode.NONE);
+    if (warmup.mode==Warmup.Mode.MSER) warmupDetector=new MSERDetector();
+    addArrivalEvent(0);
+    runtimeMS=simulator.run(false);
+    maxEventListSize=simulator.getMaxEventListSize();
+    final long end=Math.min(lastEventTime,measurementEnd);
+    for (int i=0;i<network.stationCount;i++) {
+      flushStationStatistics(i);
+      recordStationState(i,end);
+      stationBusyTime[i]=stationSums[i*STATION_SUMS+BUSY_INTEGRAL]/SIM_TIME_FACTOR;
+      stationQueueTime[i]=stationSums[i*STATION_SUMS+QUEUE_INTEGRAL]/SIM_TIME_FACTOR;
+      stationMaxQueueSize[i]=queues[i].getMaxSize()/2;
+    }
+    statisticsTime=end/SIM_TIME_FACTOR-Math.max(0,warmupEndTime);
+    if (progress!=null) progress.finishModel(eventCount,arrivalCount);
+  }
+
+  /**
+   * Returns the utilization of the operators of a station.
+   * @param station Station
+   * @return  Utilization (busy time of the operators divided by the simulated time and the number of operators)
+   */
+  public double getUtilization(final int station) {
+    if (statisticsTime<=0) return 0;
+    return stationBusyTime[station]/statisticsTime/network.c[station];
+  }
+
+  /**
+   * Returns the average queue length of a station (time-weighted number of waiting customers).
+   * @param station Station
+   * @return  Average queue length
+   */
+  public double getMeanQueueLength(final int station) {
+    if (statisticsTime<=0) return 0;
+    return stationQueueTime[station]/statisticsTime;
+  }
+
+  /**
+   * Returns the average number of station visits of a customer.
+   * @return  Number of service processes divided by the number of customers who left the network
+   */
+  public double getMeanVisits() {
+    long services=0;
+    for (StatisticsData service: stationServiceTimeStat) services+=service.getCount();
+    return (residenceTimeStat.getCount()>0)?services/(double)residenceTimeStat.getCount():0;
+  }
+
+  /**
+   * Joins the results from two simulations.
+   * @param model1  Simulation 1 results
+   * @param model2  Simulation 2 results
+   * @return  New model with joined results
+   */
+  public static NetworkModel join(final NetworkModel model1, final NetworkModel model2) {
+    final NetworkModel result=new NetworkModel(model1);
+    result.arrivalCount=model1.arrivalCount+model2.arrivalCount;
+    result.arrivalGoal=model1.arrivalGoal+model2.arrivalGoal;
+    for (int i=0;i<result.network.stationCount;i++) {
+      result.stationWaitingTimeStat[i]=StatisticsData.join(model1.stationWaitingTimeStat[i],model2.stationWaitingTimeStat[i]);
+      result.stationServiceTimeStat[i]=StatisticsData.join(model1.stationServiceTimeStat[i],model2.stationServiceTimeStat[i]);
+      result.stationMaxQueueSize[i]=Math.max(model1.stationMaxQueueSize[i],model2.stationMaxQueueSize[i]);
+      result.stationBusyTime[i]=model1.stationBusyTime[i]+model2.stationBusyTime[i];
+      result.stationQueueTime[i]=model1.stationQueueTime[i]+model2.stationQueueTime[i];
+    }
+    result.residenceTimeStat=StatisticsData.join(model1.residenceTimeStat,model2.residenceTimeStat);
+    result.residenceTimeBatches=BatchMeans.join(model1.residenceTimeBatches,model2.residenceTimeBatches);
+    result.networkSize=StatisticsState.join(model1.networkSize,model2.networkSize);
+    result.statisticsTime=model1.statisticsTime+model2.statisticsTime;
+    result.maxEventListSize=Math.max(model1.maxEventListSize,model2.maxEventListSize);
+    result.warmupArrivalCount=model1.warmupArrivalCount+model2.warmupArrivalCount;
+    result.warmupEndTime=Math.max(model1.warmupEndTime,model2.warmupEndTime);
+    result.eventCount=model1.eventCount+model2.eventCount;
+    result.runtimeMS=Math.max(model1.runtimeMS,model2.runtimeMS);
+    return result;
+  }
+}
@@ -0,0 +1,186 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
+
+/**
+ * Runs a {@link NetworkModel} split into several parts (each with an equal share of the arrivals)
+ * on a {@link ModelExecutor}. The models are created on the worker threads (a large network needs
+ * a lot of memory per model) and the completed parts are joined on the calling thread in index order.<br>
+ * If random number streams are given, part i always uses stream i, so the results are reproducible
+ * and independent of the number of threads.
+ */
+public class NetworkRunner {
+  /**
+   * Callback for generating the inter-arrival times of the external arrivals
+   */
+  private final ToDoubleFunction<RandomGenerator> interArrivalTime;
+
+  /**
+   * Network structure
+   */
+  private final Network network;
+
+  /**
+   * Total number of external arrivals
+   */
+  private final long arrivalCount;
+
+  /**
+   * Number of parts
+   */
+  public final int partCount;
+
+  /**
+   * Type of the event list used by the simulator
+   */
+  private final EventQueue.Type eventListType;
+
+  /**
+   * Warm-up period settings (applied to each part)
+   */
+  private final Warmup warmup;
+
+  /**
+   * Random number streams (<code>null</code> means: use the thread local generators)
+   */
+  private final RandomStreams streams;
+
+  /**
+   * Record histograms and higher moments of the end-to-end residence times (for quantiles, skewness and kurtosis)?
+   */
+  private final boolean recordQuantiles;
+
+  /**
+   * Number of threads
+   */
+  public final int threadCount;
+
+  /**
+   * Executor running the parts
+   */
+  private final ModelExecutor executor;
+
+  /**
+   * Live progress monitor (<code>null</code> if not used)
+   */
+  private ProgressMonitor monitor;
+
+  /**
+   * Completed parts which cannot be joined yet (because a part with a lower index is still running)
+   */
+  private final NetworkModel[] pending;
+
+  /**
+   * Index of the next part to be joined
+   */
+  private int nextIndex;
+
+  /**
+   * Joined results of the parts (<code>null</code>, if no part has been completed yet)
+   */
+  private NetworkModel joinedModel;
+
+  /**
+   * Constructor
+   * @param interArrivalTime  Callback for generating the inter-arrival times of the external arrivals
+   * @param network Network structure
+   * @param arrivalCount  Total number of external arrivals
+   * @param partCount Number of parts
+   * @param eventListType Type of the event list used by the simulator
+   * @param warmup  Warm-up period settings (applied to each part)
+   * @param executor  Executor running the parts
+   * @param streams Random number streams (<code>null</code> means: use the thread local generators)
+   * @param recordQuantiles Record histograms and higher moments of the end-to-end residence times (for quantiles, skewness and kurtosis)?
+   */
+  public NetworkRunner(final ToDoubleFunction<RandomGenerator> interArrivalTime, final Network network, final long arrivalCount, final int partCount, final EventQueue.Type eventListType, final Warmup warmup, final ModelExecutor executor, final RandomStreams streams, final boolean recordQuantiles) {
+    this.interArrivalTime=interArrivalTime;
+    this.network=network;
+    this.arrivalCount=arrivalCount;
+    this.partCount=(int)Math.max(1,Math.min(partCount,arrivalCount));
+    this.eventListType=eventListType;
+    this.warmup=warmup;
+    this.executor=executor;
+    this.streams=streams;
+    this.recordQuantiles=recordQuantiles;
+    threadCount=Math.min(executor.parallelism,this.partCount);
+    pending=new NetworkModel[this.partCount];
+  }
+
+  /**
+   * Sets the live progress monitor (has to be called before {@link #run()}).
+   * @param monitor Progress monitor with at least {@link ModelExecutor#parallelism} workers (can be null)
+   */
+  public void setProgressMonitor(final ProgressMonitor monitor) {
+    this.monitor=monitor;
+  }
+
+  /**
+   * Simulates one part (called on a worker thread).
+   * @param index Index of the part
+   * @param progress  Live progress counters (can be null)
+   * @return  Simulated model
+   */
+  private NetworkModel runPart(final int index, final SimulationProgress progress) {
+    final long arrivals=arrivalCount*(index+1)/partCount-arrivalCount*index/partCount;
+    final NetworkModel model=new NetworkModel(interArrivalTime,network,arrivals,eventListType,warmup,(streams==null)?null:streams.getStream(index),recordQuantiles);
+    model.setProgress(progress);
+    model.run();
+    return model;
+  }
+
+  /**
+   * Records the results of a completed part (joins all parts which are available in index order).
+   * @param model Simulation model of the completed part
+   * @param index Index of the part
+   */
+  private synchronized void recordPart(final NetworkModel model, final int index) {
+    pending[index]=model;
+    while (nextIndex<partCount && pending[nextIndex]!=null) {
+      final NetworkModel next=pending[nextIndex];
+      pending[nextIndex]=null;
+      nextIndex++;
+      joinedModel=(joinedModel==null)?next:NetworkModel.join(joinedModel,next);
+    }
+  }
+
+  /**
+   * Runs all parts.
+   * @return  Joined results of the parts (the runtime is the total wall clock time) or <code>null</code>, if no part was completed within the time limit
+   * @throws ExecutionException A part has thrown an exception
+   */
+  public NetworkModel run() throws ExecutionException {
+    final long start=System.currentTimeMillis();
+    executor.run(partCount,index->true,this::runPart,this::recordPart,monitor);
+    if (joinedModel!=null) joinedModel.runtimeMS=System.currentTimeMillis()-start;
+    return joinedModel;
+  }
+
+  /**
+   * Returns the number of joined parts.
+   * @return  Number of joined parts
+   */
+  public int getPartCount() {
+    return nextIndex;
+  }
+}
@@ -16,11 +16,20 @@
 
  package tinyfastsimulator.tinyfastsimulator;
 
+ import java.util.Arrays;
+ import java.util.EnumSet;
+ import java.util.Set;
+ import java.util.function.Consumer;
  import java.util.function.DoubleConsumer;
  import java.util.function.IntConsumer;
  import java.util.function.LongConsumer;
 
-public class Parameters {
+ import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+ import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomNumbers;
+import tinyfastsimulator.tinyfastsimulator.simulator.TraceFile;
+
+public final class Parameters {
   /**
    * Default mean inter-arrival time E[I]
    */
@@ -41,6 +50,11 @@ public class Parameters {
    */
   private static final double default_cvS=1;
 
+  /**
+   * Default coefficient of variation of the patience times CV[P]
+   */
+  private static final double default_cvP=1;
+
   /**
    * Default number of operators
    */
@@ -51,6 +65,21 @@ public class Parameters {
    */
   private static final long default_arrival_count=100000000L;
 
+  /**
+   * Default confidence level
+   */
+  private static final double default_confidence=0.95;
+
+  /**
+   * Default number of chunks in seeded mode (single station models; networks are simulated in one chunk by default)
+   */
+  private static final int default_chunks=256;
+
+  /**
+   * Default number of stations in a queueing network
+   */
+  private static final int default_stations=10;
+
   /**
    * Mean inter-arrival time E[I]
    */
@@ -86,6 +115,21 @@ public class Parameters {
    */
   public int threadCount;
 
+  /**
+   * Number of threads in the pool which runs the models (0 means: same as the thread count)
+   */
+  public int poolSize;
+
+  /**
+   * Run the models on virtual threads (instead of a pool of platform threads)?
+   */
+  public boolean virtualThreads;
+
+  /**
+   * Time limit for the simulation in seconds (0 means: no limit)
+   */
+  public double timeout;
+
   /**
    * Show runtimes of the individual threads
    */
@@ -96,6 +140,251 @@ public class Parameters {
    */
   public boolean loadBalancer;
 
+  /**
+   * Use lock-free load balancer with adaptive package sizes (instead of the synchronized load balancer)
+   */
+  public boolean adaptiveLoadBalancer;
+
+  /**
+   * Type of the event list used by the simulator
+   */
+  public EventQueue.Type eventListType;
+
+  /**
+   * Simulation engine
+   */
+  public QueueModel.Engine engine;
+
+  /**
+   * Simulate the replications in lockstep batches (lanes of vectors; implies {@link QueueModel.Engine#LINDLEY})
+   */
+  public boolean lockstep;
+
+  /**
+   * Maximum number of independent replications (0 means: no replication mode)
+   */
+  public int replications;
+
+  /**
+   * Target relative half width of the confidence intervals in replication mode (0 means: run all replications)
+   */
+  public double precision;
+
+  /**
+   * Confidence level for the confidence intervals
+   */
+  public double confidence;
+
+  /**
+   * Metrics which have to reach the target precision (empty means: all metrics)
+   */
+  public Set<ReplicationRunner.Metric> ciMetrics;
+
+  /**
+   * Warm-up period settings
+   */
+  public Warmup warmup;
+
+  /**
+   * Mean patience time of the waiting customers (0 means: infinite patience)
+   */
+  public double patience;
+
+  /**
+   * Coefficient of variation of the patience times
+   */
+  public double cvPatience;
+
+  /**
+   * Maximum number of waiting customers ({@link Abandonment#UNLIMITED} for an unlimited waiting room)
+   */
+  public int waitingRoom;
+
+  /**
+   * Number of customer classes (1 means: single class model)
+   */
+  public int classCount;
+
+  /**
+   * Have patience times or a finite waiting room been ignored because several customer classes are simulated?
+   */
+  public boolean abandonmentIgnored;
+
+  /**
+   * Mean inter-arrival times of the classes (<code>null</code> means: E[I] times the number of classes, so the total arrival rate stays the same; the last value is used for further classes)
+   */
+  public double[] classEI;
+
+  /**
+   * Coefficients of variation of the inter-arrival times of the classes (<code>null</code> means: CV[I])
+   */
+  public double[] classCvI;
+
+  /**
+   * Mean service times of the classes (<code>null</code> means: E[S])
+   */
+  public double[] classES;
+
+  /**
+   * Coefficients of variation of the service times of the classes (<code>null</code> means: CV[S])
+   */
+  public double[] classCvS;
+
+  /**
+   * Weights of the classes for {@link CustomerClasses.Discipline#WEIGHTED} (<code>null</code> means: all classes have weight 1)
+   */
+  public double[] classWeights;
+
+  /**
+   * Rule for selecting the class of the next customer to be served
+   */
+  public CustomerClasses.Discipline discipline;
+
+  /**
+   * Structure of the queueing network (<code>null</code> means: single station model, unless a network file is given)
+   */
+  public Network.Topology networkTopology;
+
+  /**
+   * Number of stations in a queueing network (for {@link #networkTopology})
+   */
+  public int stationCount;
+
+  /**
+   * Feedback probability in a queueing network (see {@link Network.Topology})
+   */
+  public double feedback;
+
+  /**
+   * CSV file defining a queueing network (<code>null</code>, if no file is used; see {@link Network#load(java.nio.file.Path, int, double, double, DistributionSetup)})
+   */
+  public String networkFile;
+
+  /**
+   * Values for E[I] in a parameter sweep (<code>null</code>, if E[I] is not varied)
+   */
+  public double[] sweepEI;
+
+  /**
+   * Values for CV[I] in a parameter sweep (<code>null</code>, if CV[I] is not varied)
+   */
+  public double[] sweepCvI;
+
+  /**
+   * Values for E[S] in a parameter sweep (<code>null</code>, if E[S] is not varied)
+   */
+  public double[] sweepES;
+
+  /**
+   * Values for CV[S] in a parameter sweep (<code>null</code>, if CV[S] is not varied)
+   */
+  public double[] sweepCvS;
+
+  /**
+   * Values for c in a parameter sweep (<code>null</code>, if c is not varied)
+   */
+  public double[] sweepC;
+
+  /**
+   * CSV file containing the scenarios of a parameter sweep (<code>null</code>, if no file is used)
+   */
+  public String sweepFile;
+
+  /**
+   * Seed for reproducible random number streams (<code>null</code> means: use the thread local generators)
+   */
+  public Long seed;
+
+  /**
+   * Number of independent chunks the arrivals are split into in seeded mode (if no replications are used)
+   */
+  public int chunks;
+
+  /**
+   * Record histograms and higher moments of the waiting and residence times and output quantiles, skewness and kurtosis
+   */
+  public boolean quantiles;
+
+  /**
+   * Distribution of the inter-arrival times (<code>null</code> means: exponential distribution for CV[I]=1, log-normal distribution otherwise)
+   */
+  public RandomNumbers.RandomDistribution distI;
+
+  /**
+   * Distribution of the service times (<code>null</code> means: exponential distribution for CV[S]=1, log-normal distribution otherwise)
+   */
+  public RandomNumbers.RandomDistribution distS;
+
+  /**
+   * Histogram file defining an empirical inter-arrival times distribution (<code>null</code>, if no file is used)
+   */
+  public String distIFile;
+
+  /**
+   * Histogram file defining an empirical service times distribution (<code>null</code>, if no file is used)
+   */
+  public String distSFile;
+
+  /**
+   * Binary trace file containing the inter-arrival times to be replayed (<code>null</code>, if no trace is used)
+   */
+  public String traceIFile;
+
+  /**
+   * Binary trace file containing the service times to be replayed (<code>null</code>, if no trace is used)
+   */
+  public String traceSFile;
+
+  /**
+   * Text file to be converted into a binary trace file (<code>null</code>, if no conversion is to be done)
+   */
+  public String traceConvertFile;
+
+  /**
+   * Output file of the trace conversion (<code>null</code> means: input file name with extension ".trace")
+   */
+  public String traceOutputFile;
+
+  /**
+   * Column of the text file to be converted (1-based)
+   */
+  public int traceColumn;
+
+  /**
+   * Storage format of the converted trace file
+   */
+  public TraceFile.Format traceFormat;
+
+  /**
+   * Scale of the timestamps in the converted trace file (only used for {@link TraceFile.Format#DELTA_LONG})
+   */
+  public double traceScale;
+
+  /**
+   * Interval for printing live progress lines in seconds (0 means: no progress output)
+   */
+  public double progressInterval;
+
+  /**
+   * Expose live progress metrics via JMX?
+   */
+  public boolean jmx;
+
+  /**
+   * Emit live progress metrics as JFR events?
+   */
+  public boolean jfr;
+
+  /**
+   * Format of the machine-readable result output ({@link ResultOutput.Format#TEXT} means: formatted text only)
+   */
+  public ResultOutput.Format outputFormat;
+
+  /**
+   * File for the machine-readable result output (<code>null</code> means: write to stdout and print the formatted text to stderr; if no format is given, it is derived from the file extension)
+   */
+  public String outputFile;
+
   private static void loadDouble(final String parameter, final String label, DoubleConsumer lambda, final boolean allowZero) {
     if (parameter.length()==label.length()) return;
     try {
@@ -135,6 +424,151 @@ public class Parameters {
     }
   }
 
+  private static <E extends Enum<E>> void loadEnum(final String parameter, final String label, final Class<E> type, Consumer<E> lambda) {
+    if (parameter.length()==label.length()) return;
+    try {
+      lambda.accept(Enum.valueOf(type,parameter.substring(label.length()).toUpperCase()));
+    } catch (IllegalArgumentException e) {
+      return;
+    }
+  }
+
+  private static <E extends Enum<E>> void loadEnumSet(final String parameter, final String label, final Class<E> type, Set<E> set) {
+    if (parameter.length()==label.length()) return;
+    for (String value: parameter.substring(label.length()).split(",")) {
+      try {
+        set.add(Enum.valueOf(type,value.trim().toUpperCase()));
+      } catch (IllegalArgumentException e) {
+        continue;
+      }
+    }
+  }
+
+  private static void loadRange(final String parameter, final String label, Consumer<double[]> lambda) {
+    if (parameter.length()==label.length()) return;
+    final double[] values=Scenario.parseRange(parameter.substring(label.length()));
+    if (values!=null && values.length>0) lambda.accept(values);
+  }
+
+  /**
+   * Returns the number of models which are simulated in parallel.
+   * @return  Pool size (if specified) or thread count
+   */
+  public int getParallelism() {
+    return (poolSize>0)?poolSize:threadCount;
+  }
+
+  /**
+   * Returns the settings for impatient customers and a finite waiting room.
+   * @return  Abandonment settings (patience times from an exponential distribution for CV=1, log-normal distribution otherwise)
+   */
+  public Abandonment getAbandonment() {
+    if (patience<=0 && waitingRoom<0) return Abandonment.NONE;
+    return new Abandonment((patience>0)?new DistributionSetup().getLambda(patience,cvPatience):null,waitingRoom);
+  }
+
+  /**
+   * Returns a short description of the abandonment settings for the output.
+   * @return  Description of the patience times and the waiting room size
+   */
+  public String getAbandonmentDescription() {
+    final String patienceMode=(patience>0)?new DistributionSetup().getDescription("P",patience,cvPatience):"infinite patience";
+    final String waitingRoomMode=(waitingRoom<0)?"unlimited waiting room":String.format("waiting room=%d",waitingRoom);
+    return patienceMode+", "+waitingRoomMode;
+  }
+
+  /**
+   * Returns the value of a per class parameter.
+   * @param values  Values per class (can be <code>null</code>; the last value is used for further classes)
+   * @param k Class
+   * @param defaultValue  Value to be used if no values are given
+   * @return  Value for the class
+   */
+  private static double getClassValue(final double[] values, final int k, final double defaultValue) {
+    if (values==null || values.length==0) return defaultValue;
+    return values[Math.min(k,values.length-1)];
+  }
+
+  /**
+   * Returns the mean inter-arrival time of a class.
+   * @param k Class
+   * @return  Mean inter-arrival time
+   */
+  public double getClassEI(final int k) {
+    return getClassValue(classEI,k,EI*classCount);
+  }
+
+  /**
+   * Returns the coefficient of variation of the inter-arrival times of a class.
+   * @param k Class
+   * @return  Coefficient of variation of the inter-arrival times
+   */
+  public double getClassCvI(final int k) {
+    return getClassValue(classCvI,k,cvI);
+  }
+
+  /**
+   * Returns the mean service time of a class.
+   * @param k Class
+   * @return  Mean service time
+   */
+  public double getClassES(final int k) {
+    return getClassValue(classES,k,ES);
+  }
+
+  /**
+   * Returns the coefficient of variation of the service times of a class.
+   * @param k Class
+   * @return  Coefficient of variation of the service times
+   */
+  public double getClassCvS(final int k) {
+    return getClassValue(classCvS,k,cvS);
+  }
+
+  /**
+   * Returns the weight of a class.
+   * @param k Class
+   * @return  Weight (for {@link CustomerClasses.Discipline#WEIGHTED})
+   */
+  public double getClassWeight(final int k) {
+    return getClassValue(classWeights,k,1);
+  }
+
+  /**
+   * Returns the settings for several customer classes.
+   * @param arrivalDistribution Distribution of the inter-arrival times (scaled to the mean of each class)
+   * @param serviceDistribution Distribution of the service times (scaled to the mean of each class)
+   * @return  Settings for the classes or <code>null</code>, if there is only one class
+   */
+  public CustomerClasses getClasses(final DistributionSetup arrivalDistribution, final DistributionSetup serviceDistribution) {
+    if (classCount<=1) return null;
+    final BlockGenerator[] interArrivalTimes=new BlockGenerator[classCount];
+    final BlockGenerator[] serviceTimes=new BlockGenerator[classCount];
+    final double[] weights=new double[classCount];
+    for (int i=0;i<classCount;i++) {
+      interArrivalTimes[i]=arrivalDistribution.getLambda(getClassEI(i),getClassCvI(i));
+      serviceTimes[i]=serviceDistribution.getLambda(getClassES(i),getClassCvS(i));
+      weights[i]=getClassWeight(i);
+    }
+    return new CustomerClasses(interArrivalTimes,serviceTimes,weights,discipline);
+  }
+
+  /**
+   * Is a queueing network to be simulated?
+   * @return  Returns <code>true</code>, if a network structure or a network file has been specified
+   */
+  public boolean isNetwork() {
+    return networkTopology!=null || networkFile!=null;
+  }
+
+  /**
+   * Is a parameter sweep to be run?
+   * @return  Returns <code>true</code>, if sweep parameters have been specified
+   */
+  public boolean isSweep() {
+    return sweepEI!=null || sweepCvI!=null || sweepES!=null || sweepCvS!=null || sweepC!=null || sweepFile!=null;
+  }
+
   public Parameters(final String args[]) {
     EI=default_EI;
     cvI=default_cvI;
@@ -144,10 +578,40 @@ public class Parameters {
     arrivalCount=default_arrival_count;
     threadCount=Runtime.getRuntime().availableProcessors();
     showTimes=false;
+    eventListType=null;
+    engine=QueueModel.Engine.EVENTS;
+    replications=0;
+    precision=0;
+    confidence=default_confidence;
+    ciMetrics=EnumSet.noneOf(ReplicationRunner.Metric.class);
+    warmup=Warmup.NONE;
+    patience=0;
+    cvPatience=default_cvP;
+    waitingRoom=Abandonment.UNLIMITED;
+    classCount=1;
+    abandonmentIgnored=false;
+    discipline=CustomerClasses.Discipline.NON_PREEMPTIVE;
+    stationCount=default_stations;
+    feedback=0;
+    seed=null;
+    chunks=0;
+    traceColumn=1;
+    traceFormat=TraceFile.Format.DOUBLE;
+    traceScale=1;
+    outputFormat=ResultOutput.Format.TEXT;
 
     boolean multiply_arrivals_by_threads=false;
 
     for (var arg: args) {
+      if (arg.toLowerCase().startsWith("sweep_file=") && arg.length()>"sweep_file=".length()) sweepFile=arg.substring("sweep_file=".length());
+      if (arg.toLowerCase().startsWith("dist_i_file=") && arg.length()>"dist_i_file=".length()) distIFile=arg.substring("dist_i_file=".length());
+      if (arg.toLowerCase().startsWith("dist_s_file=") && arg.length()>"dist_s_file=".length()) distSFile=arg.substring("dist_s_file=".length());
+      if (arg.toLowerCase().startsWith("trace_i=") && arg.length()>"trace_i=".length()) traceIFile=arg.substring("trace_i=".length());
+      if (arg.toLowerCase().startsWith("trace_s=") && arg.length()>"trace_s=".length()) traceSFile=arg.substring("trace_s=".length());
+      if (arg.toLowerCase().startsWith("trace_convert=") && arg.length()>"trace_convert=".length()) traceConvertFile=arg.substring("trace_convert=".length());
+      if (arg.toLowerCase().startsWith("trace_output=") && arg.length()>"trace_output=".length()) traceOutputFile=arg.substring("trace_output=".length());
+      if (arg.toLowerCase().startsWith("output_file=") && arg.length()>"output_file=".length()) outputFile=arg.substring("output_file=".length());
+      if (arg.toLowerCase().startsWith("network_file=") && arg.length()>"network_file=".length()) networkFile=arg.substring("network_file=".length());
       final String parameter=arg.toLowerCase();
       if (parameter.startsWith("ei=")) loadDouble(parameter,"ei=",d->{EI=d;},false);
       if (parameter.startsWith("cvi=")) loadDouble(parameter,"cvi=",d->{cvI=d;},true);
@@ -156,10 +620,72 @@ public class Parameters {
       if (parameter.startsWith("c=")) loadInt(parameter,"c=",i->{c=i;},false);
       if (parameter.startsWith("arrivals=")) loadLong(parameter,"arrivals=",l->{arrivalCount=l;},false);
       if (parameter.startsWith("threads=")) loadInt(parameter,"threads=",i->{threadCount=i;},false);
+      if (parameter.startsWith("pool=")) loadInt(parameter,"pool=",i->{if (i>0) poolSize=i;},false);
+      if (parameter.equals("virtual_threads")) virtualThreads=true;
+      if (parameter.startsWith("timeout=")) loadDouble(parameter,"timeout=",d->{if (d>0) timeout=d;},false);
       if (parameter.startsWith("increase_arrivals")) multiply_arrivals_by_threads=true;
       if (parameter.startsWith("show_times")) showTimes=true;
       if (parameter.startsWith("load_balancer")) loadBalancer=true;
+      if (parameter.startsWith("adaptive_balancer")) {loadBalancer=true; adaptiveLoadBalancer=true;}
+      if (parameter.startsWith("event_list=")) loadEnum(parameter,"event_list=",EventQueue.Type.class,t->{eventListType=t;});
+      if (parameter.startsWith("engine=")) loadEnum(parameter,"engine=",QueueModel.Engine.class,e->{engine=e;});
+      if (parameter.equals("lockstep")) lockstep=true;
+      if (parameter.startsWith("replications=")) loadInt(parameter,"replications=",i->{replications=i;},false);
+      if (parameter.startsWith("precision=")) loadDouble(parameter,"precision=",d->{precision=d;},true);
+      if (parameter.startsWith("confidence=")) loadDouble(parameter,"confidence=",d->{if (d>0 && d<1) confidence=d;},false);
+      if (parameter.startsWith("ci_metrics=")) loadEnumSet(parameter,"ci_metrics=",ReplicationRunner.Metric.class,ciMetrics);
+      if (parameter.equals("warmup=auto")) warmup=new Warmup(Warmup.Mode.MSER,0,0);
+      else if (parameter.startsWith("warmup=")) loadLong(parameter,"warmup=",l->{warmup=new Warmup(Warmup.Mode.ARRIVALS,l,0);},false);
+      if (parameter.startsWith("patience=")) loadDouble(parameter,"patience=",d->{if (d>0) patience=d;},false);
+      if (parameter.startsWith("cv_patience=")) loadDouble(parameter,"cv_patience=",d->{cvPatience=d;},true);
+      if (parameter.startsWith("waiting_room=")) loadInt(parameter,"waiting_room=",i->{waitingRoom=i;},true);
+      if (parameter.startsWith("classes=")) loadInt(parameter,"classes=",i->{if (i>=1 && i<=CustomerClasses.MAX_CLASSES) classCount=i;},false);
+      if (parameter.startsWith("priority=")) loadEnum(parameter.replace('-','_'),"priority=",CustomerClasses.Discipline.class,d->{discipline=d;});
+      if (parameter.startsWith("class_ei=")) loadRange(parameter,"class_ei=",v->{if (Arrays.stream(v).allMatch(d->d>0)) classEI=v;});
+      if (parameter.startsWith("class_cvi=")) loadRange(parameter,"class_cvi=",v->{if (Arrays.stream(v).allMatch(d->d>=0)) classCvI=v;});
+      if (parameter.startsWith("class_es=")) loadRange(parameter,"class_es=",v->{if (Arrays.stream(v).allMatch(d->d>0)) classES=v;});
+      if (parameter.startsWith("class_cvs=")) loadRange(parameter,"class_cvs=",v->{if (Arrays.stream(v).allMatch(d->d>=0)) classCvS=v;});
+      if (parameter.startsWith("class_weights=")) loadRange(parameter,"class_weights=",v->{if (Arrays.stream(v).allMatch(d->d>0 && !Double.isInfinite(d))) classWeights=v;});
+      if (parameter.startsWith("network=")) loadEnum(parameter,"network=",Network.Topology.class,t->{networkTopology=t;});
+      if (parameter.startsWith("stations=")) loadInt(parameter,"stations=",i->{if (i>0) stationCount=i;},false);
+      if (parameter.startsWith("feedback=")) loadDouble(parameter,"feedback=",d->{if (d>=0 && d<1) feedback=d;},true);
+      if (parameter.startsWith("sweep_ei=")) loadRange(parameter,"sweep_ei=",v->{if (Arrays.stream(v).allMatch(d->d>0)) sweepEI=v;});
+      if (parameter.startsWith("sweep_cvi=")) loadRange(parameter,"sweep_cvi=",v->{if (Arrays.stream(v).allMatch(d->d>=0)) sweepCvI=v;});
+      if (parameter.startsWith("sweep_es=")) loadRange(parameter,"sweep_es=",v->{if (Arrays.stream(v).allMatch(d->d>0)) sweepES=v;});
+      if (parameter.startsWith("sweep_cvs=")) loadRange(parameter,"sweep_cvs=",v->{if (Arrays.stream(v).allMatch(d->d>=0)) sweepCvS=v;});
+      if (parameter.startsWith("sweep_c=")) loadRange(parameter,"sweep_c=",v->{if (Arrays.stream(v).allMatch(d->Math.round(d)>0)) sweepC=v;});
+      if (parameter.startsWith("warmup_time=")) loadDouble(parameter,"warmup_time=",d->{warmup=new Warmup(Warmup.Mode.TIME,0,d);},false);
+      if (parameter.startsWith("seed=")) loadLong(parameter,"seed=",l->{seed=l;},true);
+      if (parameter.startsWith("quantiles")) quantiles=true;
+      if (parameter.startsWith("chunks=")) loadInt(parameter,"chunks=",i->{if (i>0) chunks=i;},false);
+      if (parameter.startsWith("dist_i=")) loadEnum(parameter.replace('-','_'),"dist_i=",RandomNumbers.RandomDistribution.class,t->{distI=t;});
+      if (parameter.startsWith("trace_column=")) loadInt(parameter,"trace_column=",i->{if (i>0) traceColumn=i;},false);
+      if (parameter.startsWith("trace_format=")) loadEnum(parameter,"trace_format=",TraceFile.Format.class,f->{traceFormat=f;});
+      if (parameter.startsWith("trace_scale=")) loadDouble(parameter,"trace_scale=",d->{if (d>0) traceScale=d;},false);
+      if (parameter.startsWith("progress=")) loadDouble(parameter,"progress=",d->{if (d>0) progressInterval=d;},false);
+      else if (parameter.equals("progress")) progressInterval=10;
+      if (parameter.equals("jmx")) jmx=true;
+      if (parameter.equals("jfr")) jfr=true;
+      if (parameter.startsWith("output=")) loadEnum(parameter,"output=",ResultOutput.Format.class,f->{outputFormat=f;});
+      if (parameter.startsWith("dist_s=")) loadEnum(parameter.replace('-','_'),"dist_s=",RandomNumbers.RandomDistribution.class,t->{distS=t;});
     }
     if (multiply_arrivals_by_threads) arrivalCount*=threadCount;
+    /* Networks have one pending event per busy operator, so the sorted list (linear insertion) is only the default for single stations */
+    if (eventListType==null) eventListType=isNetwork()?EventQueue.Type.CALENDAR:EventQueue.Type.SORTED;
+    /* Each chunk starts with an empty system; a network needs much longer than a single station to fill up, so it is not split by default */
+    if (chunks==0) chunks=isNetwork()?1:default_chunks;
+    if (lockstep) engine=QueueModel.Engine.LINDLEY;
+    /* Several classes are simulated by the event engine without abandonment (sweeps, traces and networks use a single class) */
+    abandonmentIgnored=(classCount>1 && (patience>0 || waitingRoom>=0) && !isSweep() && !isNetwork() && traceIFile==null && traceSFile==null);
+    if (abandonmentIgnored) {
+      patience=0;
+      waitingRoom=Abandonment.UNLIMITED;
+    }
+    if (classCount>1 || patience>0 || waitingRoom>=0) {
+      /* Several classes, abandonment and finite waiting rooms need the event engine */
+      engine=QueueModel.Engine.EVENTS;
+      lockstep=false;
+    }
+    if (outputFile!=null && outputFormat==ResultOutput.Format.TEXT) outputFormat=outputFile.toLowerCase().endsWith(".csv")?ResultOutput.Format.CSV:ResultOutput.Format.JSON;
   }
 }
\ No newline at end of file
@@ -0,0 +1,71 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import jdk.jfr.Category;
+import jdk.jfr.Description;
+import jdk.jfr.Event;
+import jdk.jfr.Label;
+import jdk.jfr.Name;
+import jdk.jfr.StackTrace;
+
+/**
+ * Java Flight Recorder event with the progress of one simulation worker thread.<br>
+ * The events are emitted by the sampler thread of the {@link ProgressMonitor} and are
+ * only recorded if a flight recording is running (e.g. <code>-XX:StartFlightRecording</code>).
+ */
+@Name("tinyfastsimulator.Progress")
+@Label("Simulation Progress")
+@Category("TinyFastSimulator")
+@Description("Progress of one simulation worker thread")
+@StackTrace(false)
+public class ProgressEvent extends Event {
+  /**
+   * Index of the worker thread (1-based)
+   */
+  @Label("Thread")
+  public int thread;
+
+  /**
+   * Total number of executed events
+   */
+  @Label("Events")
+  public long events;
+
+  /**
+   * Events per second in the last sampling interval
+   */
+  @Label("Events per Second")
+  public double eventsPerSecond;
+
+  /**
+   * Simulated clock of the current model
+   */
+  @Label("Simulated Time")
+  public double simulatedTime;
+
+  /**
+   * Event list size of the current model
+   */
+  @Label("Event List Size")
+  public int eventListSize;
+
+  /**
+   * Queue length of the current model
+   */
+  @Label("Queue Length")
+  public int queueLength;
+}
@@ -0,0 +1,316 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.io.PrintStream;
+import java.lang.management.ManagementFactory;
+import java.util.Locale;
+
+import javax.management.JMException;
+import javax.management.MBeanServer;
+import javax.management.ObjectName;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
+
+/**
+ * Live progress and throughput metrics of a running simulation.<br>
+ * Each worker thread updates its own {@link SimulationProgress} counters. A sampler thread
+ * reads these counters periodically, calculates the rates and the estimated remaining time
+ * and optionally prints a progress line, emits {@link ProgressEvent} JFR events and exposes
+ * the values via JMX (see {@link ProgressMonitorMBean}).
+ */
+public class ProgressMonitor implements ProgressMonitorMBean {
+  /**
+   * JMX object name of the monitor
+   */
+  public static final String OBJECT_NAME="tinyfastsimulator:type=ProgressMonitor";
+
+  /**
+   * Progress counters of the worker threads
+   */
+  private final SimulationProgress[] workers;
+
+  /**
+   * Planned total number of arrivals
+   */
+  private final long arrivalGoal;
+
+  /**
+   * Sampling interval in ms
+   */
+  private final long intervalMS;
+
+  /**
+   * Output for the progress lines (<code>null</code> means: no output)
+   */
+  private final PrintStream out;
+
+  /**
+   * Emit JFR events?
+   */
+  private final boolean jfr;
+
+  /**
+   * Start time (System.nanoTime)
+   */
+  private final long startNS;
+
+  /**
+   * Sampler thread (<code>null</code> if not running)
+   */
+  private Thread sampler;
+
+  /**
+   * Registered JMX object name (<code>null</code> if not registered)
+   */
+  private ObjectName registeredName;
+
+  /**
+   * Events per worker at the last sample (only used by the sampler thread)
+   */
+  private final long[] lastEvents;
+
+  /**
+   * Total arrivals at the last sample (only used by the sampler thread)
+   */
+  private long lastArrivals;
+
+  /**
+   * Time of the last sample (System.nanoTime, only used by the sampler thread)
+   */
+  private long lastSampleNS;
+
+  /**
+   * Events per second per worker in the last sampling interval
+   */
+  private volatile double[] eventsPerSecond;
+
+  /**
+   * Arrivals per second in the last sampling interval
+   */
+  private volatile double arrivalsPerSecond;
+
+  /**
+   * Constructor
+   * @param workerCount Number of worker threads
+   * @param arrivalGoal Planned total number of arrivals (upper bound if the simulation may stop early)
+   * @param intervalSeconds Sampling interval in seconds
+   * @param out Output for the progress lines (<code>null</code> means: no output)
+   * @param jfr Emit JFR events?
+   */
+  public ProgressMonitor(final int workerCount, final long arrivalGoal, final double intervalSeconds, final PrintStream out, final boolean jfr) {
+    workers=new SimulationProgress[workerCount];
+    for (int i=0;i<workerCount;i++) workers[i]=new SimulationProgress();
+    this.arrivalGoal=arrivalGoal;
+    intervalMS=Math.max(10,Math.round(intervalSeconds*1000));
+    this.out=out;
+    this.jfr=jfr;
+    startNS=System.nanoTime();
+    lastEvents=new long[workerCount];
+    lastSampleNS=startNS;
+    eventsPerSecond=new double[workerCount];
+  }
+
+  /**
+   * Returns the progress counters of a worker thread.
+   * @param worker  Index of the worker thread (0-based)
+   * @return  Progress counters to be passed to the models run by this worker
+   */
+  public SimulationProgress getProgress(final int worker) {
+    return workers[worker];
+  }
+
+  /**
+   * Starts the sampler thread.
+   * @param registerMBean Register the monitor as JMX MBean?
+   */
+  public synchronized void start(final boolean registerMBean) {
+    if (registerMBean) {
+      try {
+        final MBeanServer server=ManagementFactory.getPlatformMBeanServer();
+        final ObjectName name=new ObjectName(OBJECT_NAME);
+        if (server.isRegistered(name)) server.unregisterMBean(name);
+        server.registerMBean(this,name);
+        registeredName=name;
+      } catch (JMException e) {
+        System.err.println(String.format("Error registering JMX MBean: %s",e.getMessage()));
+      }
+    }
+    sampler=new Thread(()->runSampler(),"ProgressMonitor");
+    sampler.setDaemon(true);
+    sampler.start();
+  }
+
+  /**
+   * Stops the sampler thread and unregisters the MBean.
+   */
+  public synchronized void stop() {
+    if (sampler!=null) {
+      sampler.interrupt();
+      try {
+        sampler.join();
+      } catch (InterruptedException e) {}
+      sampler=null;
+    }
+    if (registeredName!=null) {
+      try {
+        ManagementFactory.getPlatformMBeanServer().unregisterMBean(registeredName);
+      } catch (JMException e) {}
+      registeredName=null;
+    }
+  }
+
+  /**
+   * Sampler thread main loop
+   */
+  private void runSampler() {
+    while (true) {
+      try {
+        Thread.sleep(intervalMS);
+      } catch (InterruptedException e) {
+        return;
+      }
+      sample();
+    }
+  }
+
+  /**
+   * Reads the counters of all workers and calculates the rates.
+   */
+  private void sample() {
+    final long now=System.nanoTime();
+    final double seconds=(now-lastSampleNS)/1E9;
+    lastSampleNS=now;
+    final double[] rates=new double[workers.length];
+    long arrivals=0;
+    for (int i=0;i<workers.length;i++) {
+      final long events=workers[i].getEvents();
+      rates[i]=(events-lastEvents[i])/seconds;
+      lastEvents[i]=events;
+      arrivals+=workers[i].getArrivals();
+    }
+    arrivalsPerSecond=(arrivals-lastArrivals)/seconds;
+    lastArrivals=arrivals;
+    eventsPerSecond=rates;
+
+    if (jfr) {
+      for (int i=0;i<workers.length;i++) {
+        final ProgressEvent event=new ProgressEvent();
+        if (!event.shouldCommit()) break;
+        event.thread=i+1;
+        event.events=workers[i].getEvents();
+        event.eventsPerSecond=rates[i];
+        event.simulatedTime=workers[i].getSimulatedTime();
+        event.eventListSize=workers[i].getEventListSize();
+        event.queueLength=workers[i].getQueueLength();
+        event.commit();
+      }
+    }
+
+    if (out!=null) out.println(getProgressLine());
+  }
+
+  /**
+   * Builds a progress line from the current values.
+   * @return  Progress line
+   */
+  public String getProgressLine() {
+    final StringBuilder line=new StringBuilder();
+    line.append(String.format(Locale.US,"[%.0fs] %.1f%%, %.3gM events/s",getElapsedSeconds(),getProgress()*100,getEventsPerSecond()/1E6));
+    final double eta=getETASeconds();
+    if (!Double.isNaN(eta)) line.append(String.format(Locale.US,", ETA %.0fs",eta));
+    final double[] rates=eventsPerSecond;
+    for (int i=0;i<workers.length;i++) {
+      line.append(String.format(Locale.US," | #%d: %.3gM/s, clock=%.4g, event list=%d, queue=%d",i+1,rates[i]/1E6,workers[i].getSimulatedTime(),workers[i].getEventListSize(),workers[i].getQueueLength()));
+    }
+    return line.toString();
+  }
+
+  @Override
+  public int getThreadCount() {
+    return workers.length;
+  }
+
+  @Override
+  public double getElapsedSeconds() {
+    return (System.nanoTime()-startNS)/1E9;
+  }
+
+  @Override
+  public long getEvents() {
+    long sum=0;
+    for (SimulationProgress worker: workers) sum+=worker.getEvents();
+    return sum;
+  }
+
+  @Override
+  public double getEventsPerSecond() {
+    double sum=0;
+    for (double rate: eventsPerSecond) sum+=rate;
+    return sum;
+  }
+
+  @Override
+  public long getArrivals() {
+    long sum=0;
+    for (SimulationProgress worker: workers) sum+=worker.getArrivals();
+    return sum;
+  }
+
+  @Override
+  public long getArrivalGoal() {
+    return arrivalGoal;
+  }
+
+  @Override
+  public double getProgress() {
+    if (arrivalGoal<=0) return 0;
+    return Math.min(1,((double)getArrivals())/arrivalGoal);
+  }
+
+  @Override
+  public double getETASeconds() {
+    final double rate=arrivalsPerSecond;
+    if (arrivalGoal<=0 || rate<=0) return Double.NaN;
+    return Math.max(0,arrivalGoal-getArrivals())/rate;
+  }
+
+  @Override
+  public double[] getEventsPerSecondPerThread() {
+    return eventsPerSecond.clone();
+  }
+
+  @Override
+  public double[] getSimulatedTimePerThread() {
+    final double[] result=new double[workers.length];
+    for (int i=0;i<workers.length;i++) result[i]=workers[i].getSimulatedTime();
+    return result;
+  }
+
+  @Override
+  public int[] getEventListSizePerThread() {
+    final int[] result=new int[workers.length];
+    for (int i=0;i<workers.length;i++) result[i]=workers[i].getEventListSize();
+    return result;
+  }
+
+  @Override
+  public int[] getQueueLengthPerThread() {
+    final int[] result=new int[workers.length];
+    for (int i=0;i<workers.length;i++) result[i]=workers[i].getQueueLength();
+    return result;
+  }
+}
@@ -0,0 +1,94 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+/**
+ * JMX management interface of the {@link ProgressMonitor}.<br>
+ * All rates are calculated by the sampler thread over the last sampling interval.
+ */
+public interface ProgressMonitorMBean {
+  /**
+   * Returns the number of simulation worker threads.
+   * @return  Number of worker threads
+   */
+  int getThreadCount();
+
+  /**
+   * Returns the wall clock time since the start of the simulation.
+   * @return  Elapsed time in seconds
+   */
+  double getElapsedSeconds();
+
+  /**
+   * Returns the total number of executed events.
+   * @return  Number of events
+   */
+  long getEvents();
+
+  /**
+   * Returns the total number of events per second.
+   * @return  Events per second
+   */
+  double getEventsPerSecond();
+
+  /**
+   * Returns the total number of arrivals.
+   * @return  Number of arrivals
+   */
+  long getArrivals();
+
+  /**
+   * Returns the planned total number of arrivals.
+   * @return  Number of arrivals to be simulated (upper bound if the simulation may stop early)
+   */
+  long getArrivalGoal();
+
+  /**
+   * Returns the fraction of the planned arrivals which have been simulated.
+   * @return  Progress (0..1)
+   */
+  double getProgress();
+
+  /**
+   * Returns the estimated remaining wall clock time.
+   * @return  Estimated remaining time in seconds (NaN if unknown)
+   */
+  double getETASeconds();
+
+  /**
+   * Returns the events per second of each worker thread.
+   * @return  Events per second per thread
+   */
+  double[] getEventsPerSecondPerThread();
+
+  /**
+   * Returns the simulated clock of each worker thread.
+   * @return  Simulated time per thread
+   */
+  double[] getSimulatedTimePerThread();
+
+  /**
+   * Returns the event list size of each worker thread.
+   * @return  Event list size per thread
+   */
+  int[] getEventListSizePerThread();
+
+  /**
+   * Returns the queue length of each worker thread.
+   * @return  Queue length per thread
+   */
+  int[] getQueueLengthPerThread();
+}
@@ -15,41 +15,104 @@
  */
 package tinyfastsimulator.tinyfastsimulator;
 
+import java.util.Arrays;
 import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.LongConsumer;
 import java.util.function.LongSupplier;
 import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
 
-import tinyfastsimulator.tinyfastsimulator.simulator.Simulator;
+import tinyfastsimulator.tinyfastsimulator.simulator.ArrayGrowth;
+import tinyfastsimulator.tinyfastsimulator.simulator.BatchMeans;
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventHandler;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.IndexedLongQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.LongMinHeap;
+import tinyfastsimulator.tinyfastsimulator.simulator.LongRingBuffer;
+import tinyfastsimulator.tinyfastsimulator.simulator.MSERDetector;
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
 import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsData;
 import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsState;
+import tinyfastsimulator.tinyfastsimulator.simulator.TypedSimulator;
 import tinyfastsimulator.tinyfastsimulator.simulator.Model;
 
 /**
- * Model for G/G/c queue simulation
+ * Model for G/G/c queue simulation (optionally with impatient clients and a finite waiting room)
  */
-public class QueueModel extends Model implements Cloneable {
+public final class QueueModel extends Model implements Cloneable, EventHandler {
+  /**
+   * Simulation engines
+   */
+  public static enum Engine {
+    /** Discrete event simulation (arrival and service end events in an event list) */
+    EVENTS,
+    /**
+     * Kiefer-Wolfowitz recursion (Lindley recursion for c=1): the waiting times are calculated
+     * customer by customer from the times at which the operators become available; the time-weighted
+     * means are calculated from the sums of the waiting and service times, the state distributions are
+     * only rebuilt from the departure times if quantiles are recorded (only valid for FIFO queues)
+     */
+    LINDLEY
+  }
+
   /**
    * Internal time base is 1/1000 second
    */
   private static final double SIM_TIME_FACTOR=1000;
 
   /**
-   * Step size to increase the queue array length
+   * Number of inter-arrival and service times generated at once
+   * (smaller blocks are used for models with less arrivals, so short replications do not generate unused values;
+   * also used by {@link LockstepBatch}, so the lanes draw the same numbers as single models)
+   */
+  static final int RANDOM_BLOCK_SIZE=4096;
+  /**
+   * Number of low bits of the event type which hold the kind of the event
+   * (the higher bits hold a payload, e.g. the class of an arriving client)
+   */
+  private static final int EVENT_KIND_BITS=3;
+
+  /**
+   * Bit mask for the kind of the event in the event type
    */
-  private static final int QUEUE_INCREMENT=10;
+  private static final int EVENT_KIND_MASK=(1<<EVENT_KIND_BITS)-1;
+
+  /**
+   * Event kind: arrival of a client
+   */
+  private static final int EVENT_ARRIVAL=0;
+
+  /**
+   * Event kind: end of a service process
+   */
+  private static final int EVENT_SERVICE=1;
+
+  /**
+   * Event kind: abandonment of a waiting client (payload: slot of the client in the queue)
+   */
+  private static final int EVENT_ABANDON=2;
+
+  /**
+   * Event kind: arrival of a client in a model with several classes (payload: class)
+   */
+  private static final int EVENT_CLASS_ARRIVAL=3;
+
+  /**
+   * Event kind: end of a service process in a model with several classes (payload: operator)
+   */
+  private static final int EVENT_CLASS_SERVICE=4;
 
   /* Static model data */
 
   /**
    * Callback for generating inter-arrival times
    */
-  private final ToDoubleFunction<ThreadLocalRandom> interArrivalTime;
+  private final BlockGenerator interArrivalTime;
 
   /**
    * Callback for generating service times
    */
-  private final ToDoubleFunction<ThreadLocalRandom> serviceTime;
+  private final BlockGenerator serviceTime;
 
   /**
    * Total number of operators
@@ -71,17 +134,224 @@ public class QueueModel extends Model implements Cloneable {
    */
   private final LongSupplier loadBalancer;
 
+  /**
+   * Type of the event list used by the simulator
+   */
+  private final EventQueue.Type eventListType;
+
+  /**
+   * Simulation engine
+   */
+  private final Engine engine;
+
+  /**
+   * Expected maximum queue length (used as initial size of the queue)
+   */
+  private final int queueCapacityHint;
+
+  /**
+   * Warm-up period settings
+   */
+  private final Warmup warmup;
+
+  /**
+   * Pseudo random number generator to be used (<code>null</code> means: use the thread local generator)
+   */
+  private final RandomGenerator randomSource;
+
+  /**
+   * Record histograms and higher moments of the waiting and residence times (for quantiles, skewness and kurtosis)?
+   */
+  private final boolean recordQuantiles;
+
+  /**
+   * Settings for impatient clients and a finite waiting room
+   */
+  private final Abandonment abandonment;
+
+  /**
+   * Callback for generating patience times (<code>null</code> means: infinite patience)
+   */
+  private final BlockGenerator patienceTime;
+
+  /**
+   * Maximum number of waiting clients ({@link Abandonment#UNLIMITED} for an unlimited waiting room)
+   */
+  private final int waitingRoom;
+
+  /**
+   * Settings for several customer classes (<code>null</code> for a single class)
+   */
+  private final CustomerClasses classes;
+
+  /**
+   * Number of customer classes (0 for a model with a single class)
+   */
+  private final int classCount;
+
+  /**
+   * Live progress counters (optional, can be null)
+   */
+  private SimulationProgress progress;
+
   /* Run time data */
 
   /**
-   * Simulator systems
+   * Simulator systems (<code>null</code> for {@link Engine#LINDLEY})
    */
-  private final Simulator simulator=new Simulator();
+  private final TypedSimulator simulator;
 
   /**
    * Objects to generate pseudo random numbers on [0,1)
    */
-  private ThreadLocalRandom random;
+  private RandomGenerator random;
+
+  /**
+   * Block of pre-generated inter-arrival times
+   */
+  private final double[] interArrivalTimes;
+
+  /**
+   * Index of the next value to be used in {@link #interArrivalTimes}
+   */
+  private int interArrivalTimesIndex;
+
+  /**
+   * Block of pre-generated service times
+   */
+  private final double[] serviceTimes;
+
+  /**
+   * Index of the next value to be used in {@link #serviceTimes}
+   */
+  private int serviceTimesIndex;
+
+  /**
+   * Block of pre-generated patience times (<code>null</code>, if the clients have infinite patience)
+   */
+  private final double[] patienceTimes;
+
+  /**
+   * Index of the next value to be used in {@link #patienceTimes}
+   */
+  private int patienceTimesIndex;
+
+  /**
+   * Handles of the abandonment events of the waiting clients (indexed by the slots of the clients in the queue)
+   */
+  private long[] abandonmentHandles;
+
+  /* Run time data for several customer classes (all <code>null</code> for a single class) */
+
+  /**
+   * Blocks of pre-generated inter-arrival times (indexed by class)
+   */
+  private final double[][] classInterArrivalTimes;
+
+  /**
+   * Indices of the next values to be used in {@link #classInterArrivalTimes} (indexed by class)
+   */
+  private final int[] classInterArrivalTimesIndex;
+
+  /**
+   * Blocks of pre-generated service times (indexed by class)
+   */
+  private final double[][] classServiceTimes;
+
+  /**
+   * Indices of the next values to be used in {@link #classServiceTimes} (indexed by class)
+   */
+  private final int[] classServiceTimesIndex;
+
+  /**
+   * Times of the next arrivals of the classes (only the earliest one is in the event list; {@link Long#MAX_VALUE} if a class has no further arrivals)
+   */
+  private final long[] classNextArrival;
+
+  /**
+   * Arrival times of the waiting clients (one FIFO queue per class)
+   */
+  private final LongRingBuffer[] classQueues;
+
+  /**
+   * Classes with waiting clients (bit k is set if class k has waiting or preempted clients)
+   */
+  private long waitingMask;
+
+  /**
+   * Number of waiting clients of all classes (including preempted clients)
+   */
+  private int waitingCount;
+
+  /**
+   * Class of the client served by each operator
+   */
+  private final int[] operatorClass;
+
+  /**
+   * Arrival time of the client served by each operator
+   */
+  private final long[] operatorArrival;
+
+  /**
+   * Total service time of the client served by each operator (in simulation time units)
+   */
+  private final long[] operatorService;
+
+  /**
+   * End of the current service process of each operator
+   */
+  private final long[] operatorEnd;
+
+  /**
+   * Stack of free operators
+   */
+  private final int[] freeOperators;
+
+  /**
+   * Number of entries on the free operators stack
+   */
+  private int freeOperatorsCount;
+
+  /**
+   * Handles of the service end events of the operators (only for {@link CustomerClasses.Discipline#PREEMPTIVE})
+   */
+  private final long[] operatorHandle;
+
+  /**
+   * Busy operators per class (only for {@link CustomerClasses.Discipline#PREEMPTIVE}; the first {@link #classOperatorCount} entries are used)
+   */
+  private final int[][] classOperators;
+
+  /**
+   * Number of busy operators per class (only for {@link CustomerClasses.Discipline#PREEMPTIVE})
+   */
+  private final int[] classOperatorCount;
+
+  /**
+   * Index of each busy operator in {@link #classOperators} (only for {@link CustomerClasses.Discipline#PREEMPTIVE})
+   */
+  private final int[] operatorIndexInClass;
+
+  /**
+   * Classes in service (bit k is set if an operator serves a client of class k; only for {@link CustomerClasses.Discipline#PREEMPTIVE})
+   */
+  private long busyMask;
+
+  /**
+   * Arrival times of the preempted clients (one FIFO queue per class; only for {@link CustomerClasses.Discipline#PREEMPTIVE})
+   */
+  private final LongRingBuffer[] preemptedArrival;
+
+  /**
+   * Remaining service times of the preempted clients (in simulation time units)
+   */
+  private final LongRingBuffer[] preemptedRemaining;
+
+  /**
+   * Total service times of the preempted clients (in simulation time units)
+   */
+  private final LongRingBuffer[] preemptedService;
 
   /**
    * Number of busy operators
@@ -93,11 +363,61 @@ public class QueueModel extends Model implements Cloneable {
    */
   private long arrivalCount;
 
+  /**
+   * Is the simulation still in the warm-up period?
+   */
+  private boolean warmupActive;
+
+  /**
+   * Detector for the end of the warm-up period (only used in MSER mode)
+   */
+  private MSERDetector warmupDetector;
+
+  /**
+   * Has the end of the warm-up period been detected by the MSER rule?
+   */
+  private boolean warmupDetected;
+
+  /**
+   * Number of arrivals in the warm-up period (not included in the statistics)
+   */
+  public long warmupArrivalCount;
+
+  /**
+   * Simulation time at which the warm-up period ended (-1, if there was no warm-up period)
+   */
+  public double warmupEndTime=-1;
+
   /**
    * Waiting time statistics
    */
   public StatisticsData waitingTimeStat=new StatisticsData();
 
+  /**
+   * Statistics of the times the clients who abandoned have waited (the count is the number of abandoned clients)
+   */
+  public StatisticsData abandonedWaitingTimeStat=new StatisticsData();
+
+  /**
+   * Number of clients who were blocked because the waiting room was full
+   */
+  public long blockedCount;
+
+  /**
+   * Waiting time statistics per class (<code>null</code> for a single class)
+   */
+  public StatisticsData[] classWaitingTimeStat;
+
+  /**
+   * Residence time statistics per class (<code>null</code> for a single class)
+   */
+  public StatisticsData[] classResidenceTimeStat;
+
+  /**
+   * Number of service processes which have been interrupted by a client of a higher priority class
+   */
+  public long preemptionCount;
+
   /**
    * Service time statistics
    */
@@ -108,6 +428,16 @@ public class QueueModel extends Model implements Cloneable {
    */
   public StatisticsData residenceTimeStat=new StatisticsData();
 
+  /**
+   * Batch means of the waiting times (for confidence intervals)
+   */
+  public BatchMeans waitingTimeBatches=new BatchMeans();
+
+  /**
+   * Batch means of the residence times (for confidence intervals)
+   */
+  public BatchMeans residenceTimeBatches=new BatchMeans();
+
   /**
    * Queue length statistics
    */
@@ -124,14 +454,24 @@ public class QueueModel extends Model implements Cloneable {
   public StatisticsState operatorsUsage=new StatisticsState();
 
   /**
-   * Arrival times of the waiting clients
+   * Arrival times of the waiting clients (clients who abandon leave from any position; <code>null</code> for several classes)
    */
-  private long[] queue=new long[QUEUE_INCREMENT];
+  private final IndexedLongQueue queue;
 
   /**
-   * Number of used entries in the queue array
+   * Maximum number of clients in the queue at the same time
    */
-  private int queueUsed;
+  public int maxQueueSize;
+
+  /**
+   * Number of times the queue buffer had to be enlarged
+   */
+  public int queueResizeCount;
+
+  /**
+   * Maximum number of events in the event list at the same time
+   */
+  public int maxEventListSize;
 
   /**
    * Number of simulated events
@@ -144,14 +484,46 @@ public class QueueModel extends Model implements Cloneable {
   public long runtimeMS;
 
   /**
-   * Callback for processing arrival events
+   * Number of packages of arrivals received from the load balancer
+   */
+  public long loadBalancerRequests;
+
+  /**
+   * Time spent waiting for the load balancer in ns
+   */
+  public long loadBalancerWaitNS;
+
+  /**
+   * Constructor
+   * @param interArrivalTime  Callback for generating inter-arrival times
+   * @param serviceTime Callback for generating service times
+   * @param c Number of operators in the system
+   * @param arrivalGoal Number of arrivals to be simulated
+   * @param printLogs Show simulation logs?
+   * @param loadBalancer Load balancer (optional, can be null)
    */
-  private final LongConsumer arrival=t->runArrivalEvent(t);
+  public QueueModel(final ToDoubleFunction<RandomGenerator> interArrivalTime, final ToDoubleFunction<RandomGenerator> serviceTime, final int c, final long arrivalGoal, final boolean printLogs, final LongSupplier loadBalancer) {
+    this(interArrivalTime,serviceTime,c,arrivalGoal,printLogs,loadBalancer,EventQueue.Type.SORTED,0,Warmup.NONE,null,false,Engine.EVENTS,Abandonment.NONE);
+  }
 
   /**
-   * Callback for processing service time end events
+   * Constructor (customers with infinite patience and an unlimited waiting room)
+   * @param interArrivalTime  Callback for generating inter-arrival times
+   * @param serviceTime Callback for generating service times
+   * @param c Number of operators in the system
+   * @param arrivalGoal Number of arrivals to be simulated
+   * @param printLogs Show simulation logs?
+   * @param loadBalancer Load balancer (optional, can be null)
+   * @param eventListType Type of the event list used by the simulator
+   * @param queueCapacityHint Expected maximum queue length (used as initial size of the queue; values &le;0 mean "no hint")
+   * @param warmup  Warm-up period settings (arrivals in the warm-up period are simulated in addition to the arrival goal)
+   * @param random  Pseudo random number generator to be used (for reproducible results; <code>null</code> means: use the thread local generator)
+   * @param recordQuantiles Record histograms and higher moments of the waiting and residence times (for quantiles, skewness and kurtosis)?
+   * @param engine  Simulation engine
    */
-  private final LongConsumer service=t->runOperatorAvailableEvent(t);
+  public QueueModel(final ToDoubleFunction<RandomGenerator> interArrivalTime, final ToDoubleFunction<RandomGenerator> serviceTime, final int c, final long arrivalGoal, final boolean printLogs, final LongSupplier loadBalancer, final EventQueue.Type eventListType, final int queueCapacityHint, final Warmup warmup, final RandomGenerator random, final boolean recordQuantiles, final Engine engine) {
+    this(interArrivalTime,serviceTime,c,arrivalGoal,printLogs,loadBalancer,eventListType,queueCapacityHint,warmup,random,recordQuantiles,engine,Abandonment.NONE);
+  }
 
   /**
    * Constructor
@@ -160,14 +532,141 @@ public class QueueModel extends Model implements Cloneable {
    * @param c Number of operators in the system
    * @param arrivalGoal Number of arrivals to be simulated
    * @param printLogs Show simulation logs?
+   * @param loadBalancer Load balancer (optional, can be null)
+   * @param eventListType Type of the event list used by the simulator
+   * @param queueCapacityHint Expected maximum queue length (used as initial size of the queue; values &le;0 mean "no hint")
+   * @param warmup  Warm-up period settings (arrivals in the warm-up period are simulated in addition to the arrival goal)
+   * @param random  Pseudo random number generator to be used (for reproducible results; <code>null</code> means: use the thread local generator)
+   * @param recordQuantiles Record histograms and higher moments of the waiting and residence times (for quantiles, skewness and kurtosis)?
+   * @param engine  Simulation engine
+   * @param abandonment Settings for impatient clients and a finite waiting room (only supported by {@link Engine#EVENTS}; if the clients can abandon, an event list with handles is used)
    */
-  public QueueModel(final ToDoubleFunction<ThreadLocalRandom> interArrivalTime, final ToDoubleFunction<ThreadLocalRandom> serviceTime, final int c, final long arrivalGoal, final boolean printLogs, final LongSupplier loadBalancer) {
-    this.interArrivalTime=interArrivalTime;
-    this.serviceTime=serviceTime;
+  public QueueModel(final ToDoubleFunction<RandomGenerator> interArrivalTime, final ToDoubleFunction<RandomGenerator> serviceTime, final int c, final long arrivalGoal, final boolean printLogs, final LongSupplier loadBalancer, final EventQueue.Type eventListType, final int queueCapacityHint, final Warmup warmup, final RandomGenerator random, final boolean recordQuantiles, final Engine engine, final Abandonment abandonment) {
+    this(interArrivalTime,serviceTime,c,arrivalGoal,printLogs,loadBalancer,eventListType,queueCapacityHint,warmup,random,recordQuantiles,engine,abandonment,null);
+  }
+
+  /**
+   * Constructor
+   * @param interArrivalTime  Callback for generating inter-arrival times (not used if there are several classes)
+   * @param serviceTime Callback for generating service times (not used if there are several classes)
+   * @param c Number of operators in the system
+   * @param arrivalGoal Number of arrivals to be simulated (sum over all classes)
+   * @param printLogs Show simulation logs?
+   * @param loadBalancer Load balancer (optional, can be null)
+   * @param eventListType Type of the event list used by the simulator
+   * @param queueCapacityHint Expected maximum queue length (used as initial size of the queue; values &le;0 mean "no hint")
+   * @param warmup  Warm-up period settings (arrivals in the warm-up period are simulated in addition to the arrival goal)
+   * @param random  Pseudo random number generator to be used (for reproducible results; <code>null</code> means: use the thread local generator)
+   * @param recordQuantiles Record histograms and higher moments of the waiting and residence times (for quantiles, skewness and kurtosis)?
+   * @param engine  Simulation engine
+   * @param abandonment Settings for impatient clients and a finite waiting room (only supported by {@link Engine#EVENTS}; if the clients can abandon, an event list with handles is used)
+   * @param classes Settings for several customer classes (<code>null</code> for a single class; only supported by {@link Engine#EVENTS} without abandonment; for preemptive priorities an event list with handles is used)
+   */
+  public QueueModel(final ToDoubleFunction<RandomGenerator> interArrivalTime, final ToDoubleFunction<RandomGenerator> serviceTime, final int c, final long arrivalGoal, final boolean printLogs, final LongSupplier loadBalancer, final EventQueue.Type eventListType, final int queueCapacityHint, final Warmup warmup, final RandomGenerator random, final boolean recordQuantiles, final Engine engine, final Abandonment abandonment, final CustomerClasses classes) {
+    if (abandonment.isActive() && engine!=Engine.EVENTS) throw new IllegalArgumentException("Abandonment and finite waiting rooms are only supported by the event engine");
+    if (classes!=null && (engine!=Engine.EVENTS || abandonment.isActive())) throw new IllegalArgumentException("Several customer classes are only supported by the event engine without abandonment");
+    this.interArrivalTime=BlockGenerator.of(interArrivalTime);
+    this.serviceTime=BlockGenerator.of(serviceTime);
     cAvailable=c;
     this.arrivalGoal=arrivalGoal;
     this.printLogs=printLogs;
     this.loadBalancer=loadBalancer;
+    this.eventListType=eventListType;
+    this.engine=engine;
+    this.queueCapacityHint=queueCapacityHint;
+    this.warmup=warmup;
+    randomSource=random;
+    this.recordQuantiles=recordQuantiles;
+    this.abandonment=abandonment;
+    patienceTime=(abandonment.patience==null)?null:BlockGenerator.of(abandonment.patience);
+    waitingRoom=abandonment.waitingRoom;
+    this.classes=classes;
+    classCount=(classes==null)?0:classes.getCount();
+    if (recordQuantiles) {
+      waitingTimeStat=new StatisticsData(true,true);
+      residenceTimeStat=new StatisticsData(true,true);
+    }
+    if (engine==Engine.EVENTS) {
+      if (patienceTime!=null) {
+        /* Each waiting client has an abandonment event, which is cancelled when its service starts */
+        simulator=new TypedSimulator(eventListType.hasHandles?eventListType:EventQueue.Type.INDEXED,c+1+Math.max(0,queueCapacityHint),this);
+        abandonmentHandles=new long[ArrayGrowth.initialLength(queueCapacityHint)];
+      } else if (classes!=null && classes.discipline==CustomerClasses.Discipline.PREEMPTIVE) {
+        /* Interrupted service processes are cancelled by the handles of their end events */
+        simulator=new TypedSimulator(eventListType.hasHandles?eventListType:EventQueue.Type.INDEXED,c+classCount,this);
+      } else {
+        simulator=new TypedSimulator(eventListType,c+Math.max(1,classCount),this);
+      }
+      queue=(classes==null)?new IndexedLongQueue(queueCapacityHint):null;
+    } else {
+      simulator=null;
+      queue=null;
+    }
+    final int blockSize=(loadBalancer!=null)?RANDOM_BLOCK_SIZE:(int)Math.max(1,Math.min(RANDOM_BLOCK_SIZE,arrivalGoal));
+    interArrivalTimes=new double[blockSize];
+    interArrivalTimesIndex=blockSize;
+    serviceTimes=new double[blockSize];
+    serviceTimesIndex=blockSize;
+    patienceTimes=(patienceTime!=null)?new double[blockSize]:null;
+    patienceTimesIndex=blockSize;
+
+    if (classes!=null) {
+      classInterArrivalTimes=new double[classCount][blockSize];
+      classInterArrivalTimesIndex=new int[classCount];
+      classServiceTimes=new double[classCount][blockSize];
+      classServiceTimesIndex=new int[classCount];
+      Arrays.fill(classInterArrivalTimesIndex,blockSize);
+      Arrays.fill(classServiceTimesIndex,blockSize);
+      classNextArrival=new long[classCount];
+      classQueues=new LongRingBuffer[classCount];
+      for (int i=0;i<classCount;i++) classQueues[i]=new LongRingBuffer(queueCapacityHint);
+      operatorClass=new int[c];
+      operatorArrival=new long[c];
+      operatorService=new long[c];
+      operatorEnd=new long[c];
+      freeOperators=new int[c];
+      for (int i=c-1;i>=0;i--) freeOperators[freeOperatorsCount++]=i;
+      classWaitingTimeStat=new StatisticsData[classCount];
+      classResidenceTimeStat=new StatisticsData[classCount];
+      for (int i=0;i<classCount;i++) {
+        classWaitingTimeStat[i]=new StatisticsData();
+        classResidenceTimeStat[i]=new StatisticsData();
+      }
+    } else {
+      classInterArrivalTimes=null;
+      classInterArrivalTimesIndex=null;
+      classServiceTimes=null;
+      classServiceTimesIndex=null;
+      classNextArrival=null;
+      classQueues=null;
+      operatorClass=null;
+      operatorArrival=null;
+      operatorService=null;
+      operatorEnd=null;
+      freeOperators=null;
+    }
+    if (classes!=null && classes.discipline==CustomerClasses.Discipline.PREEMPTIVE) {
+      operatorHandle=new long[c];
+      classOperators=new int[classCount][c];
+      classOperatorCount=new int[classCount];
+      operatorIndexInClass=new int[c];
+      preemptedArrival=new LongRingBuffer[classCount];
+      preemptedRemaining=new LongRingBuffer[classCount];
+      preemptedService=new LongRingBuffer[classCount];
+      for (int i=0;i<classCount;i++) {
+        preemptedArrival[i]=new LongRingBuffer();
+        preemptedRemaining[i]=new LongRingBuffer();
+        preemptedService[i]=new LongRingBuffer();
+      }
+    } else {
+      operatorHandle=null;
+      classOperators=null;
+      classOperatorCount=null;
+      operatorIndexInClass=null;
+      preemptedArrival=null;
+      preemptedRemaining=null;
+      preemptedService=null;
+    }
   }
 
   /**
@@ -175,7 +674,7 @@ public class QueueModel extends Model implements Cloneable {
    * @param source  Source mode to be cloned
    */
   public QueueModel(final QueueModel source) {
-    this(source.interArrivalTime,source.serviceTime,source.cAvailable,source.arrivalGoal,source.printLogs,source.loadBalancer);
+    this(source.interArrivalTime,source.serviceTime,source.cAvailable,source.arrivalGoal,source.printLogs,source.loadBalancer,source.eventListType,source.queueCapacityHint,source.warmup,source.randomSource,source.recordQuantiles,source.engine,source.abandonment,source.classes);
   }
 
   /**
@@ -192,6 +691,7 @@ public class QueueModel extends Model implements Cloneable {
    */
   private void updateStateStatistics(final long currentTime) {
     final double time=currentTime/SIM_TIME_FACTOR;
+    final int queueUsed=queue.size();
     queueLength.set(time,queueUsed);
     systemSize.set(time,queueUsed+cInUse);
     operatorsUsage.set(time,cInUse);
@@ -206,53 +706,191 @@ public class QueueModel extends Model implements Cloneable {
     waitingTimeStat.add(waitingTime);
     serviceTimeStat.add(serviceTime);
     residenceTimeStat.add(waitingTime+serviceTime);
+    waitingTimeBatches.add(waitingTime);
+    residenceTimeBatches.add(waitingTime+serviceTime);
+    if (warmupDetector!=null && warmupDetector.add(waitingTime)) {
+      warmupDetected=true;
+      warmupDetector=null;
+    }
   }
 
   /**
-   * Generates and adds an arrival event
-   * @param currentTime Current time (starting point for the inter-arrival time)
+   * Checks if the warm-up period is over and resets the statistics if so.
+   * @param currentTime Current time
    */
-  private void addArrivalEvent(final long currentTime) {
-    if (arrivalCount>=arrivalGoal) {
+  private void checkWarmup(final long currentTime) {
+    switch (warmup.mode) {
+      case NONE: break;
+      case ARRIVALS: if (arrivalCount<warmup.arrivals) return; break;
+      case TIME: if (currentTime<warmup.time*SIM_TIME_FACTOR) return; break;
+      case MSER: if (!warmupDetected) return; break;
+    }
+    warmupActive=false;
+
+    final double time=currentTime/SIM_TIME_FACTOR;
+    if (printLogs) System.out.println(String.format("  end of warm-up period at %f after %d arrivals -> reset statistics",time,arrivalCount));
+    warmupEndTime=time;
+    warmupArrivalCount=arrivalCount;
+    arrivalGoal+=arrivalCount;
+
+    waitingTimeStat.reset();
+    abandonedWaitingTimeStat.reset();
+    blockedCount=0;
+    if (classes!=null) for (int i=0;i<classCount;i++) {
+      classWaitingTimeStat[i].reset();
+      classResidenceTimeStat[i].reset();
+    }
+    preemptionCount=0;
+    serviceTimeStat.reset();
+    residenceTimeStat.reset();
+    waitingTimeBatches=new BatchMeans();
+    residenceTimeBatches=new BatchMeans();
+    queueLength.reset(time);
+    systemSize.reset(time);
+    operatorsUsage.reset(time);
+  }
+
+  /**
+   * Returns the settings for impatient clients and a finite waiting room.
+   * @return  Abandonment settings
+   */
+  public Abandonment getAbandonment() {
+    return abandonment;
+  }
+
+  /**
+   * Sets the number of simulated arrivals of a model whose results were calculated
+   * outside of {@link #run()} (see {@link LockstepBatch}).
+   * @param arrivalCount  Number of simulated arrivals
+   */
+  void setArrivalCount(final long arrivalCount) {
+    this.arrivalCount=arrivalCount;
+  }
+
+  /**
+   * Sets the live progress counters to be updated while the simulation is running.<br>
+   * Has to be called before {@link #run()}; the counters are not copied by the copy constructor.
+   * @param progress  Live progress counters (can be null)
+   */
+  public void setProgress(final SimulationProgress progress) {
+    this.progress=progress;
+  }
+
+  /**
+   * Returns the next inter-arrival time (generating a new block if needed).
+   * @return  Inter-arrival time
+   */
+  private double nextInterArrivalTime() {
+    if (interArrivalTimesIndex==interArrivalTimes.length) {
+      interArrivalTime.fill(random,interArrivalTimes);
+      interArrivalTimesIndex=0;
+    }
+    return interArrivalTimes[interArrivalTimesIndex++];
+  }
+
+  /**
+   * Returns the next service time (generating a new block if needed).
+   * @return  Service time
+   */
+  private double nextServiceTime() {
+    if (serviceTimesIndex==serviceTimes.length) {
+      serviceTime.fill(random,serviceTimes);
+      serviceTimesIndex=0;
+    }
+    return serviceTimes[serviceTimesIndex++];
+  }
+
+  /**
+   * Returns the next patience time (generating a new block if needed).
+   * @return  Patience time
+   */
+  private double nextPatienceTime() {
+    if (patienceTimesIndex==patienceTimes.length) {
+      patienceTime.fill(random,patienceTimes);
+      patienceTimesIndex=0;
+    }
+    return patienceTimes[patienceTimesIndex++];
+  }
+
+  /**
+   * Checks if a further arrival is to be generated (and requests more arrivals from the load balancer if needed).
+   * @return  Returns <code>true</code>, if a further arrival is to be generated
+   */
+  private boolean isArrivalNeeded() {
+    if (arrivalCount>=arrivalGoal && warmupActive && warmup.mode==Warmup.Mode.MSER) {
+      /* The MSER rule could not detect the end of the warm-up period; keep all statistics */
+      if (printLogs) System.out.println("  arrival goal reached before the end of the warm-up period was detected");
+      warmupActive=false;
+    }
+    if (arrivalCount>=arrivalGoal && !warmupActive) {
+      /* (Arrivals in a fixed length warm-up period are simulated in addition to the arrival goal) */
       if (loadBalancer!=null) {
+        final long requestStart=System.nanoTime();
         final long moreArrivals=loadBalancer.getAsLong();
+        loadBalancerWaitNS+=System.nanoTime()-requestStart;
         if (moreArrivals>0) {
           arrivalGoal+=moreArrivals;
+          loadBalancerRequests++;
         } else {
           if (printLogs) System.out.println("  arrival goal reached; no more arrivals will be scheduled");
-          return;
+          return false;
         }
       } else {
         if (printLogs) System.out.println("  arrival goal reached; no more arrivals will be scheduled");
-        return;
+        return false;
       }
     }
-    final long interArrivalTime=Math.round(this.interArrivalTime.applyAsDouble(random)*SIM_TIME_FACTOR);
+    return true;
+  }
+
+  /**
+   * Generates and adds an arrival event
+   * @param currentTime Current time (starting point for the inter-arrival time)
+   */
+  private void addArrivalEvent(final long currentTime) {
+    if (!isArrivalNeeded()) return;
+    final long interArrivalTime=Math.round(nextInterArrivalTime()*SIM_TIME_FACTOR);
     if (printLogs) System.out.println(String.format("  scheduled arrival at %f (=%f (now) + %f (inter-arrival))",(currentTime+interArrivalTime)/SIM_TIME_FACTOR,currentTime/SIM_TIME_FACTOR,interArrivalTime/SIM_TIME_FACTOR));
-    simulator.add(currentTime+interArrivalTime,arrival);
+    simulator.add(currentTime+interArrivalTime,EVENT_ARRIVAL);
     arrivalCount++;
   }
 
+  /**
+   * Generates the patience time of a client who has to wait and adds its abandonment event.
+   * @param currentTime Current time (starting point for the patience time)
+   * @param slot  Slot of the client in the queue
+   */
+  private void addAbandonmentEvent(final long currentTime, final int slot) {
+    final long abandonmentTime=currentTime+Math.round(nextPatienceTime()*SIM_TIME_FACTOR);
+    if (printLogs) System.out.println(String.format("  scheduled abandonment at %f",abandonmentTime/SIM_TIME_FACTOR));
+    if (slot>=abandonmentHandles.length) abandonmentHandles=Arrays.copyOf(abandonmentHandles,Math.max(slot+1,ArrayGrowth.nextLength(abandonmentHandles.length)));
+    abandonmentHandles[slot]=simulator.add(abandonmentTime,(slot<<EVENT_KIND_BITS)|EVENT_ABANDON);
+  }
+
+  /**
+   * Removes the first client from the queue (cancelling its abandonment event).
+   * @return  Arrival time of the client
+   */
+  private long pollQueue() {
+    if (patienceTime!=null) simulator.cancel(abandonmentHandles[queue.peekSlot()]);
+    return queue.poll();
+  }
+
   /**
    * Starts a service process.
    * @param time  Time at which the service process starts
+   * @param startWaiting  Arrival time of the client
    */
-  private void startServiceProcess(final long time) {
-    /* Get waiting start time */
-    final long startWaitng=queue[0];
-    final double waitingTime=(time-startWaitng)/SIM_TIME_FACTOR;
-    if (printLogs) System.out.println(String.format("  removed customer from queue; waiting time=%f",waitingTime));
-
-    /* Remove customer from queue */
-    for (int i=0;i<queueUsed-1;i++) queue[i]=queue[i+1];
-    queueUsed--;
+  private void startServiceProcess(final long time, final long startWaiting) {
+    final double waitingTime=(time-startWaiting)/SIM_TIME_FACTOR;
+    if (printLogs) System.out.println(String.format("  waiting time=%f",waitingTime));
 
     /* Seize operator */
     cInUse++;
     updateStateStatistics(time);
 
     /* Get service time */
-    final double serviceTime=this.serviceTime.applyAsDouble(random);
+    final double serviceTime=nextServiceTime();
     final long endServiceTime=Math.round(serviceTime*SIM_TIME_FACTOR)+time;
     if (printLogs) {
       System.out.println(String.format("  service time=%f",serviceTime));
@@ -263,7 +901,22 @@ public class QueueModel extends Model implements Cloneable {
     recordCustomerStatistics(waitingTime,serviceTime);
 
     /* Add service time end event */
-    simulator.add(endServiceTime,service);
+    simulator.add(endServiceTime,EVENT_SERVICE);
+  }
+
+  @Override
+  public void handleEvent(final int type, final long time) {
+    switch (type&EVENT_KIND_MASK) {
+      case EVENT_ARRIVAL: runArrivalEvent(time); break;
+      case EVENT_SERVICE: runOperatorAvailableEvent(time); break;
+      case EVENT_ABANDON: runAbandonmentEvent(time,type>>>EVENT_KIND_BITS); break;
+      case EVENT_CLASS_ARRIVAL: runClassArrivalEvent(time,type>>>EVENT_KIND_BITS); break;
+      case EVENT_CLASS_SERVICE: runClassServiceEvent(time,type>>>EVENT_KIND_BITS); break;
+    }
+    if ((eventCount&SimulationProgress.PUBLISH_MASK)==0) {
+      if (progress!=null) progress.publish(eventCount,arrivalCount,time/SIM_TIME_FACTOR,simulator.getEventListSize(),(queue!=null)?queue.size():waitingCount);
+      if (Thread.currentThread().isInterrupted()) simulator.clear(); /* Task has been cancelled: stop without processing further events */
+    }
   }
 
   /**
@@ -272,25 +925,23 @@ public class QueueModel extends Model implements Cloneable {
    */
   private void runArrivalEvent(final long time) {
     eventCount++;
+    if (warmupActive) checkWarmup(time);
 
     if (printLogs) System.out.println(String.format("%f: arrival",time/SIM_TIME_FACTOR));
 
-    /* Add customer to queue */
-    if (queueUsed==queue.length) {
-      final long[] newQueue=new long[queue.length+QUEUE_INCREMENT];
-      System.arraycopy(queue,0,newQueue,0,queue.length);
-      queue=newQueue;
-    }
-    queue[queueUsed]=time;
-    queueUsed++;
-
     if (cInUse<cAvailable) {
       /* Start service process */
       if (printLogs) System.out.println("  free operator is available -> start service");
-      startServiceProcess(time);
+      startServiceProcess(time,time);
+    } else if (waitingRoom!=Abandonment.UNLIMITED && queue.size()>=waitingRoom) {
+      /* Waiting room full: customer leaves the system */
+      if (printLogs) System.out.println("  no free operator available and waiting room full -> customer blocked");
+      blockedCount++;
     } else {
       /* Add customer to queue */
       if (printLogs) System.out.println("  no free operator available -> add to queue");
+      final int slot=queue.add(time);
+      if (patienceTime!=null) addAbandonmentEvent(time,slot);
       updateStateStatistics(time);
     }
 
@@ -304,6 +955,7 @@ public class QueueModel extends Model implements Cloneable {
    */
   private void runOperatorAvailableEvent(final long time) {
     eventCount++;
+    if (warmupActive) checkWarmup(time);
 
     if (printLogs) System.out.println(String.format("%f: service process done",time/SIM_TIME_FACTOR));
 
@@ -312,19 +964,412 @@ public class QueueModel extends Model implements Cloneable {
     updateStateStatistics(time);
 
     /* Is a customer waiting? */
-    if (queueUsed>0) {
+    if (queue.size()>0) {
       if (printLogs) System.out.println("  waiting customers available -> start service");
-      startServiceProcess(time);
+      startServiceProcess(time,pollQueue());
+    }
+  }
+
+  /**
+   * Executes the abandonment of a waiting client.
+   * @param time  Current time
+   * @param slot  Slot of the client in the queue
+   */
+  private void runAbandonmentEvent(final long time, final int slot) {
+    eventCount++;
+    if (warmupActive) checkWarmup(time);
+
+    final double waitingTime=(time-queue.get(slot))/SIM_TIME_FACTOR;
+    if (printLogs) System.out.println(String.format("%f: customer abandoned after waiting time=%f",time/SIM_TIME_FACTOR,waitingTime));
+
+    /* Remove customer from queue */
+    queue.remove(slot);
+    abandonedWaitingTimeStat.add(waitingTime);
+    updateStateStatistics(time);
+  }
+
+  /**
+   * Returns the next inter-arrival time of a class (generating a new block if needed).
+   * @param k Class
+   * @return  Inter-arrival time
+   */
+  private double nextClassInterArrivalTime(final int k) {
+    final double[] block=classInterArrivalTimes[k];
+    if (classInterArrivalTimesIndex[k]==block.length) {
+      classes.interArrivalTimes[k].fill(random,block);
+      classInterArrivalTimesIndex[k]=0;
     }
+    return block[classInterArrivalTimesIndex[k]++];
+  }
+
+  /**
+   * Returns the next service time of a class in simulation time units (generating a new block if needed).
+   * @param k Class
+   * @return  Service time in simulation time units
+   */
+  private long nextClassServiceTime(final int k) {
+    final double[] block=classServiceTimes[k];
+    if (classServiceTimesIndex[k]==block.length) {
+      classes.serviceTimes[k].fill(random,block);
+      classServiceTimesIndex[k]=0;
+    }
+    return Math.round(block[classServiceTimesIndex[k]++]*SIM_TIME_FACTOR);
+  }
+
+  /**
+   * Generates the next arrival time of a class.<br>
+   * The arrival is not added to the event list (see {@link #addClassArrivalEvent()}).
+   * @param currentTime Current time (starting point for the inter-arrival time)
+   * @param k Class
+   */
+  private void scheduleClassArrival(final long currentTime, final int k) {
+    if (!isArrivalNeeded()) {
+      classNextArrival[k]=Long.MAX_VALUE;
+      return;
+    }
+    final long interArrivalTime=Math.round(nextClassInterArrivalTime(k)*SIM_TIME_FACTOR);
+    if (printLogs) System.out.println(String.format("  scheduled arrival of class %d at %f",k+1,(currentTime+interArrivalTime)/SIM_TIME_FACTOR));
+    classNextArrival[k]=currentTime+interArrivalTime;
+    arrivalCount++;
+  }
+
+  /**
+   * Adds an arrival event for the class with the earliest next arrival.<br>
+   * So the event list contains only one arrival event regardless of the number of classes
+   * (finding the earliest of the few next arrival times is cheaper than keeping all of them in the event list).
+   */
+  private void addClassArrivalEvent() {
+    long time=Long.MAX_VALUE;
+    int next=-1;
+    for (int i=0;i<classCount;i++) if (classNextArrival[i]<time) {
+      time=classNextArrival[i];
+      next=i;
+    }
+    if (next>=0) simulator.add(time,(next<<EVENT_KIND_BITS)|EVENT_CLASS_ARRIVAL);
+  }
+
+  /**
+   * Starts or resumes the service process of a client of a class on a free operator.
+   * @param time  Current time
+   * @param k Class of the client
+   * @param arrival Arrival time of the client
+   * @param service Total service time of the client (in simulation time units)
+   * @param remaining Remaining service time of the client (in simulation time units)
+   */
+  private void startClassService(final long time, final int k, final long arrival, final long service, final long remaining) {
+    final int operator=freeOperators[--freeOperatorsCount];
+    cInUse++;
+    operatorClass[operator]=k;
+    operatorArrival[operator]=arrival;
+    operatorService[operator]=service;
+    operatorEnd[operator]=time+remaining;
+    if (printLogs) System.out.println(String.format("  operator %d serves client of class %d until %f",operator+1,k+1,(time+remaining)/SIM_TIME_FACTOR));
+    final long handle=simulator.add(time+remaining,(operator<<EVENT_KIND_BITS)|EVENT_CLASS_SERVICE);
+    if (operatorHandle!=null) {
+      operatorHandle[operator]=handle;
+      operatorIndexInClass[operator]=classOperatorCount[k];
+      classOperators[k][classOperatorCount[k]++]=operator;
+      busyMask|=1L<<k;
+    }
+    updateStateStatistics(time,waitingCount+cInUse);
+  }
+
+  /**
+   * Frees an operator which has served a client of a class.
+   * @param operator  Operator
+   * @param k Class of the client
+   */
+  private void releaseOperator(final int operator, final int k) {
+    cInUse--;
+    freeOperators[freeOperatorsCount++]=operator;
+    if (operatorHandle!=null) {
+      /* Remove operator from the list of the class (the last entry takes its place) */
+      final int last=classOperators[k][--classOperatorCount[k]];
+      final int index=operatorIndexInClass[operator];
+      classOperators[k][index]=last;
+      operatorIndexInClass[last]=index;
+      if (classOperatorCount[k]==0) busyMask&=~(1L<<k);
+    }
+  }
+
+  /**
+   * Interrupts the service of a client of a class (the client is put back in front of the waiting clients of its class).
+   * @param time  Current time
+   * @param k Class of the client to be interrupted
+   */
+  private void preemptClassService(final long time, final int k) {
+    final int operator=classOperators[k][classOperatorCount[k]-1];
+    simulator.cancel(operatorHandle[operator]);
+    if (printLogs) System.out.println(String.format("  service of client of class %d on operator %d interrupted",k+1,operator+1));
+    preemptedArrival[k].add(operatorArrival[operator]);
+    preemptedRemaining[k].add(operatorEnd[operator]-time);
+    preemptedService[k].add(operatorService[operator]);
+    waitingMask|=1L<<k;
+    waitingCount++;
+    if (waitingCount>maxQueueSize) maxQueueSize=waitingCount;
+    preemptionCount++;
+    releaseOperator(operator,k);
+  }
+
+  /**
+   * Selects a class with waiting clients with probabilities proportional to the class weights.
+   * @return  Selected class
+   */
+  private int selectWeightedClass() {
+    double sum=0;
+    for (long mask=waitingMask;mask!=0;mask&=mask-1) sum+=classes.weights[Long.numberOfTrailingZeros(mask)];
+    double rnd=random.nextDouble()*sum;
+    long mask=waitingMask;
+    int k;
+    do {
+      k=Long.numberOfTrailingZeros(mask);
+      rnd-=classes.weights[k];
+      mask&=mask-1;
+    } while (rnd>=0 && mask!=0);
+    return k;
+  }
+
+  /**
+   * Starts the service of the next waiting client (there has to be at least one waiting client).<br>
+   * For priorities the class is the lowest set bit of {@link #waitingMask}; preempted clients
+   * of a class are served before the other waiting clients of the class.
+   * @param time  Current time
+   */
+  private void startNextClassService(final long time) {
+    final int k=(classes.discipline==CustomerClasses.Discipline.WEIGHTED)?selectWeightedClass():Long.numberOfTrailingZeros(waitingMask);
+    final LongRingBuffer classQueue=classQueues[k];
+    waitingCount--;
+    if (preemptedArrival!=null && preemptedArrival[k].size()>0) {
+      final long arrival=preemptedArrival[k].poll();
+      final long remaining=preemptedRemaining[k].poll();
+      final long service=preemptedService[k].poll();
+      if (classQueue.size()==0 && preemptedArrival[k].size()==0) waitingMask&=~(1L<<k);
+      startClassService(time,k,arrival,service,remaining);
+    } else {
+      final long arrival=classQueue.poll();
+      if (classQueue.size()==0 && (preemptedArrival==null || preemptedArrival[k].size()==0)) waitingMask&=~(1L<<k);
+      final long service=nextClassServiceTime(k);
+      startClassService(time,k,arrival,service,service);
+    }
+  }
+
+  /**
+   * Executes an arrival of a client of a class.
+   * @param time  Current time
+   * @param k Class of the client
+   */
+  private void runClassArrivalEvent(final long time, final int k) {
+    eventCount++;
+    if (warmupActive) checkWarmup(time);
+
+    if (printLogs) System.out.println(String.format("%f: arrival of class %d",time/SIM_TIME_FACTOR,k+1));
+
+    if (cInUse<cAvailable) {
+      /* Start service process */
+      final long service=nextClassServiceTime(k);
+      startClassService(time,k,time,service,service);
+    } else if (busyMask!=0 && 63-Long.numberOfLeadingZeros(busyMask)>k) {
+      /* Interrupt the service of a client of the lowest priority class in service */
+      preemptClassService(time,63-Long.numberOfLeadingZeros(busyMask));
+      final long service=nextClassServiceTime(k);
+      startClassService(time,k,time,service,service);
+    } else {
+      /* Add customer to the queue of its class */
+      if (printLogs) System.out.println("  no free operator available -> add to queue");
+      classQueues[k].add(time);
+      waitingMask|=1L<<k;
+      waitingCount++;
+      if (waitingCount>maxQueueSize) maxQueueSize=waitingCount;
+      updateStateStatistics(time,waitingCount+cInUse);
+    }
+
+    /* Schedule next arrival of the class */
+    scheduleClassArrival(time,k);
+    addClassArrivalEvent();
+  }
+
+  /**
+   * Executes the end of a service process in a model with several classes.
+   * @param time  Current time
+   * @param operator  Operator which has finished the service process
+   */
+  private void runClassServiceEvent(final long time, final int operator) {
+    eventCount++;
+    if (warmupActive) checkWarmup(time);
+
+    /* Record customer statistics (waiting time: residence time minus the time in service) */
+    final int k=operatorClass[operator];
+    final long residenceTime=time-operatorArrival[operator];
+    final double waitingTime=(residenceTime-operatorService[operator])/SIM_TIME_FACTOR;
+    if (printLogs) System.out.println(String.format("%f: service of client of class %d done; waiting time=%f",time/SIM_TIME_FACTOR,k+1,waitingTime));
+    recordCustomerStatistics(waitingTime,operatorService[operator]/SIM_TIME_FACTOR);
+    classWaitingTimeStat[k].add(waitingTime);
+    classResidenceTimeStat[k].add(residenceTime/SIM_TIME_FACTOR);
+
+    /* Free operator and serve next client */
+    releaseOperator(operator,k);
+    if (waitingMask!=0) startNextClassService(time); else updateStateStatistics(time,waitingCount+cInUse);
   }
 
   /**
    * Runs the simulation.
    */
   public void run() {
-    random=ThreadLocalRandom.current();
-    addArrivalEvent(0);
-    runtimeMS=simulator.run(printLogs);
+    random=(randomSource!=null)?randomSource:ThreadLocalRandom.current();
+    warmupActive=(warmup.mode!=Warmup.Mode.NONE);
+    if (warmup.mode==Warmup.Mode.MSER) warmupDetector=new MSERDetector();
+    if (engine==Engine.LINDLEY) {
+      final long start=System.currentTimeMillis();
+      if (recordQuantiles) runLindley(); else runLindleyIntegrals();
+      runtimeMS=System.currentTimeMillis()-start;
+    } else {
+      if (classes==null) {
+        addArrivalEvent(0);
+      } else {
+        for (int i=0;i<classCount;i++) scheduleClassArrival(0,i);
+        addClassArrivalEvent();
+      }
+      runtimeMS=simulator.run(printLogs);
+      maxEventListSize=simulator.getMaxEventListSize();
+      if (queue!=null) {
+        maxQueueSize=queue.getMaxSize();
+        queueResizeCount=queue.getResizeCount();
+      } else {
+        for (LongRingBuffer classQueue: classQueues) queueResizeCount+=classQueue.getResizeCount();
+      }
+    }
+    if (progress!=null) progress.finishModel(eventCount,arrivalCount);
+  }
+
+  /**
+   * Updates the statistics for the system states from the number of customers in the system
+   * (FIFO queue: all operators are busy before a customer has to wait).
+   * @param currentTime Current time
+   * @param inSystem  Number of customers in the system
+   */
+  private void updateStateStatistics(final long currentTime, final int inSystem) {
+    final double time=currentTime/SIM_TIME_FACTOR;
+    final int busy=Math.min(inSystem,cAvailable);
+    queueLength.set(time,inSystem-busy);
+    systemSize.set(time,inSystem);
+    operatorsUsage.set(time,busy);
+  }
+
+  /**
+   * Processes a departure in {@link Engine#LINDLEY} mode.
+   * @param time  Departure time
+   * @param inSystem  Number of customers in the system after the departure
+   */
+  private void runDeparture(final long time, final int inSystem) {
+    eventCount++;
+    if (warmupActive) checkWarmup(time);
+    updateStateStatistics(time,inSystem);
+  }
+
+  /**
+   * Runs the simulation using the Kiefer-Wolfowitz recursion (Lindley recursion for c=1).<br>
+   * The operators are represented only by the times at which they become available (in a min-heap).
+   * Customer n starts service at max(arrival time, earliest availability time); so the waiting times
+   * are calculated without any events. The departure times of the customers in the system are kept in
+   * a second heap, which is used to replay the changes of the number of customers in the system in time
+   * order for the time-weighted state distributions (only used if quantiles are recorded, otherwise see
+   * {@link #runLindleyIntegrals()}). Arrivals and departures are counted as events.
+   */
+  private void runLindley() {
+    final LongMinHeap available=new LongMinHeap(cAvailable);
+    for (int i=0;i<cAvailable;i++) available.add(0);
+    final LongMinHeap departures=new LongMinHeap(cAvailable+1);
+    int inSystem=0;
+    long time=0;
+
+    while (isArrivalNeeded()) {
+      final long arrivalTime=time+Math.round(nextInterArrivalTime()*SIM_TIME_FACTOR);
+      arrivalCount++;
+
+      /* Departures up to the arrival */
+      while (departures.size()>0 && departures.peek()<=arrivalTime) runDeparture(departures.poll(),--inSystem);
+
+      /* Arrival */
+      time=arrivalTime;
+      eventCount++;
+      if (warmupActive) checkWarmup(time);
+      inSystem++;
+      if (inSystem-cAvailable>maxQueueSize) maxQueueSize=inSystem-cAvailable;
+      updateStateStatistics(time,inSystem);
+
+      /* Waiting time from the earliest time an operator becomes available */
+      final long serviceStart=Math.max(time,available.peek());
+      final double serviceTime=nextServiceTime();
+      final long departureTime=serviceStart+Math.round(serviceTime*SIM_TIME_FACTOR);
+      available.replaceTop(departureTime);
+      departures.add(departureTime);
+      recordCustomerStatistics((serviceStart-time)/SIM_TIME_FACTOR,serviceTime);
+
+      if ((arrivalCount&SimulationProgress.PUBLISH_MASK)==0) {
+        if (progress!=null) progress.publish(eventCount,arrivalCount,time/SIM_TIME_FACTOR,departures.size(),Math.max(0,inSystem-cAvailable));
+        if (Thread.currentThread().isInterrupted()) return; /* Task has been cancelled */
+      }
+    }
+
+    /* Remaining departures */
+    while (departures.size()>0) runDeparture(departures.poll(),--inSystem);
+    maxEventListSize=departures.getMaxSize();
+  }
+
+  /**
+   * Runs the simulation using the Kiefer-Wolfowitz recursion without any departure events.<br>
+   * The time-weighted means are calculated from integrals at the end of the run (as in {@link LockstepBatch}):
+   * the sum of the waiting times is the integral of the queue length, the sum of the service times is the
+   * integral of the number of busy operators, both up to the last departure. The state distributions
+   * are not available in this mode (see {@link StatisticsState#hasDistribution()}). As the service start
+   * times of a FIFO queue are non-decreasing, the waiting customers are only kept as their service start
+   * times in a ring buffer for the queue high watermark. Each customer counts as two events.
+   */
+  private void runLindleyIntegrals() {
+    final LongMinHeap available=new LongMinHeap(cAvailable);
+    for (int i=0;i<cAvailable;i++) available.add(0);
+    final LongRingBuffer waiting=new LongRingBuffer();
+    long time=0;
+    long recordStart=0;
+    long lastDeparture=0;
+
+    while (isArrivalNeeded()) {
+      time+=Math.round(nextInterArrivalTime()*SIM_TIME_FACTOR);
+      arrivalCount++;
+      eventCount+=2;
+      if (warmupActive) {
+        checkWarmup(time);
+        if (!warmupActive) recordStart=time;
+      }
+
+      /* Waiting time from the earliest time an operator becomes available */
+      final long serviceStart=Math.max(time,available.peek());
+      final double serviceTime=nextServiceTime();
+      final long departureTime=serviceStart+Math.round(serviceTime*SIM_TIME_FACTOR);
+      available.replaceTop(departureTime);
+      if (departureTime>lastDeparture) lastDeparture=departureTime;
+      recordCustomerStatistics((serviceStart-time)/SIM_TIME_FACTOR,serviceTime);
+
+      /* Queue length seen by the arrival */
+      while (waiting.size()>0 && waiting.peek()<=time) waiting.poll();
+      if (serviceStart>time) {
+        waiting.add(serviceStart);
+        if (waiting.size()>maxQueueSize) maxQueueSize=waiting.size();
+      }
+
+      if ((arrivalCount&SimulationProgress.PUBLISH_MASK)==0) {
+        if (progress!=null) progress.publish(eventCount,arrivalCount,time/SIM_TIME_FACTOR,0,waiting.size());
+        if (Thread.currentThread().isInterrupted()) return; /* Task has been cancelled */
+      }
+    }
+
+    /* Time-weighted means from the integrals up to the last departure */
+    final double duration=Math.max(0,lastDeparture-recordStart)/SIM_TIME_FACTOR;
+    final double waitingSum=waitingTimeStat.getMean()*waitingTimeStat.getCount();
+    final double serviceSum=serviceTimeStat.getMean()*serviceTimeStat.getCount();
+    queueLength.addIntegral(duration,waitingSum);
+    systemSize.addIntegral(duration,waitingSum+serviceSum);
+    operatorsUsage.addIntegral(duration,serviceSum);
   }
 
   /**
@@ -338,11 +1383,27 @@ public class QueueModel extends Model implements Cloneable {
     result.arrivalCount=model1.arrivalCount+model2.arrivalCount;
     result.arrivalGoal=model1.arrivalGoal+model2.arrivalGoal;
     result.waitingTimeStat=StatisticsData.join(model1.waitingTimeStat,model2.waitingTimeStat);
+    result.abandonedWaitingTimeStat=StatisticsData.join(model1.abandonedWaitingTimeStat,model2.abandonedWaitingTimeStat);
+    result.blockedCount=model1.blockedCount+model2.blockedCount;
+    if (model1.classWaitingTimeStat!=null && model2.classWaitingTimeStat!=null) for (int i=0;i<result.classCount;i++) {
+      result.classWaitingTimeStat[i]=StatisticsData.join(model1.classWaitingTimeStat[i],model2.classWaitingTimeStat[i]);
+      result.classResidenceTimeStat[i]=StatisticsData.join(model1.classResidenceTimeStat[i],model2.classResidenceTimeStat[i]);
+    }
+    result.preemptionCount=model1.preemptionCount+model2.preemptionCount;
     result.serviceTimeStat=StatisticsData.join(model1.serviceTimeStat,model2.serviceTimeStat);
     result.residenceTimeStat=StatisticsData.join(model1.residenceTimeStat,model2.residenceTimeStat);
+    result.waitingTimeBatches=BatchMeans.join(model1.waitingTimeBatches,model2.waitingTimeBatches);
+    result.residenceTimeBatches=BatchMeans.join(model1.residenceTimeBatches,model2.residenceTimeBatches);
     result.queueLength=StatisticsState.join(model1.queueLength,model2.queueLength);
     result.systemSize=StatisticsState.join(model1.systemSize,model2.systemSize);
     result.operatorsUsage=StatisticsState.join(model1.operatorsUsage,model2.operatorsUsage);
+    result.maxQueueSize=Math.max(model1.maxQueueSize,model2.maxQueueSize);
+    result.queueResizeCount=model1.queueResizeCount+model2.queueResizeCount;
+    result.maxEventListSize=Math.max(model1.maxEventListSize,model2.maxEventListSize);
+    result.warmupArrivalCount=model1.warmupArrivalCount+model2.warmupArrivalCount;
+    result.warmupEndTime=Math.max(model1.warmupEndTime,model2.warmupEndTime);
+    result.loadBalancerRequests=model1.loadBalancerRequests+model2.loadBalancerRequests;
+    result.loadBalancerWaitNS=model1.loadBalancerWaitNS+model2.loadBalancerWaitNS;
     result.eventCount=model1.eventCount+model2.eventCount;
     result.runtimeMS=Math.max(model1.runtimeMS,model2.runtimeMS);
     return result;
@@ -0,0 +1,349 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.EnumSet;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
+
+/**
+ * Runs independent replications of a {@link QueueModel} on a {@link ModelExecutor}
+ * until all requested metrics reach the target precision (or the maximum
+ * number of replications is reached). The completed replications are merged on
+ * the calling thread while the next replications are running.<br>
+ * If random number streams are given, replication i always uses stream i and the
+ * replications are evaluated in index order, so the results are reproducible and
+ * independent of the number of threads.<br>
+ * Optionally the replications are simulated in lockstep batches of {@link LockstepBatch#LANES}
+ * replications (one task per batch).
+ */
+public class ReplicationRunner {
+  /**
+   * Minimum number of replications before the precision is checked
+   */
+  public static final int MIN_REPLICATIONS=5;
+
+  /**
+   * Metrics for which confidence intervals are calculated
+   */
+  public static enum Metric {
+    /** Mean waiting time E[W] */
+    W("E[W]"),
+    /** Mean residence time E[V] */
+    V("E[V]"),
+    /** Mean queue length E[NQ] */
+    NQ("E[NQ]"),
+    /** Mean number of customers in the system E[N] */
+    N("E[N]");
+
+    /**
+     * Name of the metric used in the output
+     */
+    public final String label;
+
+    /**
+     * Constructor
+     * @param label Name of the metric used in the output
+     */
+    Metric(final String label) {
+      this.label=label;
+    }
+  }
+
+  /**
+   * Callback for generating inter-arrival times
+   */
+  private final ToDoubleFunction<RandomGenerator> interArrivalTime;
+
+  /**
+   * Callback for generating service times
+   */
+  private final ToDoubleFunction<RandomGenerator> serviceTime;
+
+  /**
+   * Number of operators
+   */
+  private final int c;
+
+  /**
+   * Number of arrivals per replication
+   */
+  private final long arrivalsPerReplication;
+
+  /**
+   * Type of the event list used by the simulator
+   */
+  private final EventQueue.Type eventListType;
+
+  /**
+   * Simulation engine
+   */
+  private final QueueModel.Engine engine;
+
+  /**
+   * Simulator for lockstep batches of replications (<code>null</code>, if the replications are simulated one by one)
+   */
+  private final LockstepBatch lockstepBatch;
+
+  /**
+   * Expected maximum queue length
+   */
+  private final int queueCapacityHint;
+
+  /**
+   * Warm-up period settings
+   */
+  private final Warmup warmup;
+
+  /**
+   * Settings for impatient clients and a finite waiting room
+   */
+  private final Abandonment abandonment;
+
+  /**
+   * Settings for several customer classes (<code>null</code> for a single class)
+   */
+  private final CustomerClasses classes;
+
+  /**
+   * Maximum number of replications
+   */
+  public final int maxReplications;
+
+  /**
+   * Target relative half width of the confidence intervals (0 means: always run all replications)
+   */
+  public final double precision;
+
+  /**
+   * Confidence level
+   */
+  public final double confidenceLevel;
+
+  /**
+   * Metrics which have to reach the target precision
+   */
+  public final Set<Metric> metrics;
+
+  /**
+   * Number of threads
+   */
+  public final int threadCount;
+
+  /**
+   * Executor running the replications
+   */
+  private final ModelExecutor executor;
+
+  /**
+   * Random number streams (<code>null</code> means: use the thread local generators)
+   */
+  private final RandomStreams streams;
+
+  /**
+   * Record histograms and higher moments of the waiting and residence times (for quantiles, skewness and kurtosis)?
+   */
+  private final boolean recordQuantiles;
+
+  /**
+   * Live progress monitor (<code>null</code> if not used)
+   */
+  private ProgressMonitor monitor;
+
+  /**
+   * Results of the replications
+   */
+  private final ReplicationSet results;
+
+  /**
+   * Constructor
+   * @param interArrivalTime  Callback for generating inter-arrival times
+   * @param serviceTime Callback for generating service times
+   * @param c Number of operators
+   * @param arrivalsPerReplication  Number of arrivals per replication
+   * @param eventListType Type of the event list used by the simulator
+   * @param engine  Simulation engine
+   * @param lockstep  Simulate the replications in lockstep batches (only used if supported for the settings, see {@link LockstepBatch#isSupported(Warmup, boolean)})
+   * @param queueCapacityHint Expected maximum queue length
+   * @param warmup  Warm-up period settings (applied to each replication)
+   * @param abandonment Settings for impatient clients and a finite waiting room (lockstep batches are not used if active)
+   * @param classes Settings for several customer classes (<code>null</code> for a single class; lockstep batches are not used for several classes)
+   * @param maxReplications Maximum number of replications
+   * @param precision Target relative half width of the confidence intervals (0 means: always run all replications)
+   * @param confidenceLevel Confidence level
+   * @param metrics Metrics which have to reach the target precision
+   * @param executor  Executor running the replications
+   * @param streams Random number streams (<code>null</code> means: use the thread local generators)
+   * @param recordQuantiles Record histograms and higher moments of the waiting and residence times (for quantiles, skewness and kurtosis)?
+   */
+  public ReplicationRunner(final ToDoubleFunction<RandomGenerator> interArrivalTime, final ToDoubleFunction<RandomGenerator> serviceTime, final int c, final long arrivalsPerReplication, final EventQueue.Type eventListType, final QueueModel.Engine engine, final boolean lockstep, final int queueCapacityHint, final Warmup warmup, final Abandonment abandonment, final CustomerClasses classes, final int maxReplications, final double precision, final double confidenceLevel, final Set<Metric> metrics, final ModelExecutor executor, final RandomStreams streams, final boolean recordQuantiles) {
+    this.interArrivalTime=interArrivalTime;
+    this.serviceTime=serviceTime;
+    this.c=c;
+    this.arrivalsPerReplication=arrivalsPerReplication;
+    this.eventListType=eventListType;
+    this.engine=engine;
+    this.queueCapacityHint=queueCapacityHint;
+    this.warmup=warmup;
+    this.abandonment=abandonment;
+    this.classes=classes;
+    this.maxReplications=maxReplications;
+    this.precision=precision;
+    this.confidenceLevel=confidenceLevel;
+    this.metrics=metrics.isEmpty()?EnumSet.allOf(Metric.class):EnumSet.copyOf(metrics);
+    this.executor=executor;
+    this.streams=streams;
+    this.recordQuantiles=recordQuantiles;
+    lockstepBatch=(lockstep && LockstepBatch.isSupported(warmup,recordQuantiles) && !abandonment.isActive() && classes==null)?new LockstepBatch(interArrivalTime,serviceTime,c,arrivalsPerReplication,warmup):null;
+    threadCount=Math.min(executor.parallelism,(lockstepBatch==null)?maxReplications:getBatchCount());
+    results=new ReplicationSet(maxReplications,precision,confidenceLevel,this.metrics);
+  }
+
+  /**
+   * Checks if a replication still has to be simulated.
+   * @param index Index of the replication
+   * @return  Returns <code>false</code>, if the stopping criterion has already been met
+   */
+  private synchronized boolean isNeeded(final int index) {
+    return results.isNeeded(index);
+  }
+
+  /**
+   * Records the results of a completed replication and checks the stopping criterion.
+   * @param index Index of the replication
+   * @param model Simulation model of the completed replication
+   */
+  private synchronized void recordReplication(final QueueModel model, final int index) {
+    results.record(index,model);
+  }
+
+  /**
+   * Returns the number of lockstep batches.
+   * @return  Number of batches needed for all replications
+   */
+  private int getBatchCount() {
+    return (maxReplications+LockstepBatch.LANES-1)/LockstepBatch.LANES;
+  }
+
+  /**
+   * Records the results of a completed lockstep batch.
+   * @param models  Simulation models of the replications in the batch
+   * @param batch Index of the batch
+   */
+  private synchronized void recordBatch(final QueueModel[] models, final int batch) {
+    for (int i=0;i<models.length;i++) results.record(batch*LockstepBatch.LANES+i,models[i]);
+  }
+
+  /**
+   * Sets the live progress monitor (has to be called before {@link #run()}).
+   * @param monitor Progress monitor with at least {@link ModelExecutor#parallelism} workers (can be null)
+   */
+  public void setProgressMonitor(final ProgressMonitor monitor) {
+    this.monitor=monitor;
+  }
+
+  /**
+   * Simulates one replication (called on a worker thread).
+   * @param index Index of the replication
+   * @param progress  Live progress counters (can be null)
+   * @return  Simulated model
+   */
+  private QueueModel runReplication(final int index, final SimulationProgress progress) {
+    final QueueModel model=new QueueModel(interArrivalTime,serviceTime,c,arrivalsPerReplication,false,null,eventListType,queueCapacityHint,warmup,(streams==null)?null:streams.getStream(index),recordQuantiles,engine,abandonment,classes);
+    model.setProgress(progress);
+    model.run();
+    return model;
+  }
+
+  /**
+   * Simulates one lockstep batch of replications (called on a worker thread).
+   * @param batch Index of the batch
+   * @param progress  Live progress counters (can be null)
+   * @return  Simulated models of the replications in the batch
+   */
+  private QueueModel[] runBatch(final int batch, final SimulationProgress progress) {
+    final int first=batch*LockstepBatch.LANES;
+    final RandomGenerator[] randoms=new RandomGenerator[Math.min(LockstepBatch.LANES,maxReplications-first)];
+    if (streams!=null) for (int i=0;i<randoms.length;i++) randoms[i]=streams.getStream(first+i);
+    return lockstepBatch.run(randoms,progress);
+  }
+
+  /**
+   * Runs the replications.
+   * @return  Joined results of all replications (the runtime is the total wall clock time) or <code>null</code>, if no replication was completed within the time limit
+   * @throws ExecutionException A replication has thrown an exception
+   */
+  public QueueModel run() throws ExecutionException {
+    final long start=System.currentTimeMillis();
+    if (lockstepBatch!=null) {
+      executor.run(getBatchCount(),batch->isNeeded(batch*LockstepBatch.LANES),this::runBatch,this::recordBatch,monitor);
+    } else {
+      executor.run(maxReplications,this::isNeeded,this::runReplication,this::recordReplication,monitor);
+    }
+    final QueueModel joinedModel=results.getJoinedModel();
+    if (joinedModel!=null) joinedModel.runtimeMS=System.currentTimeMillis()-start;
+    return joinedModel;
+  }
+
+  /**
+   * Returns the number of completed replications.
+   * @return  Number of completed replications
+   */
+  public synchronized int getReplicationCount() {
+    return results.getCount();
+  }
+
+  /**
+   * Has the target precision been reached?
+   * @return  Returns <code>true</code>, if all requested metrics have reached the target precision
+   */
+  public synchronized boolean isPrecisionReached() {
+    return results.isPrecisionReached();
+  }
+
+  /**
+   * Returns the mean of a metric over all replications.
+   * @param metric  Metric
+   * @return  Mean over all replications
+   */
+  public synchronized double getMean(final Metric metric) {
+    return results.getMeans(metric).getMean();
+  }
+
+  /**
+   * Returns the half width of the confidence interval of a metric over all replications.
+   * @param metric  Metric
+   * @return  Half width of the confidence interval
+   */
+  public synchronized double getHalfWidth(final Metric metric) {
+    return results.getMeans(metric).getConfidenceHalfWidth(confidenceLevel);
+  }
+
+  /**
+   * Returns the half width of the confidence interval of a metric relative to its mean.
+   * @param metric  Metric
+   * @return  Relative half width of the confidence interval
+   */
+  public synchronized double getRelativeHalfWidth(final Metric metric) {
+    return results.getRelativeHalfWidth(metric);
+  }
+}
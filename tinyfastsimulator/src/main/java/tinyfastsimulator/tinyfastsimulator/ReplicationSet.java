@@ -0,0 +1,200 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.Set;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsData;
+
+/**
+ * Collects the results of the independent replications of one scenario.<br>
+ * Replications may complete in any order, but they are always evaluated and
+ * joined in the order of their indices: Only the contiguous prefix of completed
+ * replications is taken into account and the stopping criterion is checked after
+ * each replication of this prefix. Replications beyond the stopping point are
+ * ignored. So the results do not depend on the number of threads or on the
+ * scheduling of the threads (if each replication uses its own random number stream).<br>
+ * This class is not thread-safe; the callers have to synchronize the access.
+ */
+public class ReplicationSet {
+  /**
+   * Maximum number of replications
+   */
+  public final int maxReplications;
+
+  /**
+   * Target relative half width of the confidence intervals (0 means: always run all replications)
+   */
+  private final double precision;
+
+  /**
+   * Confidence level
+   */
+  private final double confidenceLevel;
+
+  /**
+   * Metrics which have to reach the target precision
+   */
+  private final Set<ReplicationRunner.Metric> metrics;
+
+  /**
+   * Completed replications which are not part of the contiguous prefix yet
+   */
+  private final QueueModel[] pending;
+
+  /**
+   * Means of the individual replications per metric
+   */
+  private final StatisticsData[] replicationMeans;
+
+  /**
+   * Index of the next replication to be evaluated (= number of evaluated replications)
+   */
+  private int nextIndex;
+
+  /**
+   * Has the target precision been reached?
+   */
+  private boolean precisionReached;
+
+  /**
+   * Joined results of the evaluated replications
+   */
+  private QueueModel joinedModel;
+
+  /**
+   * Constructor
+   * @param maxReplications Maximum number of replications
+   * @param precision Target relative half width of the confidence intervals (0 means: always run all replications)
+   * @param confidenceLevel Confidence level
+   * @param metrics Metrics which have to reach the target precision
+   */
+  public ReplicationSet(final int maxReplications, final double precision, final double confidenceLevel, final Set<ReplicationRunner.Metric> metrics) {
+    this.maxReplications=maxReplications;
+    this.precision=precision;
+    this.confidenceLevel=confidenceLevel;
+    this.metrics=metrics;
+    pending=new QueueModel[maxReplications];
+    replicationMeans=new StatisticsData[ReplicationRunner.Metric.values().length];
+    for (int i=0;i<replicationMeans.length;i++) replicationMeans[i]=new StatisticsData();
+  }
+
+  /**
+   * Returns the value of a metric for a model.
+   * @param model Simulation model
+   * @param metric  Metric
+   * @return  Value of the metric
+   */
+  public static double getValue(final QueueModel model, final ReplicationRunner.Metric metric) {
+    switch (metric) {
+      case W: return model.waitingTimeStat.getMean();
+      case V: return model.residenceTimeStat.getMean();
+      case NQ: return model.queueLength.getMean();
+      case N: return model.systemSize.getMean();
+    }
+    return 0;
+  }
+
+  /**
+   * Is the replication with the given index still needed?
+   * @param index Index of the replication
+   * @return  Returns <code>false</code>, if the stopping criterion has been met before this replication
+   */
+  public boolean isNeeded(final int index) {
+    return !precisionReached && index<maxReplications;
+  }
+
+  /**
+   * Records the results of a completed replication.
+   * @param index Index of the replication
+   * @param model Simulation model of the completed replication
+   */
+  public void record(final int index, final QueueModel model) {
+    if (!isNeeded(index)) return;
+    pending[index]=model;
+    while (!precisionReached && nextIndex<maxReplications && pending[nextIndex]!=null) {
+      final QueueModel next=pending[nextIndex];
+      pending[nextIndex]=null;
+      nextIndex++;
+      for (ReplicationRunner.Metric metric: ReplicationRunner.Metric.values()) replicationMeans[metric.ordinal()].add(getValue(next,metric));
+      joinedModel=(joinedModel==null)?next:QueueModel.join(joinedModel,next);
+      checkPrecision();
+    }
+    if (precisionReached) for (int i=nextIndex;i<maxReplications;i++) pending[i]=null;
+  }
+
+  /**
+   * Checks if all metrics have reached the target precision.
+   */
+  private void checkPrecision() {
+    if (precision<=0 || nextIndex<Math.min(ReplicationRunner.MIN_REPLICATIONS,maxReplications)) return;
+    for (ReplicationRunner.Metric metric: metrics) if (getRelativeHalfWidth(metric)>precision) return;
+    precisionReached=true;
+  }
+
+  /**
+   * Returns the number of evaluated replications.
+   * @return  Number of evaluated replications
+   */
+  public int getCount() {
+    return nextIndex;
+  }
+
+  /**
+   * Has the target precision been reached?
+   * @return  Returns <code>true</code>, if all requested metrics have reached the target precision
+   */
+  public boolean isPrecisionReached() {
+    return precisionReached;
+  }
+
+  /**
+   * Returns the joined results of the evaluated replications.
+   * @return  Joined results (<code>null</code>, if no replication has been evaluated yet)
+   */
+  public QueueModel getJoinedModel() {
+    return joinedModel;
+  }
+
+  /**
+   * Releases the joined results (the statistics over the replication means remain available).
+   */
+  public void releaseJoinedModel() {
+    joinedModel=null;
+  }
+
+  /**
+   * Returns the statistics over the means of the individual replications.
+   * @param metric  Metric
+   * @return  Statistics over the replication means
+   */
+  public StatisticsData getMeans(final ReplicationRunner.Metric metric) {
+    return replicationMeans[metric.ordinal()];
+  }
+
+  /**
+   * Returns the half width of the confidence interval of a metric relative to its mean.
+   * @param metric  Metric
+   * @return  Relative half width of the confidence interval
+   */
+  public double getRelativeHalfWidth(final ReplicationRunner.Metric metric) {
+    final StatisticsData means=replicationMeans[metric.ordinal()];
+    final double halfWidth=means.getConfidenceHalfWidth(confidenceLevel);
+    final double mean=Math.abs(means.getMean());
+    if (mean==0.0) return (halfWidth==0.0)?0.0:Double.POSITIVE_INFINITY;
+    return halfWidth/mean;
+  }
+}
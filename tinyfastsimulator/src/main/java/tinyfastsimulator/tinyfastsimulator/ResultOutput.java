@@ -0,0 +1,426 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.io.IOException;
+import java.io.PrintStream;
+import java.lang.management.CompilationMXBean;
+import java.lang.management.GarbageCollectorMXBean;
+import java.lang.management.ManagementFactory;
+import java.lang.management.MemoryUsage;
+import java.lang.management.RuntimeMXBean;
+import java.nio.charset.StandardCharsets;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.LinkedHashSet;
+import java.util.List;
+import java.util.Map;
+import java.util.Set;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.BatchMeans;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsData;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsState;
+
+/**
+ * Collects the results of a simulation run and writes them in a machine-readable
+ * format (one JSON document or CSV with a heading row).<br>
+ * In a parameter sweep there is one CSV row per scenario; the run-wide values are
+ * repeated in every row.
+ */
+public class ResultOutput {
+  /**
+   * Output formats
+   */
+  public static enum Format {
+    /** Formatted text only (no machine-readable output) */
+    TEXT,
+    /** JSON document */
+    JSON,
+    /** Comma-separated values with a heading row */
+    CSV
+  }
+
+  /**
+   * Column separator in CSV output
+   */
+  private static final String SEPARATOR=",";
+
+  /**
+   * Number of states for which the time-weighted state probabilities are recorded
+   */
+  private static final int STATE_PROBABILITIES=10;
+
+  /**
+   * Output format
+   */
+  public final Format format;
+
+  /**
+   * Output file (<code>null</code> means: write to {@link #stdout})
+   */
+  public final String file;
+
+  /**
+   * Output stream used if no output file is given
+   */
+  private final PrintStream stdout;
+
+  /**
+   * Run-wide results (mode, parameters, results, per-thread values, ...)
+   */
+  public final ResultRecord document=new ResultRecord();
+
+  /**
+   * Results per scenario in a parameter sweep (in scenario order)
+   */
+  private final List<ResultRecord> scenarios=new ArrayList<>();
+
+  /**
+   * Constructor
+   * @param format  Output format
+   * @param file  Output file (<code>null</code> means: write to the given output stream)
+   * @param stdout  Output stream used if no output file is given
+   */
+  public ResultOutput(final Format format, final String file, final PrintStream stdout) {
+    this.format=format;
+    this.file=file;
+    this.stdout=stdout;
+  }
+
+  /**
+   * Adds the results of a scenario of a parameter sweep.
+   * @param scenario  Results of the scenario
+   */
+  public synchronized void addScenario(final ResultRecord scenario) {
+    scenarios.add(scenario);
+  }
+
+  /**
+   * Returns all metrics of a customer based statistic.
+   * @param data  Statistic object
+   * @param batches Batch means for the confidence interval (can be <code>null</code>)
+   * @param confidence  Confidence level for the batch means confidence interval
+   * @return  Record containing the metrics
+   */
+  public static ResultRecord getDataRecord(final StatisticsData data, final BatchMeans batches, final double confidence) {
+    final ResultRecord record=new ResultRecord();
+    record.put("count",data.getCount());
+    record.put("mean",data.getMean());
+    record.put("sd",data.getSD());
+    record.put("cv",data.getCV());
+    record.put("min",data.getMin());
+    record.put("max",data.getMax());
+    if (batches!=null) record.put("halfWidth",batches.getConfidenceHalfWidth(confidence));
+    if (data.hasHigherMoments()) {
+      record.put("skewness",data.getSkewness());
+      record.put("kurtosis",data.getKurtosis());
+    }
+    if (data.hasHistogram()) {
+      final ResultRecord quantiles=new ResultRecord();
+      for (double p: Main.QUANTILES) quantiles.put("P"+Main.formatPercent(p),data.getQuantile(p));
+      record.put("quantiles",quantiles);
+    }
+    return record;
+  }
+
+  /**
+   * Returns all metrics of a time-weighted state statistic.
+   * @param state Statistic object
+   * @return  Record containing the metrics
+   */
+  public static ResultRecord getStateRecord(final StatisticsState state) {
+    final ResultRecord record=new ResultRecord();
+    if (!state.hasDistribution()) {
+      /* Only the time-weighted mean is available (e.g. for the Lindley engine without quantiles or for lockstep replications) */
+      record.put("mean",state.getMean());
+      record.put("time",state.getTime());
+      return record;
+    }
+    record.put("mean",state.getMean());
+    record.put("min",state.getMin());
+    record.put("max",state.getMax());
+    record.put("time",state.getTime());
+    final ResultRecord probabilities=new ResultRecord();
+    final int last=Math.min(state.getMax(),STATE_PROBABILITIES-1);
+    for (int k=0;k<=last;k++) probabilities.put("P"+k,state.getProbability(k));
+    probabilities.put("P>"+last,state.getProbabilityGreaterThan(last));
+    record.put("probabilities",probabilities);
+    final ResultRecord quantiles=new ResultRecord();
+    for (double p: Main.QUANTILES) quantiles.put("P"+Main.formatPercent(p),state.getQuantile(p));
+    record.put("quantiles",quantiles);
+    return record;
+  }
+
+  /**
+   * Returns all statistics of a (joined) simulation model.
+   * @param model Simulation model
+   * @param c Number of operators
+   * @param confidence  Confidence level for the batch means confidence intervals
+   * @return  Record containing the statistics
+   */
+  public static ResultRecord getModelRecord(final QueueModel model, final int c, final double confidence) {
+    final ResultRecord record=new ResultRecord();
+    record.put("events",model.eventCount);
+    record.put("arrivalGoal",model.arrivalGoal);
+    record.put("waitingTime",getDataRecord(model.waitingTimeStat,model.waitingTimeBatches,confidence));
+    record.put("serviceTime",getDataRecord(model.serviceTimeStat,null,confidence));
+    record.put("residenceTime",getDataRecord(model.residenceTimeStat,model.residenceTimeBatches,confidence));
+    record.put("queueLength",getStateRecord(model.queueLength));
+    record.put("systemSize",getStateRecord(model.systemSize));
+    record.put("busyOperators",getStateRecord(model.operatorsUsage));
+    record.put("utilization",model.operatorsUsage.getMean()/c);
+    if (model.getAbandonment().isActive()) {
+      record.put("abandonedWaitingTime",getDataRecord(model.abandonedWaitingTimeStat,null,confidence));
+      record.put("blocked",model.blockedCount);
+    }
+    if (model.classWaitingTimeStat!=null) {
+      final List<ResultRecord> classes=new ArrayList<>();
+      for (int i=0;i<model.classWaitingTimeStat.length;i++) {
+        final ResultRecord classRecord=new ResultRecord();
+        classRecord.put("class",i+1);
+        classRecord.put("waitingTime",getDataRecord(model.classWaitingTimeStat[i],null,confidence));
+        classRecord.put("residenceTime",getDataRecord(model.classResidenceTimeStat[i],null,confidence));
+        classes.add(classRecord);
+      }
+      record.put("classes",classes);
+      record.put("preemptions",model.preemptionCount);
+    }
+    record.put("warmupArrivals",model.warmupArrivalCount);
+    record.put("warmupEndTime",model.warmupEndTime);
+    record.put("maxEventListSize",model.maxEventListSize);
+    record.put("maxQueueSize",model.maxQueueSize);
+    record.put("queueResizeCount",model.queueResizeCount);
+    return record;
+  }
+
+  /**
+   * Returns all statistics of a (joined) network simulation model.
+   * @param model Network simulation model
+   * @param EI  Mean inter-arrival time of the external arrivals (for the expected work loads)
+   * @param confidence  Confidence level for the batch means confidence interval
+   * @return  Record containing the statistics
+   */
+  public static ResultRecord getNetworkRecord(final NetworkModel model, final double EI, final double confidence) {
+    final ResultRecord record=new ResultRecord();
+    record.put("events",model.eventCount);
+    record.put("arrivalGoal",model.arrivalGoal);
+    record.put("residenceTime",getDataRecord(model.residenceTimeStat,model.residenceTimeBatches,confidence));
+    record.put("networkSize",getStateRecord(model.networkSize));
+    record.put("visits",model.getMeanVisits());
+    record.put("expectedVisits",model.network.getTotalVisits());
+    final List<ResultRecord> stations=new ArrayList<>(model.network.stationCount);
+    for (int i=0;i<model.network.stationCount;i++) {
+      final ResultRecord station=new ResultRecord();
+      station.put("station",i+1);
+      station.put("c",model.network.c[i]);
+      station.put("expectedRho",model.network.getRho(i,EI));
+      station.put("utilization",model.getUtilization(i));
+      station.put("waitingTime",getDataRecord(model.stationWaitingTimeStat[i],null,confidence));
+      station.put("serviceTime",getDataRecord(model.stationServiceTimeStat[i],null,confidence));
+      station.put("meanQueueLength",model.getMeanQueueLength(i));
+      station.put("maxQueueSize",model.stationMaxQueueSize[i]);
+      stations.add(station);
+    }
+    record.put("stations",stations);
+    record.put("warmupArrivals",model.warmupArrivalCount);
+    record.put("warmupEndTime",model.warmupEndTime);
+    record.put("maxEventListSize",model.maxEventListSize);
+    return record;
+  }
+
+  /**
+   * Returns the simulation parameters.
+   * @param parameters  Parameters
+   * @param arrivalDistribution Description of the inter-arrival times distribution
+   * @param serviceDistribution Description of the service times distribution
+   * @return  Record containing the parameters
+   */
+  public static ResultRecord getParametersRecord(final Parameters parameters, final String arrivalDistribution, final String serviceDistribution) {
+    final ResultRecord record=new ResultRecord();
+    record.put("EI",parameters.EI);
+    record.put("cvI",parameters.cvI);
+    record.put("ES",parameters.ES);
+    record.put("cvS",parameters.cvS);
+    record.put("c",parameters.c);
+    record.put("rho",parameters.ES/parameters.EI/parameters.c);
+    record.put("arrivalDistribution",arrivalDistribution);
+    record.put("serviceDistribution",serviceDistribution);
+    record.put("arrivals",parameters.arrivalCount);
+    record.put("threads",parameters.threadCount);
+    record.put("eventList",parameters.eventListType.toString().toLowerCase());
+    record.put("engine",parameters.engine.toString().toLowerCase());
+    record.put("lockstep",parameters.lockstep);
+    record.put("warmup",parameters.warmup.toString());
+    record.put("patience",parameters.patience);
+    record.put("cvPatience",parameters.cvPatience);
+    record.put("waitingRoom",parameters.waitingRoom);
+    record.put("classes",parameters.classCount);
+    record.put("discipline",parameters.discipline.toString().toLowerCase());
+    if (parameters.networkFile!=null) {
+      record.put("network",parameters.networkFile);
+    } else if (parameters.networkTopology!=null) {
+      record.put("network",parameters.networkTopology.toString().toLowerCase());
+      record.put("stations",parameters.stationCount);
+      record.put("feedback",parameters.feedback);
+    }
+    record.put("seed",(parameters.seed==null)?null:parameters.seed.toString());
+    record.put("replications",parameters.replications);
+    record.put("precision",parameters.precision);
+    record.put("confidence",parameters.confidence);
+    record.put("loadBalancer",parameters.adaptiveLoadBalancer?"adaptive":(parameters.loadBalancer?"synchronized":"none"));
+    return record;
+  }
+
+  /**
+   * Returns the confidence intervals calculated from independent replications.
+   * @param runner  Replication runner
+   * @return  Record containing the number of replications and the confidence intervals
+   */
+  public static ResultRecord getReplicationRecord(final ReplicationRunner runner) {
+    final ResultRecord record=new ResultRecord();
+    record.put("count",runner.getReplicationCount());
+    record.put("precisionReached",runner.isPrecisionReached());
+    for (ReplicationRunner.Metric metric: ReplicationRunner.Metric.values()) {
+      record.put(metric.label,new ResultRecord().put("mean",runner.getMean(metric)).put("halfWidth",runner.getHalfWidth(metric)).put("relativeHalfWidth",runner.getRelativeHalfWidth(metric)));
+    }
+    return record;
+  }
+
+  /**
+   * Returns the per-thread values (runtime, arrival goal, events, load balancer usage).
+   * @param models  Models which were simulated by the threads (one per thread)
+   * @return  List of records (one per thread)
+   */
+  public static List<ResultRecord> getThreadRecords(final QueueModel[] models) {
+    final List<ResultRecord> records=new ArrayList<>(models.length);
+    for (int i=0;i<models.length;i++) {
+      final QueueModel model=models[i];
+      final ResultRecord record=new ResultRecord();
+      record.put("thread",i+1);
+      record.put("runtimeMS",model.runtimeMS);
+      record.put("arrivalGoal",model.arrivalGoal);
+      record.put("events",model.eventCount);
+      record.put("eventsPerSecond",(model.runtimeMS>0)?model.eventCount*1000.0/model.runtimeMS:0);
+      record.put("loadBalancerRequests",model.loadBalancerRequests);
+      record.put("loadBalancerWaitMS",model.loadBalancerWaitNS/1000000.0);
+      records.add(record);
+    }
+    return records;
+  }
+
+  /**
+   * Returns the throughput of a run.
+   * @param events  Number of processed events
+   * @param runtimeMS Wall clock time in ms
+   * @param threadCount Number of used threads
+   * @return  Record containing the throughput values
+   */
+  public static ResultRecord getPerformanceRecord(final long events, final long runtimeMS, final int threadCount) {
+    final ResultRecord record=new ResultRecord();
+    record.put("events",events);
+    record.put("wallClockMS",runtimeMS);
+    record.put("threads",threadCount);
+    record.put("eventsPerSecond",(runtimeMS>0)?events*1000.0/runtimeMS:0);
+    record.put("eventsPerSecondPerThread",(runtimeMS>0)?events*1000.0/runtimeMS/threadCount:0);
+    return record;
+  }
+
+  /**
+   * Returns information on the JVM and the garbage collectors.
+   * @return  Record containing the JVM information
+   */
+  public static ResultRecord getJVMRecord() {
+    final ResultRecord record=new ResultRecord();
+    final RuntimeMXBean runtime=ManagementFactory.getRuntimeMXBean();
+    record.put("version",Runtime.version().toString());
+    record.put("vendor",System.getProperty("java.vendor"));
+    record.put("vm",runtime.getVmName());
+    record.put("arguments",String.join(" ",runtime.getInputArguments()));
+    record.put("processors",Runtime.getRuntime().availableProcessors());
+    record.put("uptimeMS",runtime.getUptime());
+    final MemoryUsage heap=ManagementFactory.getMemoryMXBean().getHeapMemoryUsage();
+    record.put("heapUsedBytes",heap.getUsed());
+    record.put("heapCommittedBytes",heap.getCommitted());
+    record.put("heapMaxBytes",heap.getMax());
+    final CompilationMXBean compilation=ManagementFactory.getCompilationMXBean();
+    if (compilation!=null && compilation.isCompilationTimeMonitoringSupported()) record.put("compilationMS",compilation.getTotalCompilationTime());
+    final List<ResultRecord> collectors=new ArrayList<>();
+    for (GarbageCollectorMXBean gc: ManagementFactory.getGarbageCollectorMXBeans()) {
+      collectors.add(new ResultRecord().put("name",gc.getName()).put("collections",gc.getCollectionCount()).put("timeMS",gc.getCollectionTime()));
+    }
+    record.put("gc",collectors);
+    return record;
+  }
+
+  /**
+   * Quotes a CSV cell if necessary.
+   * @param value Cell value
+   * @return  Cell value ready for output
+   */
+  private static String quoteCSV(final String value) {
+    if (!value.contains(SEPARATOR) && value.indexOf('"')<0 && value.indexOf('\n')<0) return value;
+    return "\""+value.replace("\"","\"\"")+"\"";
+  }
+
+  /**
+   * Builds the CSV text (heading row and one row per scenario or one row for the whole run).
+   * @param result  Complete result document
+   * @param scenarios Results per scenario (can be empty)
+   * @return  CSV text
+   */
+  private static String toCSV(final ResultRecord result, final List<ResultRecord> scenarios) {
+    final List<Map<String,String>> rows=new ArrayList<>();
+    if (scenarios.isEmpty()) {
+      rows.add(result.getColumns());
+    } else {
+      for (ResultRecord scenario: scenarios) rows.add(new ResultRecord().put("scenario",scenario).put("run",result).getColumns());
+    }
+
+    final Set<String> heading=new LinkedHashSet<>();
+    for (Map<String,String> row: rows) heading.addAll(row.keySet());
+
+    final StringBuilder csv=new StringBuilder();
+    csv.append(String.join(SEPARATOR,heading.stream().map(ResultOutput::quoteCSV).toList())).append('\n');
+    for (Map<String,String> row: rows) {
+      csv.append(String.join(SEPARATOR,heading.stream().map(name->quoteCSV(row.getOrDefault(name,""))).toList())).append('\n');
+    }
+    return csv.toString();
+  }
+
+  /**
+   * Writes the collected results (the JVM information is recorded at this point).
+   * @throws IOException  Error writing the output file
+   */
+  public synchronized void write() throws IOException {
+    document.put("jvm",getJVMRecord());
+
+    final String text;
+    if (format==Format.CSV) {
+      text=toCSV(document,scenarios);
+    } else {
+      if (!scenarios.isEmpty()) document.put("scenarios",scenarios);
+      text=document.toJSON()+"\n";
+    }
+
+    if (file==null) {
+      stdout.print(text);
+      stdout.flush();
+    } else {
+      Files.writeString(Path.of(file),text,StandardCharsets.UTF_8);
+    }
+  }
+}
@@ -0,0 +1,236 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.util.ArrayList;
+import java.util.LinkedHashMap;
+import java.util.List;
+import java.util.Map;
+
+/**
+ * Ordered tree of named result values used for the machine-readable output.<br>
+ * Values can be numbers, strings, booleans, nested records or lists of records.
+ * A record can be written as a JSON object or flattened into CSV columns
+ * (nested names are joined by dots, list entries are numbered starting with 1).
+ */
+public class ResultRecord {
+  /**
+   * Values in insertion order
+   */
+  private final Map<String,Object> values=new LinkedHashMap<>();
+
+  /**
+   * Adds a numeric value.
+   * @param name  Name of the value
+   * @param value Value
+   * @return  Returns this record
+   */
+  public ResultRecord put(final String name, final double value) {
+    values.put(name,value);
+    return this;
+  }
+
+  /**
+   * Adds an integer value.
+   * @param name  Name of the value
+   * @param value Value
+   * @return  Returns this record
+   */
+  public ResultRecord put(final String name, final long value) {
+    values.put(name,value);
+    return this;
+  }
+
+  /**
+   * Adds a boolean value.
+   * @param name  Name of the value
+   * @param value Value
+   * @return  Returns this record
+   */
+  public ResultRecord put(final String name, final boolean value) {
+    values.put(name,value);
+    return this;
+  }
+
+  /**
+   * Adds a string value.
+   * @param name  Name of the value
+   * @param value Value (<code>null</code> is written as JSON null or as an empty CSV cell)
+   * @return  Returns this record
+   */
+  public ResultRecord put(final String name, final String value) {
+    values.put(name,value);
+    return this;
+  }
+
+  /**
+   * Adds a nested record.
+   * @param name  Name of the nested record
+   * @param record  Nested record
+   * @return  Returns this record
+   */
+  public ResultRecord put(final String name, final ResultRecord record) {
+    values.put(name,record);
+    return this;
+  }
+
+  /**
+   * Adds a list of nested records.
+   * @param name  Name of the list
+   * @param records Nested records
+   * @return  Returns this record
+   */
+  public ResultRecord put(final String name, final List<ResultRecord> records) {
+    values.put(name,new ArrayList<>(records));
+    return this;
+  }
+
+  /**
+   * Appends a string as JSON string literal.
+   * @param json  Output
+   * @param s String
+   */
+  private static void appendJSONString(final StringBuilder json, final String s) {
+    json.append('"');
+    for (int i=0;i<s.length();i++) {
+      final char ch=s.charAt(i);
+      switch (ch) {
+        case '"': json.append("\\\""); break;
+        case '\\': json.append("\\\\"); break;
+        case '\n': json.append("\\n"); break;
+        case '\r': json.append("\\r"); break;
+        case '\t': json.append("\\t"); break;
+        default:
+          if (ch<0x20) json.append(String.format("\\u%04x",(int)ch)); else json.append(ch);
+      }
+    }
+    json.append('"');
+  }
+
+  /**
+   * Appends a line break and the indentation.
+   * @param json  Output
+   * @param level Indentation level
+   */
+  private static void appendIndent(final StringBuilder json, final int level) {
+    json.append('\n');
+    for (int i=0;i<level;i++) json.append("  ");
+  }
+
+  /**
+   * Appends a value in JSON notation.
+   * @param json  Output
+   * @param value Value
+   * @param level Indentation level of the value
+   */
+  @SuppressWarnings("unchecked")
+  private static void appendJSONValue(final StringBuilder json, final Object value, final int level) {
+    if (value==null) {
+      json.append("null");
+    } else if (value instanceof ResultRecord) {
+      ((ResultRecord)value).appendJSON(json,level);
+    } else if (value instanceof List) {
+      final List<ResultRecord> list=(List<ResultRecord>)value;
+      if (list.isEmpty()) {
+        json.append("[]");
+        return;
+      }
+      json.append('[');
+      for (int i=0;i<list.size();i++) {
+        if (i>0) json.append(',');
+        appendIndent(json,level+1);
+        list.get(i).appendJSON(json,level+1);
+      }
+      appendIndent(json,level);
+      json.append(']');
+    } else if (value instanceof Double) {
+      final double d=(Double)value;
+      if (Double.isFinite(d)) json.append(d); else json.append("null"); /* JSON has no NaN or infinity */
+    } else if (value instanceof String) {
+      appendJSONString(json,(String)value);
+    } else {
+      json.append(value);
+    }
+  }
+
+  /**
+   * Appends this record as JSON object.
+   * @param json  Output
+   * @param level Indentation level of the object
+   */
+  private void appendJSON(final StringBuilder json, final int level) {
+    if (values.isEmpty()) {
+      json.append("{}");
+      return;
+    }
+    json.append('{');
+    boolean first=true;
+    for (Map.Entry<String,Object> entry: values.entrySet()) {
+      if (!first) json.append(',');
+      first=false;
+      appendIndent(json,level+1);
+      appendJSONString(json,entry.getKey());
+      json.append(": ");
+      appendJSONValue(json,entry.getValue(),level+1);
+    }
+    appendIndent(json,level);
+    json.append('}');
+  }
+
+  /**
+   * Returns this record as JSON object.
+   * @return  JSON text (without trailing line break)
+   */
+  public String toJSON() {
+    final StringBuilder json=new StringBuilder();
+    appendJSON(json,0);
+    return json.toString();
+  }
+
+  /**
+   * Flattens the record into columns.
+   * @param prefix  Prefix for the column names (empty for the top level)
+   * @param columns Output for the column names and the values (as strings)
+   */
+  @SuppressWarnings("unchecked")
+  private void flatten(final String prefix, final Map<String,String> columns) {
+    for (Map.Entry<String,Object> entry: values.entrySet()) {
+      final String name=prefix+entry.getKey();
+      final Object value=entry.getValue();
+      if (value instanceof ResultRecord) {
+        ((ResultRecord)value).flatten(name+".",columns);
+      } else if (value instanceof List) {
+        final List<ResultRecord> list=(List<ResultRecord>)value;
+        for (int i=0;i<list.size();i++) list.get(i).flatten(name+"."+(i+1)+".",columns);
+      } else if (value instanceof Double) {
+        final double d=(Double)value;
+        columns.put(name,Double.isFinite(d)?Double.toString(d):"");
+      } else {
+        columns.put(name,(value==null)?"":value.toString());
+      }
+    }
+  }
+
+  /**
+   * Returns the flattened columns of this record.
+   * @return  Column names and values (in record order)
+   */
+  public Map<String,String> getColumns() {
+    final Map<String,String> columns=new LinkedHashMap<>();
+    flatten("",columns);
+    return columns;
+  }
+}
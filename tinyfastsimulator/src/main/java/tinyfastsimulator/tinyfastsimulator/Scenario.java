@@ -0,0 +1,183 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+
+/**
+ * Parameters of a single G/G/c scenario in a parameter sweep
+ */
+public class Scenario {
+  /**
+   * Mean inter-arrival time E[I]
+   */
+  public final double EI;
+
+  /**
+   * Coefficient of variation of the inter-arrival times CV[I]
+   */
+  public final double cvI;
+
+  /**
+   * Mean service time E[S]
+   */
+  public final double ES;
+
+  /**
+   * Coefficient of variation of the service times CV[S]
+   */
+  public final double cvS;
+
+  /**
+   * Number of operators
+   */
+  public final int c;
+
+  /**
+   * Constructor
+   * @param EI  Mean inter-arrival time E[I]
+   * @param cvI Coefficient of variation of the inter-arrival times CV[I]
+   * @param ES  Mean service time E[S]
+   * @param cvS Coefficient of variation of the service times CV[S]
+   * @param c Number of operators
+   */
+  public Scenario(final double EI, final double cvI, final double ES, final double cvS, final int c) {
+    this.EI=EI;
+    this.cvI=cvI;
+    this.ES=ES;
+    this.cvS=cvS;
+    this.c=c;
+  }
+
+  /**
+   * Returns the work load of the scenario.
+   * @return  Work load rho=E[S]/E[I]/c
+   */
+  public double getRho() {
+    return ES/EI/c;
+  }
+
+  /**
+   * Can the scenario be simulated?
+   * @return  Returns <code>true</code>, if E[I], E[S] and c are positive and CV[I] and CV[S] are not negative (all values finite)
+   */
+  public boolean isValid() {
+    if (!Double.isFinite(EI) || !Double.isFinite(cvI) || !Double.isFinite(ES) || !Double.isFinite(cvS)) return false;
+    return EI>0 && cvI>=0 && ES>0 && cvS>=0 && c>0;
+  }
+
+  /**
+   * Parses a range of values.<br>
+   * Supported formats are "from:to:step" (both bounds included) and lists "value1,value2,...".
+   * @param text  Text to be parsed
+   * @return  Values or <code>null</code>, if the text could not be parsed
+   */
+  public static double[] parseRange(final String text) {
+    try {
+      final String[] parts=text.split(":");
+      if (parts.length==3) {
+        final double from=Double.parseDouble(parts[0]);
+        final double to=Double.parseDouble(parts[1]);
+        final double step=Double.parseDouble(parts[2]);
+        if (step<=0 || to<from) return null;
+        final int count=(int)Math.floor((to-from)/step+1E-9)+1;
+        final double[] result=new double[count];
+        for (int i=0;i<count;i++) result[i]=from+i*step;
+        return result;
+      }
+      final String[] values=text.split(",");
+      final double[] result=new double[values.length];
+      for (int i=0;i<values.length;i++) result[i]=Double.parseDouble(values[i].trim());
+      return result;
+    } catch (NumberFormatException e) {
+      return null;
+    }
+  }
+
+  /**
+   * Generates all combinations of the given parameter values (the values have to be valid, see {@link #isValid()}).
+   * @param EI  Values for the mean inter-arrival time
+   * @param cvI Values for the coefficient of variation of the inter-arrival times
+   * @param ES  Values for the mean service time
+   * @param cvS Values for the coefficient of variation of the service times
+   * @param c Values for the number of operators
+   * @return  List of scenarios
+   */
+  public static List<Scenario> grid(final double[] EI, final double[] cvI, final double[] ES, final double[] cvS, final double[] c) {
+    final List<Scenario> result=new ArrayList<>();
+    for (double ei: EI) for (double cvi: cvI) for (double es: ES) for (double cvs: cvS) for (double cc: c) {
+      result.add(new Scenario(ei,cvi,es,cvs,(int)Math.round(cc)));
+    }
+    return result;
+  }
+
+  /**
+   * Loads scenarios from a CSV file.<br>
+   * The first line has to contain the column names (EI, cvI, ES, cvS, c; case-insensitive).
+   * Missing columns are filled with the given default values. Columns can be separated
+   * by commas or semicolons; lines starting with # are ignored.
+   * @param file  CSV file
+   * @param defaults  Default values for columns not included in the file
+   * @return  List of scenarios
+   * @throws IOException  Error while reading the file or invalid file content
+   */
+  public static List<Scenario> loadCSV(final Path file, final Scenario defaults) throws IOException {
+    final List<Scenario> result=new ArrayList<>();
+    try (BufferedReader reader=Files.newBufferedReader(file)) {
+      int[] columns=null;
+      String line;
+      int lineNumber=0;
+      while ((line=reader.readLine())!=null) {
+        lineNumber++;
+        line=line.trim();
+        if (line.isEmpty() || line.startsWith("#")) continue;
+        final String[] cells=line.split("[,;]");
+        if (columns==null) {
+          /* Header: map column names to scenario parameters */
+          columns=new int[cells.length];
+          for (int i=0;i<cells.length;i++) {
+            switch (cells[i].trim().toLowerCase()) {
+              case "ei": columns[i]=0; break;
+              case "cvi": columns[i]=1; break;
+              case "es": columns[i]=2; break;
+              case "cvs": columns[i]=3; break;
+              case "c": columns[i]=4; break;
+              default: columns[i]=-1; break;
+            }
+          }
+          continue;
+        }
+        final double[] values={defaults.EI,defaults.cvI,defaults.ES,defaults.cvS,defaults.c};
+        for (int i=0;i<Math.min(cells.length,columns.length);i++) if (columns[i]>=0) {
+          try {
+            values[columns[i]]=Double.parseDouble(cells[i].trim());
+          } catch (NumberFormatException e) {
+            throw new IOException(String.format("Invalid number \"%s\" in line %d",cells[i].trim(),lineNumber));
+          }
+        }
+        final Scenario scenario=new Scenario(values[0],values[1],values[2],values[3],(int)Math.round(values[4]));
+        if (!scenario.isValid()) throw new IOException(String.format("Invalid scenario in line %d (E[I], E[S] and c have to be positive, CV[I] and CV[S] must not be negative)",lineNumber));
+        result.add(scenario);
+      }
+    }
+    return result;
+  }
+}
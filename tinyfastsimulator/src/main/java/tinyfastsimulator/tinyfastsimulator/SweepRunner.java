@@ -0,0 +1,430 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+import java.io.PrintStream;
+import java.util.List;
+import java.util.Set;
+import java.util.concurrent.ExecutionException;
+import java.util.random.RandomGenerator;
+
+import tinyfastsimulator.tinyfastsimulator.simulator.BlockGenerator;
+import tinyfastsimulator.tinyfastsimulator.simulator.EventQueue;
+import tinyfastsimulator.tinyfastsimulator.simulator.RandomStreams;
+import tinyfastsimulator.tinyfastsimulator.simulator.SimulationProgress;
+import tinyfastsimulator.tinyfastsimulator.simulator.StatisticsData;
+
+/**
+ * Runs a parameter sweep (a list of scenarios with a number of replications each)
+ * on a {@link ModelExecutor} within one JVM. The tasks (scenario x replication)
+ * are submitted in scenario order, and one result row is written per scenario
+ * as soon as all of its replications are done.<br>
+ * If random number streams are given, replication r of scenario s always uses
+ * the stream with index s*2^32+r, so the results do not depend on the number of threads.<br>
+ * Optionally the replications of each scenario are simulated in lockstep batches of
+ * {@link LockstepBatch#LANES} replications (one task per batch).
+ */
+public class SweepRunner {
+  /**
+   * Column separator in the output
+   */
+  private static final String SEPARATOR=",";
+
+  /**
+   * Scenarios to be simulated
+   */
+  private final List<Scenario> scenarios;
+
+  /**
+   * Callbacks for generating inter-arrival times per scenario
+   */
+  private final BlockGenerator[] interArrivalTimes;
+
+  /**
+   * Callbacks for generating service times per scenario
+   */
+  private final BlockGenerator[] serviceTimes;
+
+  /**
+   * Queue capacity hints per scenario
+   */
+  private final int[] queueCapacityHints;
+
+  /**
+   * Number of arrivals per replication
+   */
+  private final long arrivalsPerReplication;
+
+  /**
+   * Maximum number of replications per scenario
+   */
+  private final int replications;
+
+  /**
+   * Confidence level
+   */
+  private final double confidenceLevel;
+
+  /**
+   * Type of the event list used by the simulator
+   */
+  private final EventQueue.Type eventListType;
+
+  /**
+   * Simulation engine
+   */
+  private final QueueModel.Engine engine;
+
+  /**
+   * Simulators for lockstep batches of replications per scenario (<code>null</code>, if the replications are simulated one by one)
+   */
+  private final LockstepBatch[] lockstepBatches;
+
+  /**
+   * Number of tasks per scenario (replications or lockstep batches)
+   */
+  private final int tasksPerScenario;
+
+  /**
+   * Warm-up period settings
+   */
+  private final Warmup warmup;
+
+  /**
+   * Settings for impatient clients and a finite waiting room
+   */
+  private final Abandonment abandonment;
+
+  /**
+   * Number of worker threads
+   */
+  public final int threadCount;
+
+  /**
+   * Executor running the replications
+   */
+  private final ModelExecutor executor;
+
+  /**
+   * Output for the result rows
+   */
+  private final PrintStream out;
+
+  /**
+   * Random number streams (<code>null</code> means: use the thread local generators)
+   */
+  private final RandomStreams streams;
+
+  /**
+   * Record histograms of the waiting times and output the quantiles?
+   */
+  private final boolean recordQuantiles;
+
+  /**
+   * Live progress monitor (<code>null</code> if not used)
+   */
+  private ProgressMonitor monitor;
+
+  /**
+   * Machine-readable result output (<code>null</code> if not used)
+   */
+  private ResultOutput output;
+
+  /**
+   * Results per scenario (the joined model is released after the row is written)
+   */
+  private final ReplicationSet[] results;
+
+  /**
+   * Number of finished (simulated or skipped) replications per scenario
+   */
+  private final int[] finished;
+
+  /**
+   * Index of the next scenario for which the row is to be written
+   */
+  private int nextRow;
+
+  /**
+   * Total number of simulated events
+   */
+  public long eventCount;
+
+  /**
+   * Total number of simulated replications
+   */
+  public long simulatedReplications;
+
+  /**
+   * Constructor
+   * @param scenarios Scenarios to be simulated
+   * @param arrivalsPerReplication  Number of arrivals per replication
+   * @param replications  Maximum number of replications per scenario
+   * @param precision Target relative half width of the confidence intervals (0 means: always run all replications)
+   * @param confidenceLevel Confidence level
+   * @param metrics Metrics which have to reach the target precision (empty means: all metrics)
+   * @param eventListType Type of the event list used by the simulator
+   * @param engine  Simulation engine
+   * @param lockstep  Simulate the replications in lockstep batches (only used if supported for the settings, see {@link LockstepBatch#isSupported(Warmup, boolean)})
+   * @param warmup  Warm-up period settings (applied to each replication)
+   * @param abandonment Settings for impatient clients and a finite waiting room (lockstep batches are not used if active)
+   * @param executor  Executor running the replications
+   * @param out Output for the result rows
+   * @param streams Random number streams (<code>null</code> means: use the thread local generators)
+   * @param recordQuantiles Record histograms of the waiting times and output the quantiles?
+   * @param arrivalDistribution Distribution of the inter-arrival times
+   * @param serviceDistribution Distribution of the service times
+   */
+  public SweepRunner(final List<Scenario> scenarios, final long arrivalsPerReplication, final int replications, final double precision, final double confidenceLevel, final Set<ReplicationRunner.Metric> metrics, final EventQueue.Type eventListType, final QueueModel.Engine engine, final boolean lockstep, final Warmup warmup, final Abandonment abandonment, final ModelExecutor executor, final PrintStream out, final RandomStreams streams, final boolean recordQuantiles, final DistributionSetup arrivalDistribution, final DistributionSetup serviceDistribution) {
+    this.scenarios=scenarios;
+    this.arrivalsPerReplication=arrivalsPerReplication;
+    this.replications=Math.max(1,replications);
+    this.confidenceLevel=confidenceLevel;
+    this.eventListType=eventListType;
+    this.engine=engine;
+    this.warmup=warmup;
+    this.abandonment=abandonment;
+    this.executor=executor;
+    final boolean useLockstep=lockstep && LockstepBatch.isSupported(warmup,recordQuantiles) && !abandonment.isActive();
+    tasksPerScenario=useLockstep?((this.replications+LockstepBatch.LANES-1)/LockstepBatch.LANES):this.replications;
+    threadCount=(int)Math.min(executor.parallelism,((long)scenarios.size())*tasksPerScenario);
+    this.out=out;
+    this.streams=streams;
+    this.recordQuantiles=recordQuantiles;
+
+    final Set<ReplicationRunner.Metric> precisionMetrics=metrics.isEmpty()?Set.of(ReplicationRunner.Metric.values()):metrics;
+    final int count=scenarios.size();
+    interArrivalTimes=new BlockGenerator[count];
+    serviceTimes=new BlockGenerator[count];
+    queueCapacityHints=new int[count];
+    results=new ReplicationSet[count];
+    finished=new int[count];
+    lockstepBatches=useLockstep?new LockstepBatch[count]:null;
+    for (int i=0;i<count;i++) {
+      final Scenario scenario=scenarios.get(i);
+      interArrivalTimes[i]=arrivalDistribution.getLambda(scenario.EI,scenario.cvI);
+      serviceTimes[i]=serviceDistribution.getLambda(scenario.ES,scenario.cvS);
+      queueCapacityHints[i]=ErlangC.getQueueCapacityHint(scenario.EI,scenario.cvI,scenario.ES,scenario.cvS,scenario.c,arrivalsPerReplication);
+      results[i]=new ReplicationSet(this.replications,precision,confidenceLevel,precisionMetrics);
+      if (useLockstep) lockstepBatches[i]=new LockstepBatch(interArrivalTimes[i],serviceTimes[i],scenario.c,arrivalsPerReplication,warmup);
+    }
+  }
+
+  /**
+   * Checks if a replication still has to be simulated.
+   * @param scenario  Index of the scenario
+   * @param replication Index of the replication within the scenario
+   * @return  Returns <code>true</code>, if the replication is to be simulated; otherwise it is counted as finished
+   */
+  private synchronized boolean startReplication(final int scenario, final int replication) {
+    if (results[scenario].isNeeded(replication)) return true;
+    finished[scenario]++;
+    writeRows();
+    return false;
+  }
+
+  /**
+   * Checks if a lockstep batch still has to be simulated.
+   * @param scenario  Index of the scenario
+   * @param batch Index of the batch within the scenario
+   * @return  Returns <code>true</code>, if the batch is to be simulated; otherwise all its replications are counted as finished
+   */
+  private synchronized boolean startBatch(final int scenario, final int batch) {
+    final int first=batch*LockstepBatch.LANES;
+    if (results[scenario].isNeeded(first)) return true;
+    finished[scenario]+=Math.min(LockstepBatch.LANES,replications-first);
+    writeRows();
+    return false;
+  }
+
+  /**
+   * Records the results of a completed replication.
+   * @param scenario  Index of the scenario
+   * @param replication Index of the replication within the scenario
+   * @param model Simulation model of the completed replication
+   */
+  private synchronized void recordReplication(final int scenario, final int replication, final QueueModel model) {
+    results[scenario].record(replication,model);
+    eventCount+=model.eventCount;
+    simulatedReplications++;
+
+    finished[scenario]++;
+    writeRows();
+  }
+
+  /**
+   * Writes the rows of all completed scenarios (in scenario order).
+   */
+  private void writeRows() {
+    while (nextRow<scenarios.size() && finished[nextRow]==replications) {
+      writeRow(nextRow);
+      results[nextRow].releaseJoinedModel();
+      nextRow++;
+    }
+    out.flush();
+  }
+
+  /**
+   * Writes the heading row.
+   */
+  private void writeHeading() {
+    final StringBuilder line=new StringBuilder();
+    line.append(String.join(SEPARATOR,"Scenario","E[I]","CV[I]","E[S]","CV[S]","c","rho","Replications"));
+    for (ReplicationRunner.Metric metric: ReplicationRunner.Metric.values()) line.append(SEPARATOR).append(metric.label).append(SEPARATOR).append("HalfWidth(").append(metric.label).append(")");
+    if (recordQuantiles) for (double p: Main.QUANTILES) line.append(SEPARATOR).append(String.format("P%s(W)",Main.formatPercent(p)));
+    line.append(SEPARATOR).append("Utilization").append(SEPARATOR).append("Events");
+    out.println(line);
+  }
+
+  /**
+   * Returns the half width of the confidence interval of a metric of a scenario.
+   * @param metric  Metric
+   * @param data  Means of the metric over the replications of the scenario
+   * @param model Joined model of the scenario (can be <code>null</code>)
+   * @return  Half width of the confidence interval
+   */
+  private double getHalfWidth(final ReplicationRunner.Metric metric, final StatisticsData data, final QueueModel model) {
+    if (data.getCount()<2 && model!=null) {
+      /* Single replication: use batch means for the customer based metrics */
+      if (metric==ReplicationRunner.Metric.W) return model.waitingTimeBatches.getConfidenceHalfWidth(confidenceLevel);
+      if (metric==ReplicationRunner.Metric.V) return model.residenceTimeBatches.getConfidenceHalfWidth(confidenceLevel);
+    }
+    return data.getConfidenceHalfWidth(confidenceLevel);
+  }
+
+  /**
+   * Writes the result row for a scenario.
+   * @param index Index of the scenario
+   */
+  private void writeRow(final int index) {
+    final Scenario scenario=scenarios.get(index);
+    final ReplicationSet set=results[index];
+    final QueueModel model=set.getJoinedModel();
+    final StringBuilder line=new StringBuilder();
+    line.append(index+1).append(SEPARATOR).append(scenario.EI).append(SEPARATOR).append(scenario.cvI).append(SEPARATOR).append(scenario.ES).append(SEPARATOR).append(scenario.cvS).append(SEPARATOR).append(scenario.c).append(SEPARATOR).append(scenario.getRho());
+    line.append(SEPARATOR).append(set.getCount());
+    for (ReplicationRunner.Metric metric: ReplicationRunner.Metric.values()) {
+      final StatisticsData data=set.getMeans(metric);
+      line.append(SEPARATOR).append(data.getMean()).append(SEPARATOR).append(getHalfWidth(metric,data,model));
+    }
+    if (recordQuantiles) for (double p: Main.QUANTILES) line.append(SEPARATOR).append((model==null)?0:model.waitingTimeStat.getQuantile(p));
+    line.append(SEPARATOR).append((model==null)?0:model.operatorsUsage.getMean()/scenario.c);
+    line.append(SEPARATOR).append((model==null)?0:model.eventCount);
+    out.println(line);
+
+    if (output!=null) output.addScenario(getScenarioRecord(index));
+  }
+
+  /**
+   * Returns the results of a scenario for the machine-readable output.
+   * @param index Index of the scenario
+   * @return  Record containing the scenario parameters, the confidence intervals and the statistics of the joined replications
+   */
+  private ResultRecord getScenarioRecord(final int index) {
+    final Scenario scenario=scenarios.get(index);
+    final ReplicationSet set=results[index];
+    final QueueModel model=set.getJoinedModel();
+    final ResultRecord record=new ResultRecord();
+    record.put("scenario",index+1);
+    record.put("EI",scenario.EI);
+    record.put("cvI",scenario.cvI);
+    record.put("ES",scenario.ES);
+    record.put("cvS",scenario.cvS);
+    record.put("c",scenario.c);
+    record.put("rho",scenario.getRho());
+    record.put("replications",set.getCount());
+    for (ReplicationRunner.Metric metric: ReplicationRunner.Metric.values()) {
+      final StatisticsData data=set.getMeans(metric);
+      record.put(metric.label,new ResultRecord().put("mean",data.getMean()).put("halfWidth",getHalfWidth(metric,data,model)));
+    }
+    if (model!=null) record.put("results",ResultOutput.getModelRecord(model,scenario.c,confidenceLevel));
+    return record;
+  }
+
+  /**
+   * Sets the machine-readable result output (has to be called before {@link #run()}).
+   * @param output  Result output to which one record per scenario is added (can be null)
+   */
+  public void setResultOutput(final ResultOutput output) {
+    this.output=output;
+  }
+
+  /**
+   * Sets the live progress monitor (has to be called before {@link #run()}).
+   * @param monitor Progress monitor with at least {@link ModelExecutor#parallelism} workers (can be null)
+   */
+  public void setProgressMonitor(final ProgressMonitor monitor) {
+    this.monitor=monitor;
+  }
+
+  /**
+   * Simulates one replication of a scenario (called on a worker thread).
+   * @param task  Index of the task (scenario x replication)
+   * @param progress  Live progress counters (can be null)
+   * @return  Simulated model
+   */
+  private QueueModel runReplication(final int task, final SimulationProgress progress) {
+    final int scenario=task/replications;
+    final int replication=task%replications;
+    final RandomGenerator random=(streams==null)?null:streams.getStream((((long)scenario)<<32)+replication);
+    final QueueModel model=new QueueModel(interArrivalTimes[scenario],serviceTimes[scenario],scenarios.get(scenario).c,arrivalsPerReplication,false,null,eventListType,queueCapacityHints[scenario],warmup,random,recordQuantiles,engine,abandonment);
+    model.setProgress(progress);
+    model.run();
+    return model;
+  }
+
+  /**
+   * Simulates one lockstep batch of replications of a scenario (called on a worker thread).
+   * @param task  Index of the task (scenario x batch)
+   * @param progress  Live progress counters (can be null)
+   * @return  Simulated models of the replications in the batch
+   */
+  private QueueModel[] runBatch(final int task, final SimulationProgress progress) {
+    final int scenario=task/tasksPerScenario;
+    final int first=(task%tasksPerScenario)*LockstepBatch.LANES;
+    final RandomGenerator[] randoms=new RandomGenerator[Math.min(LockstepBatch.LANES,replications-first)];
+    if (streams!=null) for (int i=0;i<randoms.length;i++) randoms[i]=streams.getStream((((long)scenario)<<32)+first+i);
+    return lockstepBatches[scenario].run(randoms,progress);
+  }
+
+  /**
+   * Records the results of a completed lockstep batch.
+   * @param models  Simulation models of the replications in the batch
+   * @param task  Index of the task (scenario x batch)
+   */
+  private synchronized void recordBatch(final QueueModel[] models, final int task) {
+    final int scenario=task/tasksPerScenario;
+    final int first=(task%tasksPerScenario)*LockstepBatch.LANES;
+    for (int i=0;i<models.length;i++) recordReplication(scenario,first+i,models[i]);
+  }
+
+  /**
+   * Runs the parameter sweep.<br>
+   * If the time limit of the executor is exceeded, the rows of the unfinished scenarios are not written.
+   * @return  Wall clock time in ms
+   * @throws ExecutionException A replication has thrown an exception
+   */
+  public long run() throws ExecutionException {
+    final long start=System.currentTimeMillis();
+    writeHeading();
+    if (lockstepBatches!=null) {
+      executor.run(scenarios.size()*tasksPerScenario,task->startBatch(task/tasksPerScenario,task%tasksPerScenario),this::runBatch,this::recordBatch,monitor);
+    } else {
+      executor.run(scenarios.size()*replications,task->startReplication(task/replications,task%replications),this::runReplication,(model,task)->recordReplication(task/replications,task%replications,model),monitor);
+    }
+    return System.currentTimeMillis()-start;
+  }
+}
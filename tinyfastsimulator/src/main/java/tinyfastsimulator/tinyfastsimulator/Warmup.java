@@ -0,0 +1,84 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator;
+
+/**
+ * Settings for the warm-up period of a {@link QueueModel}.<br>
+ * At the end of the warm-up period all statistics are reset, so the
+ * results do not contain the bias caused by starting with an empty system.
+ */
+public class Warmup {
+  /**
+   * Warm-up modes
+   */
+  public static enum Mode {
+    /** No warm-up period */
+    NONE,
+    /** Warm-up period ends after a fixed number of arrivals */
+    ARRIVALS,
+    /** Warm-up period ends at a fixed simulation time */
+    TIME,
+    /** End of the warm-up period is detected by the MSER-5 rule applied to the waiting times (the statistics are reset when the detection happens, not at the earlier truncation point) */
+    MSER
+  }
+
+  /**
+   * No warm-up period
+   */
+  public static final Warmup NONE=new Warmup(Mode.NONE,0,0);
+
+  /**
+   * Warm-up mode
+   */
+  public final Mode mode;
+
+  /**
+   * Number of arrivals in the warm-up period (for {@link Mode#ARRIVALS})
+   */
+  public final long arrivals;
+
+  /**
+   * Length of the warm-up period in simulation time units (for {@link Mode#TIME})
+   */
+  public final double time;
+
+  /**
+   * Constructor
+   * @param mode  Warm-up mode
+   * @param arrivals  Number of arrivals in the warm-up period (for {@link Mode#ARRIVALS})
+   * @param time  Length of the warm-up period in simulation time units (for {@link Mode#TIME})
+   */
+  public Warmup(final Mode mode, final long arrivals, final double time) {
+    this.mode=mode;
+    this.arrivals=arrivals;
+    this.time=time;
+  }
+
+  /**
+   * Returns a description of the warm-up settings.
+   * @return  Description of the warm-up settings
+   */
+  @Override
+  public String toString() {
+    switch (mode) {
+      case NONE: return "none";
+      case ARRIVALS: return String.format("%d arrivals",arrivals);
+      case TIME: return String.format("t=%g",time);
+      case MSER: return "MSER-5";
+    }
+    return "";
+  }
+}
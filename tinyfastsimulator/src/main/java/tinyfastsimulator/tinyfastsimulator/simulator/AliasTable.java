@@ -0,0 +1,105 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Alias table (Walker, with the construction by Vose) for drawing an index
+ * from a discrete distribution with a finite number of outcomes in O(1)
+ * (one uniform random number, one comparison, at most two array lookups).
+ */
+public class AliasTable {
+  /**
+   * Number of outcomes
+   */
+  private final int size;
+
+  /**
+   * Probability of keeping the drawn column (instead of using its alias)
+   */
+  private final double[] probability;
+
+  /**
+   * Alternative outcome per column
+   */
+  private final int[] alias;
+
+  /**
+   * Constructor
+   * @param weights  Non-negative weights of the outcomes (do not need to be normalized; at least one weight has to be positive)
+   */
+  public AliasTable(final double[] weights) {
+    size=weights.length;
+    if (size==0) throw new IllegalArgumentException("At least one outcome is needed");
+    double sum=0;
+    for (double weight: weights) {
+      if (weight<0 || Double.isNaN(weight) || Double.isInfinite(weight)) throw new IllegalArgumentException("Weights have to be non-negative, finite numbers");
+      sum+=weight;
+    }
+    if (sum<=0) throw new IllegalArgumentException("At least one weight has to be positive");
+
+    probability=new double[size];
+    alias=new int[size];
+    final double[] scaled=new double[size];
+    final int[] small=new int[size];
+    final int[] large=new int[size];
+    int smallCount=0;
+    int largeCount=0;
+    for (int i=0;i<size;i++) {
+      scaled[i]=weights[i]*size/sum;
+      if (scaled[i]<1) small[smallCount++]=i; else large[largeCount++]=i;
+    }
+    while (smallCount>0 && largeCount>0) {
+      final int less=small[--smallCount];
+      final int more=large[--largeCount];
+      probability[less]=scaled[less];
+      alias[less]=more;
+      scaled[more]=(scaled[more]+scaled[less])-1;
+      if (scaled[more]<1) small[smallCount++]=more; else large[largeCount++]=more;
+    }
+    /* Remaining entries (only rounding differences from 1 left) */
+    while (largeCount>0) {
+      final int index=large[--largeCount];
+      probability[index]=1;
+      alias[index]=index;
+    }
+    while (smallCount>0) {
+      final int index=small[--smallCount];
+      probability[index]=1;
+      alias[index]=index;
+    }
+  }
+
+  /**
+   * Returns the number of outcomes.
+   * @return  Number of outcomes
+   */
+  public int size() {
+    return size;
+  }
+
+  /**
+   * Draws an outcome.
+   * @param random  Pseudo random numbers generator
+   * @return  Index of the outcome (0..size-1)
+   */
+  public int sample(final RandomGenerator random) {
+    final double x=random.nextDouble()*size;
+    final int column=(int)x;
+    return (x-column<probability[column])?column:alias[column];
+  }
+}
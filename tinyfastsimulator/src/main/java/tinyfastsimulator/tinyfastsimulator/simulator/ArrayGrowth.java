@@ -0,0 +1,58 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Growth policy for the primitive arrays used by the simulator and the models.<br>
+ * Arrays are doubled in size, so adding n entries causes only O(log n) copy
+ * operations (amortized O(1) per entry).
+ */
+public class ArrayGrowth {
+  /**
+   * Maximum array length supported by the JVM
+   */
+  private static final int MAX_LENGTH=Integer.MAX_VALUE-8;
+
+  /**
+   * Minimum array length
+   */
+  public static final int MIN_LENGTH=16;
+
+  /**
+   * Private constructor - This class cannot be instanced.
+   */
+  private ArrayGrowth() {
+  }
+
+  /**
+   * Calculates the new length for an array which is full.
+   * @param length  Current length of the array
+   * @return  New length of the array
+   */
+  public static int nextLength(final int length) {
+    if (length>=MAX_LENGTH) throw new OutOfMemoryError("Maximum array length reached");
+    return (int)Math.min(MAX_LENGTH,Math.max(MIN_LENGTH,2L*length));
+  }
+
+  /**
+   * Calculates the initial length for an array from a capacity hint.
+   * @param capacityHint  Expected maximum number of entries (values &le;0 mean "no hint")
+   * @return  Initial length of the array
+   */
+  public static int initialLength(final long capacityHint) {
+    return (int)Math.min(MAX_LENGTH,Math.max(MIN_LENGTH,capacityHint));
+  }
+}
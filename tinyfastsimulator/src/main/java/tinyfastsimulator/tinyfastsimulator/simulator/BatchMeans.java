@@ -0,0 +1,215 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Batch means recorder for calculating confidence intervals from a single
+ * (auto-correlated) sequence of values.<br>
+ * The number of stored batches is limited: whenever all slots are filled,
+ * adjacent batches are combined and the batch size is doubled. So memory
+ * usage is constant and recording a value never allocates objects.
+ */
+public class BatchMeans {
+  /**
+   * Default minimum number of complete batches
+   */
+  public static final int DEFAULT_BATCH_COUNT=32;
+
+  /**
+   * Sums of the values in the complete batches
+   */
+  private final double[] batchSum;
+
+  /**
+   * Number of complete batches
+   */
+  private int batchCount;
+
+  /**
+   * Number of values per batch
+   */
+  private long batchSize;
+
+  /**
+   * Sum of the values in the current (incomplete) batch
+   */
+  private double currentSum;
+
+  /**
+   * Number of values in the current (incomplete) batch
+   */
+  private long currentCount;
+
+  /**
+   * Constructor
+   */
+  public BatchMeans() {
+    this(DEFAULT_BATCH_COUNT);
+  }
+
+  /**
+   * Constructor
+   * @param minBatchCount Minimum number of complete batches (once enough values are recorded)
+   */
+  public BatchMeans(final int minBatchCount) {
+    batchSum=new double[2*Math.max(2,minBatchCount)];
+    batchSize=1;
+  }
+
+  /**
+   * Combines pairs of adjacent batches and doubles the batch size.
+   */
+  private void collapse() {
+    final int half=batchCount/2;
+    for (int i=0;i<half;i++) batchSum[i]=batchSum[2*i]+batchSum[2*i+1];
+    if (batchCount%2==1) {
+      /* Odd batch is moved back into the current batch */
+      currentSum+=batchSum[batchCount-1];
+      currentCount+=batchSize;
+    }
+    batchCount=half;
+    batchSize*=2;
+  }
+
+  /**
+   * Records a single value.
+   * @param value Value to be recorded
+   */
+  public void add(final double value) {
+    currentSum+=value;
+    currentCount++;
+    if (currentCount>=batchSize) {
+      batchSum[batchCount++]=currentSum;
+      currentSum=0;
+      currentCount=0;
+      if (batchCount==batchSum.length) collapse();
+    }
+  }
+
+  /**
+   * Creates a copy of this object.
+   * @return  Copy of this object (with its own batch array)
+   */
+  private BatchMeans copy() {
+    final BatchMeans copy=new BatchMeans(batchSum.length/2);
+    System.arraycopy(batchSum,0,copy.batchSum,0,batchCount);
+    copy.batchCount=batchCount;
+    copy.batchSize=batchSize;
+    copy.currentSum=currentSum;
+    copy.currentCount=currentCount;
+    return copy;
+  }
+
+  /**
+   * Joins the data from two batch means objects. The batches of both objects are
+   * treated as independent batches (the sequences of values have to be independent).<br>
+   * No values are discarded: the object with the smaller batch size is collapsed to the
+   * larger batch size (batches which cannot be paired are moved into the incomplete batch)
+   * and the incomplete batches of both objects are combined. If the combined incomplete
+   * batch reaches the batch size, a complete batch with the mean of the combined values
+   * is split off.
+   * @param batches1  Batch means object 1
+   * @param batches2  Batch means object 2
+   * @return  New batch means object containing the combined batches
+   */
+  public static BatchMeans join(final BatchMeans batches1, final BatchMeans batches2) {
+    final BatchMeans result=new BatchMeans(batches1.batchSum.length/2);
+
+    /* Bring both objects to the same batch size and make sure the batches fit into the result */
+    final BatchMeans part1=batches1.copy();
+    final BatchMeans part2=batches2.copy();
+    while (part1.batchSize<part2.batchSize) part1.collapse();
+    while (part2.batchSize<part1.batchSize) part2.collapse();
+    while (part1.batchCount+part2.batchCount>=result.batchSum.length) {
+      part1.collapse();
+      part2.collapse();
+    }
+
+    /* Complete batches */
+    result.batchSize=part1.batchSize;
+    System.arraycopy(part1.batchSum,0,result.batchSum,0,part1.batchCount);
+    System.arraycopy(part2.batchSum,0,result.batchSum,part1.batchCount,part2.batchCount);
+    result.batchCount=part1.batchCount+part2.batchCount;
+
+    /* Incomplete batches (each one is smaller than the batch size, so at most one complete batch can be split off) */
+    final double currentSum=part1.currentSum+part2.currentSum;
+    final long currentCount=part1.currentCount+part2.currentCount;
+    if (currentCount>=result.batchSize) {
+      final long batchSize=result.batchSize;
+      final double mean=currentSum/currentCount;
+      result.addBatch(mean*batchSize);
+      result.currentSum+=mean*(currentCount-batchSize);
+      result.currentCount+=currentCount-batchSize;
+    } else {
+      result.currentSum=currentSum;
+      result.currentCount=currentCount;
+    }
+    return result;
+  }
+
+  /**
+   * Adds a complete batch (of the current batch size).
+   * @param sum Sum of the values in the batch
+   */
+  private void addBatch(final double sum) {
+    batchSum[batchCount++]=sum;
+    if (batchCount==batchSum.length) collapse();
+  }
+
+  /**
+   * Returns the number of complete batches.
+   * @return  Number of complete batches
+   */
+  public int getBatchCount() {
+    return batchCount;
+  }
+
+  /**
+   * Returns the number of values per batch.
+   * @return  Number of values per batch
+   */
+  public long getBatchSize() {
+    return batchSize;
+  }
+
+  /**
+   * Returns the mean of the values in the complete batches.
+   * @return  Mean of the values in the complete batches
+   */
+  public double getMean() {
+    if (batchCount==0) return 0.0;
+    double sum=0;
+    for (int i=0;i<batchCount;i++) sum+=batchSum[i];
+    return sum/batchCount/batchSize;
+  }
+
+  /**
+   * Returns the half width of the confidence interval for the mean.
+   * @param confidenceLevel Confidence level (e.g. 0.95)
+   * @return  Half width of the confidence interval (infinite, if there are less than two batches)
+   */
+  public double getConfidenceHalfWidth(final double confidenceLevel) {
+    if (batchCount<2) return Double.POSITIVE_INFINITY;
+    final double mean=getMean();
+    double sum2=0;
+    for (int i=0;i<batchCount;i++) {
+      final double delta=batchSum[i]/batchSize-mean;
+      sum2+=delta*delta;
+    }
+    final double sd=Math.sqrt(sum2/(batchCount-1));
+    return StatisticTools.studentTQuantile(1-(1-confidenceLevel)/2,batchCount-1)*sd/Math.sqrt(batchCount);
+  }
+}
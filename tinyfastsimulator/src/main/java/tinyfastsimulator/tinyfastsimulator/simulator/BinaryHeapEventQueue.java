@@ -0,0 +1,168 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Event list based on a binary min heap stored in primitive arrays.<br>
+ * Events with equal execution times are ordered by a descending insertion
+ * sequence number.
+ */
+public class BinaryHeapEventQueue implements EventQueue {
+  /**
+   * Times of the events waiting to be executed
+   */
+  private long[] eventTime;
+
+  /**
+   * Insertion sequence numbers of the events waiting to be executed
+   */
+  private long[] eventSeq;
+
+  /**
+   * Codes of the events waiting to be executed
+   */
+  private int[] eventCode;
+
+  /**
+   * Number of used entries in the heap arrays
+   */
+  private int used;
+
+  /**
+   * Sequence number for the next added event
+   */
+  private long nextSeq;
+
+  /**
+   * Maximum number of events in the list at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Constructor
+   */
+  public BinaryHeapEventQueue() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param initialSize Initial capacity of the event list
+   */
+  public BinaryHeapEventQueue(final int initialSize) {
+    final int size=ArrayGrowth.initialLength(initialSize);
+    eventTime=new long[size];
+    eventSeq=new long[size];
+    eventCode=new int[size];
+  }
+
+  /**
+   * Checks if entry 1 has to be executed before entry 2.
+   * @param time1 Execution time of entry 1
+   * @param seq1  Sequence number of entry 1
+   * @param time2 Execution time of entry 2
+   * @param seq2  Sequence number of entry 2
+   * @return  Returns <code>true</code>, if entry 1 has to be executed before entry 2
+   */
+  private static boolean before(final long time1, final long seq1, final long time2, final long seq2) {
+    return time1<time2 || (time1==time2 && seq1>seq2);
+  }
+
+  /**
+   * Increases the size of the heap arrays.
+   */
+  private void grow() {
+    final int newSize=ArrayGrowth.nextLength(eventTime.length);
+    final long[] newEventTime=new long[newSize];
+    System.arraycopy(eventTime,0,newEventTime,0,used);
+    eventTime=newEventTime;
+    final long[] newEventSeq=new long[newSize];
+    System.arraycopy(eventSeq,0,newEventSeq,0,used);
+    eventSeq=newEventSeq;
+    final int[] newEventCode=new int[newSize];
+    System.arraycopy(eventCode,0,newEventCode,0,used);
+    eventCode=newEventCode;
+  }
+
+  @Override
+  public long add(final long time, final int code) {
+    if (used==eventTime.length) grow();
+
+    final long seq=nextSeq++;
+
+    /* Sift up */
+    int index=used;
+    while (index>0) {
+      final int parent=(index-1)>>>1;
+      if (!before(time,seq,eventTime[parent],eventSeq[parent])) break;
+      eventTime[index]=eventTime[parent];
+      eventSeq[index]=eventSeq[parent];
+      eventCode[index]=eventCode[parent];
+      index=parent;
+    }
+    eventTime[index]=time;
+    eventSeq[index]=seq;
+    eventCode[index]=code;
+    used++;
+    if (used>maxUsed) maxUsed=used;
+    return NO_HANDLE;
+  }
+
+  @Override
+  public int size() {
+    return used;
+  }
+
+  @Override
+  public int getMaxSize() {
+    return maxUsed;
+  }
+
+  @Override
+  public long nextTime() {
+    return eventTime[0];
+  }
+
+  @Override
+  public int poll() {
+    final int result=eventCode[0];
+    used--;
+
+    /* Move last entry to the top and sift down */
+    final long time=eventTime[used];
+    final long seq=eventSeq[used];
+    final int code=eventCode[used];
+    if (used>0) {
+      int index=0;
+      final int half=used>>>1;
+      while (index<half) {
+        int child=2*index+1;
+        final int right=child+1;
+        if (right<used && before(eventTime[right],eventSeq[right],eventTime[child],eventSeq[child])) child=right;
+        if (!before(eventTime[child],eventSeq[child],time,seq)) break;
+        eventTime[index]=eventTime[child];
+        eventSeq[index]=eventSeq[child];
+        eventCode[index]=eventCode[child];
+        index=child;
+      }
+      eventTime[index]=time;
+      eventSeq[index]=seq;
+      eventCode[index]=code;
+    }
+
+    return result;
+  }
+}
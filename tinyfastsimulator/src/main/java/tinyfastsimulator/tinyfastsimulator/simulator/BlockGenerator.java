@@ -0,0 +1,47 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.util.function.ToDoubleFunction;
+import java.util.random.RandomGenerator;
+
+/**
+ * Generator for pseudo random numbers which can fill whole blocks at once.<br>
+ * Filling a block in one tight loop avoids a virtual call per number and allows
+ * the JIT (or the Vector API, see {@link VectorMath}) to vectorize the transformations.
+ * The default implementation calls {@link #applyAsDouble(Object)} for each element.
+ */
+@FunctionalInterface
+public interface BlockGenerator extends ToDoubleFunction<RandomGenerator> {
+  /**
+   * Fills a block with pseudo random numbers.
+   * @param random  Pseudo random numbers generator
+   * @param block Block to be filled completely
+   */
+  default void fill(final RandomGenerator random, final double[] block) {
+    for (int i=0;i<block.length;i++) block[i]=applyAsDouble(random);
+  }
+
+  /**
+   * Returns a block generator for a generator lambda.
+   * @param generator Generator lambda
+   * @return  The generator itself if it already is a block generator, otherwise a wrapper using the default block implementation
+   */
+  static BlockGenerator of(final ToDoubleFunction<RandomGenerator> generator) {
+    if (generator instanceof BlockGenerator) return (BlockGenerator)generator;
+    return random->generator.applyAsDouble(random);
+  }
+}
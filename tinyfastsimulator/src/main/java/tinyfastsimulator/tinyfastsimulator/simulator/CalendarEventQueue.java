@@ -0,0 +1,343 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.util.Arrays;
+
+/**
+ * Event list based on a calendar queue (R. Brown, 1988).<br>
+ * The events are distributed over a number of buckets ("days") of a fixed
+ * width; each bucket is a sorted linked list. The bucket width is a power of
+ * two, so the bucket of an event is found by a shift instead of a division. The number of buckets and the
+ * bucket width are adapted whenever the number of events doubles or halves.
+ * The list nodes are stored in primitive arrays and are referenced by their
+ * indices, so no objects are allocated when adding events.
+ * Events with equal execution times are ordered by a descending insertion
+ * sequence number.
+ */
+public class CalendarEventQueue implements EventQueue {
+  /**
+   * Minimum number of buckets
+   */
+  private static final int MIN_BUCKETS=2;
+
+  /**
+   * Maximum number of events sampled to estimate the bucket width
+   */
+  private static final int WIDTH_SAMPLE_SIZE=25;
+
+  /**
+   * Marker for "no node"
+   */
+  private static final int NONE=-1;
+
+  /**
+   * Execution times of the nodes
+   */
+  private long[] eventTime;
+
+  /**
+   * Insertion sequence numbers of the nodes
+   */
+  private long[] eventSeq;
+
+  /**
+   * Event codes of the nodes
+   */
+  private int[] eventCode;
+
+  /**
+   * Next node in the same bucket (also used to chain the free nodes)
+   */
+  private int[] next;
+
+  /**
+   * First free node
+   */
+  private int free;
+
+  /**
+   * First node of each bucket (the number of buckets is always a power of two)
+   */
+  private int[] bucket;
+
+  /**
+   * Bit mask to map virtual bucket numbers to bucket indices
+   */
+  private int bucketMask;
+
+  /**
+   * Width of a bucket as power of two (width=2^widthShift)
+   */
+  private int widthShift;
+
+  /**
+   * Virtual bucket number (execution time divided by the bucket width) of the current bucket
+   */
+  private long currentVirtualBucket;
+
+  /**
+   * Number of events in the list
+   */
+  private int used;
+
+  /**
+   * Sequence number for the next added event
+   */
+  private long nextSeq;
+
+  /**
+   * Maximum number of events in the list at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Is resizing enabled (will be disabled while resizing)?
+   */
+  private boolean resizeEnabled;
+
+  /**
+   * Temporary list of nodes used while resizing
+   */
+  private int[] resizeNodes;
+
+  /**
+   * Constructor
+   */
+  public CalendarEventQueue() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param initialSize Initial capacity of the event list
+   */
+  public CalendarEventQueue(final int initialSize) {
+    final int size=ArrayGrowth.initialLength(initialSize);
+    eventTime=new long[size];
+    eventSeq=new long[size];
+    eventCode=new int[size];
+    next=new int[size];
+    resizeNodes=new int[size];
+    initFreeList(0);
+    bucket=new int[MIN_BUCKETS];
+    Arrays.fill(bucket,NONE);
+    bucketMask=MIN_BUCKETS-1;
+    widthShift=0;
+    resizeEnabled=true;
+  }
+
+  /**
+   * Chains all nodes starting at the given index into the free list.
+   * @param start First node to be added to the free list
+   */
+  private void initFreeList(final int start) {
+    for (int i=start;i<next.length-1;i++) next[i]=i+1;
+    next[next.length-1]=NONE;
+    free=start;
+  }
+
+  /**
+   * Increases the number of available nodes.
+   */
+  private void grow() {
+    final int oldSize=eventTime.length;
+    final int newSize=ArrayGrowth.nextLength(oldSize);
+    final long[] newEventTime=new long[newSize];
+    System.arraycopy(eventTime,0,newEventTime,0,oldSize);
+    eventTime=newEventTime;
+    final long[] newEventSeq=new long[newSize];
+    System.arraycopy(eventSeq,0,newEventSeq,0,oldSize);
+    eventSeq=newEventSeq;
+    final int[] newEventCode=new int[newSize];
+    System.arraycopy(eventCode,0,newEventCode,0,oldSize);
+    eventCode=newEventCode;
+    final int[] newNext=new int[newSize];
+    System.arraycopy(next,0,newNext,0,oldSize);
+    next=newNext;
+    resizeNodes=new int[newSize];
+    initFreeList(oldSize);
+  }
+
+  /**
+   * Inserts a node into its bucket.
+   * @param node  Node to be inserted
+   */
+  private void insertNode(final int node) {
+    final long time=eventTime[node];
+    final long seq=eventSeq[node];
+    final long virtualBucket=time>>widthShift;
+    final int index=(int)(virtualBucket&bucketMask);
+
+    /* Find position in the sorted bucket list */
+    int previous=NONE;
+    int current=bucket[index];
+    while (current!=NONE) {
+      final long currentTime=eventTime[current];
+      if (time<currentTime || (time==currentTime && seq>eventSeq[current])) break;
+      previous=current;
+      current=next[current];
+    }
+    next[node]=current;
+    if (previous==NONE) bucket[index]=node; else next[previous]=node;
+
+    /* Event before the current position of the calendar? */
+    if (virtualBucket<currentVirtualBucket || used==0) currentVirtualBucket=virtualBucket;
+    used++;
+  }
+
+  /**
+   * Unlinks the next node from the calendar (without releasing it).
+   * @return  Next node
+   */
+  private int removeFirstNode() {
+    /* Search the buckets of the current "year" */
+    long virtualBucket=currentVirtualBucket;
+    for (int i=0;i<=bucketMask;i++) {
+      final int index=(int)(virtualBucket&bucketMask);
+      final int node=bucket[index];
+      if (node!=NONE && (eventTime[node]>>widthShift)<=virtualBucket) {
+        bucket[index]=next[node];
+        currentVirtualBucket=virtualBucket;
+        used--;
+        return node;
+      }
+      virtualBucket++;
+    }
+
+    /* No event in the current "year": direct search for the minimum */
+    int best=NONE;
+    int bestIndex=0;
+    for (int i=0;i<=bucketMask;i++) {
+      final int node=bucket[i];
+      if (node==NONE) continue;
+      if (best==NONE || eventTime[node]<eventTime[best] || (eventTime[node]==eventTime[best] && eventSeq[node]>eventSeq[best])) {
+        best=node;
+        bestIndex=i;
+      }
+    }
+    bucket[bestIndex]=next[best];
+    currentVirtualBucket=eventTime[best]>>widthShift;
+    used--;
+    return best;
+  }
+
+  /**
+   * Changes the number of buckets and recalculates the bucket width.
+   * @param newBucketCount  New number of buckets (power of two)
+   */
+  private void resize(final int newBucketCount) {
+    resizeEnabled=false;
+    final int count=used;
+
+    /* Sample the first events to estimate the bucket width */
+    final int sampleSize=Math.min(count,WIDTH_SAMPLE_SIZE);
+    for (int i=0;i<sampleSize;i++) resizeNodes[i]=removeFirstNode();
+    int newWidthShift=widthShift;
+    if (sampleSize>1) {
+      final double average=(double)(eventTime[resizeNodes[sampleSize-1]]-eventTime[resizeNodes[0]])/(sampleSize-1);
+      double sum=0;
+      int sumCount=0;
+      for (int i=1;i<sampleSize;i++) {
+        final long delta=eventTime[resizeNodes[i]]-eventTime[resizeNodes[i-1]];
+        if (delta<=2*average) {
+          sum+=delta;
+          sumCount++;
+        }
+      }
+      if (sumCount>0) newWidthShift=63-Long.numberOfLeadingZeros(Math.max(1,Math.round(3*sum/sumCount))); /* Rounded down to a power of two */
+    }
+
+    /* Collect remaining nodes */
+    int collected=sampleSize;
+    for (int i=0;i<=bucketMask;i++) {
+      int node=bucket[i];
+      while (node!=NONE) {
+        resizeNodes[collected++]=node;
+        node=next[node];
+      }
+    }
+
+    /* Rebuild calendar */
+    bucket=new int[newBucketCount];
+    Arrays.fill(bucket,NONE);
+    bucketMask=newBucketCount-1;
+    widthShift=newWidthShift;
+    used=0;
+    for (int i=0;i<collected;i++) insertNode(resizeNodes[i]);
+
+    resizeEnabled=true;
+  }
+
+  @Override
+  public long add(final long time, final int code) {
+    if (free==NONE) grow();
+
+    final int node=free;
+    free=next[node];
+    eventTime[node]=time;
+    eventSeq[node]=nextSeq++;
+    eventCode[node]=code;
+    insertNode(node);
+    if (used>maxUsed) maxUsed=used;
+
+    if (resizeEnabled && used>2*bucket.length) resize(bucket.length*2);
+    return NO_HANDLE;
+  }
+
+  @Override
+  public int size() {
+    return used;
+  }
+
+  @Override
+  public int getMaxSize() {
+    return maxUsed;
+  }
+
+  @Override
+  public long nextTime() {
+    /* Locate next event without removing it */
+    long virtualBucket=currentVirtualBucket;
+    for (int i=0;i<=bucketMask;i++) {
+      final int node=bucket[(int)(virtualBucket&bucketMask)];
+      if (node!=NONE && (eventTime[node]>>widthShift)<=virtualBucket) {
+        currentVirtualBucket=virtualBucket;
+        return eventTime[node];
+      }
+      virtualBucket++;
+    }
+    long best=Long.MAX_VALUE;
+    for (int i=0;i<=bucketMask;i++) {
+      final int node=bucket[i];
+      if (node!=NONE && eventTime[node]<best) best=eventTime[node];
+    }
+    currentVirtualBucket=best>>widthShift;
+    return best;
+  }
+
+  @Override
+  public int poll() {
+    final int node=removeFirstNode();
+    final int result=eventCode[node];
+    next[node]=free;
+    free=node;
+
+    if (resizeEnabled && used<bucket.length/2 && bucket.length>MIN_BUCKETS) resize(bucket.length/2);
+
+    return result;
+  }
+}
@@ -0,0 +1,169 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.io.BufferedReader;
+import java.io.IOException;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.util.ArrayList;
+import java.util.List;
+import java.util.random.RandomGenerator;
+
+/**
+ * Empirical distribution loaded from a histogram file.<br>
+ * Each line of the file contains either two numbers "value;weight" (the value is
+ * drawn exactly) or three numbers "from;to;weight" (the value is drawn uniformly from
+ * the interval [from;to)). Columns can be separated by ",", ";", tabs or spaces.
+ * The values are used as times, so they must not be negative.
+ * Empty lines, lines starting with "#" and a non-numeric header line are ignored.
+ * The bins are drawn by an {@link AliasTable} in O(1).
+ */
+public class EmpiricalDistribution {
+  /**
+   * Lower bounds of the bins
+   */
+  private final double[] from;
+
+  /**
+   * Widths of the bins (0 for exact values)
+   */
+  private final double[] width;
+
+  /**
+   * Alias table for drawing the bins
+   */
+  private final AliasTable table;
+
+  /**
+   * Mean of the distribution
+   */
+  private final double mean;
+
+  /**
+   * Standard deviation of the distribution
+   */
+  private final double sd;
+
+  /**
+   * Constructor
+   * @param from  Lower bounds of the bins
+   * @param to  Upper bounds of the bins (equal to the lower bounds for exact values)
+   * @param weights Weights of the bins
+   */
+  public EmpiricalDistribution(final double[] from, final double[] to, final double[] weights) {
+    if (from.length!=to.length || from.length!=weights.length) throw new IllegalArgumentException("Arrays have to have the same length");
+    this.from=from.clone();
+    width=new double[from.length];
+    double sumWeights=0;
+    double sum1=0;
+    double sum2=0;
+    for (int i=0;i<from.length;i++) {
+      if (to[i]<from[i]) throw new IllegalArgumentException("Upper bound of a bin is less than its lower bound");
+      width[i]=to[i]-from[i];
+      /* Moments of a uniform distribution on [from;to) */
+      final double binMean=from[i]+width[i]/2;
+      sumWeights+=weights[i];
+      sum1+=weights[i]*binMean;
+      sum2+=weights[i]*(binMean*binMean+width[i]*width[i]/12);
+    }
+    table=new AliasTable(weights);
+    mean=sum1/sumWeights;
+    sd=Math.sqrt(Math.max(0,sum2/sumWeights-mean*mean));
+  }
+
+  /**
+   * Loads an empirical distribution from a histogram file.
+   * @param file  Histogram file
+   * @return  Empirical distribution
+   * @throws IOException  Thrown if the file cannot be read or contains invalid data
+   */
+  public static EmpiricalDistribution load(final Path file) throws IOException {
+    final List<double[]> bins=new ArrayList<>();
+    try (BufferedReader reader=Files.newBufferedReader(file)) {
+      String line;
+      int lineNumber=0;
+      while ((line=reader.readLine())!=null) {
+        lineNumber++;
+        line=line.trim();
+        if (line.isEmpty() || line.startsWith("#")) continue;
+        final String[] cells=line.split("[,;\\t ]+");
+        final double[] values=new double[cells.length];
+        try {
+          for (int i=0;i<cells.length;i++) values[i]=Double.parseDouble(cells[i].trim());
+        } catch (NumberFormatException e) {
+          if (bins.isEmpty()) continue; /* Header line */
+          throw new IOException(String.format("Invalid number in line %d",lineNumber));
+        }
+        if (values.length!=2 && values.length!=3) throw new IOException(String.format("Line %d has to contain 2 or 3 numbers",lineNumber));
+        if (values[0]<0 || (values.length==3 && values[1]<0)) throw new IOException(String.format("Negative value in line %d (times must not be negative)",lineNumber));
+        if (values.length==2) bins.add(new double[]{values[0],values[0],values[1]}); else bins.add(values);
+      }
+    }
+    if (bins.isEmpty()) throw new IOException("No data found");
+    final int count=bins.size();
+    final double[] from=new double[count];
+    final double[] to=new double[count];
+    final double[] weights=new double[count];
+    for (int i=0;i<count;i++) {
+      final double[] bin=bins.get(i);
+      from[i]=bin[0];
+      to[i]=bin[1];
+      weights[i]=bin[2];
+    }
+    try {
+      return new EmpiricalDistribution(from,to,weights);
+    } catch (IllegalArgumentException e) {
+      throw new IOException(e.getMessage());
+    }
+  }
+
+  /**
+   * Draws a pseudo random number.
+   * @param random  Pseudo random numbers generator
+   * @return  Pseudo random number
+   */
+  public double sample(final RandomGenerator random) {
+    final int bin=table.sample(random);
+    final double binWidth=width[bin];
+    if (binWidth==0.0) return from[bin];
+    return from[bin]+binWidth*random.nextDouble();
+  }
+
+  /**
+   * Returns the number of bins.
+   * @return  Number of bins
+   */
+  public int getBinCount() {
+    return from.length;
+  }
+
+  /**
+   * Returns the mean of the distribution.
+   * @return  Mean
+   */
+  public double getMean() {
+    return mean;
+  }
+
+  /**
+   * Returns the standard deviation of the distribution.
+   * @return  Standard deviation
+   */
+  public double getSD() {
+    return sd;
+  }
+}
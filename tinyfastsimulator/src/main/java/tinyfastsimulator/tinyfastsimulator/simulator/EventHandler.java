@@ -0,0 +1,30 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Handler for the events of a {@link TypedSimulator}.<br>
+ * Models implement this interface and dispatch the event types by a switch statement.
+ */
+@FunctionalInterface
+public interface EventHandler {
+  /**
+   * Executes an event.
+   * @param type  Event type (as given when adding the event)
+   * @param time  Execution time
+   */
+  void handleEvent(final int type, final long time);
+}
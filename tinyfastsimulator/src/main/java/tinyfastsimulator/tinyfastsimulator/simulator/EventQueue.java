@@ -0,0 +1,146 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Event list used by the {@link Simulator} and the {@link TypedSimulator}.<br>
+ * The events are stored as pairs of execution time and integer event code in primitive
+ * arrays, so the event list does not contain any object references.
+ * Events with equal execution times are returned in reverse order of insertion
+ * (the event added last is executed first). All implementations have to keep
+ * this order, so the simulation results do not depend on the chosen event list.<br>
+ * Event lists of a type with {@link Type#hasHandles} return a handle for each added event,
+ * which can be used to cancel or reschedule the event before it is executed.
+ */
+public interface EventQueue {
+  /**
+   * Handle returned by event lists which do not support cancelling events
+   */
+  public static final long NO_HANDLE=-1;
+
+  /**
+   * Adds an event.
+   * @param time  Execution time
+   * @param code  Event code
+   * @return  Handle of the event (for {@link #cancel(long)} and {@link #reschedule(long, long)}) or {@link #NO_HANDLE}, if the event list does not support handles
+   */
+  long add(final long time, final int code);
+
+  /**
+   * Removes an event which has not been executed yet.
+   * @param handle  Handle of the event (as returned by {@link #add(long, int)})
+   * @return  Code of the removed event or -1, if the event has already been executed or cancelled
+   * @throws UnsupportedOperationException  The event list does not support handles
+   */
+  default int cancel(final long handle) {
+    throw new UnsupportedOperationException("Event list does not support cancelling events");
+  }
+
+  /**
+   * Changes the execution time of an event which has not been executed yet.<br>
+   * The event is ordered like an event which has been added just now (see the order of events with equal execution times).
+   * @param handle  Handle of the event (as returned by {@link #add(long, int)})
+   * @param time  New execution time
+   * @return  Returns <code>false</code>, if the event has already been executed or cancelled
+   * @throws UnsupportedOperationException  The event list does not support handles
+   */
+  default boolean reschedule(final long handle, final long time) {
+    throw new UnsupportedOperationException("Event list does not support rescheduling events");
+  }
+
+  /**
+   * Returns the number of events in the list.
+   * @return  Number of events in the list
+   */
+  int size();
+
+  /**
+   * Returns the maximum number of events which have been in the list at the same time.
+   * @return  High watermark of the event list size
+   */
+  int getMaxSize();
+
+  /**
+   * Returns the execution time of the next event.<br>
+   * May only be called if the list is not empty.
+   * @return  Execution time of the next event
+   */
+  long nextTime();
+
+  /**
+   * Removes the next event from the list.<br>
+   * May only be called if the list is not empty.
+   * @return  Code of the removed event
+   * @see #nextTime()
+   */
+  int poll();
+
+  /**
+   * Type of event list
+   * @see #getEventQueue(Type)
+   */
+  public static enum Type {
+    /** Sorted array (fast for very small event lists) */
+    SORTED(false),
+    /** Binary heap */
+    HEAP(false),
+    /** Pairing heap */
+    PAIRING(false),
+    /** Calendar queue */
+    CALENDAR(false),
+    /** Binary heap with an index from handles to heap positions (supports cancelling and rescheduling events) */
+    INDEXED(true);
+
+    /**
+     * Does the event list return handles for cancelling and rescheduling events?
+     */
+    public final boolean hasHandles;
+
+    /**
+     * Constructor
+     * @param hasHandles  Does the event list return handles for cancelling and rescheduling events?
+     */
+    Type(final boolean hasHandles) {
+      this.hasHandles=hasHandles;
+    }
+  }
+
+  /**
+   * Creates a new event list.
+   * @param type  Type of event list
+   * @return  New event list
+   */
+  public static EventQueue getEventQueue(final Type type) {
+    return getEventQueue(type,ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Creates a new event list.
+   * @param type  Type of event list
+   * @param initialSize Initial capacity of the event list
+   * @return  New event list
+   */
+  public static EventQueue getEventQueue(final Type type, final int initialSize) {
+    switch (type) {
+      case SORTED: return new SortedArrayEventQueue(initialSize);
+      case HEAP: return new BinaryHeapEventQueue(initialSize);
+      case PAIRING: return new PairingHeapEventQueue(initialSize);
+      case CALENDAR: return new CalendarEventQueue(initialSize);
+      case INDEXED: return new IndexedHeapEventQueue(initialSize);
+    }
+    return null;
+  }
+}
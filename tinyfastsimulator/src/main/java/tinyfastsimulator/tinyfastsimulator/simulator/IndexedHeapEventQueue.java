@@ -0,0 +1,311 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Event list based on a binary min heap stored in primitive arrays, which additionally
+ * keeps the heap position of each event, so events can be cancelled or rescheduled in O(log n).<br>
+ * Each event occupies a slot; the handle of an event consists of the slot index (lower 32 bits)
+ * and the generation of the slot (upper 32 bits), which is increased each time the slot is freed.
+ * So slots are reused without any allocations, and handles of events which have already been
+ * executed or cancelled are detected as stale. Events with equal execution times are ordered
+ * by a descending insertion sequence number (like in {@link BinaryHeapEventQueue}).
+ */
+public class IndexedHeapEventQueue implements EventQueue {
+  /**
+   * Times of the events waiting to be executed (indexed by heap position)
+   */
+  private long[] eventTime;
+
+  /**
+   * Insertion sequence numbers of the events waiting to be executed (indexed by heap position)
+   */
+  private long[] eventSeq;
+
+  /**
+   * Slots of the events waiting to be executed (indexed by heap position)
+   */
+  private int[] eventSlot;
+
+  /**
+   * Codes of the events (indexed by slot)
+   */
+  private int[] slotCode;
+
+  /**
+   * Heap positions of the events (indexed by slot; -1 for free slots)
+   */
+  private int[] slotPosition;
+
+  /**
+   * Generations of the slots (indexed by slot; increased each time a slot is freed)
+   */
+  private int[] slotGeneration;
+
+  /**
+   * Stack of free slots
+   */
+  private int[] freeSlots;
+
+  /**
+   * Number of entries on the free slots stack
+   */
+  private int freeSlotsCount;
+
+  /**
+   * Number of used entries in the heap arrays
+   */
+  private int used;
+
+  /**
+   * Sequence number for the next added or rescheduled event
+   */
+  private long nextSeq;
+
+  /**
+   * Maximum number of events in the list at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Constructor
+   */
+  public IndexedHeapEventQueue() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param initialSize Initial capacity of the event list
+   */
+  public IndexedHeapEventQueue(final int initialSize) {
+    final int size=ArrayGrowth.initialLength(initialSize);
+    eventTime=new long[size];
+    eventSeq=new long[size];
+    eventSlot=new int[size];
+    slotCode=new int[size];
+    slotPosition=new int[size];
+    slotGeneration=new int[size];
+    freeSlots=new int[size];
+    initFreeSlots(0);
+  }
+
+  /**
+   * Puts the slots starting at a given index onto the free slots stack
+   * (in descending order, so the lowest slot is used first).
+   * @param from  First slot to be added
+   */
+  private void initFreeSlots(final int from) {
+    for (int i=slotPosition.length-1;i>=from;i--) {
+      slotPosition[i]=-1;
+      freeSlots[freeSlotsCount++]=i;
+    }
+  }
+
+  /**
+   * Checks if entry 1 has to be executed before entry 2.
+   * @param time1 Execution time of entry 1
+   * @param seq1  Sequence number of entry 1
+   * @param time2 Execution time of entry 2
+   * @param seq2  Sequence number of entry 2
+   * @return  Returns <code>true</code>, if entry 1 has to be executed before entry 2
+   */
+  private static boolean before(final long time1, final long seq1, final long time2, final long seq2) {
+    return time1<time2 || (time1==time2 && seq1>seq2);
+  }
+
+  /**
+   * Increases the size of the heap and slot arrays.<br>
+   * Is only called if all slots are in use (so the heap is full, too).
+   */
+  private void grow() {
+    final int oldSize=eventTime.length;
+    final int newSize=ArrayGrowth.nextLength(oldSize);
+    final long[] newEventTime=new long[newSize];
+    System.arraycopy(eventTime,0,newEventTime,0,used);
+    eventTime=newEventTime;
+    final long[] newEventSeq=new long[newSize];
+    System.arraycopy(eventSeq,0,newEventSeq,0,used);
+    eventSeq=newEventSeq;
+    final int[] newEventSlot=new int[newSize];
+    System.arraycopy(eventSlot,0,newEventSlot,0,used);
+    eventSlot=newEventSlot;
+    final int[] newSlotCode=new int[newSize];
+    System.arraycopy(slotCode,0,newSlotCode,0,oldSize);
+    slotCode=newSlotCode;
+    final int[] newSlotPosition=new int[newSize];
+    System.arraycopy(slotPosition,0,newSlotPosition,0,oldSize);
+    slotPosition=newSlotPosition;
+    final int[] newSlotGeneration=new int[newSize];
+    System.arraycopy(slotGeneration,0,newSlotGeneration,0,oldSize);
+    slotGeneration=newSlotGeneration;
+    freeSlots=new int[newSize];
+    initFreeSlots(oldSize);
+  }
+
+  /**
+   * Moves an entry up from a heap position until the heap order is restored.
+   * @param index Start position (has to be free)
+   * @param time  Execution time of the entry
+   * @param seq Sequence number of the entry
+   * @param slot  Slot of the entry
+   */
+  private void siftUp(int index, final long time, final long seq, final int slot) {
+    while (index>0) {
+      final int parent=(index-1)>>>1;
+      if (!before(time,seq,eventTime[parent],eventSeq[parent])) break;
+      eventTime[index]=eventTime[parent];
+      eventSeq[index]=eventSeq[parent];
+      eventSlot[index]=eventSlot[parent];
+      slotPosition[eventSlot[index]]=index;
+      index=parent;
+    }
+    eventTime[index]=time;
+    eventSeq[index]=seq;
+    eventSlot[index]=slot;
+    slotPosition[slot]=index;
+  }
+
+  /**
+   * Moves an entry down from a heap position until the heap order is restored.
+   * @param index Start position (has to be free)
+   * @param time  Execution time of the entry
+   * @param seq Sequence number of the entry
+   * @param slot  Slot of the entry
+   */
+  private void siftDown(int index, final long time, final long seq, final int slot) {
+    final int half=used>>>1;
+    while (index<half) {
+      int child=2*index+1;
+      final int right=child+1;
+      if (right<used && before(eventTime[right],eventSeq[right],eventTime[child],eventSeq[child])) child=right;
+      if (!before(eventTime[child],eventSeq[child],time,seq)) break;
+      eventTime[index]=eventTime[child];
+      eventSeq[index]=eventSeq[child];
+      eventSlot[index]=eventSlot[child];
+      slotPosition[eventSlot[index]]=index;
+      index=child;
+    }
+    eventTime[index]=time;
+    eventSeq[index]=seq;
+    eventSlot[index]=slot;
+    slotPosition[slot]=index;
+  }
+
+  /**
+   * Places an entry at a free heap position (moving it up or down as needed).
+   * @param index Heap position (has to be free)
+   * @param time  Execution time of the entry
+   * @param seq Sequence number of the entry
+   * @param slot  Slot of the entry
+   */
+  private void place(final int index, final long time, final long seq, final int slot) {
+    if (index>0) {
+      final int parent=(index-1)>>>1;
+      if (before(time,seq,eventTime[parent],eventSeq[parent])) {
+        siftUp(index,time,seq,slot);
+        return;
+      }
+    }
+    siftDown(index,time,seq,slot);
+  }
+
+  /**
+   * Removes the entry at a heap position (the last entry is moved to the free position).
+   * @param index Heap position of the entry to be removed
+   */
+  private void removeAt(final int index) {
+    used--;
+    if (index==used) return;
+    place(index,eventTime[used],eventSeq[used],eventSlot[used]);
+  }
+
+  /**
+   * Frees a slot (invalidating all handles referring to it).
+   * @param slot  Slot to be freed
+   */
+  private void freeSlot(final int slot) {
+    slotPosition[slot]=-1;
+    slotGeneration[slot]=(slotGeneration[slot]+1)&Integer.MAX_VALUE;
+    freeSlots[freeSlotsCount++]=slot;
+  }
+
+  /**
+   * Returns the slot of an event which is still in the list.
+   * @param handle  Handle of the event
+   * @return  Slot of the event or -1, if the handle is stale or invalid
+   */
+  private int getSlot(final long handle) {
+    if (handle<0) return -1;
+    final int slot=(int)handle;
+    if (slot<0 || slot>=slotPosition.length || slotPosition[slot]<0 || slotGeneration[slot]!=(int)(handle>>>32)) return -1;
+    return slot;
+  }
+
+  @Override
+  public long add(final long time, final int code) {
+    if (freeSlotsCount==0) grow();
+
+    final int slot=freeSlots[--freeSlotsCount];
+    slotCode[slot]=code;
+    siftUp(used,time,nextSeq++,slot);
+    used++;
+    if (used>maxUsed) maxUsed=used;
+
+    return (((long)slotGeneration[slot])<<32)|slot;
+  }
+
+  @Override
+  public int cancel(final long handle) {
+    final int slot=getSlot(handle);
+    if (slot<0) return -1;
+    final int index=slotPosition[slot];
+    freeSlot(slot);
+    removeAt(index);
+    return slotCode[slot];
+  }
+
+  @Override
+  public boolean reschedule(final long handle, final long time) {
+    final int slot=getSlot(handle);
+    if (slot<0) return false;
+    place(slotPosition[slot],time,nextSeq++,slot);
+    return true;
+  }
+
+  @Override
+  public int size() {
+    return used;
+  }
+
+  @Override
+  public int getMaxSize() {
+    return maxUsed;
+  }
+
+  @Override
+  public long nextTime() {
+    return eventTime[0];
+  }
+
+  @Override
+  public int poll() {
+    final int slot=eventSlot[0];
+    freeSlot(slot);
+    removeAt(0);
+    return slotCode[slot];
+  }
+}
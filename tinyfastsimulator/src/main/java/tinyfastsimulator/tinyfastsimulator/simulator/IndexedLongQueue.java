@@ -0,0 +1,209 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * FIFO queue of primitive <code>long</code> values in which each value can also be
+ * removed directly by its slot index (e.g. a customer leaving the queue before reaching its head).<br>
+ * The entries form a doubly linked list stored in primitive arrays; slots of removed
+ * entries are reused, so adding and removing values are O(1) operations without allocations.
+ * @see LongRingBuffer
+ */
+public class IndexedLongQueue {
+  /**
+   * Marker for "no slot"
+   */
+  private static final int NONE=-1;
+
+  /**
+   * Values (indexed by slot)
+   */
+  private long[] value;
+
+  /**
+   * Next slot in FIFO order (indexed by slot; also used to chain the free slots)
+   */
+  private int[] next;
+
+  /**
+   * Previous slot in FIFO order (indexed by slot)
+   */
+  private int[] prev;
+
+  /**
+   * Slot of the first value in the queue
+   */
+  private int head=NONE;
+
+  /**
+   * Slot of the last value in the queue
+   */
+  private int tail=NONE;
+
+  /**
+   * First free slot
+   */
+  private int free;
+
+  /**
+   * Number of values in the queue
+   */
+  private int used;
+
+  /**
+   * Maximum number of values in the queue at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Number of times the arrays had to be enlarged
+   */
+  private int resizeCount;
+
+  /**
+   * Constructor
+   */
+  public IndexedLongQueue() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param capacityHint  Expected maximum number of values in the queue (values &le;0 mean "no hint")
+   */
+  public IndexedLongQueue(final int capacityHint) {
+    final int size=ArrayGrowth.initialLength(capacityHint);
+    value=new long[size];
+    next=new int[size];
+    prev=new int[size];
+    initFreeSlots(0);
+  }
+
+  /**
+   * Chains the slots starting at a given index to the free list.<br>
+   * Is only called if there are no other free slots.
+   * @param from  First slot to be added
+   */
+  private void initFreeSlots(final int from) {
+    for (int i=from;i<next.length-1;i++) next[i]=i+1;
+    next[next.length-1]=NONE;
+    free=from;
+  }
+
+  /**
+   * Increases the size of the arrays.
+   */
+  private void grow() {
+    final int oldSize=value.length;
+    final int newSize=ArrayGrowth.nextLength(oldSize);
+    final long[] newValue=new long[newSize];
+    System.arraycopy(value,0,newValue,0,oldSize);
+    value=newValue;
+    final int[] newNext=new int[newSize];
+    System.arraycopy(next,0,newNext,0,oldSize);
+    next=newNext;
+    final int[] newPrev=new int[newSize];
+    System.arraycopy(prev,0,newPrev,0,oldSize);
+    prev=newPrev;
+    initFreeSlots(oldSize);
+    resizeCount++;
+  }
+
+  /**
+   * Adds a value at the end of the queue.
+   * @param value Value to be added
+   * @return  Slot of the value (valid until the value is removed)
+   */
+  public int add(final long value) {
+    if (free==NONE) grow();
+    final int slot=free;
+    free=next[slot];
+    this.value[slot]=value;
+    next[slot]=NONE;
+    prev[slot]=tail;
+    if (tail==NONE) head=slot; else next[tail]=slot;
+    tail=slot;
+    used++;
+    if (used>maxUsed) maxUsed=used;
+    return slot;
+  }
+
+  /**
+   * Returns the slot of the first value in the queue.
+   * @return  Slot of the first value or -1, if the queue is empty
+   */
+  public int peekSlot() {
+    return head;
+  }
+
+  /**
+   * Returns the value stored in a slot.
+   * @param slot  Slot of a value in the queue
+   * @return  Value
+   */
+  public long get(final int slot) {
+    return value[slot];
+  }
+
+  /**
+   * Removes the first value from the queue.<br>
+   * May only be called if the queue is not empty.
+   * @return  Removed value
+   */
+  public long poll() {
+    final int slot=head;
+    remove(slot);
+    return value[slot];
+  }
+
+  /**
+   * Removes a value from any position in the queue.
+   * @param slot  Slot of a value in the queue
+   */
+  public void remove(final int slot) {
+    final int nextSlot=next[slot];
+    final int prevSlot=prev[slot];
+    if (prevSlot==NONE) head=nextSlot; else next[prevSlot]=nextSlot;
+    if (nextSlot==NONE) tail=prevSlot; else prev[nextSlot]=prevSlot;
+    next[slot]=free;
+    free=slot;
+    used--;
+  }
+
+  /**
+   * Returns the number of values in the queue.
+   * @return  Number of values in the queue
+   */
+  public int size() {
+    return used;
+  }
+
+  /**
+   * Returns the maximum number of values which have been in the queue at the same time.
+   * @return  High watermark of the queue size
+   */
+  public int getMaxSize() {
+    return maxUsed;
+  }
+
+  /**
+   * Returns the number of times the arrays had to be enlarged.
+   * @return  Number of enlargements
+   */
+  public int getResizeCount() {
+    return resizeCount;
+  }
+}
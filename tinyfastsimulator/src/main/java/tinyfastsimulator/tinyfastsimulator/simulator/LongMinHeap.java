@@ -0,0 +1,140 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Binary min-heap of primitive <code>long</code> values.<br>
+ * Adding a value and removing the smallest value are O(log n) operations;
+ * replacing the smallest value by a new value needs only one sift-down pass.
+ */
+public class LongMinHeap {
+  /**
+   * Values in the heap (heap ordered in the first {@link #used} entries)
+   */
+  private long[] data;
+
+  /**
+   * Number of values in the heap
+   */
+  private int used;
+
+  /**
+   * Maximum number of values in the heap at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Constructor
+   */
+  public LongMinHeap() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param capacityHint  Expected maximum number of values in the heap (values &le;0 mean "no hint")
+   */
+  public LongMinHeap(final int capacityHint) {
+    data=new long[ArrayGrowth.initialLength(capacityHint)];
+  }
+
+  /**
+   * Adds a value.
+   * @param value Value to be added
+   */
+  public void add(final long value) {
+    if (used==data.length) {
+      final long[] newData=new long[ArrayGrowth.nextLength(data.length)];
+      System.arraycopy(data,0,newData,0,used);
+      data=newData;
+    }
+
+    /* Sift up */
+    int index=used;
+    while (index>0) {
+      final int parent=(index-1)>>>1;
+      if (data[parent]<=value) break;
+      data[index]=data[parent];
+      index=parent;
+    }
+    data[index]=value;
+    used++;
+    if (used>maxUsed) maxUsed=used;
+  }
+
+  /**
+   * Returns the smallest value without removing it (the heap must not be empty).
+   * @return  Smallest value
+   */
+  public long peek() {
+    return data[0];
+  }
+
+  /**
+   * Removes and returns the smallest value (the heap must not be empty).
+   * @return  Smallest value
+   */
+  public long poll() {
+    final long result=data[0];
+    used--;
+    if (used>0) siftDown(data[used]);
+    return result;
+  }
+
+  /**
+   * Replaces the smallest value by a new value (the heap must not be empty).
+   * @param value New value
+   */
+  public void replaceTop(final long value) {
+    siftDown(value);
+  }
+
+  /**
+   * Stores a value at the top of the heap and moves it down to its position.
+   * @param value Value to be stored
+   */
+  private void siftDown(final long value) {
+    final long[] data=this.data;
+    final int used=this.used;
+    int index=0;
+    final int half=used>>>1;
+    while (index<half) {
+      int child=2*index+1;
+      final int right=child+1;
+      if (right<used && data[right]<data[child]) child=right;
+      if (data[child]>=value) break;
+      data[index]=data[child];
+      index=child;
+    }
+    data[index]=value;
+  }
+
+  /**
+   * Returns the number of values in the heap.
+   * @return  Number of values
+   */
+  public int size() {
+    return used;
+  }
+
+  /**
+   * Returns the maximum number of values which have been in the heap at the same time.
+   * @return  High watermark of the heap size
+   */
+  public int getMaxSize() {
+    return maxUsed;
+  }
+}
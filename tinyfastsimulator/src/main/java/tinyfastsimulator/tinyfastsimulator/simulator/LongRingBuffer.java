@@ -0,0 +1,154 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * FIFO queue of primitive <code>long</code> values based on a ring buffer.<br>
+ * Adding and removing values are O(1) operations; the buffer length is always
+ * a power of two, so the indices can be wrapped by a bit mask.
+ */
+public class LongRingBuffer {
+  /**
+   * Maximum buffer length (largest power of two which is a valid array length)
+   */
+  private static final int MAX_LENGTH=1<<30;
+
+  /**
+   * Values in the buffer
+   */
+  private long[] data;
+
+  /**
+   * Bit mask for wrapping the indices (buffer length minus 1)
+   */
+  private int mask;
+
+  /**
+   * Index of the first value in the buffer
+   */
+  private int head;
+
+  /**
+   * Index at which the next value will be stored
+   */
+  private int tail;
+
+  /**
+   * Number of values in the buffer
+   */
+  private int used;
+
+  /**
+   * Maximum number of values in the buffer at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Number of times the buffer had to be enlarged
+   */
+  private int resizeCount;
+
+  /**
+   * Constructor
+   */
+  public LongRingBuffer() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param capacityHint  Expected maximum number of values in the buffer (values &le;0 mean "no hint")
+   */
+  public LongRingBuffer(final int capacityHint) {
+    final int length=Math.min(MAX_LENGTH,Math.max(ArrayGrowth.MIN_LENGTH,capacityHint));
+    data=new long[Integer.bitCount(length)==1?length:Integer.highestOneBit(length)<<1];
+    mask=data.length-1;
+  }
+
+  /**
+   * Doubles the buffer length. The values are copied to the start of the new
+   * buffer in FIFO order.
+   */
+  private void grow() {
+    if (data.length>=MAX_LENGTH) throw new OutOfMemoryError("Maximum ring buffer length reached");
+    final long[] newData=new long[data.length*2];
+    final int firstPart=data.length-head;
+    System.arraycopy(data,head,newData,0,firstPart);
+    System.arraycopy(data,0,newData,firstPart,head);
+    head=0;
+    tail=data.length;
+    data=newData;
+    mask=data.length-1;
+    resizeCount++;
+  }
+
+  /**
+   * Adds a value at the end of the queue.
+   * @param value Value to be added
+   */
+  public void add(final long value) {
+    if (used==data.length) grow();
+    data[tail]=value;
+    tail=(tail+1)&mask;
+    used++;
+    if (used>maxUsed) maxUsed=used;
+  }
+
+  /**
+   * Returns the first value in the queue without removing it.<br>
+   * May only be called if the queue is not empty.
+   * @return  First value in the queue
+   */
+  public long peek() {
+    return data[head];
+  }
+
+  /**
+   * Removes the first value from the queue.<br>
+   * May only be called if the queue is not empty.
+   * @return  Removed value
+   */
+  public long poll() {
+    final long value=data[head];
+    head=(head+1)&mask;
+    used--;
+    return value;
+  }
+
+  /**
+   * Returns the number of values in the queue.
+   * @return  Number of values in the queue
+   */
+  public int size() {
+    return used;
+  }
+
+  /**
+   * Returns the maximum number of values which have been in the queue at the same time.
+   * @return  High watermark of the queue size
+   */
+  public int getMaxSize() {
+    return maxUsed;
+  }
+
+  /**
+   * Returns the number of times the buffer had to be enlarged.
+   * @return  Number of enlargements
+   */
+  public int getResizeCount() {
+    return resizeCount;
+  }
+}
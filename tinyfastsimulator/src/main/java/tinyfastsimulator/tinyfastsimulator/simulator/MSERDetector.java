@@ -0,0 +1,161 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Detection of the end of the warm-up period by the MSER-5 rule
+ * (marginal standard error rule applied to batch means of 5 values).<br>
+ * The batch means are stored in a fixed size array; if it is full, adjacent
+ * batches are combined (so the rule is continued as MSER-10, MSER-20, ...).
+ * The truncation point is recalculated each time the number of batches reaches
+ * a power of two; the warm-up is considered to be over if the truncation point
+ * lies in the first half of the recorded data.<br>
+ * The detector only reports <em>that</em> the warm-up period is over. The models reset
+ * their statistics at the moment of the detection, which lies at least twice as far into
+ * the run as the MSER truncation point; so the values between the truncation point and the
+ * detection are discarded, too. This loses some data, but does not bias the results, and
+ * no per-value history of all statistics has to be kept for going back to the truncation point.
+ */
+public class MSERDetector {
+  /**
+   * Initial number of values per batch
+   */
+  private static final int INITIAL_BATCH_SIZE=5;
+
+  /**
+   * Minimum number of batches before the truncation point is calculated
+   */
+  private static final int MIN_BATCHES=32;
+
+  /**
+   * Default maximum number of stored batches (power of two)
+   */
+  public static final int DEFAULT_MAX_BATCHES=1<<12;
+
+  /**
+   * Batch means
+   */
+  private final double[] batchMean;
+
+  /**
+   * Number of complete batches
+   */
+  private int batchCount;
+
+  /**
+   * Number of values per batch
+   */
+  private long batchSize;
+
+  /**
+   * Sum of the values in the current (incomplete) batch
+   */
+  private double currentSum;
+
+  /**
+   * Number of values in the current (incomplete) batch
+   */
+  private long currentCount;
+
+  /**
+   * Has the end of the warm-up period been detected?
+   */
+  private boolean detected;
+
+  /**
+   * Constructor
+   */
+  public MSERDetector() {
+    this(DEFAULT_MAX_BATCHES);
+  }
+
+  /**
+   * Constructor
+   * @param maxBatches  Maximum number of stored batches (will be rounded up to a power of two)
+   */
+  public MSERDetector(final int maxBatches) {
+    final int length=Math.max(2*MIN_BATCHES,maxBatches);
+    batchMean=new double[Integer.bitCount(length)==1?length:Integer.highestOneBit(length)<<1];
+    batchSize=INITIAL_BATCH_SIZE;
+  }
+
+  /**
+   * Records a single value.
+   * @param value Value to be recorded
+   * @return  Returns <code>true</code>, if the end of the warm-up period has been detected
+   */
+  public boolean add(final double value) {
+    if (detected) return true;
+    currentSum+=value;
+    currentCount++;
+    if (currentCount<batchSize) return false;
+
+    batchMean[batchCount++]=currentSum/batchSize;
+    currentSum=0;
+    currentCount=0;
+    if (batchCount>=MIN_BATCHES && Integer.bitCount(batchCount)==1) check();
+    if (!detected && batchCount==batchMean.length) collapse();
+    return detected;
+  }
+
+  /**
+   * Combines pairs of adjacent batches and doubles the batch size.
+   */
+  private void collapse() {
+    final int half=batchCount/2;
+    for (int i=0;i<half;i++) batchMean[i]=(batchMean[2*i]+batchMean[2*i+1])/2;
+    batchCount=half;
+    batchSize*=2;
+  }
+
+  /**
+   * Calculates the MSER statistic for all truncation points and checks
+   * if the minimum lies in the first half of the data.
+   */
+  private void check() {
+    final int n=batchCount;
+
+    /* Suffix sums allow calculating the statistic for all truncation points in O(n) */
+    double sum=0;
+    double sum2=0;
+    double bestValue=Double.POSITIVE_INFINITY;
+    int best=0;
+    for (int d=n-1;d>=0;d--) {
+      final double x=batchMean[d];
+      sum+=x;
+      sum2+=x*x;
+      final int remaining=n-d;
+      if (remaining<MIN_BATCHES/2) continue;
+      final double mean=sum/remaining;
+      final double squares=Math.max(0,sum2-remaining*mean*mean);
+      final double value=squares/((double)remaining*remaining);
+      if (value<=bestValue) {
+        bestValue=value;
+        best=d;
+      }
+    }
+
+    detected=(best<=n/2);
+  }
+
+  /**
+   * Has the end of the warm-up period been detected?
+   * @return  Returns <code>true</code>, if the end of the warm-up period has been detected
+   */
+  public boolean isDetected() {
+    return detected;
+  }
+}
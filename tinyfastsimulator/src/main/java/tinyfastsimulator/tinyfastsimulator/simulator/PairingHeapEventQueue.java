@@ -0,0 +1,233 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Event list based on a pairing heap.<br>
+ * The heap nodes are stored in primitive arrays and are referenced by
+ * their indices, so no objects are allocated when adding events.
+ * Events with equal execution times are ordered by a descending insertion
+ * sequence number.
+ */
+public class PairingHeapEventQueue implements EventQueue {
+  /**
+   * Marker for "no node"
+   */
+  private static final int NONE=-1;
+
+  /**
+   * Execution times of the nodes
+   */
+  private long[] eventTime;
+
+  /**
+   * Insertion sequence numbers of the nodes
+   */
+  private long[] eventSeq;
+
+  /**
+   * Event codes of the nodes
+   */
+  private int[] eventCode;
+
+  /**
+   * First child of each node
+   */
+  private int[] child;
+
+  /**
+   * Next sibling of each node (also used to chain the free nodes)
+   */
+  private int[] sibling;
+
+  /**
+   * Root node of the heap
+   */
+  private int root;
+
+  /**
+   * First node in the free list
+   */
+  private int free;
+
+  /**
+   * Number of events in the heap
+   */
+  private int used;
+
+  /**
+   * Sequence number for the next added event
+   */
+  private long nextSeq;
+
+  /**
+   * Maximum number of events in the list at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Temporary list of sub heaps used when removing the root node
+   */
+  private int[] pairs;
+
+  /**
+   * Constructor
+   */
+  public PairingHeapEventQueue() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param initialSize Initial capacity of the event list
+   */
+  public PairingHeapEventQueue(final int initialSize) {
+    final int size=ArrayGrowth.initialLength(initialSize);
+    eventTime=new long[size];
+    eventSeq=new long[size];
+    eventCode=new int[size];
+    child=new int[size];
+    sibling=new int[size];
+    pairs=new int[size];
+    root=NONE;
+    initFreeList(0);
+  }
+
+  /**
+   * Chains all nodes starting at the given index into the free list.
+   * @param start First node to be added to the free list
+   */
+  private void initFreeList(final int start) {
+    for (int i=start;i<sibling.length-1;i++) sibling[i]=i+1;
+    sibling[sibling.length-1]=NONE;
+    free=start;
+  }
+
+  /**
+   * Increases the number of available nodes.
+   */
+  private void grow() {
+    final int oldSize=eventTime.length;
+    final int newSize=ArrayGrowth.nextLength(oldSize);
+    final long[] newEventTime=new long[newSize];
+    System.arraycopy(eventTime,0,newEventTime,0,oldSize);
+    eventTime=newEventTime;
+    final long[] newEventSeq=new long[newSize];
+    System.arraycopy(eventSeq,0,newEventSeq,0,oldSize);
+    eventSeq=newEventSeq;
+    final int[] newEventCode=new int[newSize];
+    System.arraycopy(eventCode,0,newEventCode,0,oldSize);
+    eventCode=newEventCode;
+    final int[] newChild=new int[newSize];
+    System.arraycopy(child,0,newChild,0,oldSize);
+    child=newChild;
+    final int[] newSibling=new int[newSize];
+    System.arraycopy(sibling,0,newSibling,0,oldSize);
+    sibling=newSibling;
+    pairs=new int[newSize];
+    initFreeList(oldSize);
+  }
+
+  /**
+   * Melds two heaps.
+   * @param a Root node of heap 1 (must not be {@link #NONE})
+   * @param b Root node of heap 2 (must not be {@link #NONE})
+   * @return  Root node of the combined heap
+   */
+  private int meld(final int a, final int b) {
+    final long timeA=eventTime[a];
+    final long timeB=eventTime[b];
+    if (timeA<timeB || (timeA==timeB && eventSeq[a]>eventSeq[b])) {
+      sibling[b]=child[a];
+      child[a]=b;
+      return a;
+    } else {
+      sibling[a]=child[b];
+      child[b]=a;
+      return b;
+    }
+  }
+
+  @Override
+  public long add(final long time, final int code) {
+    if (free==NONE) grow();
+
+    final int node=free;
+    free=sibling[node];
+    eventTime[node]=time;
+    eventSeq[node]=nextSeq++;
+    eventCode[node]=code;
+    child[node]=NONE;
+    sibling[node]=NONE;
+
+    root=(root==NONE)?node:meld(root,node);
+    used++;
+    if (used>maxUsed) maxUsed=used;
+    return NO_HANDLE;
+  }
+
+  @Override
+  public int size() {
+    return used;
+  }
+
+  @Override
+  public int getMaxSize() {
+    return maxUsed;
+  }
+
+  @Override
+  public long nextTime() {
+    return eventTime[root];
+  }
+
+  @Override
+  public int poll() {
+    final int node=root;
+    final int result=eventCode[node];
+
+    /* First pass: meld the children pairwise from left to right */
+    int count=0;
+    int current=child[node];
+    while (current!=NONE) {
+      final int next=sibling[current];
+      sibling[current]=NONE;
+      if (next==NONE) {
+        pairs[count++]=current;
+        break;
+      }
+      final int afterNext=sibling[next];
+      sibling[next]=NONE;
+      pairs[count++]=meld(current,next);
+      current=afterNext;
+    }
+
+    /* Second pass: meld the pairs from right to left */
+    int newRoot=NONE;
+    if (count>0) {
+      newRoot=pairs[count-1];
+      for (int i=count-2;i>=0;i--) newRoot=meld(pairs[i],newRoot);
+    }
+    root=newRoot;
+
+    /* Release node */
+    sibling[node]=free;
+    free=node;
+    used--;
+
+    return result;
+  }
+}
@@ -0,0 +1,65 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Polar method (Marsaglia) for generating standard normal distributed pseudo random numbers.<br>
+ * Each accepted pair of uniform numbers yields two independent normal variates; the second
+ * one is cached and returned by the next call. Because of this state an object of this class
+ * must only be used by one thread (and with one pseudo random numbers generator).
+ * {@link Ziggurat#normal(RandomGenerator)} is the faster and stateless alternative.
+ */
+public class PolarNormal {
+  /**
+   * Cached second variate of the last pair
+   */
+  private double spare;
+
+  /**
+   * Is {@link #spare} valid?
+   */
+  private boolean hasSpare;
+
+  /**
+   * Constructor
+   */
+  public PolarNormal() {
+  }
+
+  /**
+   * Generates a standard normal distributed pseudo random number (mean 0, standard deviation 1).
+   * @param random  Pseudo random numbers generator
+   * @return  Pseudo random number
+   */
+  public double next(final RandomGenerator random) {
+    if (hasSpare) {
+      hasSpare=false;
+      return spare;
+    }
+    double u, v, q;
+    do {
+      u=2*random.nextDouble()-1;
+      v=2*random.nextDouble()-1;
+      q=u*u+v*v;
+    } while (q==0 || q>=1);
+    final double p=Math.sqrt(-2*Math.log(q)/q);
+    spare=v*p;
+    hasSpare=true;
+    return u*p;
+  }
+}
@@ -16,14 +16,19 @@
 package tinyfastsimulator.tinyfastsimulator.simulator;
 
 import java.lang.Math;
-import java.util.concurrent.ThreadLocalRandom;
-import java.util.function.ToDoubleFunction;
+import java.util.Arrays;
+import java.util.random.RandomGenerator;
 
 /**
  * Static functions for generating pseudo random numbers
  * for different distributions.
  */
 public class RandomNumbers {
+  /**
+   * Maximum number of phases for which Erlang distributed numbers are drawn as sums of exponentially distributed numbers
+   * (for more phases the gamma distribution generator is used)
+   */
+  private static final int MAX_ERLANG_SUM_PHASES=16;
 
   /**
    * Private constructor - This class cannot be instanced.
@@ -33,55 +38,112 @@ public class RandomNumbers {
 
   /**
    * Generate an exponentially distributed pseudo random number.
-   * @param random  Pseudo random numbers generator (for generating numbers on [0,1))
+   * @param random  Pseudo random numbers generator
    * @param mean  Mean
    * @return  Pseudo random number
    */
-  public static double exp(final ThreadLocalRandom random, final double mean) {
-    final double lambda=1/mean;
-    final double u=random.nextDouble();
-    /* u=F(x)=1-exp(-lambda*x) <=> x=-log(1-u)/lambda */
-    return -Math.log(1-u)/lambda;
+  public static double exp(final RandomGenerator random, final double mean) {
+    return mean*Ziggurat.exponential(random);
   }
 
   /**
    * Generate a normal distributed pseudo random number.
-   * @param random  Pseudo random numbers generator (for generating numbers on [0,1))
+   * @param random  Pseudo random numbers generator
    * @param mean  Mean
    * @param sd  Standard deviation
    * @return  Pseudo random number
    */
-  public static double normal(final ThreadLocalRandom random, final double mean, final double sd) {
-  double q=10, u=0, v=0;
-  while (q==0 || q>=1) {
-    u=2*random.nextDouble()-1;
-    v=2*random.nextDouble()-1;
-    q=Math.pow(u,2)+Math.pow(v,2);
-	}
-  final double p=Math.sqrt(-2*Math.log(q)/q);
-  return mean+sd*u*p;
-}
+  public static double normal(final RandomGenerator random, final double mean, final double sd) {
+    return mean+sd*Ziggurat.normal(random);
+  }
+
+  /**
+   * Calculates the parameter mu of the underlying normal distribution of a log-normal distribution.
+   * @param mean  Mean of the log-normal distribution
+   * @param sd  Standard deviation of the log-normal distribution
+   * @return  Mean of the underlying normal distribution
+   */
+  public static double logNormalMu(final double mean, final double sd) {
+    return Math.log(mean)-logNormalSigma2(mean,sd)/2;
+  }
+
+  /**
+   * Calculates the parameter sigma of the underlying normal distribution of a log-normal distribution.
+   * @param mean  Mean of the log-normal distribution
+   * @param sd  Standard deviation of the log-normal distribution
+   * @return  Standard deviation of the underlying normal distribution
+   */
+  public static double logNormalSigma(final double mean, final double sd) {
+    return Math.sqrt(logNormalSigma2(mean,sd));
+  }
+
+  /**
+   * Calculates the variance of the underlying normal distribution of a log-normal distribution.
+   * @param mean  Mean of the log-normal distribution
+   * @param sd  Standard deviation of the log-normal distribution
+   * @return  Variance of the underlying normal distribution
+   */
+  private static double logNormalSigma2(final double mean, final double sd) {
+    final double cv=sd/mean;
+    return Math.log(cv*cv+1);
+  }
 
   /**
-   * Generate a log-normal distributed pseudo random number.
-   * @param random  Pseudo random numbers generator (for generating numbers on [0,1))
+   * Generate a log-normal distributed pseudo random number.<br>
+   * The parameters of the underlying normal distribution are calculated on each call;
+   * {@link #getRandomNumbersLambda(RandomDistribution, double, double)} calculates them only once.
+   * @param random  Pseudo random numbers generator
    * @param mean  Mean
    * @param sd  Standard deviation
    * @return  Pseudo random number
    */
-public static double logNormal(final ThreadLocalRandom random, final double mean, final double sd) {
-  final double sigma2=Math.log(Math.pow(sd/mean,2)+1);
-	final double mu=Math.log(mean)-sigma2/2;
-  final double sigma=Math.sqrt(sigma2);
-
-  double q=10, u=0, v=0;
-  while (q==0 || q>=1) {
-    u=2*random.nextDouble()-1;
-    v=2*random.nextDouble()-1;
-    q=Math.pow(u,2)+Math.pow(v,2);
-	}
-	final double p=Math.sqrt(-2*Math.log(q)/q);
-	return Math.exp(mu+sigma*u*p);
+  public static double logNormal(final RandomGenerator random, final double mean, final double sd) {
+    return Math.exp(logNormalMu(mean,sd)+logNormalSigma(mean,sd)*Ziggurat.normal(random));
+  }
+
+  /**
+   * Generates a gamma distributed pseudo random number with scale 1 (Marsaglia and Tsang, 2000).
+   * @param random  Pseudo random numbers generator
+   * @param shape Shape parameter k (&gt;0)
+   * @return  Pseudo random number (mean k, variance k)
+   */
+  public static double gamma(final RandomGenerator random, final double shape) {
+    if (shape<1) {
+      /* Gamma(k)=Gamma(k+1)*U^(1/k) */
+      return gamma(random,shape+1)*Math.pow(1-random.nextDouble(),1/shape);
+    }
+    final double d=shape-1.0/3;
+    final double c=1/Math.sqrt(9*d);
+    while (true) {
+      double x, v;
+      do {
+        x=Ziggurat.normal(random);
+        v=1+c*x;
+      } while (v<=0);
+      v=v*v*v;
+      final double u=random.nextDouble();
+      final double x2=x*x;
+      if (u<1-0.0331*x2*x2) return d*v;
+      if (Math.log(u)<0.5*x2+d*(1-v+Math.log(v))) return d*v;
+    }
+  }
+
+  /**
+   * Calculates the shape parameter of a Weibull distribution with a given coefficient of variation.
+   * @param cv  Coefficient of variation (&gt;0)
+   * @return  Shape parameter k
+   */
+  public static double weibullShape(final double cv) {
+    /* CV^2=Gamma(1+2/k)/Gamma(1+1/k)^2-1 is decreasing in k; solve by bisection on log(k) */
+    final double target=cv*cv;
+    double low=Math.log(0.02);
+    double high=Math.log(500);
+    for (int i=0;i<100;i++) {
+      final double k=Math.exp((low+high)/2);
+      final double cv2=Math.exp(StatisticTools.logGamma(1+2/k)-2*StatisticTools.logGamma(1+1/k))-1;
+      if (cv2>target) low=(low+high)/2; else high=(low+high)/2;
+    }
+    return Math.exp((low+high)/2);
   }
 
   /**
@@ -94,22 +156,204 @@ public static double logNormal(final ThreadLocalRandom random, final double mean
     /** Normal distribution */
     NORMAL,
     /** Log-normal distribution */
-    LOG_NORMAL
+    LOG_NORMAL,
+    /** Gamma distribution (shape 1/CV^2) */
+    GAMMA,
+    /** Erlang distribution (number of phases k=round(1/CV^2), so the CV is approximated by 1/sqrt(k)) */
+    ERLANG,
+    /** Weibull distribution (shape calculated from the CV) */
+    WEIBULL,
+    /** Hyperexponential distribution with two phases and balanced means (CV&ge;1; smaller values are treated as 1) */
+    HYPER_EXP,
+    /** Deterministic values (the standard deviation is ignored) */
+    DETERMINISTIC,
+    /** Uniform distribution on [mean-sqrt(3)*sd;mean+sqrt(3)*sd] */
+    UNIFORM,
+    /** Symmetric triangular distribution on [mean-sqrt(6)*sd;mean+sqrt(6)*sd] */
+    TRIANGULAR,
+    /** Empirical distribution loaded from a histogram file (see {@link EmpiricalDistribution}) */
+    EMPIRICAL
+  }
+
+  /**
+   * Returns the distribution used if no distribution is specified explicitly:
+   * exponential distribution for CV=1, log-normal distribution otherwise.
+   * @param cv  Coefficient of variation
+   * @return  Distribution
+   */
+  public static RandomDistribution getDefaultDistribution(final double cv) {
+    return (cv==1.0)?RandomDistribution.EXP:RandomDistribution.LOG_NORMAL;
   }
 
   /**
-   * Generates a lambda expression for generating pseudo random numbers.
+   * Returns the lower bound of the values of a distribution.
    * @param distribution  Type of distribution
    * @param mean  Mean
    * @param sd  Standard deviation
+   * @return  Lower bound (negative infinity for the normal distribution with a positive standard deviation; 0 for the distributions on the positive numbers)
+   */
+  public static double getLowerBound(final RandomDistribution distribution, final double mean, final double sd) {
+    switch (distribution) {
+      case NORMAL: return (sd>0)?Double.NEGATIVE_INFINITY:mean;
+      case UNIFORM: return mean-Math.sqrt(3)*sd;
+      case TRIANGULAR: return mean-Math.sqrt(6)*sd;
+      case DETERMINISTIC: return mean;
+      default: return 0;
+    }
+  }
+
+  /**
+   * Is the Vector API module (<code>jdk.incubator.vector</code>) available at run time?
+   * If so, it is used for block transformations by default (see {@link VectorMath}).
+   * The vectorized functions may differ from {@link Math} in the last bit, so seeded runs
+   * are only reproducible with the same setting.
+   */
+  public static final boolean VECTOR_API=ModuleLayer.boot().findModule("jdk.incubator.vector").isPresent();
+
+  /**
+   * Generates a lambda expression for generating pseudo random numbers.<br>
+   * All distribution parameters are calculated once when creating the lambda expression.
+   * The returned lambda expressions are stateless and can be shared by multiple threads.
+   * For {@link RandomDistribution#EMPIRICAL} use {@link #getRandomNumbersLambda(EmpiricalDistribution)}.
+   * @param distribution  Type of distribution
+   * @param mean  Mean
+   * @param sd  Standard deviation
+   * @return  Lambda expression for generating pseudo random numbers
+   * @see #VECTOR_API
+   */
+  public static BlockGenerator getRandomNumbersLambda(final RandomDistribution distribution, final double mean, final double sd) {
+    return getRandomNumbersLambda(distribution,mean,sd,VECTOR_API);
+  }
+
+  /**
+   * Generates a lambda expression for generating pseudo random numbers.<br>
+   * All distribution parameters are calculated once when creating the lambda expression.
+   * The returned lambda expressions are stateless and can be shared by multiple threads.
+   * For the exponential, normal, log-normal, uniform and deterministic distributions the
+   * block generation is implemented by separate loops for drawing and transforming the numbers.
+   * For {@link RandomDistribution#EMPIRICAL} use {@link #getRandomNumbersLambda(EmpiricalDistribution)}.
+   * @param distribution  Type of distribution
+   * @param mean  Mean
+   * @param sd  Standard deviation
+   * @param useVectorAPI  Use the Vector API for transforming blocks (only allowed if {@link #VECTOR_API} is <code>true</code>)
    * @return  Lambda expression for generating pseudo random numbers
    */
-  public static ToDoubleFunction<ThreadLocalRandom> getRandomNumbersLambda(final RandomDistribution distribution, final double mean, final double sd) {
+  public static BlockGenerator getRandomNumbersLambda(final RandomDistribution distribution, final double mean, final double sd, final boolean useVectorAPI) {
     switch (distribution) {
-      case EXP: return random->exp(random,mean);
-      case NORMAL: return random->normal(random,mean,sd);
-      case LOG_NORMAL: return random->logNormal(random,mean,sd);
+      case EXP:
+        return new BlockGenerator() {
+          @Override
+          public double applyAsDouble(final RandomGenerator random) {
+            return mean*Ziggurat.exponential(random);
+          }
+
+          @Override
+          public void fill(final RandomGenerator random, final double[] block) {
+            /* Inversion with a vectorized logarithm is not faster than the ziggurat method */
+            for (int i=0;i<block.length;i++) block[i]=Ziggurat.exponential(random);
+            for (int i=0;i<block.length;i++) block[i]*=mean;
+          }
+        };
+      case NORMAL:
+        return new BlockGenerator() {
+          @Override
+          public double applyAsDouble(final RandomGenerator random) {
+            return mean+sd*Ziggurat.normal(random);
+          }
+
+          @Override
+          public void fill(final RandomGenerator random, final double[] block) {
+            for (int i=0;i<block.length;i++) block[i]=Ziggurat.normal(random);
+            for (int i=0;i<block.length;i++) block[i]=mean+sd*block[i];
+          }
+        };
+      case LOG_NORMAL:
+        final double mu=logNormalMu(mean,sd);
+        final double sigma=logNormalSigma(mean,sd);
+        return new BlockGenerator() {
+          @Override
+          public double applyAsDouble(final RandomGenerator random) {
+            return Math.exp(mu+sigma*Ziggurat.normal(random));
+          }
+
+          @Override
+          public void fill(final RandomGenerator random, final double[] block) {
+            for (int i=0;i<block.length;i++) block[i]=Ziggurat.normal(random);
+            if (useVectorAPI) {
+              VectorMath.expAffine(block,mu,sigma);
+            } else {
+              for (int i=0;i<block.length;i++) block[i]=Math.exp(mu+sigma*block[i]);
+            }
+          }
+        };
+      case GAMMA:
+        final double gammaShape=(mean*mean)/(sd*sd);
+        final double gammaScale=mean/gammaShape;
+        return random->gammaScale*gamma(random,gammaShape);
+      case ERLANG:
+        final int phases=(int)Math.min(Integer.MAX_VALUE,Math.max(1,Math.round((mean*mean)/(sd*sd))));
+        final double phaseMean=mean/phases;
+        /* An Erlang-k distributed number is a gamma distributed number with integer shape k, which can be drawn in constant time */
+        if (phases>MAX_ERLANG_SUM_PHASES) return random->phaseMean*gamma(random,phases);
+        return random->{
+          double sum=0;
+          for (int i=0;i<phases;i++) sum+=Ziggurat.exponential(random);
+          return phaseMean*sum;
+        };
+      case WEIBULL:
+        final double weibullShape=weibullShape(sd/mean);
+        final double weibullScale=mean/Math.exp(StatisticTools.logGamma(1+1/weibullShape));
+        final double weibullExponent=1/weibullShape;
+        return random->weibullScale*Math.pow(Ziggurat.exponential(random),weibullExponent);
+      case HYPER_EXP:
+        final double cv2=Math.max(1,(sd*sd)/(mean*mean));
+        final double p1=(1+Math.sqrt((cv2-1)/(cv2+1)))/2;
+        final double mean1=mean/(2*p1);
+        final double mean2=mean/(2*(1-p1));
+        return random->((random.nextDouble()<p1)?mean1:mean2)*Ziggurat.exponential(random);
+      case DETERMINISTIC:
+        return new BlockGenerator() {
+          @Override
+          public double applyAsDouble(final RandomGenerator random) {
+            return mean;
+          }
+
+          @Override
+          public void fill(final RandomGenerator random, final double[] block) {
+            Arrays.fill(block,mean);
+          }
+        };
+      case UNIFORM:
+        final double uniformWidth=2*Math.sqrt(3)*sd;
+        final double uniformFrom=mean-uniformWidth/2;
+        return new BlockGenerator() {
+          @Override
+          public double applyAsDouble(final RandomGenerator random) {
+            return uniformFrom+uniformWidth*random.nextDouble();
+          }
+
+          @Override
+          public void fill(final RandomGenerator random, final double[] block) {
+            for (int i=0;i<block.length;i++) block[i]=random.nextDouble();
+            for (int i=0;i<block.length;i++) block[i]=uniformFrom+uniformWidth*block[i];
+          }
+        };
+      case TRIANGULAR:
+        final double triangularHalfWidth=Math.sqrt(6)*sd;
+        final double triangularFrom=mean-triangularHalfWidth;
+        return random->triangularFrom+triangularHalfWidth*(random.nextDouble()+random.nextDouble());
+      case EMPIRICAL:
+        return null;
     }
     return null;
   }
+
+  /**
+   * Generates a lambda expression for generating pseudo random numbers from an empirical distribution.
+   * @param distribution  Empirical distribution
+   * @return  Lambda expression for generating pseudo random numbers
+   */
+  public static BlockGenerator getRandomNumbersLambda(final EmpiricalDistribution distribution) {
+    return random->distribution.sample(random);
+  }
 }
\ No newline at end of file
@@ -0,0 +1,72 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.util.random.RandomGenerator;
+import java.util.random.RandomGeneratorFactory;
+
+/**
+ * Reproducible, independent streams of pseudo random numbers derived from a single seed.<br>
+ * Stream number i always gets the same generator (L64X128MixRandom, a LXM generator
+ * designed for many parallel streams), independent of the thread which uses it.
+ * The stream index is mixed into the seed by the SplitMix64 finalizer, so
+ * neighboring indices get unrelated generator states.
+ */
+public class RandomStreams {
+  /**
+   * Name of the used pseudo random number generator algorithm
+   */
+  public static final String ALGORITHM="L64X128MixRandom";
+
+  /**
+   * Base seed
+   */
+  public final long seed;
+
+  /**
+   * Factory for the pseudo random number generators
+   */
+  private final RandomGeneratorFactory<RandomGenerator> factory;
+
+  /**
+   * Constructor
+   * @param seed  Base seed
+   */
+  public RandomStreams(final long seed) {
+    this.seed=seed;
+    factory=RandomGeneratorFactory.of(ALGORITHM);
+  }
+
+  /**
+   * SplitMix64 finalizer
+   * @param value Input value
+   * @return  Mixed value
+   */
+  private static long mix(long value) {
+    value=(value^(value>>>30))*0xBF58476D1CE4E5B9L;
+    value=(value^(value>>>27))*0x94D049BB133111EBL;
+    return value^(value>>>31);
+  }
+
+  /**
+   * Creates the pseudo random number generator for a stream.
+   * @param index Index of the stream
+   * @return  Pseudo random number generator
+   */
+  public RandomGenerator getStream(final long index) {
+    return factory.create(mix(seed+(index+1)*0x9E3779B97F4A7C15L));
+  }
+}
@@ -0,0 +1,214 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.lang.invoke.MethodHandles;
+import java.lang.invoke.VarHandle;
+
+/**
+ * Live progress counters of one simulation worker thread.<br>
+ * The counters are written only by the worker thread (every {@link #PUBLISH_INTERVAL} events)
+ * and can be read by any other thread at any time. Writes and reads use opaque memory
+ * access, so there are no locks or memory fences on the hot path of the simulation;
+ * a reader sees each value atomically, but possibly a few microseconds late.
+ * Event and arrival counts are cumulative over all models run by the worker.
+ */
+public final class SimulationProgress {
+  /**
+   * Number of events between two updates of the counters (power of two)
+   */
+  public static final int PUBLISH_INTERVAL=1<<14;
+
+  /**
+   * Bit mask for checking if the counters are to be updated: <code>(events&amp;PUBLISH_MASK)==0</code>
+   */
+  public static final long PUBLISH_MASK=PUBLISH_INTERVAL-1;
+
+  /**
+   * Access to {@link #events}
+   */
+  private static final VarHandle EVENTS;
+
+  /**
+   * Access to {@link #arrivals}
+   */
+  private static final VarHandle ARRIVALS;
+
+  /**
+   * Access to {@link #simulatedTime}
+   */
+  private static final VarHandle SIMULATED_TIME;
+
+  /**
+   * Access to {@link #eventListSize}
+   */
+  private static final VarHandle EVENT_LIST_SIZE;
+
+  /**
+   * Access to {@link #queueLength}
+   */
+  private static final VarHandle QUEUE_LENGTH;
+
+  /**
+   * Access to {@link #models}
+   */
+  private static final VarHandle MODELS;
+
+  static {
+    try {
+      final MethodHandles.Lookup lookup=MethodHandles.lookup();
+      EVENTS=lookup.findVarHandle(SimulationProgress.class,"events",long.class);
+      ARRIVALS=lookup.findVarHandle(SimulationProgress.class,"arrivals",long.class);
+      SIMULATED_TIME=lookup.findVarHandle(SimulationProgress.class,"simulatedTime",double.class);
+      EVENT_LIST_SIZE=lookup.findVarHandle(SimulationProgress.class,"eventListSize",int.class);
+      QUEUE_LENGTH=lookup.findVarHandle(SimulationProgress.class,"queueLength",int.class);
+      MODELS=lookup.findVarHandle(SimulationProgress.class,"models",int.class);
+    } catch (ReflectiveOperationException e) {
+      throw new ExceptionInInitializerError(e);
+    }
+  }
+
+  /**
+   * Number of events of all finished models of this worker (only used by the worker)
+   */
+  private long baseEvents;
+
+  /**
+   * Number of arrivals of all finished models of this worker (only used by the worker)
+   */
+  private long baseArrivals;
+
+  /**
+   * Total number of executed events
+   */
+  @SuppressWarnings("unused")
+  private long events;
+
+  /**
+   * Total number of arrivals
+   */
+  @SuppressWarnings("unused")
+  private long arrivals;
+
+  /**
+   * Simulated clock of the current model
+   */
+  @SuppressWarnings("unused")
+  private double simulatedTime;
+
+  /**
+   * Current event list size of the current model
+   */
+  @SuppressWarnings("unused")
+  private int eventListSize;
+
+  /**
+   * Current queue length of the current model
+   */
+  @SuppressWarnings("unused")
+  private int queueLength;
+
+  /**
+   * Number of finished models
+   */
+  @SuppressWarnings("unused")
+  private int models;
+
+  /**
+   * Constructor
+   */
+  public SimulationProgress() {
+  }
+
+  /**
+   * Updates the counters (called by the worker thread).
+   * @param modelEvents Number of events executed by the current model
+   * @param modelArrivals Number of arrivals of the current model
+   * @param time  Simulated clock of the current model
+   * @param eventListSize Current event list size
+   * @param queueLength Current queue length
+   */
+  public void publish(final long modelEvents, final long modelArrivals, final double time, final int eventListSize, final int queueLength) {
+    EVENTS.setOpaque(this,baseEvents+modelEvents);
+    ARRIVALS.setOpaque(this,baseArrivals+modelArrivals);
+    SIMULATED_TIME.setOpaque(this,time);
+    EVENT_LIST_SIZE.setOpaque(this,eventListSize);
+    QUEUE_LENGTH.setOpaque(this,queueLength);
+  }
+
+  /**
+   * Adds the final counts of a finished model (called by the worker thread).
+   * @param modelEvents Number of events executed by the model
+   * @param modelArrivals Number of arrivals of the model
+   */
+  public void finishModel(final long modelEvents, final long modelArrivals) {
+    baseEvents+=modelEvents;
+    baseArrivals+=modelArrivals;
+    EVENTS.setOpaque(this,baseEvents);
+    ARRIVALS.setOpaque(this,baseArrivals);
+    EVENT_LIST_SIZE.setOpaque(this,0);
+    QUEUE_LENGTH.setOpaque(this,0);
+    MODELS.setOpaque(this,(int)MODELS.getOpaque(this)+1);
+  }
+
+  /**
+   * Returns the total number of executed events.
+   * @return  Number of events
+   */
+  public long getEvents() {
+    return (long)EVENTS.getOpaque(this);
+  }
+
+  /**
+   * Returns the total number of arrivals.
+   * @return  Number of arrivals
+   */
+  public long getArrivals() {
+    return (long)ARRIVALS.getOpaque(this);
+  }
+
+  /**
+   * Returns the simulated clock of the current model.
+   * @return  Simulated time
+   */
+  public double getSimulatedTime() {
+    return (double)SIMULATED_TIME.getOpaque(this);
+  }
+
+  /**
+   * Returns the event list size of the current model.
+   * @return  Event list size
+   */
+  public int getEventListSize() {
+    return (int)EVENT_LIST_SIZE.getOpaque(this);
+  }
+
+  /**
+   * Returns the queue length of the current model.
+   * @return  Queue length
+   */
+  public int getQueueLength() {
+    return (int)QUEUE_LENGTH.getOpaque(this);
+  }
+
+  /**
+   * Returns the number of finished models.
+   * @return  Number of finished models
+   */
+  public int getModels() {
+    return (int)MODELS.getOpaque(this);
+  }
+}
@@ -18,90 +18,124 @@ package tinyfastsimulator.tinyfastsimulator.simulator;
 import java.util.function.LongConsumer;
 
 /**
- * Central simulator object
+ * Central simulator object<br>
+ * Each event is given as a callback. The event list itself only stores primitive
+ * event codes; here the code is the index of the callback in a slot table, which is
+ * freed when the event is executed. Models with a fixed set of event types can use
+ * {@link TypedSimulator} instead, which dispatches the event codes directly.<br>
+ * If the event list type supports handles (see {@link EventQueue.Type#hasHandles}), events
+ * can be cancelled or rescheduled by the handles returned by {@link #add(long, LongConsumer)}.
  */
 public class Simulator {
   /**
-   * Step size to increase the event list size
+   * List of the events waiting to be executed
    */
-  private final int EVENT_LIST_INCREMENT=10;
+  private final EventQueue events;
 
   /**
-   * Times of the events waiting to be executed
+   * Callbacks of the events waiting to be executed (indexed by slot)
    */
-  private long[] eventTime;
+  private LongConsumer[] callbacks;
 
   /**
-   * Callback functions of the events waiting to be executed
+   * Stack of free slots in {@link #callbacks}
    */
-  private LongConsumer[] eventRun;
+  private int[] freeSlots;
 
   /**
-   * Number of used entries in the event list arrays
+   * Number of entries on the free slots stack
    */
-  private int used;
+  private int freeSlotsCount;
 
   /**
-   * Constructor
+   * Constructor (uses a sorted array as event list)
    */
   public Simulator() {
-    eventTime=new long[EVENT_LIST_INCREMENT];
-    eventRun=new LongConsumer[EVENT_LIST_INCREMENT];
-    used=0;
+    this(EventQueue.Type.SORTED);
+  }
+
+  /**
+   * Constructor
+   * @param eventListType Type of the event list
+   */
+  public Simulator(final EventQueue.Type eventListType) {
+    this(eventListType,ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param eventListType Type of the event list
+   * @param capacityHint  Expected maximum number of events in the event list at the same time
+   */
+  public Simulator(final EventQueue.Type eventListType, final int capacityHint) {
+    events=EventQueue.getEventQueue(eventListType,capacityHint);
+    final int size=ArrayGrowth.initialLength(capacityHint);
+    callbacks=new LongConsumer[size];
+    freeSlots=new int[size];
+    initFreeSlots(0);
+  }
+
+  /**
+   * Puts the slots starting at a given index onto the free slots stack
+   * (in descending order, so the lowest slot is used first).
+   * @param from  First slot to be added
+   */
+  private void initFreeSlots(final int from) {
+    for (int i=callbacks.length-1;i>=from;i--) freeSlots[freeSlotsCount++]=i;
   }
 
   /**
    * Adds an event.
    * @param time  Execution time
    * @param run Callback to be executed
+   * @return  Handle of the event or {@link EventQueue#NO_HANDLE}, if the event list does not support handles
    */
-  public void add(final long time, final LongConsumer run) {
-    /* Increase list size if needed */
-    if (eventTime.length==used) {
-      final long[] newEventTime=new long[eventTime.length+EVENT_LIST_INCREMENT];
-      System.arraycopy(eventTime,0,newEventTime,0,eventTime.length);
-      eventTime=newEventTime;
-      final LongConsumer[] newEventRun=new LongConsumer[eventRun.length+EVENT_LIST_INCREMENT];
-      System.arraycopy(eventRun,0,newEventRun,0,eventRun.length);
-      eventRun=newEventRun;
+  public long add(final long time, final LongConsumer run) {
+    if (freeSlotsCount==0) {
+      final int oldSize=callbacks.length;
+      final int newSize=ArrayGrowth.nextLength(oldSize);
+      final LongConsumer[] newCallbacks=new LongConsumer[newSize];
+      System.arraycopy(callbacks,0,newCallbacks,0,oldSize);
+      callbacks=newCallbacks;
+      freeSlots=new int[newSize];
+      initFreeSlots(oldSize);
     }
+    final int slot=freeSlots[--freeSlotsCount];
+    callbacks[slot]=run;
+    return events.add(time,slot);
+  }
 
-    /* List empty? */
-    if (used==0) {
-      eventTime[0]=time;
-      eventRun[0]=run;
-      used=1;
-      return;
-    }
+  /**
+   * Cancels an event which has not been executed yet.
+   * @param handle  Handle of the event (as returned by {@link #add(long, LongConsumer)})
+   * @return  Returns <code>false</code>, if the event has already been executed or cancelled
+   * @throws UnsupportedOperationException  The event list does not support handles
+   */
+  public boolean cancel(final long handle) {
+    final int slot=events.cancel(handle);
+    if (slot<0) return false;
+    callbacks[slot]=null;
+    freeSlots[freeSlotsCount++]=slot;
+    return true;
+  }
 
-    /* Find position in list */
-    int index1=0;
-    int index2=used-1;
-    long time1=eventTime[index1];
-    long time2=eventTime[index2];
-    int index;
-    if (time>time1) index=index1; else if (time<time2) index=index2+1; else {
-      while (index2-index1>1) {
-        final int indexMiddle=(index2-index1)/2;
-        if (indexMiddle==index1) break;
-        long timeMiddle=eventTime[indexMiddle];
-        if (timeMiddle<time) index2=indexMiddle; else index1=indexMiddle;
-      }
-      index=index2+1;
-      for (int i=index1;i<=index2;i++) if (time>eventTime[i]) {
-        index=i;
-        break;
-      }
-    }
+  /**
+   * Changes the execution time of an event which has not been executed yet.
+   * @param handle  Handle of the event (as returned by {@link #add(long, LongConsumer)})
+   * @param time  New execution time
+   * @return  Returns <code>false</code>, if the event has already been executed or cancelled
+   * @throws UnsupportedOperationException  The event list does not support handles
+   */
+  public boolean reschedule(final long handle, final long time) {
+    return events.reschedule(handle,time);
+  }
 
-    /* Insert into list */
-    for (int i=used-1;i>=index;i--) {
-      eventTime[i+1]=eventTime[i];
-      eventRun[i+1]=eventRun[i];
-    }
-    eventTime[index]=time;
-    eventRun[index]=run;
-    used++;
+  /**
+   * Returns the maximum number of events which have been in the event list at the same time.
+   * @return  High watermark of the event list size
+   */
+  public int getMaxEventListSize() {
+    return events.getMaxSize();
   }
 
   /**
@@ -113,10 +147,13 @@ public class Simulator {
     final long start=System.currentTimeMillis();
 
     long count=0;
-    while (used>0) {
-      final long time=eventTime[used-1];
-      final LongConsumer run=eventRun[used-1];
-      used--;
+    final EventQueue events=this.events;
+    while (events.size()>0) {
+      final long time=events.nextTime();
+      final int slot=events.poll();
+      final LongConsumer run=callbacks[slot];
+      callbacks[slot]=null;
+      freeSlots[freeSlotsCount++]=slot;
       run.accept(time);
 
       if (showProgress && count%1000000==0) System.out.print(".");
@@ -0,0 +1,128 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Event list based on an array sorted by descending execution times
+ * (the next event is always the last entry of the array).
+ */
+public class SortedArrayEventQueue implements EventQueue {
+  /**
+   * Times of the events waiting to be executed
+   */
+  private long[] eventTime;
+
+  /**
+   * Codes of the events waiting to be executed
+   */
+  private int[] eventCode;
+
+  /**
+   * Number of used entries in the event list arrays
+   */
+  private int used;
+
+  /**
+   * Maximum number of events in the list at the same time
+   */
+  private int maxUsed;
+
+  /**
+   * Constructor
+   */
+  public SortedArrayEventQueue() {
+    this(ArrayGrowth.MIN_LENGTH);
+  }
+
+  /**
+   * Constructor
+   * @param initialSize Initial capacity of the event list
+   */
+  public SortedArrayEventQueue(final int initialSize) {
+    final int size=ArrayGrowth.initialLength(initialSize);
+    eventTime=new long[size];
+    eventCode=new int[size];
+    used=0;
+  }
+
+  @Override
+  public long add(final long time, final int code) {
+    /* Increase list size if needed */
+    if (eventTime.length==used) {
+      final int newSize=ArrayGrowth.nextLength(eventTime.length);
+      final long[] newEventTime=new long[newSize];
+      System.arraycopy(eventTime,0,newEventTime,0,eventTime.length);
+      eventTime=newEventTime;
+      final int[] newEventCode=new int[newSize];
+      System.arraycopy(eventCode,0,newEventCode,0,eventCode.length);
+      eventCode=newEventCode;
+    }
+
+    /* List empty? */
+    if (used==0) {
+      eventTime[0]=time;
+      eventCode[0]=code;
+      used=1;
+      if (maxUsed==0) maxUsed=1;
+      return NO_HANDLE;
+    }
+
+    /* Find position in list (behind all events with the same or a later time) */
+    int index;
+    if (time>eventTime[0]) index=0; else if (time<eventTime[used-1]) index=used; else {
+      int low=0;
+      int high=used-1;
+      while (low<high) {
+        final int indexMiddle=(low+high)>>>1;
+        if (eventTime[indexMiddle]<time) high=indexMiddle; else low=indexMiddle+1;
+      }
+      index=(eventTime[low]<time)?low:used;
+    }
+
+    /* Insert into list */
+    for (int i=used-1;i>=index;i--) {
+      eventTime[i+1]=eventTime[i];
+      eventCode[i+1]=eventCode[i];
+    }
+    eventTime[index]=time;
+    eventCode[index]=code;
+    used++;
+    if (used>maxUsed) maxUsed=used;
+    return NO_HANDLE;
+  }
+
+  @Override
+  public int size() {
+    return used;
+  }
+
+  @Override
+  public int getMaxSize() {
+    return maxUsed;
+  }
+
+  @Override
+  public long nextTime() {
+    return eventTime[used-1];
+  }
+
+  @Override
+  public int poll() {
+    used--;
+    final int code=eventCode[used];
+    return code;
+  }
+}
@@ -0,0 +1,111 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Static functions for calculating quantiles of distributions
+ * used for confidence intervals and further special functions
+ * used for parameterizing distributions.
+ */
+public class StatisticTools {
+  /**
+   * Private constructor - This class cannot be instanced.
+   */
+  private StatisticTools() {
+  }
+
+  /**
+   * Calculates a quantile of the standard normal distribution
+   * (algorithm by P. J. Acklam, relative error below 1.2e-9).
+   * @param p Probability (0&lt;p&lt;1)
+   * @return  Quantile
+   */
+  public static double normalQuantile(final double p) {
+    if (p<=0) return Double.NEGATIVE_INFINITY;
+    if (p>=1) return Double.POSITIVE_INFINITY;
+
+    final double a1=-3.969683028665376e+01, a2=2.209460984245205e+02, a3=-2.759285104469687e+02, a4=1.383577518672690e+02, a5=-3.066479806614716e+01, a6=2.506628277459239e+00;
+    final double b1=-5.447609879822406e+01, b2=1.615858368580409e+02, b3=-1.556989798598866e+02, b4=6.680131188771972e+01, b5=-1.328068155288572e+01;
+    final double c1=-7.784894002430293e-03, c2=-3.223964580411365e-01, c3=-2.400758277161838e+00, c4=-2.549732539343734e+00, c5=4.374664141464968e+00, c6=2.938163982698783e+00;
+    final double d1=7.784695709041462e-03, d2=3.224671290700398e-01, d3=2.445134137142996e+00, d4=3.754408661907416e+00;
+    final double pLow=0.02425;
+
+    if (p<pLow) {
+      final double q=Math.sqrt(-2*Math.log(p));
+      return (((((c1*q+c2)*q+c3)*q+c4)*q+c5)*q+c6)/((((d1*q+d2)*q+d3)*q+d4)*q+1);
+    }
+    if (p>1-pLow) {
+      final double q=Math.sqrt(-2*Math.log(1-p));
+      return -(((((c1*q+c2)*q+c3)*q+c4)*q+c5)*q+c6)/((((d1*q+d2)*q+d3)*q+d4)*q+1);
+    }
+    final double q=p-0.5;
+    final double r=q*q;
+    return (((((a1*r+a2)*r+a3)*r+a4)*r+a5)*r+a6)*q/(((((b1*r+b2)*r+b3)*r+b4)*r+b5)*r+1);
+  }
+
+  /**
+   * Calculates a quantile of the Student t distribution.<br>
+   * Exact for 1 and 2 degrees of freedom, otherwise the Cornish-Fisher
+   * expansion (Abramowitz/Stegun 26.7.5) is used.
+   * @param p Probability (0&lt;p&lt;1)
+   * @param degreesOfFreedom  Degrees of freedom (&ge;1)
+   * @return  Quantile
+   */
+  public static double studentTQuantile(final double p, final long degreesOfFreedom) {
+    if (degreesOfFreedom<1) return Double.NaN;
+    if (degreesOfFreedom==1) return Math.tan(Math.PI*(p-0.5));
+    if (degreesOfFreedom==2) return (2*p-1)/Math.sqrt(2*p*(1-p));
+
+    final double z=normalQuantile(p);
+    final double n=degreesOfFreedom;
+    final double z2=z*z;
+    final double z3=z2*z;
+    final double z5=z3*z2;
+    final double z7=z5*z2;
+    final double z9=z7*z2;
+    final double g1=(z3+z)/4;
+    final double g2=(5*z5+16*z3+3*z)/96;
+    final double g3=(3*z7+19*z5+17*z3-15*z)/384;
+    final double g4=(79*z9+776*z7+1482*z5-1920*z3-945*z)/92160;
+    return z+g1/n+g2/(n*n)+g3/(n*n*n)+g4/(n*n*n*n);
+  }
+
+  /**
+   * Coefficients for the Lanczos approximation (g=7, n=9)
+   */
+  private static final double[] LANCZOS={
+      0.99999999999980993,676.5203681218851,-1259.1392167224028,771.32342877765313,
+      -176.61502916214059,12.507343278686905,-0.13857109526572012,9.9843695780195716e-6,1.5056327351493116e-7
+  };
+
+  /**
+   * Calculates the natural logarithm of the gamma function
+   * (Lanczos approximation, relative error below 1e-13).
+   * @param x Argument (&gt;0)
+   * @return  ln(Gamma(x))
+   */
+  public static double logGamma(final double x) {
+    if (x<0.5) {
+      /* Reflection formula */
+      return Math.log(Math.PI/Math.abs(Math.sin(Math.PI*x)))-logGamma(1-x);
+    }
+    final double z=x-1;
+    double sum=LANCZOS[0];
+    for (int i=1;i<LANCZOS.length;i++) sum+=LANCZOS[i]/(z+i);
+    final double t=z+7.5;
+    return 0.5*Math.log(2*Math.PI)+(z+0.5)*Math.log(t)-t+Math.log(sum);
+  }
+}
@@ -18,23 +18,84 @@ package tinyfastsimulator.tinyfastsimulator.simulator;
  import java.lang.Math;
 
 /**
- * Statistic class for recording individual values
+ * Statistic class for recording individual values<br>
+ * The central moments are kept in Welford form (mean and sums of the powers of the
+ * deviations from the mean) and are joined by the parallel algorithm of Chan, Golub
+ * and LeVeque, so the variance does not suffer from cancellation even for very large
+ * numbers of values or many joined partial results. To keep the recording path cheaper
+ * than a per-value Welford update (which needs a division on the critical path),
+ * new values are only added up as power sums of their deviations from a reference value
+ * (the first value or the mean at the last merge). These pending sums are merged into the
+ * moments by Chan's formulas every {@link #MERGE_INTERVAL} values and when results are read
+ * or objects are joined. So the reference value follows the running mean and the pending
+ * sums never cover more than a bounded number of values (otherwise a long run starting
+ * with an untypical first value, e.g. a waiting time of 0, would suffer from the same
+ * cancellation as plain sums).<br>
+ * The third and fourth moments (for skewness and kurtosis) are optional, as they
+ * make recording a value noticeably slower.<br>
+ * Optionally the values can also be recorded in a {@link LogHistogram}
+ * to get quantiles without storing the individual values.
  */
 public class StatisticsData {
+  /**
+   * Maximum number of pending values (power of two); the pending sums are merged into the moments after this number of values
+   */
+  public static final int MERGE_INTERVAL=1<<10;
+
   /**
    * Number of recorded values
    */
   private long count;
 
   /**
-   * Sum of the recorded values
+   * Mean of the values merged into the moments
+   */
+  private double mean;
+
+  /**
+   * Sum of the squared deviations from the mean (merged values)
+   */
+  private double m2;
+
+  /**
+   * Sum of the cubed deviations from the mean (merged values)
+   */
+  private double m3;
+
+  /**
+   * Sum of the fourth powers of the deviations from the mean (merged values)
+   */
+  private double m4;
+
+  /**
+   * Number of values merged into the moments (the remaining values are pending)
+   */
+  private long mergedCount;
+
+  /**
+   * Reference value for the pending values (the first value or the mean at the last merge)
+   */
+  private double shift;
+
+  /**
+   * Sum of the deviations of the pending values from the reference value
+   */
+  private double pendingSum1;
+
+  /**
+   * Sum of the squared deviations of the pending values from the reference value
+   */
+  private double pendingSum2;
+
+  /**
+   * Sum of the cubed deviations of the pending values from the reference value
    */
-  private double sum;
+  private double pendingSum3;
 
   /**
-   * Sum of the squared recorded values
+   * Sum of the fourth powers of the deviations of the pending values from the reference value
    */
-  private double sum2;
+  private double pendingSum4;
 
   /**
    * Minimum of the recorded values
@@ -46,6 +107,41 @@ public class StatisticsData {
    */
   private double max;
 
+  /**
+   * Record the third and fourth moments?
+   */
+  private boolean higherMoments;
+
+  /**
+   * Histogram of the recorded values (<code>null</code>, if no histogram is recorded)
+   */
+  private LogHistogram histogram;
+
+  /**
+   * Constructor (no histogram, no higher moments)
+   */
+  public StatisticsData() {
+    this(false,false);
+  }
+
+  /**
+   * Constructor (no higher moments)
+   * @param recordHistogram Record the values also in a histogram (for quantiles)?
+   */
+  public StatisticsData(final boolean recordHistogram) {
+    this(recordHistogram,false);
+  }
+
+  /**
+   * Constructor
+   * @param recordHistogram Record the values also in a histogram (for quantiles)?
+   * @param recordHigherMoments Record the third and fourth moments (for skewness and kurtosis)?
+   */
+  public StatisticsData(final boolean recordHistogram, final boolean recordHigherMoments) {
+    if (recordHistogram) histogram=new LogHistogram();
+    higherMoments=recordHigherMoments;
+  }
+
   /**
    * Joins the data from two statistic objects.
    * @param stat1 Statistic object 1
@@ -53,30 +149,161 @@ public class StatisticsData {
    * @return  New statistic object containing the combined data
    */
   public static StatisticsData join(final StatisticsData stat1, final StatisticsData stat2) {
+    stat1.flush();
+    stat2.flush();
     final StatisticsData result=new StatisticsData();
-    result.count=stat1.count+stat2.count;
-    result.sum=stat1.sum+stat2.sum;
-    result.sum2=stat1.sum2+stat2.sum2;
-    result.min=Math.min(stat1.min,stat2.min);
-    result.max=Math.max(stat1.max,stat2.max);
+    final StatisticsData first=(stat1.count==0)?stat2:stat1;
+    result.count=first.count;
+    result.mean=first.mean;
+    result.m2=first.m2;
+    result.m3=first.m3;
+    result.m4=first.m4;
+    result.min=first.min;
+    result.max=first.max;
+    result.higherMoments=stat1.higherMoments && stat2.higherMoments;
+    if (stat1.count>0 && stat2.count>0) {
+      result.merge(stat1.count,stat2.count,stat2.mean,stat2.m2,stat2.m3,stat2.m4);
+      result.count+=stat2.count;
+      result.min=Math.min(stat1.min,stat2.min);
+      result.max=Math.max(stat1.max,stat2.max);
+    }
+    result.mergedCount=result.count;
+    result.shift=result.mean;
+    final LogHistogram layout=(stat1.histogram!=null)?stat1.histogram:stat2.histogram;
+    if (layout!=null) {
+      result.histogram=new LogHistogram(layout.precisionBits,layout.minExponent,layout.maxExponent);
+      if (stat1.histogram!=null) result.histogram.add(stat1.histogram);
+      if (stat2.histogram!=null) result.histogram.add(stat2.histogram);
+    }
     return result;
   }
 
+  /**
+   * Merges the moments of a second set of values into the merged moments (Chan et al.).
+   * @param count1  Number of values merged into the moments so far
+   * @param count2  Number of values in the second set
+   * @param mean2 Mean of the second set
+   * @param m2b Sum of the squared deviations from the mean of the second set
+   * @param m3b Sum of the cubed deviations from the mean of the second set
+   * @param m4b Sum of the fourth powers of the deviations from the mean of the second set
+   */
+  private void merge(final long count1, final long count2, final double mean2, final double m2b, final double m3b, final double m4b) {
+    final double n1=count1;
+    final double n2=count2;
+    if (n1==0) {
+      mean=mean2;
+      m2=m2b;
+      m3=m3b;
+      m4=m4b;
+      return;
+    }
+    final double n=n1+n2;
+    final double delta=mean2-mean;
+    final double delta2=delta*delta;
+    final double m2a=m2;
+    final double m3a=m3;
+    mean+=delta*(n2/n);
+    m2=m2a+m2b+delta2*n1*n2/n;
+    m3=m3a+m3b+delta2*delta*n1*n2*(n1-n2)/(n*n)+3*delta*(n1*m2b-n2*m2a)/n;
+    m4=m4+m4b+delta2*delta2*n1*n2*(n1*n1-n1*n2+n2*n2)/(n*n*n)+6*delta2*(n1*n1*m2b+n2*n2*m2a)/(n*n)+4*delta*(n1*m3b-n2*m3a)/n;
+  }
+
+  /**
+   * Merges the pending values into the moments.
+   */
+  private void flush() {
+    final long pendingCount=count-mergedCount;
+    if (pendingCount==0) return;
+    final double b=pendingCount;
+    final double mu=pendingSum1/b;
+    final double mu2=mu*mu;
+    final double pendingM2=Math.max(0,pendingSum2-b*mu2);
+    final double pendingM3=pendingSum3-3*mu*pendingSum2+2*b*mu2*mu;
+    final double pendingM4=Math.max(0,pendingSum4-4*mu*pendingSum3+6*mu2*pendingSum2-3*b*mu2*mu2);
+    merge(mergedCount,pendingCount,shift+mu,pendingM2,pendingM3,pendingM4);
+    mergedCount=count;
+    shift=mean;
+    pendingSum1=0;
+    pendingSum2=0;
+    pendingSum3=0;
+    pendingSum4=0;
+  }
+
+  /**
+   * Discards all recorded values.
+   */
+  public void reset() {
+    count=0;
+    mean=0;
+    m2=0;
+    m3=0;
+    m4=0;
+    mergedCount=0;
+    shift=0;
+    pendingSum1=0;
+    pendingSum2=0;
+    pendingSum3=0;
+    pendingSum4=0;
+    min=0;
+    max=0;
+    if (histogram!=null) histogram.reset();
+  }
+
   /**
    * Records a single value.
    * @param value Value to be recorded
    */
   public void add(final double value) {
-    count++;
-    sum+=value;
-    sum2+=value*value;
-    if (count==1) {
+    if (count==0) {
+      shift=value;
       min=value;
       max=value;
     } else {
       min=Math.min(min,value);
       max=Math.max(max,value);
     }
+    count++;
+    final double d=value-shift;
+    final double d2=d*d;
+    pendingSum1+=d;
+    pendingSum2+=d2;
+    if (higherMoments) {
+      pendingSum3+=d2*d;
+      pendingSum4+=d2*d2;
+    }
+    if (histogram!=null) histogram.add(value);
+    if ((count&(MERGE_INTERVAL-1))==0) flush();
+  }
+
+  /**
+   * Records a block of values which is only given by the number of values, the sums of their
+   * deviations and squared deviations from a reference value and their minimum and maximum
+   * (e.g. values reduced in the lanes of a vector). The reference value should be a typical
+   * value of the block (e.g. its first value or the current mean), so the deviation sums do not
+   * suffer from cancellation. The third and fourth moments and the histogram cannot be updated
+   * this way; use {@link #add(double)} if they are recorded.
+   * @param blockCount  Number of values in the block
+   * @param reference Reference value
+   * @param sum Sum of the deviations of the values from the reference value
+   * @param sumSquares  Sum of the squared deviations of the values from the reference value
+   * @param blockMin  Minimum of the values
+   * @param blockMax  Maximum of the values
+   */
+  public void addBlock(final long blockCount, final double reference, final double sum, final double sumSquares, final double blockMin, final double blockMax) {
+    if (blockCount<=0) return;
+    flush();
+    final double mu=sum/blockCount;
+    merge(count,blockCount,reference+mu,Math.max(0,sumSquares-sum*mu),0,0);
+    if (count==0) {
+      min=blockMin;
+      max=blockMax;
+    } else {
+      min=Math.min(min,blockMin);
+      max=Math.max(max,blockMax);
+    }
+    count+=blockCount;
+    mergedCount=count;
+    shift=mean;
   }
 
   /**
@@ -92,8 +319,8 @@ public class StatisticsData {
    * @return Mean of the recorded values
    */
   public double getMean() {
-    if (count==0) return 0.0;
-    return sum/count;
+    flush();
+    return mean;
   }
 
   /**
@@ -101,8 +328,9 @@ public class StatisticsData {
    * @return Variance of the recorded values
    */
   public double getVariance() {
-    if (count==0) return 0.0;
-    return sum2/(count-1)-(sum*sum)/count/(count-1);
+    if (count<2) return 0.0;
+    flush();
+    return m2/(count-1);
   }
 
   /**
@@ -113,6 +341,28 @@ public class StatisticsData {
     return Math.sqrt(getVariance());
   }
 
+  /**
+   * Returns the skewness of the recorded values.
+   * @return  Skewness of the recorded values (0, if the values do not vary; NaN, if the higher moments are not recorded)
+   */
+  public double getSkewness() {
+    if (!higherMoments) return Double.NaN;
+    flush();
+    if (count<2 || m2==0.0) return 0.0;
+    return Math.sqrt(count)*m3/Math.pow(m2,1.5);
+  }
+
+  /**
+   * Returns the excess kurtosis of the recorded values.
+   * @return  Excess kurtosis of the recorded values (0, if the values do not vary; NaN, if the higher moments are not recorded)
+   */
+  public double getKurtosis() {
+    if (!higherMoments) return Double.NaN;
+    flush();
+    if (count<2 || m2==0.0) return 0.0;
+    return count*m4/(m2*m2)-3;
+  }
+
   /**
    * Returns the coefficient of variation of the recorded values.
    * @return Coefficient of variation of the recorded values
@@ -123,6 +373,17 @@ public class StatisticsData {
     return getSD()/mean;
   }
 
+  /**
+   * Returns the half width of the confidence interval for the mean
+   * (assuming independent, approximately normally distributed values).
+   * @param confidenceLevel Confidence level (e.g. 0.95)
+   * @return  Half width of the confidence interval (infinite, if less than two values were recorded)
+   */
+  public double getConfidenceHalfWidth(final double confidenceLevel) {
+    if (count<2) return Double.POSITIVE_INFINITY;
+    return StatisticTools.studentTQuantile(1-(1-confidenceLevel)/2,count-1)*getSD()/Math.sqrt(count);
+  }
+
   /**
    * Returns the minimum of the recorded values.
    * @return  Minimum of the recorded values
@@ -138,4 +399,39 @@ public class StatisticsData {
   public double getMax() {
     return max;
   }
+
+  /**
+   * Are the third and fourth moments recorded?
+   * @return  Returns <code>true</code>, if skewness and kurtosis are available
+   */
+  public boolean hasHigherMoments() {
+    return higherMoments;
+  }
+
+  /**
+   * Are the values also recorded in a histogram?
+   * @return  Returns <code>true</code>, if quantiles are available
+   */
+  public boolean hasHistogram() {
+    return histogram!=null;
+  }
+
+  /**
+   * Returns the histogram of the recorded values.
+   * @return  Histogram of the recorded values (<code>null</code>, if no histogram is recorded)
+   */
+  public LogHistogram getHistogram() {
+    return histogram;
+  }
+
+  /**
+   * Returns a quantile of the recorded values (limited to the range [min;max]).
+   * @param p Probability (0..1)
+   * @return  Quantile (NaN, if no histogram is recorded)
+   */
+  public double getQuantile(final double p) {
+    if (histogram==null) return Double.NaN;
+    if (count==0) return 0.0;
+    return Math.max(min,Math.min(max,histogram.getQuantile(p)));
+  }
 }
@@ -15,10 +15,26 @@
  */
 package tinyfastsimulator.tinyfastsimulator.simulator;
 
+import java.util.Arrays;
+
 /**
- * Statistic class for recording states
+ * Statistic class for recording states<br>
+ * Besides the time-weighted mean, the time spent in each state is recorded
+ * in a primitive array (which grows as needed), so the time-weighted state
+ * distribution P(X=k) and its quantiles are available. States above a maximum
+ * state are collected in a single tail bucket.
  */
 public class StatisticsState {
+  /**
+   * Default maximum state which is recorded individually (all higher states are recorded in the tail bucket)
+   */
+  public static final int DEFAULT_MAX_STATE=65535;
+
+  /**
+   * Maximum state which is recorded individually
+   */
+  public final int maxState;
+
   /**
    * States multiplied by the times
    */
@@ -29,6 +45,11 @@ public class StatisticsState {
    */
   private double time;
 
+  /**
+   * Time spent in each state (index maxState+1 is the tail bucket for all higher states)
+   */
+  private double[] stateTime;
+
   /**
    * Current state
    */
@@ -50,20 +71,79 @@ public class StatisticsState {
   private int max;
 
   /**
-   * Joins the data from two statistic objects.
+   * Constructor
+   */
+  public StatisticsState() {
+    this(DEFAULT_MAX_STATE);
+  }
+
+  /**
+   * Constructor
+   * @param maxState  Maximum state which is recorded individually (all higher states are recorded in the tail bucket)
+   */
+  public StatisticsState(final int maxState) {
+    this.maxState=Math.max(0,Math.min(maxState,Integer.MAX_VALUE-16));
+    stateTime=new double[Math.min(ArrayGrowth.MIN_LENGTH,this.maxState+2)];
+  }
+
+  /**
+   * Joins the data from two statistic objects.<br>
+   * Objects without any recorded state are ignored. The current state of the result
+   * is the current state of the object with the latest state change.
    * @param stat1 Statistic object 1
    * @param stat2 Statistic object 2
    * @return  New statistic object containing the combined data
    */
   public static StatisticsState join(final StatisticsState stat1, final StatisticsState stat2) {
-    final StatisticsState result=new StatisticsState();
+    final StatisticsState result=new StatisticsState(stat1.maxState);
     result.sum=stat1.sum+stat2.sum;
     result.time=stat1.time+stat2.time;
-    result.min=Math.min(stat1.min,stat2.min);
-    result.max=Math.max(stat1.max,stat2.max);
+    result.addStateTimes(stat1);
+    result.addStateTimes(stat2);
+    if (stat1.lastTime<0 || stat2.lastTime<0) {
+      final StatisticsState source=(stat1.lastTime<0)?stat2:stat1;
+      result.min=source.min;
+      result.max=source.max;
+      result.lastState=source.lastState;
+      result.lastTime=source.lastTime;
+    } else {
+      final StatisticsState latest=(stat2.lastTime>=stat1.lastTime)?stat2:stat1;
+      result.min=Math.min(stat1.min,stat2.min);
+      result.max=Math.max(stat1.max,stat2.max);
+      result.lastState=latest.lastState;
+      result.lastTime=latest.lastTime;
+    }
     return result;
   }
 
+  /**
+   * Adds the state times of another statistic object to this object.
+   * @param other Other statistic object
+   */
+  private void addStateTimes(final StatisticsState other) {
+    final double[] otherTime=other.stateTime;
+    for (int i=0;i<otherTime.length;i++) if (otherTime[i]!=0.0) {
+      final int index=(i>other.maxState)?Integer.MAX_VALUE:i;
+      addStateTime(index,otherTime[i]);
+    }
+  }
+
+  /**
+   * Adds time to a state (enlarges the array if needed).
+   * @param state State
+   * @param deltaTime Time spent in the state
+   */
+  private void addStateTime(final int state, final double deltaTime) {
+    int index=(state>maxState)?(maxState+1):state;
+    if (index<0) index=0;
+    if (index>=stateTime.length) {
+      int length=stateTime.length;
+      while (length<=index) length=ArrayGrowth.nextLength(length);
+      stateTime=Arrays.copyOf(stateTime,Math.min(length,maxState+2));
+    }
+    stateTime[index]+=deltaTime;
+  }
+
   /**
    * Records a state change.
    * @param time  Time of the state change
@@ -75,6 +155,7 @@ public class StatisticsState {
       if (deltaTime>0) {
         this.time+=deltaTime;
         sum+=deltaTime*lastState;
+        if (lastState<stateTime.length) stateTime[lastState]+=deltaTime; else addStateTime(lastState,deltaTime);
       }
       min=Math.min(min,lastState);
       max=Math.max(max,lastState);
@@ -87,6 +168,48 @@ public class StatisticsState {
     lastState=state;
   }
 
+  /**
+   * Adds a time span for which only the integral of the state over the time is known
+   * (e.g. the sum of the waiting times of all clients is the integral of the queue length).
+   * Only the mean is updated; the state distribution, the minimum and the maximum are not
+   * available for such time spans (see {@link #hasDistribution()}).
+   * @param deltaTime Length of the time span
+   * @param integral  Integral of the state over the time span
+   */
+  public void addIntegral(final double deltaTime, final double integral) {
+    time+=deltaTime;
+    sum+=integral;
+  }
+
+  /**
+   * Is the time-weighted state distribution available?
+   * @return  Returns <code>false</code>, if time was only recorded by {@link #addIntegral(double, double)}
+   */
+  public boolean hasDistribution() {
+    if (time==0.0) return true;
+    for (int i=0;i<stateTime.length;i++) if (stateTime[i]!=0.0) return true;
+    return false;
+  }
+
+  /**
+   * Discards all recorded data. The current state is kept and is
+   * counted from the given time on.
+   * @param time  Time from which on the data is to be recorded
+   */
+  public void reset(final double time) {
+    sum=0;
+    this.time=0;
+    Arrays.fill(stateTime,0.0);
+    if (lastTime>=0) {
+      lastTime=time;
+      min=lastState;
+      max=lastState;
+    } else {
+      min=0;
+      max=0;
+    }
+  }
+
   /**
    * Returns the average state.
    * @return  Average state
@@ -111,4 +234,63 @@ public class StatisticsState {
   public int getMax() {
     return max;
   }
-}
\ No newline at end of file
+
+  /**
+   * Returns the total recorded time.
+   * @return  Total recorded time
+   */
+  public double getTime() {
+    return time;
+  }
+
+  /**
+   * Returns the time spent in a state.
+   * @param state State (values above {@link #maxState} return the time of the tail bucket)
+   * @return  Time spent in the state
+   */
+  public double getStateTime(final int state) {
+    final int index=(state>maxState)?(maxState+1):state;
+    if (index<0 || index>=stateTime.length) return 0.0;
+    return stateTime[index];
+  }
+
+  /**
+   * Returns the time-weighted probability of a state.
+   * @param state State (values above {@link #maxState} return the probability of the tail bucket)
+   * @return  Fraction of the time spent in the state: P(X=state)
+   */
+  public double getProbability(final int state) {
+    if (time==0.0) return 0.0;
+    return getStateTime(state)/time;
+  }
+
+  /**
+   * Returns the time-weighted probability that the state is greater than a given value.
+   * @param state State
+   * @return  Fraction of the time spent in states greater than the given state: P(X&gt;state)
+   */
+  public double getProbabilityGreaterThan(final int state) {
+    if (time==0.0) return 0.0;
+    if (state<0) return 1.0;
+    double below=0;
+    final int last=Math.min(state,Math.min(maxState,stateTime.length-1));
+    for (int i=0;i<=last;i++) below+=stateTime[i];
+    return Math.max(0.0,1.0-below/time);
+  }
+
+  /**
+   * Returns a quantile of the time-weighted state distribution.
+   * @param p Probability (0..1)
+   * @return  Smallest state k with P(X&le;k)&ge;p (maxState+1, if the quantile lies in the tail bucket)
+   */
+  public int getQuantile(final double p) {
+    if (time==0.0) return 0;
+    final double limit=p*time;
+    double cumulated=0;
+    for (int i=0;i<stateTime.length;i++) {
+      cumulated+=stateTime[i];
+      if (cumulated>=limit && stateTime[i]>0) return i;
+    }
+    return Math.min(max,maxState+1);
+  }
+}
@@ -0,0 +1,231 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.io.BufferedReader;
+import java.io.Closeable;
+import java.io.IOException;
+import java.nio.ByteBuffer;
+import java.nio.ByteOrder;
+import java.nio.channels.FileChannel;
+import java.nio.file.Files;
+import java.nio.file.Path;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Binary trace file containing recorded inter-arrival or service times.<br>
+ * The file starts with a 32 bytes header (all values little-endian):
+ * magic "TFSTRACE" (8 bytes), version (int), format (int), number of values (long), scale (double).
+ * The header is followed by the data, which is read by memory mapping (see {@link TraceReader}):
+ * <ul>
+ * <li>{@link Format#DOUBLE}: one double per value,</li>
+ * <li>{@link Format#DELTA_LONG}: number of values plus one long timestamps; value i is (t[i+1]-t[i])*scale.</li>
+ * </ul>
+ * As all entries have a fixed size of 8 bytes, the file can be split into shards by offset,
+ * so each simulation thread can replay its own part of the trace.
+ * @see TraceReader
+ */
+public class TraceFile implements Closeable {
+  /**
+   * Magic bytes at the start of each trace file ("TFSTRACE" as little-endian long)
+   */
+  private static final long MAGIC=0x4543415254534654L;
+
+  /**
+   * Version of the file format
+   */
+  private static final int VERSION=1;
+
+  /**
+   * Size of the header in bytes
+   */
+  public static final int HEADER_SIZE=32;
+
+  /**
+   * Size of the write buffer used by the converter in bytes
+   */
+  private static final int WRITE_BUFFER_SIZE=1<<16;
+
+  /**
+   * Storage format of the values
+   */
+  public enum Format {
+    /** Values stored as doubles */
+    DOUBLE,
+    /** Values stored as long timestamps (value i is the difference of timestamps i+1 and i times the scale) */
+    DELTA_LONG
+  }
+
+  /**
+   * File name
+   */
+  public final Path file;
+
+  /**
+   * Storage format of the values
+   */
+  public final Format format;
+
+  /**
+   * Number of values
+   */
+  public final long count;
+
+  /**
+   * Scale factor for {@link Format#DELTA_LONG} (1 for {@link Format#DOUBLE})
+   */
+  public final double scale;
+
+  /**
+   * File channel (shared by all readers; mapping is thread-safe)
+   */
+  private final FileChannel channel;
+
+  /**
+   * Opens a trace file and reads its header.
+   * @param file  Trace file
+   * @throws IOException  Thrown if the file cannot be read or is not a valid trace file
+   */
+  public TraceFile(final Path file) throws IOException {
+    this.file=file;
+    channel=FileChannel.open(file,StandardOpenOption.READ);
+    try {
+      final ByteBuffer header=ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      while (header.hasRemaining()) if (channel.read(header,header.position())<0) throw new IOException("File too short");
+      header.flip();
+      if (header.getLong()!=MAGIC) throw new IOException("No trace file");
+      if (header.getInt()!=VERSION) throw new IOException("Unsupported trace file version");
+      final int formatIndex=header.getInt();
+      if (formatIndex<0 || formatIndex>=Format.values().length) throw new IOException("Unknown trace format");
+      format=Format.values()[formatIndex];
+      count=header.getLong();
+      scale=header.getDouble();
+      final long entries=(format==Format.DELTA_LONG)?count+1:count;
+      if (count<=0) throw new IOException("Trace file contains no values");
+      if (channel.size()<HEADER_SIZE+entries*8) throw new IOException("Trace file is truncated");
+    } catch (IOException e) {
+      channel.close();
+      throw e;
+    }
+  }
+
+  /**
+   * Returns the file channel for mapping the data.
+   * @return  File channel
+   */
+  FileChannel getChannel() {
+    return channel;
+  }
+
+  /**
+   * Creates a reader for a range of values.
+   * @param from  Index of the first value (inclusive)
+   * @param to  Index of the last value (exclusive)
+   * @return  Reader (to be used by one thread only)
+   */
+  public TraceReader getReader(final long from, final long to) {
+    if (from<0 || to>count || from>=to) throw new IllegalArgumentException("Invalid range");
+    return new TraceReader(this,from,to);
+  }
+
+  /**
+   * Splits the trace into equal sized, contiguous shards.
+   * @param shards  Number of shards
+   * @return  Readers for the shards (each to be used by one thread only)
+   */
+  public TraceReader[] getShards(final int shards) {
+    final int usedShards=(int)Math.max(1,Math.min(shards,count));
+    final TraceReader[] result=new TraceReader[shards];
+    for (int i=0;i<shards;i++) {
+      final int shard=i%usedShards;
+      result[i]=getReader(count*shard/usedShards,count*(shard+1)/usedShards);
+    }
+    return result;
+  }
+
+  @Override
+  public void close() throws IOException {
+    channel.close();
+  }
+
+  /**
+   * Converts a column of a text file (e.g. a CSV file) into a binary trace file.<br>
+   * Columns can be separated by ",", ";", tabs or spaces. Empty lines, lines starting with "#"
+   * and a non-numeric header line are ignored.
+   * For {@link Format#DOUBLE} the column has to contain the times themselves, for
+   * {@link Format#DELTA_LONG} the column has to contain non-decreasing timestamps, which are
+   * divided by the scale and rounded to longs.
+   * @param input Input text file
+   * @param column  Column to be converted (1-based)
+   * @param output  Output trace file
+   * @param format  Storage format
+   * @param scale Scale factor (only used for {@link Format#DELTA_LONG})
+   * @return  Number of values in the trace file
+   * @throws IOException  Thrown if a file cannot be read or written or if the input contains invalid data
+   */
+  public static long convert(final Path input, final int column, final Path output, final Format format, final double scale) throws IOException {
+    if (column<1) throw new IOException("Column numbers start at 1");
+    if (format==Format.DELTA_LONG && !(scale>0)) throw new IOException("Scale has to be positive");
+    long entries=0;
+    try (BufferedReader reader=Files.newBufferedReader(input); FileChannel out=FileChannel.open(output,StandardOpenOption.CREATE,StandardOpenOption.TRUNCATE_EXISTING,StandardOpenOption.WRITE)) {
+      final ByteBuffer buffer=ByteBuffer.allocateDirect(WRITE_BUFFER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      out.position(HEADER_SIZE);
+      long last=Long.MIN_VALUE;
+      String line;
+      int lineNumber=0;
+      while ((line=reader.readLine())!=null) {
+        lineNumber++;
+        line=line.trim();
+        if (line.isEmpty() || line.startsWith("#")) continue;
+        final String[] cells=line.split("[,;\\t ]+");
+        if (cells.length<column) throw new IOException(String.format("Line %d has less than %d columns",lineNumber,column));
+        final double value;
+        try {
+          value=Double.parseDouble(cells[column-1].trim());
+        } catch (NumberFormatException e) {
+          if (entries==0) continue; /* Header line */
+          throw new IOException(String.format("Invalid number in line %d",lineNumber));
+        }
+        if (format==Format.DOUBLE) {
+          if (value<0 || Double.isNaN(value) || Double.isInfinite(value)) throw new IOException(String.format("Invalid time in line %d",lineNumber));
+          buffer.putDouble(value);
+        } else {
+          final long timestamp=Math.round(value/scale);
+          if (timestamp<last) throw new IOException(String.format("Timestamp in line %d is less than the previous one",lineNumber));
+          last=timestamp;
+          buffer.putLong(timestamp);
+        }
+        entries++;
+        if (!buffer.hasRemaining()) {
+          buffer.flip();
+          while (buffer.hasRemaining()) out.write(buffer);
+          buffer.clear();
+        }
+      }
+      buffer.flip();
+      while (buffer.hasRemaining()) out.write(buffer);
+
+      final long count=(format==Format.DELTA_LONG)?entries-1:entries;
+      if (count<=0) throw new IOException("Not enough values found");
+      final ByteBuffer header=ByteBuffer.allocate(HEADER_SIZE).order(ByteOrder.LITTLE_ENDIAN);
+      header.putLong(MAGIC).putInt(VERSION).putInt(format.ordinal()).putLong(count).putDouble((format==Format.DELTA_LONG)?scale:1);
+      header.flip();
+      out.position(0);
+      while (header.hasRemaining()) out.write(header);
+      return count;
+    }
+  }
+}
@@ -0,0 +1,150 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.io.IOException;
+import java.io.UncheckedIOException;
+import java.nio.ByteOrder;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.util.random.RandomGenerator;
+
+/**
+ * Sequential reader for a range of values of a {@link TraceFile}.<br>
+ * The reader can be used instead of a random number generator lambda; the random number
+ * generator passed to {@link #applyAsDouble(RandomGenerator)} is ignored.
+ * The data is memory mapped in windows (a single {@link MappedByteBuffer} is limited to 2GB),
+ * so the values are read without copying. The first window is mapped on the first access,
+ * i.e. by the thread using the reader.
+ * If all values of the range have been read, the reader starts again at the beginning of the range.
+ * Instances are not thread-safe; each thread needs its own reader.
+ */
+public class TraceReader implements BlockGenerator {
+  /**
+   * Maximum number of 8 bytes entries per mapped window
+   */
+  private static final long WINDOW_ENTRIES=1L<<24;
+
+  /**
+   * Trace file
+   */
+  private final TraceFile trace;
+
+  /**
+   * Timestamp scale (only used for {@link TraceFile.Format#DELTA_LONG})
+   */
+  private final double scale;
+
+  /**
+   * Are the values stored as timestamps?
+   */
+  private final boolean delta;
+
+  /**
+   * Index of the first entry of the range
+   */
+  private final long firstEntry;
+
+  /**
+   * Index after the last entry of the range
+   */
+  private final long endEntry;
+
+  /**
+   * Index of the next entry to be mapped
+   */
+  private long nextEntry;
+
+  /**
+   * Currently mapped window (<code>null</code> before the first access)
+   */
+  private MappedByteBuffer window;
+
+  /**
+   * Previous timestamp (only used for {@link TraceFile.Format#DELTA_LONG})
+   */
+  private long lastTimestamp;
+
+  /**
+   * Number of times the reader has started again at the beginning of the range
+   */
+  private long wraps;
+
+  /**
+   * Constructor (use {@link TraceFile#getReader(long, long)})
+   * @param trace Trace file
+   * @param from  Index of the first value (inclusive)
+   * @param to  Index of the last value (exclusive)
+   */
+  TraceReader(final TraceFile trace, final long from, final long to) {
+    this.trace=trace;
+    scale=trace.scale;
+    delta=(trace.format==TraceFile.Format.DELTA_LONG);
+    firstEntry=from;
+    endEntry=delta?(to+1):to;
+    nextEntry=firstEntry;
+  }
+
+  /**
+   * Maps the next window of the range (starting again at the beginning of the range if needed).
+   */
+  private void mapNextWindow() {
+    if (nextEntry>=endEntry) {
+      nextEntry=firstEntry;
+      wraps++;
+    }
+    final long entries=Math.min(WINDOW_ENTRIES,endEntry-nextEntry);
+    try {
+      window=trace.getChannel().map(FileChannel.MapMode.READ_ONLY,TraceFile.HEADER_SIZE+nextEntry*8,entries*8);
+    } catch (IOException e) {
+      throw new UncheckedIOException(e);
+    }
+    window.order(ByteOrder.LITTLE_ENDIAN);
+    if (delta && nextEntry==firstEntry) lastTimestamp=window.getLong();
+    nextEntry+=entries;
+  }
+
+  /**
+   * Returns the next value of the trace.
+   * @param random  Ignored
+   * @return  Next value
+   */
+  @Override
+  public double applyAsDouble(final RandomGenerator random) {
+    if (window==null || !window.hasRemaining()) mapNextWindow();
+    if (!delta) return window.getDouble();
+    final long timestamp=window.getLong();
+    final double value=(timestamp-lastTimestamp)*scale;
+    lastTimestamp=timestamp;
+    return value;
+  }
+
+  /**
+   * Returns the number of values in the range of this reader.
+   * @return  Number of values
+   */
+  public long getCount() {
+    return delta?(endEntry-firstEntry-1):(endEntry-firstEntry);
+  }
+
+  /**
+   * Returns how often the reader has started again at the beginning of its range.
+   * @return  Number of restarts
+   */
+  public long getWraps() {
+    return wraps;
+  }
+}
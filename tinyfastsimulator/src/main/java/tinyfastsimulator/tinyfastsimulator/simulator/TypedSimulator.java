@@ -0,0 +1,129 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+/**
+ * Simulator for models with a fixed set of event types.<br>
+ * Instead of a callback object, each event only carries an integer event type, which
+ * is stored in the primitive arrays of the event list. All events are passed to a
+ * single {@link EventHandler}, which dispatches them by a switch statement. So there
+ * is only one (monomorphic) interface call per event and the event list is not part
+ * of the object graph the garbage collector has to scan.<br>
+ * If the event list type supports handles (see {@link EventQueue.Type#hasHandles}), events
+ * can be cancelled or rescheduled by the handles returned by {@link #add(long, int)}.
+ * @see Simulator
+ */
+public class TypedSimulator {
+  /**
+   * List of the events waiting to be executed
+   */
+  private final EventQueue events;
+
+  /**
+   * Handler for all events
+   */
+  private final EventHandler handler;
+
+  /**
+   * Constructor
+   * @param eventListType Type of the event list
+   * @param capacityHint  Expected maximum number of events in the event list at the same time
+   * @param handler Handler for all events
+   */
+  public TypedSimulator(final EventQueue.Type eventListType, final int capacityHint, final EventHandler handler) {
+    events=EventQueue.getEventQueue(eventListType,capacityHint);
+    this.handler=handler;
+  }
+
+  /**
+   * Adds an event.
+   * @param time  Execution time
+   * @param type  Event type (passed to the event handler)
+   * @return  Handle of the event or {@link EventQueue#NO_HANDLE}, if the event list does not support handles
+   */
+  public long add(final long time, final int type) {
+    return events.add(time,type);
+  }
+
+  /**
+   * Cancels an event which has not been executed yet.
+   * @param handle  Handle of the event (as returned by {@link #add(long, int)})
+   * @return  Returns <code>false</code>, if the event has already been executed or cancelled
+   * @throws UnsupportedOperationException  The event list does not support handles
+   */
+  public boolean cancel(final long handle) {
+    return events.cancel(handle)>=0;
+  }
+
+  /**
+   * Changes the execution time of an event which has not been executed yet.
+   * @param handle  Handle of the event (as returned by {@link #add(long, int)})
+   * @param time  New execution time
+   * @return  Returns <code>false</code>, if the event has already been executed or cancelled
+   * @throws UnsupportedOperationException  The event list does not support handles
+   */
+  public boolean reschedule(final long handle, final long time) {
+    return events.reschedule(handle,time);
+  }
+
+  /**
+   * Returns the current number of events in the event list.
+   * @return  Event list size
+   */
+  public int getEventListSize() {
+    return events.size();
+  }
+
+  /**
+   * Returns the maximum number of events which have been in the event list at the same time.
+   * @return  High watermark of the event list size
+   */
+  public int getMaxEventListSize() {
+    return events.getMaxSize();
+  }
+
+  /**
+   * Removes all remaining events.<br>
+   * Can be called from the event handler to end the simulation immediately.
+   */
+  public void clear() {
+    while (events.size()>0) events.poll();
+  }
+
+  /**
+   * Executes all events.
+   * @param showProgress  Show simulation progress
+   * @return  Runtime in ms
+   */
+  public long run(final boolean showProgress) {
+    final long start=System.currentTimeMillis();
+
+    long count=0;
+    final EventQueue events=this.events;
+    final EventHandler handler=this.handler;
+    while (events.size()>0) {
+      final long time=events.nextTime();
+      final int type=events.poll();
+      handler.handleEvent(type,time);
+
+      if (showProgress && count%1000000==0) System.out.print(".");
+      count++;
+    }
+    if (showProgress) System.out.println("");
+
+    return System.currentTimeMillis()-start;
+  }
+}
@@ -0,0 +1,164 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import jdk.incubator.vector.DoubleVector;
+import jdk.incubator.vector.VectorMask;
+import jdk.incubator.vector.VectorOperators;
+import jdk.incubator.vector.VectorSpecies;
+
+/**
+ * Transformations of blocks of numbers and lockstep queue recursions using the Vector API (<code>jdk.incubator.vector</code>).<br>
+ * This class may only be used if {@link RandomNumbers#VECTOR_API} is <code>true</code>, i.e. if the
+ * JVM was started with <code>--add-modules jdk.incubator.vector</code>; otherwise loading
+ * the class fails.
+ */
+public final class VectorMath {
+  /**
+   * Preferred vector shape of the current CPU
+   */
+  private static final VectorSpecies<Double> SPECIES=DoubleVector.SPECIES_PREFERRED;
+
+  /**
+   * 2^52: Adding and subtracting this value rounds a non-negative double below 2^52 to an integer
+   */
+  private static final double ROUND_OFFSET=0x1p52;
+
+  /**
+   * Constructor (not used, only static methods)
+   */
+  private VectorMath() {
+  }
+
+  /**
+   * Calculates block[i]=exp(a+b*block[i]) for all elements.
+   * @param block Block to be transformed
+   * @param a Offset
+   * @param b Factor
+   */
+  public static void expAffine(final double[] block, final double a, final double b) {
+    final int bound=SPECIES.loopBound(block.length);
+    int i=0;
+    for (;i<bound;i+=SPECIES.length()) {
+      DoubleVector.fromArray(SPECIES,block,i).fma(b,a).lanewise(VectorOperators.EXP).intoArray(block,i);
+    }
+    for (;i<block.length;i++) block[i]=Math.exp(a+b*block[i]);
+  }
+
+  /**
+   * Returns the number of double lanes of the preferred vector shape.
+   * @return  Number of lanes (e.g. 4 for AVX2, 8 for AVX-512)
+   */
+  public static int getLaneCount() {
+    return SPECIES.length();
+  }
+
+  /**
+   * Calculates Math.round(x) for non-negative x below 2^52 (as floor(x+0.5)).
+   * @param x Values to be rounded
+   * @return  Rounded values (as doubles)
+   */
+  private static DoubleVector round(final DoubleVector x) {
+    final DoubleVector shifted=x.add(0.5);
+    final DoubleVector rounded=shifted.add(ROUND_OFFSET).sub(ROUND_OFFSET);
+    final VectorMask<Double> roundedUp=rounded.compare(VectorOperators.GT,shifted);
+    return rounded.sub(1.0,roundedUp);
+  }
+
+  /**
+   * Advances {@link #getLaneCount()} independent FIFO G/G/c queues in lockstep by the
+   * Kiefer-Wolfowitz recursion (one queue per lane).<br>
+   * All times are multiples of the internal time unit stored in doubles (exact up to 2^53 units),
+   * so the results are the same as with <code>long</code> times.
+   * The arrays are interleaved: value k of lane i is stored at index k*lanes+i.
+   * @param c Number of operators
+   * @param timeFactor  Number of internal time units per time unit
+   * @param interArrivalTimes Inter-arrival times (in time units)
+   * @param serviceTimes  Service times (in time units)
+   * @param from  Index of the first client to be simulated
+   * @param to  Index after the last client to be simulated
+   * @param clock Arrival times of the last clients (in internal time units; updated)
+   * @param free  Times at which the operators become available (in internal time units; operator j of lane i at index j*lanes+i; ascending for each lane; updated)
+   * @param waitingTimes  Output array for the waiting times (in time units)
+   */
+  public static void kieferWolfowitz(final int c, final double timeFactor, final double[] interArrivalTimes, final double[] serviceTimes, final int from, final int to, final double[] clock, final double[] free, final double[] waitingTimes) {
+    final int lanes=SPECIES.length();
+    DoubleVector time=DoubleVector.fromArray(SPECIES,clock,0);
+    if (c==1) {
+      /* Lindley recursion: the availability time is kept in a register */
+      DoubleVector available=DoubleVector.fromArray(SPECIES,free,0);
+      for (int k=from;k<to;k++) {
+        final int index=k*lanes;
+        time=time.add(round(DoubleVector.fromArray(SPECIES,interArrivalTimes,index).mul(timeFactor)));
+        final DoubleVector serviceTime=DoubleVector.fromArray(SPECIES,serviceTimes,index);
+        final DoubleVector start=time.max(available);
+        available=start.add(round(serviceTime.mul(timeFactor)));
+        start.sub(time).div(timeFactor).intoArray(waitingTimes,index);
+      }
+      available.intoArray(free,0);
+    } else {
+      for (int k=from;k<to;k++) {
+        final int index=k*lanes;
+        time=time.add(round(DoubleVector.fromArray(SPECIES,interArrivalTimes,index).mul(timeFactor)));
+        final DoubleVector serviceTime=DoubleVector.fromArray(SPECIES,serviceTimes,index);
+        final DoubleVector start=time.max(DoubleVector.fromArray(SPECIES,free,0));
+        /* Insert the end of the service into the sorted availability times (replacing the smallest one) */
+        DoubleVector insert=start.add(round(serviceTime.mul(timeFactor)));
+        for (int j=1;j<c;j++) {
+          final DoubleVector next=DoubleVector.fromArray(SPECIES,free,j*lanes);
+          insert.min(next).intoArray(free,(j-1)*lanes);
+          insert=insert.max(next);
+        }
+        insert.intoArray(free,(c-1)*lanes);
+        start.sub(time).div(timeFactor).intoArray(waitingTimes,index);
+      }
+    }
+    time.intoArray(clock,0);
+  }
+
+  /**
+   * Calculates the sums of the deviations from the first value, the sums of the squared deviations, minima and maxima
+   * of interleaved values for each of the {@link #getLaneCount()} lanes (see {@link StatisticsData#addBlock(long, double, double, double, double, double)}).
+   * @param values  Values (value k of lane i at index k*lanes+i)
+   * @param addend  Values to be added to the values before the calculation (same layout; can be <code>null</code>)
+   * @param from  Index of the first value
+   * @param to  Index after the last value (has to be larger than <code>from</code>)
+   * @param result  Output array: sums at [0,lanes), sums of the squares at [lanes,2*lanes), minima at [2*lanes,3*lanes), maxima at [3*lanes,4*lanes), reference values (first values) at [4*lanes,5*lanes)
+   */
+  public static void laneSums(final double[] values, final double[] addend, final int from, final int to, final double[] result) {
+    final int lanes=SPECIES.length();
+    DoubleVector reference=DoubleVector.fromArray(SPECIES,values,from*lanes);
+    if (addend!=null) reference=reference.add(DoubleVector.fromArray(SPECIES,addend,from*lanes));
+    DoubleVector sum=DoubleVector.zero(SPECIES);
+    DoubleVector sumSquares=DoubleVector.zero(SPECIES);
+    DoubleVector min=DoubleVector.broadcast(SPECIES,Double.POSITIVE_INFINITY);
+    DoubleVector max=DoubleVector.broadcast(SPECIES,Double.NEGATIVE_INFINITY);
+    for (int k=from;k<to;k++) {
+      DoubleVector value=DoubleVector.fromArray(SPECIES,values,k*lanes);
+      if (addend!=null) value=value.add(DoubleVector.fromArray(SPECIES,addend,k*lanes));
+      final DoubleVector deviation=value.sub(reference);
+      sum=sum.add(deviation);
+      sumSquares=deviation.fma(deviation,sumSquares);
+      min=min.min(value);
+      max=max.max(value);
+    }
+    sum.intoArray(result,0);
+    sumSquares.intoArray(result,lanes);
+    min.intoArray(result,2*lanes);
+    max.intoArray(result,3*lanes);
+    reference.intoArray(result,4*lanes);
+  }
+}
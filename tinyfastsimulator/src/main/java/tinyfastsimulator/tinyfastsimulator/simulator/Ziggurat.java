@@ -0,0 +1,172 @@
+/**
+ * Copyright 2025 Alexander Herzog
+ *
+ * Licensed under the Apache License, Version 2.0 (the "License");
+ * you may not use this file except in compliance with the License.
+ * You may obtain a copy of the License at
+ *
+ * http://www.apache.org/licenses/LICENSE-2.0
+ *
+ * Unless required by applicable law or agreed to in writing, software
+ * distributed under the License is distributed on an "AS IS" BASIS,
+ * WITHOUT WARRANTIES OR CONDITIONS OF ANY KIND, either express or implied.
+ * See the License for the specific language governing permissions and
+ * limitations under the License.
+ */
+package tinyfastsimulator.tinyfastsimulator.simulator;
+
+import java.util.random.RandomGenerator;
+
+/**
+ * Ziggurat method (Marsaglia and Tsang, 2000, with the improvements by Doornik, 2005)
+ * for generating standard normal and standard exponential distributed pseudo random numbers.<br>
+ * In about 99% of all draws only one 64 bit random number, one table lookup and one
+ * multiplication are needed (no logarithm, no square root). The low bits of the random
+ * number select the layer, the upper 53 bits give the uniform position within the layer.
+ */
+public class Ziggurat {
+  /**
+   * Number of layers for the normal distribution
+   */
+  private static final int NORMAL_LAYERS=128;
+
+  /**
+   * Start of the tail of the normal distribution
+   */
+  private static final double NORMAL_R=3.442619855899;
+
+  /**
+   * Area of each layer of the normal distribution
+   */
+  private static final double NORMAL_V=9.91256303526217e-3;
+
+  /**
+   * Number of layers for the exponential distribution
+   */
+  private static final int EXP_LAYERS=256;
+
+  /**
+   * Start of the tail of the exponential distribution
+   */
+  private static final double EXP_R=7.69711747013104972;
+
+  /**
+   * Area of each layer of the exponential distribution
+   */
+  private static final double EXP_V=3.949659822581572e-3;
+
+  /**
+   * Factor for converting 53 random bits into a double on [0,1)
+   */
+  private static final double DOUBLE_UNIT=0x1.0p-53;
+
+  /**
+   * Right edges of the layers of the normal distribution
+   */
+  private static final double[] normalX=new double[NORMAL_LAYERS+1];
+
+  /**
+   * Ratios of the right edges of the next and the current layer (normal distribution)
+   */
+  private static final double[] normalRatio=new double[NORMAL_LAYERS];
+
+  /**
+   * Right edges of the layers of the exponential distribution
+   */
+  private static final double[] expX=new double[EXP_LAYERS+1];
+
+  /**
+   * Ratios of the right edges of the next and the current layer (exponential distribution)
+   */
+  private static final double[] expRatio=new double[EXP_LAYERS];
+
+  static {
+    double f=Math.exp(-0.5*NORMAL_R*NORMAL_R);
+    normalX[0]=NORMAL_V/f;
+    normalX[1]=NORMAL_R;
+    for (int i=2;i<NORMAL_LAYERS;i++) {
+      normalX[i]=Math.sqrt(-2*Math.log(NORMAL_V/normalX[i-1]+f));
+      f=Math.exp(-0.5*normalX[i]*normalX[i]);
+    }
+    normalX[NORMAL_LAYERS]=0;
+    for (int i=0;i<NORMAL_LAYERS;i++) normalRatio[i]=normalX[i+1]/normalX[i];
+
+    f=Math.exp(-EXP_R);
+    expX[0]=EXP_V/f;
+    expX[1]=EXP_R;
+    for (int i=2;i<EXP_LAYERS;i++) {
+      expX[i]=-Math.log(EXP_V/expX[i-1]+f);
+      f=Math.exp(-expX[i]);
+    }
+    expX[EXP_LAYERS]=0;
+    for (int i=0;i<EXP_LAYERS;i++) expRatio[i]=expX[i+1]/expX[i];
+  }
+
+  /**
+   * Private constructor - This class cannot be instanced.
+   */
+  private Ziggurat() {
+  }
+
+  /**
+   * Returns a pseudo random number on (0,1] (suitable as argument for <code>Math.log</code>).
+   * @param random  Pseudo random numbers generator
+   * @return  Pseudo random number on (0,1]
+   */
+  private static double nextOpenDouble(final RandomGenerator random) {
+    return 1-random.nextDouble();
+  }
+
+  /**
+   * Generates a standard normal distributed pseudo random number (mean 0, standard deviation 1).
+   * @param random  Pseudo random numbers generator
+   * @return  Pseudo random number
+   */
+  public static double normal(final RandomGenerator random) {
+    while (true) {
+      final long bits=random.nextLong();
+      final int i=(int)(bits&(NORMAL_LAYERS-1));
+      final double u=2*((bits>>>11)*DOUBLE_UNIT)-1;
+      if (Math.abs(u)<normalRatio[i]) return u*normalX[i];
+      if (i==0) return normalTail(random,u<0);
+      final double x=u*normalX[i];
+      final double f0=Math.exp(-0.5*(normalX[i]*normalX[i]-x*x));
+      final double f1=Math.exp(-0.5*(normalX[i+1]*normalX[i+1]-x*x));
+      if (f1+random.nextDouble()*(f0-f1)<1.0) return x;
+    }
+  }
+
+  /**
+   * Generates a pseudo random number from the tail of the normal distribution (Marsaglia's tail method).
+   * @param random  Pseudo random numbers generator
+   * @param negative  Generate a number from the negative tail?
+   * @return  Pseudo random number with absolute value &ge; {@link #NORMAL_R}
+   */
+  private static double normalTail(final RandomGenerator random, final boolean negative) {
+    double x, y;
+    do {
+      x=Math.log(nextOpenDouble(random))/NORMAL_R;
+      y=Math.log(nextOpenDouble(random));
+    } while (-2*y<x*x);
+    return negative?(x-NORMAL_R):(NORMAL_R-x);
+  }
+
+  /**
+   * Generates a standard exponential distributed pseudo random number (mean 1).
+   * @param random  Pseudo random numbers generator
+   * @return  Pseudo random number
+   */
+  public static double exponential(final RandomGenerator random) {
+    while (true) {
+      final long bits=random.nextLong();
+      final int i=(int)(bits&(EXP_LAYERS-1));
+      final double u=(bits>>>11)*DOUBLE_UNIT;
+      if (u<expRatio[i]) return u*expX[i];
+      if (i==0) return EXP_R-Math.log(nextOpenDouble(random)); /* Exponential distribution is memoryless */
+      final double x=u*expX[i];
+      final double f0=Math.exp(-(expX[i]-x));
+      final double f1=Math.exp(-(expX[i+1]-x));
+      if (f1+random.nextDouble()*(f0-f1)<1.0) return x;
+    }
+  }
+}